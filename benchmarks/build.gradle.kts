@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+plugins {
+    java
+    id("yubikit-spotless")
+}
+
+dependencies {
+    implementation(project(":core"))
+    implementation(project(":desktop"))
+    implementation(project(":fido"))
+    implementation(project(":oath"))
+    implementation(project(":piv"))
+    implementation(project(":testing-simulator"))
+
+    implementation(libs.jmh.core)
+    // Mocked PC/SC and HID backends for the desktop discovery benchmark
+    implementation(libs.mockito)
+    annotationProcessor(libs.jmh.generator.annprocess)
+
+    // AESCMAC, used by SCP, is not available from the default JDK providers
+    implementation(libs.bcpkix.jdk15to18)
+    runtimeOnly(libs.slf4j.nop)
+}
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks and writes the results to build/results/jmh."
+    group = "verification"
+    mainClass.set("org.openjdk.jmh.Main")
+    classpath = sourceSets.main.get().runtimeClasspath
+
+    // Benchmarks to run can be narrowed with -Pjmh.includes=<regexp>
+    project.findProperty("jmh.includes")?.let { args(it.toString()) }
+    args("-rf", "json", "-rff", jmhResults.get().asFile.absolutePath)
+
+    outputs.file(jmhResults)
+    outputs.upToDateWhen { false }
+    doFirst { jmhResults.get().asFile.parentFile.mkdirs() }
+}
+
+description = "JMH benchmarks for the protocol encoders and parsers. Not published."
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.util.RandomUtils;
+import com.yubico.yubikit.fido.Cbor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Canonical CBOR encoding and decoding of CTAP2 shaped messages. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CborBenchmark {
+  private Map<Integer, Object> makeCredential;
+  private byte[] makeCredentialEncoded;
+  private byte[] getInfoEncoded;
+
+  @Setup
+  public void setup() {
+    Map<String, Object> rp = new HashMap<>();
+    rp.put("id", "example.com");
+    rp.put("name", "Example");
+
+    Map<String, Object> user = new HashMap<>();
+    user.put("id", RandomUtils.getRandomBytes(32));
+    user.put("name", "user@example.com");
+    user.put("displayName", "Example User");
+
+    List<Map<String, Object>> params = new ArrayList<>();
+    for (int alg : new int[] {-7, -8, -257}) {
+      Map<String, Object> param = new HashMap<>();
+      param.put("type", "public-key");
+      param.put("alg", alg);
+      params.add(param);
+    }
+
+    List<Map<String, Object>> excludeList = new ArrayList<>();
+    for (int i = 0; i < 32; i++) {
+      Map<String, Object> descriptor = new HashMap<>();
+      descriptor.put("type", "public-key");
+      descriptor.put("id", RandomUtils.getRandomBytes(64));
+      excludeList.add(descriptor);
+    }
+
+    makeCredential = new HashMap<>();
+    makeCredential.put(1, RandomUtils.getRandomBytes(32));
+    makeCredential.put(2, rp);
+    makeCredential.put(3, user);
+    makeCredential.put(4, params);
+    makeCredential.put(5, excludeList);
+    makeCredential.put(8, RandomUtils.getRandomBytes(32));
+    makeCredential.put(9, 2);
+    makeCredentialEncoded = Cbor.encode(makeCredential);
+
+    Map<String, Object> options = new HashMap<>();
+    options.put("rk", true);
+    options.put("up", true);
+    options.put("clientPin", true);
+    options.put("credMgmt", true);
+    options.put("largeBlobs", true);
+
+    Map<Integer, Object> info = new HashMap<>();
+    info.put(1, Arrays.asList("U2F_V2", "FIDO_2_0", "FIDO_2_1"));
+    info.put(2, Arrays.asList("credProtect", "hmac-secret", "largeBlobKey", "credBlob"));
+    info.put(3, RandomUtils.getRandomBytes(16));
+    info.put(4, options);
+    info.put(5, 1200);
+    info.put(6, Arrays.asList(2, 1));
+    info.put(7, 8);
+    info.put(8, 128);
+    info.put(9, Arrays.asList("usb", "nfc"));
+    info.put(10, params);
+    info.put(11, 1024);
+    info.put(14, 328451);
+    getInfoEncoded = Cbor.encode(info);
+  }
+
+  @Benchmark
+  public byte[] encodeMakeCredential() {
+    return Cbor.encode(makeCredential);
+  }
+
+  @Benchmark
+  public @Nullable Object decodeMakeCredential() {
+    return Cbor.decode(makeCredentialEncoded);
+  }
+
+  @Benchmark
+  public @Nullable Object decodeGetInfo() {
+    return Cbor.decode(getInfoEncoded);
+  }
+
+  @Benchmark
+  public @Nullable Object decodeGetInfoLazy() {
+    // Reads a single field, as done when only checking for a supported version. Parsing InfoData
+    // reads nearly every field, and gains little over decodeGetInfo.
+    return Cbor.decodeMap(getInfoEncoded, 0, getInfoEncoded.length).get(1);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.otp.Modhex;
+import com.yubico.yubikit.core.util.RandomUtils;
+import com.yubico.yubikit.oath.Base32;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Base32 (OATH secrets) and Modhex (Yubico OTP) text codecs. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+  private byte[] secret;
+  private String base32;
+  private byte[] otp;
+  private String modhex;
+
+  @Setup
+  public void setup() {
+    secret = RandomUtils.getRandomBytes(20);
+    base32 = Base32.encode(secret);
+    otp = RandomUtils.getRandomBytes(22);
+    modhex = Modhex.encode(otp);
+  }
+
+  @Benchmark
+  public String base32Encode() {
+    return Base32.encode(secret);
+  }
+
+  @Benchmark
+  public byte[] base32Decode() {
+    return Base32.decode(base32);
+  }
+
+  @Benchmark
+  public String modhexEncode() {
+    return Modhex.encode(otp);
+  }
+
+  @Benchmark
+  public byte[] modhexDecode() {
+    return Modhex.decode(modhex);
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.UsbPid;
+import com.yubico.yubikit.core.smartcard.SmartCardConnection;
+import com.yubico.yubikit.desktop.DesktopDeviceRecord;
+import com.yubico.yubikit.desktop.YubiKitManager;
+import com.yubico.yubikit.desktop.hid.HidManager;
+import com.yubico.yubikit.desktop.pcsc.PcscManager;
+import com.yubico.yubikit.desktop.pcsc.UsbPcscDevice;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serial vs parallel device discovery in YubiKitManager, over mocked PC/SC and HID backends.
+ *
+ * <p>Each mocked YubiKey exposes a single CCID interface, and answers every APDU after a fixed
+ * delay to simulate the USB round trip. Reading the DeviceInfo of a device takes two APDUs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceDiscoveryBenchmark {
+  private static final long APDU_LATENCY_MILLIS = 5;
+
+  @Param({"1", "4", "8"})
+  public int deviceCount;
+
+  private ExecutorService executor;
+  private YubiKitManager serialManager;
+  private YubiKitManager parallelManager;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    List<UsbPcscDevice> devices = new ArrayList<>();
+    for (int i = 0; i < deviceCount; i++) {
+      int serial = 10000000 + i;
+      UsbPcscDevice device = mock(UsbPcscDevice.class);
+      when(device.getPid()).thenReturn(UsbPid.YK4_CCID);
+      when(device.getFingerprint()).thenReturn("Yubico YubiKey CCID " + i);
+      when(device.openConnection(SmartCardConnection.class))
+          .thenAnswer(invocation -> new DelayedConnection(serial));
+      devices.add(device);
+    }
+    PcscManager pcscManager = mock(PcscManager.class);
+    when(pcscManager.getDevices()).thenReturn(devices);
+    HidManager hidManager = mock(HidManager.class);
+
+    executor = Executors.newFixedThreadPool(8);
+    serialManager = new YubiKitManager(pcscManager, hidManager);
+    parallelManager = new YubiKitManager(pcscManager, hidManager, executor, 1000);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public List<DesktopDeviceRecord> serial() {
+    return serialManager.listDeviceRecords();
+  }
+
+  @Benchmark
+  public List<DesktopDeviceRecord> parallel() {
+    return parallelManager.listDeviceRecords();
+  }
+
+  /** Answers SELECT with a version string and READ CONFIG with a DeviceInfo holding a serial. */
+  private static final class DelayedConnection implements SmartCardConnection {
+    private static final byte INS_SELECT = (byte) 0xa4;
+    private static final byte INS_READ_CONFIG = 0x1d;
+
+    private final int serial;
+
+    DelayedConnection(int serial) {
+      this.serial = serial;
+    }
+
+    @Override
+    public byte[] sendAndReceive(byte[] apdu) throws IOException {
+      try {
+        Thread.sleep(APDU_LATENCY_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      if (apdu[1] == INS_SELECT) {
+        return ByteBuffer.allocate(7)
+            .put("5.7.2".getBytes(StandardCharsets.US_ASCII))
+            .put((byte) 0x90)
+            .put((byte) 0x00)
+            .array();
+      } else if (apdu[1] == INS_READ_CONFIG) {
+        return ByteBuffer.allocate(13)
+            .put((byte) 10) // length of the TLVs
+            .put(new byte[] {0x01, 0x02, 0x02, 0x3b}) // USB supported
+            .put(new byte[] {0x02, 0x04})
+            .putInt(serial)
+            .put((byte) 0x90)
+            .put((byte) 0x00)
+            .array();
+      }
+      return new byte[] {0x6d, 0x00};
+    }
+
+    @Override
+    public Transport getTransport() {
+      return Transport.USB;
+    }
+
+    @Override
+    public boolean isExtendedLengthApduSupported() {
+      return false;
+    }
+
+    @Override
+    public byte[] getAtr() {
+      return new byte[0];
+    }
+
+    @Override
+    public void close() {}
+  }
+}
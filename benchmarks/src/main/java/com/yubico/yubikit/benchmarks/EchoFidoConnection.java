@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.fido.FidoConnection;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * In-memory FidoConnection implementing CTAPHID framing, which echoes the payload of every request
+ * back in its response.
+ *
+ * <p>CTAPHID_INIT is answered with a fixed channel ID so that a FidoProtocol can be created on it.
+ */
+final class EchoFidoConnection implements FidoConnection {
+  private static final byte CTAPHID_INIT = (byte) 0x86;
+  private static final int CHANNEL_ID = 0x01020304;
+  private static final int INIT_HEADER = 7;
+  private static final int CONT_HEADER = 5;
+
+  private final Deque<byte[]> responses = new ArrayDeque<>();
+  private byte cmd;
+  private ByteBuffer request = ByteBuffer.allocate(0);
+
+  @Override
+  public void send(byte[] packet) {
+    ByteBuffer buf = ByteBuffer.wrap(packet);
+    int channelId = buf.getInt();
+    byte b = buf.get();
+    if ((b & 0x80) != 0) {
+      cmd = b;
+      request = ByteBuffer.allocate(buf.getShort() & 0xffff);
+    }
+    request.put(packet, buf.position(), Math.min(buf.remaining(), request.remaining()));
+    if (!request.hasRemaining()) {
+      byte[] payload = request.array();
+      if (cmd == CTAPHID_INIT) {
+        payload =
+            ByteBuffer.allocate(17)
+                .put(payload, 0, 8) // nonce
+                .putInt(CHANNEL_ID)
+                .put((byte) 2) // CTAPHID protocol version
+                .put(new byte[] {5, 7, 0}) // device version
+                .put((byte) 0x05) // WINK | CBOR
+                .array();
+      }
+      queueResponse(channelId, payload);
+    }
+  }
+
+  @Override
+  public void receive(byte[] packet) throws IOException {
+    byte[] response = responses.poll();
+    if (response == null) {
+      throw new IOException("No response queued");
+    }
+    System.arraycopy(response, 0, packet, 0, PACKET_SIZE);
+  }
+
+  @Override
+  public void close() {}
+
+  private void queueResponse(int channelId, byte[] payload) {
+    ByteBuffer packet = ByteBuffer.allocate(PACKET_SIZE);
+    packet.putInt(channelId).put(cmd).putShort((short) payload.length);
+    int offset = Math.min(payload.length, PACKET_SIZE - INIT_HEADER);
+    packet.put(payload, 0, offset);
+    responses.add(packet.array());
+    byte seq = 0;
+    while (offset < payload.length) {
+      int length = Math.min(payload.length - offset, PACKET_SIZE - CONT_HEADER);
+      packet = ByteBuffer.allocate(PACKET_SIZE);
+      packet.putInt(channelId).put(seq++).put(payload, offset, length);
+      responses.add(packet.array());
+      offset += length;
+    }
+    Arrays.fill(request.array(), (byte) 0);
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.fido.FidoProtocol;
+import com.yubico.yubikit.core.util.RandomUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** CTAPHID framing of a CBOR request and its response, over an in-memory connection. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FidoProtocolBenchmark {
+  private static final byte CTAPHID_CBOR = (byte) 0x90;
+
+  @Param({"64", "1024", "7609"})
+  public int size;
+
+  private FidoProtocol protocol;
+  private byte[] payload;
+
+  @Setup
+  public void setup() throws Exception {
+    protocol = new FidoProtocol(new EchoFidoConnection());
+    payload = RandomUtils.getRandomBytes(size);
+  }
+
+  @Benchmark
+  public byte[] sendAndReceive() throws Exception {
+    return protocol.sendAndReceive(CTAPHID_CBOR, payload, null);
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.util.Result;
+import com.yubico.yubikit.piv.jca.PivProvider;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup cost of creating a PivProvider, measured once per fresh JVM.
+ *
+ * <p>{@code eagerRsaKeyGeneration} reproduces the RSA dummy key generation which the PivProvider
+ * constructor used to do, as a baseline.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class PivProviderBenchmark {
+
+  @Benchmark
+  public PivProvider construct() {
+    return new PivProvider(
+        callback -> callback.invoke(Result.failure(new UnsupportedOperationException())));
+  }
+
+  @Benchmark
+  public KeyPair[] eagerRsaKeyGeneration() throws NoSuchAlgorithmException {
+    KeyPairGenerator rsaGen = KeyPairGenerator.getInstance("RSA");
+    int[] bitLengths = {1024, 2048, 3072, 4096};
+    KeyPair[] keyPairs = new KeyPair[bitLengths.length];
+    for (int i = 0; i < bitLengths.length; i++) {
+      rsaGen.initialize(bitLengths[i]);
+      keyPairs[i] = rsaGen.generateKeyPair();
+    }
+    return keyPairs;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.smartcard.scp.ScpState;
+import com.yubico.yubikit.core.smartcard.scp.SessionKeys;
+import com.yubico.yubikit.core.util.RandomUtils;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Secure messaging wrapping of a single command, as done by ScpProcessor for every APDU.
+ *
+ * <p>The {@code uncached} benchmarks reproduce the former behavior of ScpState, which looked up and
+ * initialized a new Cipher or Mac for every call, as a baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScpStateBenchmark {
+  @Param({"16", "256"})
+  public int size;
+
+  private ScpState state;
+  private SecretKey senc;
+  private SecretKey smac;
+  private byte[] macChain;
+  private int encCounter = 1;
+  private byte[] data;
+
+  @Setup
+  public void setup() {
+    if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+      Security.addProvider(new BouncyCastleProvider());
+    }
+    senc = aesKey();
+    smac = aesKey();
+    macChain = RandomUtils.getRandomBytes(16);
+    state = new ScpState(new SessionKeys(senc, smac, aesKey(), null), macChain);
+    data = RandomUtils.getRandomBytes(size);
+  }
+
+  @Benchmark
+  public byte[] encrypt() {
+    return state.encrypt(data);
+  }
+
+  @Benchmark
+  public byte[] mac() {
+    return state.mac(data);
+  }
+
+  @Benchmark
+  public byte[] encryptUncached() throws GeneralSecurityException {
+    int padLen = 16 - (data.length % 16);
+    byte[] padded = Arrays.copyOf(data, data.length + padLen);
+    padded[data.length] = (byte) 0x80;
+
+    @SuppressWarnings("GetInstance")
+    Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
+    cipher.init(Cipher.ENCRYPT_MODE, senc);
+    byte[] ivData = ByteBuffer.allocate(16).put(new byte[12]).putInt(encCounter++).array();
+    byte[] iv = cipher.doFinal(ivData);
+
+    cipher = Cipher.getInstance("AES/CBC/NoPadding");
+    cipher.init(Cipher.ENCRYPT_MODE, senc, new IvParameterSpec(iv));
+    return cipher.doFinal(padded);
+  }
+
+  @Benchmark
+  public byte[] macUncached() throws GeneralSecurityException {
+    Mac mac = Mac.getInstance("AESCMAC");
+    mac.init(smac);
+    mac.update(macChain);
+    macChain = mac.doFinal(data);
+    return Arrays.copyOf(macChain, 8);
+  }
+
+  private static SecretKeySpec aesKey() {
+    return new SecretKeySpec(RandomUtils.getRandomBytes(16), "AES");
+  }
+}
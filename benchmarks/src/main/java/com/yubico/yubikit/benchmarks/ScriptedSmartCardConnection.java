@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.smartcard.SmartCardConnection;
+import java.util.Arrays;
+
+/**
+ * In-memory SmartCardConnection which answers every command with the same response.
+ *
+ * <p>Chained command frames (CLA bit 0x10) are acknowledged with 9000. The response is split into
+ * frames of at most 256 bytes, using 61XX and GET RESPONSE (INS C0) to chain them, the same way a
+ * YubiKey does for short APDUs.
+ */
+final class ScriptedSmartCardConnection implements SmartCardConnection {
+  private static final byte[] SW_OK = {(byte) 0x90, 0x00};
+  private static final int MAX_RESPONSE_FRAME = 256;
+
+  private final boolean extendedLengthApdus;
+  private final byte[] response;
+  private int responseOffset;
+
+  ScriptedSmartCardConnection(boolean extendedLengthApdus, byte[] response) {
+    this.extendedLengthApdus = extendedLengthApdus;
+    this.response = response;
+  }
+
+  @Override
+  public byte[] sendAndReceive(byte[] apdu) {
+    if ((apdu[0] & 0x10) != 0) {
+      return SW_OK;
+    }
+    if (apdu[1] != (byte) 0xc0) {
+      responseOffset = 0;
+    }
+    int remaining = response.length - responseOffset;
+    int length = extendedLengthApdus ? remaining : Math.min(remaining, MAX_RESPONSE_FRAME);
+    byte[] frame = Arrays.copyOfRange(response, responseOffset, responseOffset + length + 2);
+    responseOffset += length;
+    remaining -= length;
+    if (remaining > 0) {
+      frame[length] = 0x61;
+      frame[length + 1] = (byte) Math.min(remaining, 0xff);
+    } else {
+      frame[length] = SW_OK[0];
+      frame[length + 1] = SW_OK[1];
+    }
+    return frame;
+  }
+
+  @Override
+  public Transport getTransport() {
+    return Transport.USB;
+  }
+
+  @Override
+  public boolean isExtendedLengthApduSupported() {
+    return extendedLengthApdus;
+  }
+
+  @Override
+  public byte[] getAtr() {
+    return new byte[0];
+  }
+
+  @Override
+  public void close() {}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.util.RandomUtils;
+import com.yubico.yubikit.oath.Code;
+import com.yubico.yubikit.oath.Credential;
+import com.yubico.yubikit.oath.CredentialData;
+import com.yubico.yubikit.oath.HashAlgorithm;
+import com.yubico.yubikit.oath.OathSession;
+import com.yubico.yubikit.oath.OathType;
+import com.yubico.yubikit.piv.KeyType;
+import com.yubico.yubikit.piv.ObjectId;
+import com.yubico.yubikit.piv.PinPolicy;
+import com.yubico.yubikit.piv.PivSession;
+import com.yubico.yubikit.piv.Slot;
+import com.yubico.yubikit.piv.TouchPolicy;
+import com.yubico.yubikit.simulator.Latency;
+import com.yubico.yubikit.simulator.YubiKeySimulator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PivSession and OathSession operations against the in-process YubiKey simulator.
+ *
+ * <p>{@code latency} selects the per-APDU delay the simulator adds, so that the cost of the number
+ * of round trips each operation makes over USB or NFC can be compared. With {@code NONE} only the
+ * SDK and the simulated applets are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulatorSessionBenchmark {
+  private static final byte[] DEFAULT_MANAGEMENT_KEY = {
+    1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4, 5, 6, 7, 8
+  };
+  private static final int OATH_CREDENTIALS = 16;
+
+  @Param({"NONE", "USB", "NFC"})
+  public String latency;
+
+  @Param({"false", "true"})
+  public boolean extended;
+
+  private PivSession piv;
+  private OathSession oath;
+  private byte[] hash;
+
+  @Setup
+  public void setup() throws Exception {
+    Latency delay = getLatency(latency);
+
+    // Each session has its own device, as selecting one application deselects the other
+    piv = new PivSession(new YubiKeySimulator().openConnection(Transport.USB, delay, extended));
+    piv.authenticate(DEFAULT_MANAGEMENT_KEY);
+    piv.generateKey(Slot.AUTHENTICATION, KeyType.ECCP256, PinPolicy.ONCE, TouchPolicy.NEVER);
+    piv.putObject(ObjectId.AUTHENTICATION, RandomUtils.getRandomBytes(2048));
+    piv.verifyPin("123456".toCharArray());
+    hash = RandomUtils.getRandomBytes(32);
+
+    oath = new OathSession(new YubiKeySimulator().openConnection(Transport.USB, delay, extended));
+    for (int i = 0; i < OATH_CREDENTIALS; i++) {
+      oath.putCredential(
+          new CredentialData(
+              "account" + i,
+              OathType.TOTP,
+              HashAlgorithm.SHA1,
+              RandomUtils.getRandomBytes(20),
+              6,
+              30,
+              0,
+              "Issuer"),
+          false);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    piv.close();
+    oath.close();
+  }
+
+  @Benchmark
+  public byte[] pivSign() throws Exception {
+    return piv.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, hash);
+  }
+
+  @Benchmark
+  public byte[] pivGetObject() throws Exception {
+    return piv.getObject(ObjectId.AUTHENTICATION);
+  }
+
+  @Benchmark
+  public Map<Credential, Code> oathCalculateCodes() throws Exception {
+    return oath.calculateCodes();
+  }
+
+  private static Latency getLatency(String name) {
+    switch (name) {
+      case "USB":
+        return Latency.USB;
+      case "NFC":
+        return Latency.NFC;
+      default:
+        return Latency.NONE;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.Version;
+import com.yubico.yubikit.core.smartcard.Apdu;
+import com.yubico.yubikit.core.smartcard.SmartCardProtocol;
+import com.yubico.yubikit.core.util.RandomUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * APDU encoding, command chaining and response chaining through SmartCardProtocol, over an
+ * in-memory connection.
+ *
+ * <p>With {@code extended} set the protocol uses extended length APDUs, otherwise short APDUs with
+ * command and response chaining.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmartCardProtocolBenchmark {
+  @Param({"false", "true"})
+  public boolean extended;
+
+  @Param({"32", "2048"})
+  public int size;
+
+  private SmartCardProtocol protocol;
+  private Apdu command;
+  private Apdu smallCommand;
+
+  @Setup
+  public void setup() throws Exception {
+    byte[] data = RandomUtils.getRandomBytes(size);
+    protocol = new SmartCardProtocol(new ScriptedSmartCardConnection(extended, data));
+    protocol.configure(new Version(5, 7, 0));
+    // PUT DATA style command, sending the payload
+    command = new Apdu(0x00, 0xdb, 0x3f, 0xff, data);
+    // GET DATA style command, receiving the payload
+    smallCommand = new Apdu(0x00, 0xcb, 0x3f, 0xff, new byte[] {0x5c, 0x03, 0x5f, (byte) 0xc1, 5});
+  }
+
+  @Benchmark
+  public byte[] sendLargeCommand() throws Exception {
+    return protocol.sendAndReceive(command);
+  }
+
+  @Benchmark
+  public byte[] receiveLargeResponse() throws Exception {
+    return protocol.sendAndReceive(smallCommand);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.benchmarks;
+
+import com.yubico.yubikit.core.util.RandomUtils;
+import com.yubico.yubikit.core.util.Tlv;
+import com.yubico.yubikit.core.util.TlvReader;
+import com.yubico.yubikit.core.util.Tlvs;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** BER-TLV parsing and encoding, using payloads shaped like PIV and OATH responses. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TlvBenchmark {
+  private byte[] certificateObject;
+  private byte[] calculateAllResponse;
+  private Map<Integer, byte[]> certificateMap;
+
+  @Setup
+  public void setup() {
+    // PIV certificate data object: 0x70 certificate, 0x71 info, 0xFE LRC
+    certificateMap = new LinkedHashMap<>();
+    certificateMap.put(0x70, RandomUtils.getRandomBytes(3072));
+    certificateMap.put(0x71, new byte[] {0});
+    certificateMap.put(0xFE, null);
+    certificateObject = new Tlv(0x53, Tlvs.encodeMap(certificateMap)).getBytes();
+
+    // OATH CALCULATE_ALL response for 32 TOTP credentials: 0x71 name, 0x76 truncated response
+    List<Tlv> tlvs = new ArrayList<>();
+    for (int i = 0; i < 32; i++) {
+      tlvs.add(new Tlv(0x71, ("Issuer " + i + ":user" + i + "@example.com").getBytes()));
+      tlvs.add(new Tlv(0x76, RandomUtils.getRandomBytes(5)));
+    }
+    calculateAllResponse = Tlvs.encodeList(tlvs);
+  }
+
+  @Benchmark
+  public Map<Integer, byte[]> decodeCertificateObject() throws Exception {
+    return Tlvs.decodeMap(Tlvs.unpackValue(0x53, certificateObject));
+  }
+
+  @Benchmark
+  public List<Tlv> decodeCalculateAllList() {
+    return Tlvs.decodeList(calculateAllResponse);
+  }
+
+  @Benchmark
+  public void readCalculateAll(Blackhole bh) {
+    TlvReader reader = new TlvReader(calculateAllResponse);
+    while (reader.next()) {
+      bh.consume(reader.getTag());
+      bh.consume(reader.getValueLength());
+    }
+  }
+
+  @Benchmark
+  public byte[] encodeCertificateObject() {
+    return new Tlv(0x53, Tlvs.encodeMap(certificateMap)).getBytes();
+  }
+}
@@ -17,6 +17,9 @@ package com.yubico.yubikit.core.fido;
 
 import com.yubico.yubikit.core.Version;
 import com.yubico.yubikit.core.application.CommandState;
+import com.yubico.yubikit.core.metrics.CommandEvent;
+import com.yubico.yubikit.core.metrics.CommandListener;
+import com.yubico.yubikit.core.metrics.TransportMetrics;
 import com.yubico.yubikit.core.util.RandomUtils;
 import com.yubico.yubikit.core.util.StringUtils;
 import java.io.Closeable;
@@ -63,6 +66,11 @@ public class FidoProtocol implements Closeable {
   private final int capabilities;
   private int channelId;
 
+  // Packets of the current command, as reported to the CommandListener
+  private int packetsSent;
+  private int packetsReceived;
+  private int keepAlives;
+
   private static final Logger logger = LoggerFactory.getLogger(FidoProtocol.class);
 
   public FidoProtocol(FidoConnection connection) throws IOException {
@@ -90,7 +98,53 @@ public class FidoProtocol implements Closeable {
 
   public byte[] sendAndReceive(byte cmd, byte[] payload, @Nullable CommandState state)
       throws IOException {
-    state = state != null ? state : defaultState;
+    CommandListener listener = TransportMetrics.getListener();
+    if (listener == CommandListener.NONE) {
+      return transceive(cmd, payload, state != null ? state : defaultState);
+    }
+
+    packetsSent = 0;
+    packetsReceived = 0;
+    keepAlives = 0;
+    long start = System.nanoTime();
+    byte[] response = null;
+    IOException error = null;
+    try {
+      response = transceive(cmd, payload, state != null ? state : defaultState);
+      return response;
+    } catch (IOException e) {
+      error = e;
+      throw e;
+    } finally {
+      CommandEvent.Builder event = new CommandEvent.Builder(CommandEvent.Protocol.FIDO);
+      if (cmd == CTAPHID_CBOR && payload.length > 0) {
+        event.setApplication(CommandEvent.CTAP2).setCommand(payload[0]);
+        if (response != null && response.length > 0) {
+          event.setStatus(0xff & response[0]);
+        }
+      } else if (cmd == CTAPHID_MSG && payload.length > 1) {
+        event.setApplication(CommandEvent.U2F).setCommand(payload[1]);
+        if (response != null && response.length > 1) {
+          event.setStatus(
+              (0xff & response[response.length - 2]) << 8 | 0xff & response[response.length - 1]);
+        }
+      } else {
+        event.setApplication(CommandEvent.CTAPHID).setCommand(cmd);
+      }
+      listener.onCommand(
+          event
+              .setBytes(
+                  packetsSent * FidoConnection.PACKET_SIZE,
+                  packetsReceived * FidoConnection.PACKET_SIZE)
+              .setFrames(packetsSent, packetsReceived)
+              .setKeepAlives(keepAlives)
+              .setDurationNanos(System.nanoTime() - start)
+              .setError(error)
+              .build());
+    }
+  }
+
+  private byte[] transceive(byte cmd, byte[] payload, CommandState state) throws IOException {
 
     ByteBuffer toSend = ByteBuffer.wrap(payload);
     byte[] buffer = new byte[FidoConnection.PACKET_SIZE];
@@ -102,6 +156,7 @@ public class FidoProtocol implements Closeable {
     do {
       toSend.get(buffer, packet.position(), Math.min(toSend.remaining(), packet.remaining()));
       connection.send(buffer);
+      packetsSent++;
       logger
           .atTrace()
           .setMessage("{} bytes sent over fido: {}")
@@ -123,6 +178,7 @@ public class FidoProtocol implements Closeable {
         Arrays.fill(buffer, (byte) 0);
         packet.putInt(channelId).put(CTAPHID_CANCEL);
         connection.send(buffer);
+        packetsSent++;
         logger
             .atTrace()
             .setMessage("Sent over fido: {}")
@@ -132,6 +188,7 @@ public class FidoProtocol implements Closeable {
       }
 
       connection.receive(buffer);
+      packetsReceived++;
       logger
           .atTrace()
           .setMessage("Received over fido: {}")
@@ -147,6 +204,7 @@ public class FidoProtocol implements Closeable {
         if (responseCmd == cmd) {
           response = ByteBuffer.allocate(packet.getShort());
         } else if (responseCmd == CTAPHID_KEEPALIVE) {
+          keepAlives++;
           state.onKeepAliveStatus(packet.get());
           continue;
         } else if (responseCmd == CTAPHID_ERROR) {
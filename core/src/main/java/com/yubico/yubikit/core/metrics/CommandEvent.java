@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.metrics;
+
+import java.util.Locale;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A command sent to a YubiKey, as reported to a {@link CommandListener}.
+ *
+ * <p>A command is identified by its application and command byte:
+ *
+ * <ul>
+ *   <li>Over a SmartCard connection, the application is the one selected, and the command is the
+ *       INS of the APDU.
+ *   <li>Over a FIDO connection, the application is {@link #CTAP2} for CTAPHID_CBOR with the CTAP
+ *       command, {@link #U2F} for CTAPHID_MSG with the INS of the U2F APDU, and {@link #CTAPHID}
+ *       with the CTAPHID command otherwise.
+ *   <li>Over an OTP connection, the application is {@link #OTP} and the command is the slot.
+ * </ul>
+ *
+ * <p>Byte and frame counts are those exchanged with the connection, including any APDU chaining,
+ * HID framing, keepalives and polling.
+ */
+public class CommandEvent {
+  public static final String CTAP2 = "CTAP2";
+  public static final String U2F = "U2F";
+  public static final String CTAPHID = "CTAPHID";
+  public static final String OTP = "OTP";
+
+  /** The protocol which sent a command. */
+  public enum Protocol {
+    SMART_CARD,
+    FIDO,
+    OTP
+  }
+
+  private final Protocol protocol;
+  private final @Nullable String application;
+  private final int command;
+  private final int bytesSent;
+  private final int bytesReceived;
+  private final int framesSent;
+  private final int framesReceived;
+  private final int chainedCommands;
+  private final int chainedResponses;
+  private final int keepAlives;
+  private final int status;
+  private final long durationNanos;
+  private final @Nullable Throwable error;
+
+  private CommandEvent(Builder builder) {
+    this.protocol = builder.protocol;
+    this.application = builder.application;
+    this.command = builder.command;
+    this.bytesSent = builder.bytesSent;
+    this.bytesReceived = builder.bytesReceived;
+    this.framesSent = builder.framesSent;
+    this.framesReceived = builder.framesReceived;
+    this.chainedCommands = builder.chainedCommands;
+    this.chainedResponses = builder.chainedResponses;
+    this.keepAlives = builder.keepAlives;
+    this.status = builder.status;
+    this.durationNanos = builder.durationNanos;
+    this.error = builder.error;
+  }
+
+  /** Returns the protocol which sent the command. */
+  public Protocol getProtocol() {
+    return protocol;
+  }
+
+  /**
+   * Returns the application the command was sent to, or null if no application has been selected
+   * over a SmartCard connection. Known SmartCard applications are named, such as "PIV", others are
+   * given by their AID in hex.
+   */
+  public @Nullable String getApplication() {
+    return application;
+  }
+
+  /** Returns the command byte, as an unsigned value. */
+  public int getCommand() {
+    return command;
+  }
+
+  /** Returns the number of bytes written to the connection. */
+  public int getBytesSent() {
+    return bytesSent;
+  }
+
+  /** Returns the number of bytes read from the connection. */
+  public int getBytesReceived() {
+    return bytesReceived;
+  }
+
+  /** Returns the number of APDUs, HID packets or feature reports written to the connection. */
+  public int getFramesSent() {
+    return framesSent;
+  }
+
+  /** Returns the number of responses, HID packets or feature reports read from the connection. */
+  public int getFramesReceived() {
+    return framesReceived;
+  }
+
+  /** Returns the number of APDUs sent with the command chaining bit set. */
+  public int getChainedCommands() {
+    return chainedCommands;
+  }
+
+  /** Returns the number of responses indicating that more data was available (SW 61XX). */
+  public int getChainedResponses() {
+    return chainedResponses;
+  }
+
+  /**
+   * Returns the number of times the YubiKey asked to wait, either through CTAPHID_KEEPALIVE or the
+   * OTP status, for example while waiting for touch.
+   */
+  public int getKeepAlives() {
+    return keepAlives;
+  }
+
+  /**
+   * Returns the status of the response: the SW over SmartCard and CTAPHID_MSG, the CTAP status byte
+   * for CTAPHID_CBOR, or -1 if there was no response or it has no status.
+   */
+  public int getStatus() {
+    return status;
+  }
+
+  /** Returns the time taken by the command, including any waits for the user. */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  /**
+   * Returns the exception thrown by the protocol, if any. A SmartCard response with an error status
+   * is not reported as an error here, see {@link #getStatus()}.
+   */
+  public @Nullable Throwable getError() {
+    return error;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        Locale.ROOT,
+        "CommandEvent{protocol=%s, application=%s, command=0x%02x, bytesSent=%d,"
+            + " bytesReceived=%d, framesSent=%d, framesReceived=%d, chainedCommands=%d,"
+            + " chainedResponses=%d, keepAlives=%d, status=%s, durationNanos=%d, error=%s}",
+        protocol,
+        application,
+        command,
+        bytesSent,
+        bytesReceived,
+        framesSent,
+        framesReceived,
+        chainedCommands,
+        chainedResponses,
+        keepAlives,
+        status < 0 ? "-1" : String.format("0x%02x", status),
+        durationNanos,
+        error);
+  }
+
+  /** Builds a {@link CommandEvent}. Internal use only. */
+  public static class Builder {
+    private final Protocol protocol;
+    private @Nullable String application;
+    private int command;
+    private int bytesSent;
+    private int bytesReceived;
+    private int framesSent;
+    private int framesReceived;
+    private int chainedCommands;
+    private int chainedResponses;
+    private int keepAlives;
+    private int status = -1;
+    private long durationNanos;
+    private @Nullable Throwable error;
+
+    public Builder(Protocol protocol) {
+      this.protocol = protocol;
+    }
+
+    public Builder setApplication(@Nullable String application) {
+      this.application = application;
+      return this;
+    }
+
+    public Builder setCommand(int command) {
+      this.command = 0xff & command;
+      return this;
+    }
+
+    public Builder setBytes(int bytesSent, int bytesReceived) {
+      this.bytesSent = bytesSent;
+      this.bytesReceived = bytesReceived;
+      return this;
+    }
+
+    public Builder setFrames(int framesSent, int framesReceived) {
+      this.framesSent = framesSent;
+      this.framesReceived = framesReceived;
+      return this;
+    }
+
+    public Builder setChaining(int chainedCommands, int chainedResponses) {
+      this.chainedCommands = chainedCommands;
+      this.chainedResponses = chainedResponses;
+      return this;
+    }
+
+    public Builder setKeepAlives(int keepAlives) {
+      this.keepAlives = keepAlives;
+      return this;
+    }
+
+    public Builder setStatus(int status) {
+      this.status = status;
+      return this;
+    }
+
+    public Builder setDurationNanos(long durationNanos) {
+      this.durationNanos = durationNanos;
+      return this;
+    }
+
+    public Builder setError(@Nullable Throwable error) {
+      this.error = error;
+      return this;
+    }
+
+    public CommandEvent build() {
+      return new CommandEvent(this);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.metrics;
+
+/**
+ * Receives an event for each command sent to a YubiKey, for metrics or tracing.
+ *
+ * <p>Listeners are called on the thread which sent the command, once it has completed, and should
+ * return quickly. A listener is installed for all connections using {@link
+ * TransportMetrics#setListener(CommandListener)}.
+ */
+public interface CommandListener {
+  /** A listener which ignores all events. No events are collected while it is installed. */
+  CommandListener NONE = event -> {};
+
+  /**
+   * Called when a command has completed, successfully or not.
+   *
+   * @param event the command which completed
+   */
+  void onCommand(CommandEvent event);
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link CommandListener} which aggregates the commands it receives, keeping a latency histogram
+ * per command.
+ *
+ * <p>Commands are grouped by protocol, application and command byte, so that for example each PIV
+ * or OATH instruction is summarized on its own. Latencies are counted in buckets of powers of two
+ * microseconds, so percentiles are accurate to within a factor of two.
+ *
+ * <pre>{@code
+ * HistogramCommandListener histograms = new HistogramCommandListener();
+ * TransportMetrics.setListener(histograms);
+ * ...
+ * for (HistogramCommandListener.Summary summary : histograms.getSummaries()) {
+ *   logger.info("{}", summary);
+ * }
+ * }</pre>
+ */
+public class HistogramCommandListener implements CommandListener {
+  // Bucket i counts latencies below 2^i microseconds, and at least 2^(i-1)
+  private static final int BUCKETS = 40;
+
+  private final ConcurrentMap<Key, Histogram> histograms = new ConcurrentHashMap<>();
+
+  @Override
+  public void onCommand(CommandEvent event) {
+    Key key = new Key(event.getProtocol(), event.getApplication(), event.getCommand());
+    Histogram histogram = histograms.get(key);
+    if (histogram == null) {
+      Histogram created = new Histogram();
+      histogram = histograms.putIfAbsent(key, created);
+      if (histogram == null) {
+        histogram = created;
+      }
+    }
+    histogram.record(event);
+  }
+
+  /**
+   * Returns a summary of each command received since creation or the last {@link #reset()}, the
+   * commands taking the most time in total first.
+   */
+  public List<Summary> getSummaries() {
+    List<Summary> summaries = new ArrayList<>();
+    for (ConcurrentMap.Entry<Key, Histogram> entry : histograms.entrySet()) {
+      summaries.add(entry.getValue().summarize(entry.getKey()));
+    }
+    summaries.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+    return summaries;
+  }
+
+  /** Discards all recorded commands. */
+  public void reset() {
+    histograms.clear();
+  }
+
+  /** Aggregated measurements of a single command. */
+  public static class Summary {
+    private final CommandEvent.Protocol protocol;
+    private final @Nullable String application;
+    private final int command;
+    private final long count;
+    private final long errorCount;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final long keepAlives;
+    private final long[] buckets;
+
+    private Summary(Key key, Histogram histogram) {
+      this.protocol = key.protocol;
+      this.application = key.application;
+      this.command = key.command;
+      this.count = histogram.count;
+      this.errorCount = histogram.errorCount;
+      this.totalNanos = histogram.totalNanos;
+      this.maxNanos = histogram.maxNanos;
+      this.bytesSent = histogram.bytesSent;
+      this.bytesReceived = histogram.bytesReceived;
+      this.keepAlives = histogram.keepAlives;
+      this.buckets = Arrays.copyOf(histogram.buckets, BUCKETS);
+    }
+
+    public CommandEvent.Protocol getProtocol() {
+      return protocol;
+    }
+
+    public @Nullable String getApplication() {
+      return application;
+    }
+
+    public int getCommand() {
+      return command;
+    }
+
+    /** Returns the number of times the command was sent. */
+    public long getCount() {
+      return count;
+    }
+
+    /** Returns the number of times the command failed with an exception. */
+    public long getErrorCount() {
+      return errorCount;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public long getMeanNanos() {
+      return count == 0 ? 0 : totalNanos / count;
+    }
+
+    public long getBytesSent() {
+      return bytesSent;
+    }
+
+    public long getBytesReceived() {
+      return bytesReceived;
+    }
+
+    public long getKeepAlives() {
+      return keepAlives;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of latency.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the histogram bucket holding the percentile, or the maximum
+     *     latency if lower
+     */
+    public long getPercentileNanos(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("Percentile must be between 0 and 100");
+      }
+      long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += buckets[i];
+        if (seen >= rank) {
+          return Math.min(TimeUnit.MICROSECONDS.toNanos(1L << i), maxNanos);
+        }
+      }
+      return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT,
+          "%s %s 0x%02x: count=%d, errors=%d, total=%.1fms, mean=%.2fms, p50<=%.2fms,"
+              + " p99<=%.2fms, max=%.2fms, sent=%dB, received=%dB, keepAlives=%d",
+          protocol,
+          application,
+          command,
+          count,
+          errorCount,
+          millis(totalNanos),
+          millis(getMeanNanos()),
+          millis(getPercentileNanos(50)),
+          millis(getPercentileNanos(99)),
+          millis(maxNanos),
+          bytesSent,
+          bytesReceived,
+          keepAlives);
+    }
+
+    private static double millis(long nanos) {
+      return nanos / 1e6;
+    }
+  }
+
+  private static class Key {
+    private final CommandEvent.Protocol protocol;
+    private final @Nullable String application;
+    private final int command;
+
+    private Key(CommandEvent.Protocol protocol, @Nullable String application, int command) {
+      this.protocol = protocol;
+      this.application = application;
+      this.command = command;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return command == key.command
+          && protocol == key.protocol
+          && Objects.equals(application, key.application);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(protocol, application, command);
+    }
+  }
+
+  private static class Histogram {
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private long errorCount;
+    private long totalNanos;
+    private long maxNanos;
+    private long bytesSent;
+    private long bytesReceived;
+    private long keepAlives;
+
+    private synchronized void record(CommandEvent event) {
+      long nanos = event.getDurationNanos();
+      long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+      buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros))]++;
+      count++;
+      if (event.getError() != null) {
+        errorCount++;
+      }
+      totalNanos += nanos;
+      maxNanos = Math.max(maxNanos, nanos);
+      bytesSent += event.getBytesSent();
+      bytesReceived += event.getBytesReceived();
+      keepAlives += event.getKeepAlives();
+    }
+
+    private synchronized Summary summarize(Key key) {
+      return new Summary(key, this);
+    }
+  }
+}
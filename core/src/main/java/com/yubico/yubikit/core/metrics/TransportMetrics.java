@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.metrics;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the {@link CommandListener} which the SmartCard, FIDO and OTP protocols report their
+ * commands to.
+ *
+ * <p>By default no listener is installed, and the protocols don't measure their commands at all.
+ */
+public final class TransportMetrics {
+  private static volatile CommandListener listener = CommandListener.NONE;
+
+  private static final Logger logger = LoggerFactory.getLogger(TransportMetrics.class);
+
+  private TransportMetrics() {}
+
+  /**
+   * Installs a listener for the commands sent over all connections, replacing any previous one.
+   *
+   * <p>Exceptions thrown by the listener are logged, and don't affect the command.
+   *
+   * @param commandListener the listener to install, or null to stop reporting commands
+   */
+  public static void setListener(@Nullable CommandListener commandListener) {
+    listener =
+        commandListener == null || commandListener == CommandListener.NONE
+            ? CommandListener.NONE
+            : new SafeListener(commandListener);
+  }
+
+  /**
+   * Returns the listener which commands are reported to, or {@link CommandListener#NONE}.
+   *
+   * <p>Internal use only.
+   */
+  public static CommandListener getListener() {
+    return listener;
+  }
+
+  private static class SafeListener implements CommandListener {
+    private final CommandListener delegate;
+
+    private SafeListener(CommandListener delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void onCommand(CommandEvent event) {
+      try {
+        delegate.onCommand(event);
+      } catch (RuntimeException e) {
+        logger.warn("CommandListener threw an exception", e);
+      }
+    }
+  }
+}
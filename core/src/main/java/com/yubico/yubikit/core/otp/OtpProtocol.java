@@ -19,6 +19,9 @@ import com.yubico.yubikit.core.Version;
 import com.yubico.yubikit.core.application.CommandException;
 import com.yubico.yubikit.core.application.CommandState;
 import com.yubico.yubikit.core.application.TimeoutException;
+import com.yubico.yubikit.core.metrics.CommandEvent;
+import com.yubico.yubikit.core.metrics.CommandListener;
+import com.yubico.yubikit.core.metrics.TransportMetrics;
 import com.yubico.yubikit.core.util.StringUtils;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
@@ -26,6 +29,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,12 +57,30 @@ public class OtpProtocol implements Closeable {
   private final CommandState defaultState = new CommandState();
 
   private final OtpConnection connection;
+  private final OtpWaitStrategy waitStrategy;
   private final Version version;
 
+  // Feature reports of the current command, as reported to the CommandListener
+  private int reportsWritten;
+  private int reportsRead;
+  private int keepAlives;
+
   private static final Logger logger = LoggerFactory.getLogger(OtpProtocol.class);
 
   public OtpProtocol(OtpConnection connection) throws IOException {
+    this(connection, OtpWaitStrategy.DEFAULT);
+  }
+
+  /**
+   * Create a new OtpProtocol, which polls the YubiKey according to the given strategy.
+   *
+   * @param connection an OtpConnection with the YubiKey
+   * @param waitStrategy how to wait for the YubiKey while it is busy
+   * @throws IOException in case of communication error
+   */
+  public OtpProtocol(OtpConnection connection, OtpWaitStrategy waitStrategy) throws IOException {
     this.connection = connection;
+    this.waitStrategy = waitStrategy;
 
     byte[] featureReport = readFeatureReport();
     if (featureReport[4] == 3) {
@@ -108,7 +130,34 @@ public class OtpProtocol implements Closeable {
     } else {
       payload = Arrays.copyOf(data, SLOT_DATA_SIZE);
     }
-    return readFrame(sendFrame(slot, payload), state != null ? state : defaultState);
+    CommandState commandState = state != null ? state : defaultState;
+    CommandListener listener = TransportMetrics.getListener();
+    if (listener == CommandListener.NONE) {
+      return readFrame(sendFrame(slot, payload), commandState);
+    }
+
+    reportsWritten = 0;
+    reportsRead = 0;
+    keepAlives = 0;
+    long start = System.nanoTime();
+    Exception error = null;
+    try {
+      return readFrame(sendFrame(slot, payload), commandState);
+    } catch (IOException | CommandException e) {
+      error = e;
+      throw e;
+    } finally {
+      listener.onCommand(
+          new CommandEvent.Builder(CommandEvent.Protocol.OTP)
+              .setApplication(CommandEvent.OTP)
+              .setCommand(slot)
+              .setBytes(reportsWritten * FEATURE_RPT_SIZE, reportsRead * FEATURE_RPT_SIZE)
+              .setFrames(reportsWritten, reportsRead)
+              .setKeepAlives(keepAlives)
+              .setDurationNanos(System.nanoTime() - start)
+              .setError(error)
+              .build());
+    }
   }
 
   /**
@@ -127,6 +176,7 @@ public class OtpProtocol implements Closeable {
   private byte[] readFeatureReport() throws IOException {
     byte[] bufferRead = new byte[FEATURE_RPT_SIZE];
     connection.receive(bufferRead);
+    reportsRead++;
     logger
         .atTrace()
         .setMessage("Read feature report: {}")
@@ -143,21 +193,31 @@ public class OtpProtocol implements Closeable {
         .addArgument(() -> StringUtils.bytesToHex(buffer))
         .log();
     connection.send(buffer);
+    reportsWritten++;
   }
 
-  /* Sleep for up to ~1s waiting for the WRITE flag to be unset */
+  /* Wait for the WRITE flag to be unset, for up to the write timeout (~1s by default) */
   private void awaitReadyToWrite() throws IOException {
-    for (int i = 0; i < 20; i++) {
+    OtpWaitStrategy.Backoff backoff = waitStrategy.getInstantBackoff();
+    long deadline =
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitStrategy.getWriteTimeoutMillis());
+    for (int attempt = 0; ; attempt++) {
       if ((readFeatureReport()[FEATURE_RPT_DATA_SIZE] & SLOT_WRITE_FLAG) == 0) {
         return;
       }
-      try {
-        Thread.sleep(50);
-      } catch (InterruptedException e) {
-        // Ignore
+      long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remaining <= 0) {
+        throw new IOException("Timeout waiting for YubiKey to become ready to receive");
+      }
+      long delay = Math.min(backoff.getDelayMillis(attempt), remaining);
+      if (delay > 0) {
+        try {
+          Thread.sleep(delay);
+        } catch (InterruptedException e) {
+          // Ignore
+        }
       }
     }
-    throw new IOException("Timeout waiting for YubiKey to become ready to receive");
   }
 
   /* All-zero packets are skipped, except for the very first and last packets */
@@ -214,6 +274,7 @@ public class OtpProtocol implements Closeable {
     ByteArrayOutputStream stream = new ByteArrayOutputStream();
     byte seq = 0;
     boolean needsTouch = false;
+    int waits = 0;
 
     while (true) {
       byte[] report = readFeatureReport();
@@ -259,16 +320,21 @@ public class OtpProtocol implements Closeable {
           throw new CommandRejectedException("No data");
         }
       } else { // Need to wait
-        long timeout;
+        keepAlives++;
+        OtpWaitStrategy.Backoff backoff;
         if ((statusByte & RESP_TIMEOUT_WAIT_FLAG) != 0) {
           state.onKeepAliveStatus(CommandState.STATUS_UPNEEDED);
-          needsTouch = true;
-          timeout = 100;
+          if (!needsTouch) {
+            // Start over with the touch backoff
+            needsTouch = true;
+            waits = 0;
+          }
+          backoff = waitStrategy.getTouchBackoff();
         } else {
           state.onKeepAliveStatus(CommandState.STATUS_PROCESSING);
-          timeout = 20;
+          backoff = waitStrategy.getInstantBackoff();
         }
-        if (state.waitForCancel(timeout)) {
+        if (state.waitForCancel(backoff.getDelayMillis(waits++))) {
           resetState();
           throw new TimeoutException("Command cancelled by CommandState");
         }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.otp;
+
+/**
+ * Controls how {@link OtpProtocol} polls a YubiKey over an {@link OtpConnection}, while waiting for
+ * it to become ready to receive, and for its response to a command.
+ *
+ * <p>Each wait follows a {@link Backoff}: a few polls in quick succession, followed by delays which
+ * double up to a maximum. The instant backoff is used while the YubiKey is busy writing or
+ * processing a command, so that commands such as HMAC-SHA1 challenge-response complete within a few
+ * milliseconds. The touch backoff is used while the YubiKey waits for the user to touch it, when
+ * there is no need to poll as often.
+ */
+public class OtpWaitStrategy {
+  /** The default strategy, polling often while the YubiKey is busy. */
+  public static final OtpWaitStrategy DEFAULT = new Builder().build();
+
+  private final Backoff instant;
+  private final Backoff touch;
+  private final long writeTimeoutMillis;
+
+  private OtpWaitStrategy(Builder builder) {
+    this.instant = builder.instant;
+    this.touch = builder.touch;
+    this.writeTimeoutMillis = builder.writeTimeoutMillis;
+  }
+
+  /** Returns the backoff used while the YubiKey is busy, and before writing to it. */
+  public Backoff getInstantBackoff() {
+    return instant;
+  }
+
+  /** Returns the backoff used while the YubiKey waits for touch. */
+  public Backoff getTouchBackoff() {
+    return touch;
+  }
+
+  /** Returns how long to wait for the YubiKey to become ready to receive, before failing. */
+  public long getWriteTimeoutMillis() {
+    return writeTimeoutMillis;
+  }
+
+  /**
+   * Delays between polls: no delay for the first polls, followed by delays which double up to a
+   * maximum.
+   */
+  public static class Backoff {
+    private final int spins;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+
+    /**
+     * @param spins the number of polls without delay
+     * @param initialDelayMillis the first delay after these, at least 1
+     * @param maxDelayMillis the maximum delay, at least {@code initialDelayMillis}
+     */
+    public Backoff(int spins, long initialDelayMillis, long maxDelayMillis) {
+      if (spins < 0 || initialDelayMillis < 1 || maxDelayMillis < initialDelayMillis) {
+        throw new IllegalArgumentException("Invalid backoff");
+      }
+      this.spins = spins;
+      this.initialDelayMillis = initialDelayMillis;
+      this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Returns the delay following an unsuccessful poll.
+     *
+     * @param attempt the number of unsuccessful polls before this one, starting at 0
+     * @return the time to wait in milliseconds, before polling again
+     */
+    public long getDelayMillis(int attempt) {
+      if (attempt < spins) {
+        return 0;
+      }
+      int doublings = attempt - spins;
+      if (doublings >= Long.numberOfLeadingZeros(initialDelayMillis)) {
+        return maxDelayMillis;
+      }
+      return Math.min(maxDelayMillis, initialDelayMillis << doublings);
+    }
+  }
+
+  public static class Builder {
+    private Backoff instant = new Backoff(2, 1, 20);
+    private Backoff touch = new Backoff(0, 20, 100);
+    private long writeTimeoutMillis = 1000;
+
+    /** Sets the backoff used while the YubiKey is busy. Defaults to 2 spins, then 1 to 20 ms. */
+    public Builder setInstantBackoff(Backoff instant) {
+      this.instant = instant;
+      return this;
+    }
+
+    /** Sets the backoff used while the YubiKey waits for touch. Defaults to 20 to 100 ms. */
+    public Builder setTouchBackoff(Backoff touch) {
+      this.touch = touch;
+      return this;
+    }
+
+    /** Sets how long to wait for the YubiKey to become ready to receive. Defaults to 1 s. */
+    public Builder setWriteTimeoutMillis(long writeTimeoutMillis) {
+      if (writeTimeoutMillis <= 0) {
+        throw new IllegalArgumentException("Timeout must be positive");
+      }
+      this.writeTimeoutMillis = writeTimeoutMillis;
+      return this;
+    }
+
+    public OtpWaitStrategy build() {
+      return new OtpWaitStrategy(this);
+    }
+  }
+}
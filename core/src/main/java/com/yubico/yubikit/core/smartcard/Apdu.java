@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2019-2025 Yubico.
+ * Copyright (C) 2019-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,7 +25,8 @@ public class Apdu {
   private final byte ins;
   private final byte p1;
   private final byte p2;
-  private final byte[] data;
+  // Accessed directly by the processors in this package to avoid copying the payload.
+  final byte[] data;
   private final int le;
 
   /**
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2024-2025 Yubico.
+ * Copyright (C) 2024-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,17 +29,22 @@ class ApduFormatProcessor implements ApduProcessor {
 
   @Override
   public ApduResponse sendApdu(Apdu apdu) throws IOException {
-    byte[] data = apdu.getData();
-    byte[] payload =
-        formatter.formatApdu(
-            apdu.getCla(),
-            apdu.getIns(),
-            apdu.getP1(),
-            apdu.getP2(),
-            data,
-            0,
-            data.length,
-            apdu.getLe());
+    return sendApdu(
+        apdu.getCla(),
+        apdu.getIns(),
+        apdu.getP1(),
+        apdu.getP2(),
+        apdu.data,
+        0,
+        apdu.data.length,
+        apdu.getLe());
+  }
+
+  /** Formats and sends a single APDU frame using a range of data, without copying it first. */
+  ApduResponse sendApdu(
+      byte cla, byte ins, byte p1, byte p2, byte[] data, int offset, int length, int le)
+      throws IOException {
+    byte[] payload = formatter.formatApdu(cla, ins, p1, p2, data, offset, length, le);
     return new ApduResponse(connection.sendAndReceive(payload));
   }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2019-2022 Yubico.
+ * Copyright (C) 2019-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,9 @@ import java.util.Arrays;
 
 /** An APDU response from a YubiKey, comprising response data, and a status code. */
 public class ApduResponse {
-  private final byte[] bytes;
+  // Accessed directly by the processors in this package to avoid copying the payload.
+  final byte[] data;
+  private final short sw;
 
   /**
    * Creates a new response from a key
@@ -31,27 +33,47 @@ public class ApduResponse {
     if (bytes.length < 2) {
       throw new IllegalArgumentException("Invalid APDU response data");
     }
-    this.bytes = Arrays.copyOf(bytes, bytes.length);
+    this.data = Arrays.copyOfRange(bytes, 0, bytes.length - 2);
+    this.sw = (short) (((0xff & bytes[bytes.length - 2]) << 8) | (0xff & bytes[bytes.length - 1]));
+  }
+
+  /**
+   * Creates a new response which takes ownership of the given data, without copying it.
+   *
+   * @param data the response data, without the SW
+   * @param sw the status word
+   */
+  ApduResponse(byte[] data, short sw) {
+    this.data = data;
+    this.sw = sw;
   }
 
   /**
    * @return the SW from a key response (see {@link SW}).
    */
   public short getSw() {
-    return (short) (((0xff & bytes[bytes.length - 2]) << 8) | (0xff & bytes[bytes.length - 1]));
+    return sw;
   }
 
   /**
    * @return the data from a key response without the SW.
    */
   public byte[] getData() {
-    return Arrays.copyOfRange(bytes, 0, bytes.length - 2);
+    return Arrays.copyOf(data, data.length);
   }
 
   /**
    * @return raw data from a key response
    */
   public byte[] getBytes() {
-    return Arrays.copyOf(bytes, bytes.length);
+    byte[] bytes = Arrays.copyOf(data, data.length + 2);
+    bytes[data.length] = (byte) (sw >> 8);
+    bytes[data.length + 1] = (byte) sw;
+    return bytes;
+  }
+
+  /** Zeroes the response data held by this instance. */
+  void clear() {
+    Arrays.fill(data, (byte) 0);
   }
 }
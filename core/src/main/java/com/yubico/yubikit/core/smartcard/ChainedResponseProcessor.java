@@ -25,6 +25,8 @@ class ChainedResponseProcessor implements ApduProcessor {
 
   protected final ApduProcessor delegate;
   private final Apdu getData;
+  // Reused between commands to reassemble chained responses, zeroed after each use
+  private final ZeroingByteArrayOutputStream readBuffer = new ZeroingByteArrayOutputStream(512);
 
   ChainedResponseProcessor(ApduProcessor delegate, byte insSendRemaining) {
     this.delegate = delegate;
@@ -34,16 +36,23 @@ class ChainedResponseProcessor implements ApduProcessor {
   @Override
   public ApduResponse sendApdu(Apdu apdu) throws IOException, BadResponseException {
     ApduResponse response = delegate.sendApdu(apdu);
+    if (response.getSw() >> 8 != SW1_HAS_MORE_DATA) {
+      // Single frame response, nothing to reassemble
+      return response;
+    }
+
     // Read full response
-    try (ZeroingByteArrayOutputStream readBuffer = new ZeroingByteArrayOutputStream()) {
+    try {
       while (response.getSw() >> 8 == SW1_HAS_MORE_DATA) {
-        readBuffer.write(response.getData());
+        readBuffer.write(response.data, 0, response.data.length);
+        response.clear();
         response = delegate.sendApdu(getData);
       }
-      readBuffer.write(response.getData());
-      readBuffer.write(response.getSw() >> 8);
-      readBuffer.write(response.getSw() & 0xff);
-      return new ApduResponse(readBuffer.toByteArray());
+      readBuffer.write(response.data, 0, response.data.length);
+      response.clear();
+      return new ApduResponse(readBuffer.toByteArray(), response.getSw());
+    } finally {
+      readBuffer.reset();
     }
   }
 }
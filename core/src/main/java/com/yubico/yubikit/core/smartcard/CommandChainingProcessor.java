@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2025 Yubico.
+ * Copyright (C) 2025-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,6 @@
 package com.yubico.yubikit.core.smartcard;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 
 class CommandChainingProcessor extends ApduFormatProcessor {
   CommandChainingProcessor(SmartCardConnection connection, ApduFormatter formatter) {
@@ -26,28 +25,34 @@ class CommandChainingProcessor extends ApduFormatProcessor {
 
   @Override
   public ApduResponse sendApdu(Apdu apdu) throws IOException {
-    ByteBuffer data = ByteBuffer.wrap(apdu.getData());
-    byte[] chunk = new byte[ShortApduFormatter.SHORT_APDU_MAX_CHUNK];
-    while (data.remaining() > ShortApduFormatter.SHORT_APDU_MAX_CHUNK) {
-      data.get(chunk);
+    // Each frame is formatted directly from its range of the command data
+    byte[] data = apdu.data;
+    int offset = 0;
+    while (data.length - offset > ShortApduFormatter.SHORT_APDU_MAX_CHUNK) {
       ApduResponse response =
-          super.sendApdu(
-              new Apdu(
-                  (byte) (apdu.getCla() | 0x10),
-                  apdu.getIns(),
-                  apdu.getP1(),
-                  apdu.getP2(),
-                  chunk,
-                  apdu.getLe()));
+          sendApdu(
+              (byte) (apdu.getCla() | 0x10),
+              apdu.getIns(),
+              apdu.getP1(),
+              apdu.getP2(),
+              data,
+              offset,
+              ShortApduFormatter.SHORT_APDU_MAX_CHUNK,
+              apdu.getLe());
+      offset += ShortApduFormatter.SHORT_APDU_MAX_CHUNK;
 
       if (response.getSw() != SW.OK) {
         return response;
       }
     }
-    byte[] remaining = new byte[data.remaining()];
-    data.get(remaining);
-    return super.sendApdu(
-        new Apdu(
-            apdu.getCla(), apdu.getIns(), apdu.getP1(), apdu.getP2(), remaining, apdu.getLe()));
+    return sendApdu(
+        apdu.getCla(),
+        apdu.getIns(),
+        apdu.getP1(),
+        apdu.getP2(),
+        data,
+        offset,
+        data.length - offset,
+        apdu.getLe());
   }
 }
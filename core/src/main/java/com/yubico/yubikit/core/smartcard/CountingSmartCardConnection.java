@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.smartcard;
+
+import com.yubico.yubikit.core.Transport;
+import java.io.IOException;
+
+/**
+ * Counts the APDUs exchanged over a SmartCardConnection, for reporting to a {@link
+ * com.yubico.yubikit.core.metrics.CommandListener}.
+ */
+class CountingSmartCardConnection implements SmartCardConnection {
+  private static final byte CLA_CHAINING = 0x10;
+  private static final byte SW1_HAS_MORE_DATA = 0x61;
+
+  private final SmartCardConnection delegate;
+
+  int apdus;
+  int bytesSent;
+  int bytesReceived;
+  int chainedCommands;
+  int chainedResponses;
+
+  CountingSmartCardConnection(SmartCardConnection delegate) {
+    this.delegate = delegate;
+  }
+
+  void resetCounts() {
+    apdus = 0;
+    bytesSent = 0;
+    bytesReceived = 0;
+    chainedCommands = 0;
+    chainedResponses = 0;
+  }
+
+  @Override
+  public byte[] sendAndReceive(byte[] apdu) throws IOException {
+    apdus++;
+    bytesSent += apdu.length;
+    if (apdu.length > 0 && (apdu[0] & CLA_CHAINING) != 0) {
+      chainedCommands++;
+    }
+    byte[] response = delegate.sendAndReceive(apdu);
+    bytesReceived += response.length;
+    if (response.length >= 2 && response[response.length - 2] == SW1_HAS_MORE_DATA) {
+      chainedResponses++;
+    }
+    return response;
+  }
+
+  @Override
+  public Transport getTransport() {
+    return delegate.getTransport();
+  }
+
+  @Override
+  public boolean isExtendedLengthApduSupported() {
+    return delegate.isExtendedLengthApduSupported();
+  }
+
+  @Override
+  public byte[] getAtr() {
+    return delegate.getAtr();
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2025 Yubico.
+ * Copyright (C) 2025-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,6 @@
 
 package com.yubico.yubikit.core.smartcard;
 
-import java.nio.ByteBuffer;
-
 class ExtendedApduFormatter implements ApduFormatter {
   private final int maxApduSize;
 
@@ -28,22 +26,27 @@ class ExtendedApduFormatter implements ApduFormatter {
   @Override
   public byte[] formatApdu(
       byte cla, byte ins, byte p1, byte p2, byte[] data, int offset, int length, int le) {
-    ByteBuffer buf =
-        ByteBuffer.allocate(5 + (data.length > 0 ? 2 : 0) + data.length + (le > 0 ? 2 : 0))
-            .put(cla)
-            .put(ins)
-            .put(p1)
-            .put(p2)
-            .put((byte) 0x00);
-    if (data.length > 0) {
-      buf.putShort((short) data.length).put(data);
+    int size = 5 + (length > 0 ? 2 : 0) + length + (le > 0 ? 2 : 0);
+    if (size > maxApduSize) {
+      throw new UnsupportedOperationException("APDU length exceeds YubiKey capability");
     }
-    if (le > 0) {
-      buf.putShort((short) le);
+    byte[] buf = new byte[size];
+    buf[0] = cla;
+    buf[1] = ins;
+    buf[2] = p1;
+    buf[3] = p2;
+    // buf[4] = 0x00 marks extended length
+    int pos = 5;
+    if (length > 0) {
+      buf[pos++] = (byte) (length >> 8);
+      buf[pos++] = (byte) length;
+      System.arraycopy(data, offset, buf, pos, length);
+      pos += length;
     }
-    if (buf.limit() > maxApduSize) {
-      throw new UnsupportedOperationException("APDU length exceeds YubiKey capability");
+    if (le > 0) {
+      buf[pos++] = (byte) (le >> 8);
+      buf[pos] = (byte) le;
     }
-    return buf.array();
+    return buf;
   }
 }
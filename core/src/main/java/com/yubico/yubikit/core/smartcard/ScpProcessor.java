@@ -19,8 +19,6 @@ package com.yubico.yubikit.core.smartcard;
 import com.yubico.yubikit.core.application.BadResponseException;
 import com.yubico.yubikit.core.smartcard.scp.ScpState;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
 
 public class ScpProcessor implements ApduProcessor {
   private final ApduProcessor delegate;
@@ -51,13 +49,13 @@ public class ScpProcessor implements ApduProcessor {
     byte[] macedData = new byte[data.length + 8];
     System.arraycopy(data, 0, macedData, 0, data.length);
     byte[] apduData = formatApduData(cla, apdu, macedData);
-    byte[] mac = state.mac(Arrays.copyOf(apduData, apduData.length - 8));
+    byte[] mac = state.mac(apduData, 0, apduData.length - 8);
     System.arraycopy(mac, 0, macedData, macedData.length - 8, 8);
 
     ApduResponse resp =
         delegate.sendApdu(
             new Apdu(cla, apdu.getIns(), apdu.getP1(), apdu.getP2(), macedData, apdu.getLe()));
-    byte[] respData = resp.getData();
+    byte[] respData = resp.data;
 
     // Un-MAC and decrypt, if needed
     if (respData.length > 0) {
@@ -67,13 +65,8 @@ public class ScpProcessor implements ApduProcessor {
       respData = state.decrypt(respData);
     }
 
-    try {
-      return new ApduResponse(
-          ByteBuffer.allocate(respData.length + 2).put(respData).putShort(resp.getSw()).array());
-
-    } finally {
-      Arrays.fill(respData, (byte) 0);
-    }
+    // The decrypted data is handed over to the response without an intermediate copy
+    return new ApduResponse(respData, resp.getSw());
   }
 
   private byte[] formatApduData(byte cla, Apdu apdu, byte[] macedData) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2025 Yubico.
+ * Copyright (C) 2025-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,6 @@
 
 package com.yubico.yubikit.core.smartcard;
 
-import java.nio.ByteBuffer;
-
 class ShortApduFormatter implements ApduFormatter {
   static final int SHORT_APDU_MAX_CHUNK = 0xff;
 
@@ -31,25 +29,24 @@ class ShortApduFormatter implements ApduFormatter {
       throw new IllegalArgumentException("Le must be between 0 and " + SHORT_APDU_MAX_CHUNK);
     }
 
-    ByteBuffer buf =
-        ByteBuffer.allocate(
-                4
-                    + (length > 0 ? 1 : 0)
-                    + length
-                    + (le > 0 ? 1 : 0)
-                    + (length == 0 && le == 0 ? 1 : 0))
-            .put(cla)
-            .put(ins)
-            .put(p1)
-            .put(p2);
+    int size =
+        4 + (length > 0 ? 1 : 0) + length + (le > 0 ? 1 : 0) + (length == 0 && le == 0 ? 1 : 0);
+    byte[] buf = new byte[size];
+    buf[0] = cla;
+    buf[1] = ins;
+    buf[2] = p1;
+    buf[3] = p2;
+    int pos = 4;
     if (length > 0) {
-      buf.put((byte) length).put(data, offset, length);
+      buf[pos++] = (byte) length;
+      System.arraycopy(data, offset, buf, pos, length);
+      pos += length;
     }
     if (le > 0) {
-      buf.put((byte) le);
+      buf[pos] = (byte) le;
     } else if (length == 0) {
-      buf.put((byte) 0);
+      buf[pos] = 0;
     }
-    return buf.array();
+    return buf;
   }
 }
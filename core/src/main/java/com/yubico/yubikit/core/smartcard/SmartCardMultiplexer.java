@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.smartcard;
+
+import com.yubico.yubikit.core.Transport;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares a single SmartCardConnection between sessions for different applications.
+ *
+ * <p>Each session is given its own connection from {@link #openConnection()}, which it uses as it
+ * would use a physical connection. A connection is bound to the application selected through it,
+ * and the multiplexer keeps track of which application is currently selected on the YubiKey.
+ * Applications are only switched, by sending a SELECT, when a session issues a command while a
+ * different application is selected.
+ *
+ * <pre>{@code
+ * try (SmartCardMultiplexer multiplexer = new SmartCardMultiplexer(connection)) {
+ *   ManagementSession management = new ManagementSession(multiplexer.openConnection());
+ *   PivSession piv = new PivSession(multiplexer.openConnection());
+ *   DeviceInfo info = management.getDeviceInfo(); // re-selects Management
+ *   piv.getSerialNumber(); // re-selects PIV
+ * }
+ * }</pre>
+ *
+ * <p>The response to SELECT is cached per application. A session selecting the application which is
+ * already selected, with no other command sent since, is given the cached response. Responses to
+ * the version commands of PIV and OpenPGP are cached as well, as the version does not change while
+ * the connection is open.
+ *
+ * <p>Switching applications resets any state held by the application on the YubiKey, such as a
+ * verified PIN, an unlocked OATH application, or a secure channel. The multiplexer keeps track of
+ * the commands creating such state on each connection: VERIFY, OATH VALIDATE, INITIALIZE UPDATE and
+ * commands using secure messaging. Once the application of a connection holding state has been
+ * selected again, the next command sent through it fails with an {@link IOException} naming the
+ * lost state, instead of being sent without it. Sessions which rely on such state should therefore
+ * not be interleaved with sessions for other applications.
+ */
+public class SmartCardMultiplexer implements Closeable {
+  private static final byte CLA_SELECT = 0x00;
+  private static final byte SW_MORE_DATA = 0x61;
+  private static final byte CLA_SECURE_MESSAGING = 0x04;
+  private static final byte INS_VERIFY = 0x20;
+  private static final byte INS_INITIALIZE_UPDATE = 0x50;
+  private static final byte INS_OATH_VALIDATE = (byte) 0xa3;
+
+  // Commands returning the firmware version of an application, which can be cached
+  private static final Map<ByteBuffer, Byte> VERSION_COMMANDS = new HashMap<>();
+
+  static {
+    VERSION_COMMANDS.put(ByteBuffer.wrap(AppId.PIV), (byte) 0xfd);
+    VERSION_COMMANDS.put(ByteBuffer.wrap(AppId.OPENPGP), (byte) 0xf1);
+  }
+
+  private final SmartCardConnection connection;
+  private final Map<ByteBuffer, byte[]> selectResponses = new HashMap<>();
+  private final Map<ByteBuffer, byte[]> versionResponses = new HashMap<>();
+
+  private @Nullable ByteBuffer selectedAid;
+  // true while no command has been sent since the current application was selected
+  private boolean selectFresh;
+  // The number of SELECT commands sent, each of which resets the state of the selected application
+  private long selectCount;
+
+  private static final Logger logger = LoggerFactory.getLogger(SmartCardMultiplexer.class);
+
+  /**
+   * Create a multiplexer over a connection. The connection is closed when the multiplexer is.
+   *
+   * @param connection a connection to a YubiKey
+   */
+  public SmartCardMultiplexer(SmartCardConnection connection) {
+    this.connection = connection;
+  }
+
+  /**
+   * Opens a new connection sharing the underlying connection, for use by a single session.
+   *
+   * <p>Closing the returned connection does not close the underlying connection.
+   */
+  public SmartCardConnection openConnection() {
+    return new ApplicationConnection();
+  }
+
+  /** Returns the AID of the application currently selected, or null if unknown. */
+  public synchronized byte @Nullable [] getSelectedAid() {
+    return selectedAid != null ? selectedAid.array().clone() : null;
+  }
+
+  /**
+   * Returns the cached response to selecting an application, including the status word.
+   *
+   * @param aid the AID of the application
+   * @return the response, or null if the application has not been selected
+   */
+  public synchronized byte @Nullable [] getSelectResponse(byte[] aid) {
+    byte[] response = selectResponses.get(ByteBuffer.wrap(aid));
+    return response != null ? response.clone() : null;
+  }
+
+  /**
+   * Discards all cached responses, and forces the next command to select its application. This
+   * should be called if the YubiKey is reset, or reconfigured, by other means.
+   */
+  public synchronized void invalidate() {
+    selectResponses.clear();
+    versionResponses.clear();
+    selectedAid = null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    connection.close();
+  }
+
+  private synchronized byte[] send(ApplicationConnection source, byte[] apdu) throws IOException {
+    byte @Nullable [] aid = selectAid(apdu);
+    if (aid != null) {
+      ByteBuffer key = ByteBuffer.wrap(aid);
+      byte[] cached = selectResponses.get(key);
+      if (selectFresh && key.equals(selectedAid) && cached != null) {
+        logger.trace("Using cached SELECT response");
+        source.aid = key;
+        return cached.clone();
+      }
+      byte[] response = connection.sendAndReceive(apdu);
+      selectCount++;
+      source.state = null;
+      if (isOk(response) || hasMoreData(response)) {
+        if (isOk(response)) {
+          selectResponses.put(key, response.clone());
+        }
+        selectedAid = key;
+        selectFresh = isOk(response);
+        source.aid = key;
+      } else {
+        // The previously selected application may no longer be selected
+        selectedAid = null;
+      }
+      return response;
+    }
+
+    ByteBuffer sourceAid = source.aid;
+    if (sourceAid != null) {
+      if (source.state != null && source.stateSelectCount != selectCount) {
+        throw lostState(source);
+      }
+      if (!sourceAid.equals(selectedAid)) {
+        switchTo(source, sourceAid);
+      }
+    }
+
+    ByteBuffer versionKey = null;
+    if (sourceAid != null && isVersionCommand(sourceAid, apdu)) {
+      versionKey = ByteBuffer.wrap(concat(sourceAid.array(), apdu));
+      byte[] cached = versionResponses.get(versionKey);
+      if (cached != null) {
+        return cached.clone();
+      }
+    }
+
+    selectFresh = false;
+    byte[] response = connection.sendAndReceive(apdu);
+    if (versionKey != null && isOk(response)) {
+      versionResponses.put(versionKey, response.clone());
+    }
+    if (sourceAid != null && (isOk(response) || hasMoreData(response))) {
+      String state = createdState(sourceAid, apdu);
+      if (state != null) {
+        source.state = state;
+        source.stateSelectCount = selectCount;
+      }
+    }
+    return response;
+  }
+
+  private void switchTo(ApplicationConnection source, ByteBuffer aid) throws IOException {
+    if (source.state != null) {
+      // Selecting the application would silently reset the state the session relies on
+      throw lostState(source);
+    }
+    logger.debug("Switching application");
+    byte[] aidBytes = aid.array();
+    byte[] select =
+        ByteBuffer.allocate(5 + aidBytes.length)
+            .put(CLA_SELECT)
+            .put(SmartCardProtocol.INS_SELECT)
+            .put(SmartCardProtocol.P1_SELECT)
+            .put(SmartCardProtocol.P2_SELECT)
+            .put((byte) aidBytes.length)
+            .put(aidBytes)
+            .array();
+    byte[] response = connection.sendAndReceive(select);
+    selectCount++;
+    if (!isOk(response)) {
+      selectedAid = null;
+      throw new IOException("Failed to re-select application");
+    }
+    selectResponses.put(aid, response);
+    selectedAid = aid;
+  }
+
+  /** Returns the AID if the APDU is a SELECT by AID, otherwise null. */
+  private static byte @Nullable [] selectAid(byte[] apdu) {
+    if (apdu.length < 6
+        || apdu[0] != CLA_SELECT
+        || apdu[1] != SmartCardProtocol.INS_SELECT
+        || apdu[2] != SmartCardProtocol.P1_SELECT) {
+      return null;
+    }
+    int length = 0xff & apdu[4];
+    int offset = 5;
+    if (length == 0 && apdu.length >= 7) {
+      // extended length
+      length = ((0xff & apdu[5]) << 8) | (0xff & apdu[6]);
+      offset = 7;
+    }
+    if (length == 0 || offset + length > apdu.length) {
+      return null;
+    }
+    return Arrays.copyOfRange(apdu, offset, offset + length);
+  }
+
+  private static IOException lostState(ApplicationConnection source) {
+    String state = source.state;
+    source.state = null;
+    return new IOException(
+        "Application was deselected by another session, the " + state + " was lost");
+  }
+
+  /** Returns a description of the state created by a successful command, or null if none. */
+  private static @Nullable String createdState(ByteBuffer aid, byte[] apdu) {
+    if (apdu.length < 4) {
+      return null;
+    }
+    if ((apdu[0] & CLA_SECURE_MESSAGING) != 0 || apdu[1] == INS_INITIALIZE_UPDATE) {
+      return "secure channel";
+    } else if (apdu[1] == INS_VERIFY) {
+      return "verified PIN";
+    } else if (apdu[1] == INS_OATH_VALIDATE && aid.equals(ByteBuffer.wrap(AppId.OATH))) {
+      return "OATH access code validation";
+    }
+    return null;
+  }
+
+  private static boolean isVersionCommand(ByteBuffer aid, byte[] apdu) {
+    Byte ins = VERSION_COMMANDS.get(aid);
+    return ins != null && apdu.length >= 4 && apdu[0] == 0 && apdu[1] == ins;
+  }
+
+  private static boolean isOk(byte[] response) {
+    int length = response.length;
+    return length >= 2 && response[length - 2] == (byte) 0x90 && response[length - 1] == 0x00;
+  }
+
+  private static boolean hasMoreData(byte[] response) {
+    return response.length >= 2 && response[response.length - 2] == SW_MORE_DATA;
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] result = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  private class ApplicationConnection implements SmartCardConnection {
+    private @Nullable ByteBuffer aid;
+    // Description of the state created on the YubiKey through this connection, if any
+    private @Nullable String state;
+    // The SELECT count when the state was created, if it has changed the state has been reset
+    private long stateSelectCount;
+    private boolean closed;
+
+    @Override
+    public byte[] sendAndReceive(byte[] apdu) throws IOException {
+      if (closed) {
+        throw new IOException("Connection is closed");
+      }
+      return send(this, apdu);
+    }
+
+    @Override
+    public Transport getTransport() {
+      return connection.getTransport();
+    }
+
+    @Override
+    public boolean isExtendedLengthApduSupported() {
+      return connection.isExtendedLengthApduSupported();
+    }
+
+    @Override
+    public byte[] getAtr() {
+      return connection.getAtr();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
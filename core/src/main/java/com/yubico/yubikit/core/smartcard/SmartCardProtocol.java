@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2019-2025 Yubico.
+ * Copyright (C) 2019-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,14 +20,19 @@ import com.yubico.yubikit.core.Transport;
 import com.yubico.yubikit.core.Version;
 import com.yubico.yubikit.core.application.ApplicationNotAvailableException;
 import com.yubico.yubikit.core.application.BadResponseException;
+import com.yubico.yubikit.core.metrics.CommandEvent;
+import com.yubico.yubikit.core.metrics.CommandListener;
+import com.yubico.yubikit.core.metrics.TransportMetrics;
 import com.yubico.yubikit.core.smartcard.scp.DataEncryptor;
 import com.yubico.yubikit.core.smartcard.scp.Scp03KeyParams;
 import com.yubico.yubikit.core.smartcard.scp.Scp11KeyParams;
 import com.yubico.yubikit.core.smartcard.scp.ScpKeyParams;
 import com.yubico.yubikit.core.smartcard.scp.ScpState;
 import com.yubico.yubikit.core.util.Pair;
+import com.yubico.yubikit.core.util.StringUtils;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -46,12 +51,18 @@ public class SmartCardProtocol implements Closeable {
 
   private final SmartCardConnection connection;
 
+  // Wraps the connection, to count the APDUs of each command for the CommandListener
+  private final CountingSmartCardConnection counter;
+
   private boolean extendedApdus = false;
 
   private int maxApduSize = MaxApduSize.NEO;
 
   private ApduProcessor processor;
 
+  // Name of the selected application, as reported to the CommandListener
+  private @Nullable String application;
+
   public static class Configuration {
 
     public static final Configuration DEFAULT = new Builder().setForceShortApdus(false).build();
@@ -87,6 +98,7 @@ public class SmartCardProtocol implements Closeable {
 
   public SmartCardProtocol(SmartCardConnection connection, byte insSendRemaining) {
     this.connection = connection;
+    this.counter = new CountingSmartCardConnection(connection);
     this.insSendRemaining = insSendRemaining;
     processor = buildBaseProcessor().first;
   }
@@ -96,11 +108,11 @@ public class SmartCardProtocol implements Closeable {
     ApduFormatter formatter;
     if (extendedApdus) {
       formatter = new ExtendedApduFormatter(maxApduSize);
-      result = new ApduFormatProcessor(connection, formatter);
+      result = new ApduFormatProcessor(counter, formatter);
     } else {
       formatter = new ShortApduFormatter();
       // Short APDUs need command chaining
-      result = new CommandChainingProcessor(connection, formatter);
+      result = new CommandChainingProcessor(counter, formatter);
     }
 
     // Always wrap with response chaining
@@ -172,8 +184,13 @@ public class SmartCardProtocol implements Closeable {
    */
   public byte[] select(byte[] aid) throws IOException, ApplicationNotAvailableException {
     processor = buildBaseProcessor().first;
+    application = null;
+    String selecting = applicationName(aid);
     try {
-      return sendAndReceive(new Apdu(0, INS_SELECT, P1_SELECT, P2_SELECT, aid));
+      byte[] response =
+          checkSw(send(new Apdu(0, INS_SELECT, P1_SELECT, P2_SELECT, aid), selecting));
+      application = selecting;
+      return response;
     } catch (ApduException e) {
       // FUNCTION_NOT_SUPPORTED or FILE_NOT_FOUND mean that it was not possible
       // to select the AID.
@@ -200,17 +217,78 @@ public class SmartCardProtocol implements Closeable {
    * @throws ApduException in case if received error in APDU response
    */
   public byte[] sendAndReceive(Apdu command) throws IOException, ApduException {
+    return checkSw(send(command, application));
+  }
+
+  private static byte[] checkSw(ApduResponse response) throws ApduException {
+    if (response.getSw() != SW.OK) {
+      throw new ApduException(response.data, response.getSw());
+    }
+    // The response is not shared, so its data can be returned without copying
+    return response.data;
+  }
+
+  private ApduResponse send(Apdu command, @Nullable String applicationName) throws IOException {
+    CommandListener listener = TransportMetrics.getListener();
+    if (listener == CommandListener.NONE) {
+      return send(command);
+    }
+
+    counter.resetCounts();
+    long start = System.nanoTime();
+    ApduResponse response = null;
+    IOException error = null;
     try {
-      ApduResponse response = processor.sendApdu(command);
-      if (response.getSw() != SW.OK) {
-        throw new ApduException(response.getData(), response.getSw());
-      }
-      return response.getData();
+      response = send(command);
+      return response;
+    } catch (IOException e) {
+      error = e;
+      throw e;
+    } finally {
+      listener.onCommand(
+          new CommandEvent.Builder(CommandEvent.Protocol.SMART_CARD)
+              .setApplication(applicationName)
+              .setCommand(command.getIns())
+              .setBytes(counter.bytesSent, counter.bytesReceived)
+              .setFrames(counter.apdus, counter.apdus)
+              .setChaining(counter.chainedCommands, counter.chainedResponses)
+              .setStatus(response != null ? response.getSw() & 0xffff : -1)
+              .setDurationNanos(System.nanoTime() - start)
+              .setError(error)
+              .build());
+    }
+  }
+
+  private ApduResponse send(Apdu command) throws IOException {
+    try {
+      return processor.sendApdu(command);
     } catch (BadResponseException e) {
       throw new IOException(e);
     }
   }
 
+  /** Returns the name of a known application, or the AID in hex. */
+  private static String applicationName(byte[] aid) {
+    if (Arrays.equals(aid, AppId.MANAGEMENT)) {
+      return "MANAGEMENT";
+    } else if (Arrays.equals(aid, AppId.OTP)) {
+      return "OTP";
+    } else if (Arrays.equals(aid, AppId.OATH)) {
+      return "OATH";
+    } else if (Arrays.equals(aid, AppId.PIV)) {
+      return "PIV";
+    } else if (Arrays.equals(aid, AppId.FIDO)) {
+      return "FIDO";
+    } else if (Arrays.equals(aid, AppId.OPENPGP)) {
+      return "OPENPGP";
+    } else if (Arrays.equals(aid, AppId.HSMAUTH)) {
+      return "HSMAUTH";
+    } else if (Arrays.equals(aid, AppId.SECURITYDOMAIN)) {
+      return "SECURITYDOMAIN";
+    }
+    return StringUtils.bytesToHex(aid);
+  }
+
   public @Nullable DataEncryptor initScp(ScpKeyParams keyParams)
       throws IOException, ApduException, BadResponseException {
     try {
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2024-2025 Yubico.
+ * Copyright (C) 2024-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,7 +35,7 @@ class TouchWorkaroundProcessor implements ApduProcessor {
     }
     ApduResponse response = delegate.sendApdu(apdu);
 
-    if (response.getBytes().length > 54) {
+    if (response.data.length + 2 > 54) {
       lastLongResponse = System.currentTimeMillis();
     } else {
       lastLongResponse = 0;
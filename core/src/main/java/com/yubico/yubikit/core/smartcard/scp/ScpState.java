@@ -51,6 +51,7 @@ import javax.crypto.KeyAgreement;
 import javax.crypto.Mac;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import org.jspecify.annotations.Nullable;
@@ -65,6 +66,13 @@ public class ScpState {
   private byte[] macChain;
   private int encCounter = 1;
 
+  // Initialized lazily and kept for the lifetime of the session
+  private @Nullable Cipher ivCipher;
+  private @Nullable Cipher cbcCipher;
+  private @Nullable Mac cmac;
+  private @Nullable Mac rmac;
+  private final byte[] ivBlock = new byte[16];
+
   public ScpState(SessionKeys keys, byte[] macChain) {
     this.keys = keys;
     this.macChain = macChain;
@@ -90,20 +98,15 @@ public class ScpState {
 
     // Encrypt
     try {
-      @SuppressWarnings("GetInstance")
-      Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
-      cipher.init(Cipher.ENCRYPT_MODE, keys.senc);
-      byte[] ivData = ByteBuffer.allocate(16).put(new byte[12]).putInt(encCounter++).array();
-      byte[] iv = cipher.doFinal(ivData);
-
-      cipher = Cipher.getInstance("AES/CBC/NoPadding");
-      cipher.init(Cipher.ENCRYPT_MODE, keys.senc, new IvParameterSpec(iv));
+      Cipher cipher = getCbcCipher();
+      cipher.init(Cipher.ENCRYPT_MODE, keys.senc, counterIv((byte) 0x00, encCounter++));
       return cipher.doFinal(padded);
     } catch (InvalidKeyException
         | NoSuchPaddingException
         | NoSuchAlgorithmException
         | IllegalBlockSizeException
         | BadPaddingException
+        | ShortBufferException
         | InvalidAlgorithmParameterException e) {
       // This should never happen
       throw new RuntimeException(e);
@@ -116,15 +119,8 @@ public class ScpState {
     // Decrypt
     byte[] decrypted = null;
     try {
-      @SuppressWarnings("GetInstance")
-      Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
-      cipher.init(Cipher.ENCRYPT_MODE, keys.senc);
-      byte[] ivData =
-          ByteBuffer.allocate(16).put((byte) 0x80).put(new byte[11]).putInt(encCounter - 1).array();
-      byte[] iv = cipher.doFinal(ivData);
-
-      cipher = Cipher.getInstance("AES/CBC/NoPadding");
-      cipher.init(Cipher.DECRYPT_MODE, keys.senc, new IvParameterSpec(iv));
+      Cipher cipher = getCbcCipher();
+      cipher.init(Cipher.DECRYPT_MODE, keys.senc, counterIv((byte) 0x80, encCounter - 1));
       decrypted = cipher.doFinal(encrypted);
       for (int i = decrypted.length - 1; i > 0; i--) {
         if (decrypted[i] == (byte) 0x80) {
@@ -145,6 +141,7 @@ public class ScpState {
         | NoSuchAlgorithmException
         | IllegalBlockSizeException
         | BadPaddingException
+        | ShortBufferException
         | InvalidAlgorithmParameterException e) {
       // This should never happen
       throw new RuntimeException(e);
@@ -156,11 +153,27 @@ public class ScpState {
   }
 
   public byte[] mac(byte[] data) {
+    return mac(data, 0, data.length);
+  }
+
+  /**
+   * Calculates the C-MAC over a range of data, updating the MAC chaining value.
+   *
+   * @param data the buffer holding the data to MAC
+   * @param offset the offset of the data in the buffer
+   * @param length the length of the data
+   * @return the truncated 8 byte C-MAC
+   */
+  public byte[] mac(byte[] data, int offset, int length) {
     try {
-      Mac mac = Mac.getInstance("AESCMAC");
-      mac.init(keys.smac);
-      mac.update(macChain);
-      macChain = mac.doFinal(data);
+      if (cmac == null) {
+        cmac = Mac.getInstance("AESCMAC");
+        cmac.init(keys.smac);
+      }
+      // doFinal resets the Mac, keeping the key
+      cmac.update(macChain);
+      cmac.update(data, offset, length);
+      macChain = cmac.doFinal();
       return Arrays.copyOf(macChain, 8);
     } catch (NoSuchAlgorithmException | InvalidKeyException e) {
       throw new UnsupportedOperationException("Cryptography provider does not support AESCMAC", e);
@@ -168,17 +181,20 @@ public class ScpState {
   }
 
   public byte[] unmac(byte[] data, short sw) throws BadResponseException {
-    byte[] msg =
-        ByteBuffer.allocate(data.length - 8 + 2).put(data, 0, data.length - 8).putShort(sw).array();
-
+    int msgLength = data.length - 8;
     try {
-      Mac mac = Mac.getInstance("AESCMAC");
-      mac.init(keys.srmac);
-      mac.update(macChain);
-
-      byte[] rmac = Arrays.copyOf(mac.doFinal(msg), 8);
-      if (MessageDigest.isEqual(rmac, Arrays.copyOfRange(data, data.length - 8, data.length))) {
-        return Arrays.copyOf(msg, msg.length - 2);
+      if (rmac == null) {
+        rmac = Mac.getInstance("AESCMAC");
+        rmac.init(keys.srmac);
+      }
+      rmac.update(macChain);
+      rmac.update(data, 0, msgLength);
+      rmac.update((byte) (sw >> 8));
+      rmac.update((byte) sw);
+
+      byte[] expected = Arrays.copyOf(rmac.doFinal(), 8);
+      if (MessageDigest.isEqual(expected, Arrays.copyOfRange(data, msgLength, data.length))) {
+        return Arrays.copyOf(data, msgLength);
       }
       throw new BadResponseException("Wrong MAC");
     } catch (NoSuchAlgorithmException | InvalidKeyException e) {
@@ -186,6 +202,38 @@ public class ScpState {
     }
   }
 
+  private Cipher getCbcCipher() throws NoSuchAlgorithmException, NoSuchPaddingException {
+    if (cbcCipher == null) {
+      cbcCipher = Cipher.getInstance("AES/CBC/NoPadding");
+    }
+    return cbcCipher;
+  }
+
+  /** Derives the IV for a command or response from the encryption counter. */
+  private IvParameterSpec counterIv(byte prefix, int counter)
+      throws NoSuchAlgorithmException,
+          NoSuchPaddingException,
+          InvalidKeyException,
+          IllegalBlockSizeException,
+          BadPaddingException,
+          ShortBufferException {
+    if (ivCipher == null) {
+      @SuppressWarnings("GetInstance")
+      Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
+      cipher.init(Cipher.ENCRYPT_MODE, keys.senc);
+      ivCipher = cipher;
+    }
+    Arrays.fill(ivBlock, (byte) 0);
+    ivBlock[0] = prefix;
+    ivBlock[12] = (byte) (counter >> 24);
+    ivBlock[13] = (byte) (counter >> 16);
+    ivBlock[14] = (byte) (counter >> 8);
+    ivBlock[15] = (byte) counter;
+    ivCipher.doFinal(ivBlock, 0, ivBlock.length, ivBlock, 0);
+    // IvParameterSpec keeps its own copy of the block
+    return new IvParameterSpec(ivBlock);
+  }
+
   public static Pair<ScpState, byte[]> scp03Init(
       ApduProcessor processor, Scp03KeyParams keyParams, byte @Nullable [] hostChallenge)
       throws BadResponseException, IOException, ApduException {
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2019-2025 Yubico.
+ * Copyright (C) 2019-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,7 @@
 
 package com.yubico.yubikit.core.util;
 
-import java.io.ByteArrayOutputStream;
-import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Locale;
@@ -37,27 +36,21 @@ public class Tlv {
   /** Creates a new Tlv given a tag and a value. */
   public Tlv(int tag, byte @Nullable [] value) {
     this.tag = tag;
-    ByteArrayOutputStream stream = new ByteArrayOutputStream();
-
-    byte[] tagBytes = BigInteger.valueOf(tag).toByteArray();
-    int stripLeading = tagBytes[0] == 0 ? 1 : 0;
-    stream.write(tagBytes, stripLeading, tagBytes.length - stripLeading);
-
     length = value == null ? 0 : value.length;
-    if (length < 0x80) {
-      stream.write(length);
-    } else {
-      byte[] lnBytes = BigInteger.valueOf(length).toByteArray();
-      stripLeading = lnBytes[0] == 0 ? 1 : 0;
-      stream.write(0x80 | lnBytes.length - stripLeading);
-      stream.write(lnBytes, stripLeading, lnBytes.length - stripLeading);
-    }
-
-    offset = stream.size();
+    offset = headerLength(tag, length);
+    bytes = new byte[offset + length];
+    writeHeader(tag, length, bytes, 0);
     if (value != null) {
-      stream.write(value, 0, length);
+      System.arraycopy(value, 0, bytes, offset, length);
     }
-    bytes = stream.toByteArray();
+  }
+
+  /** Wraps an already encoded TLV, without copying it. */
+  Tlv(int tag, byte[] encoded, int valueOffset, int length) {
+    this.tag = tag;
+    this.bytes = encoded;
+    this.offset = valueOffset;
+    this.length = length;
   }
 
   /** Returns the tag. */
@@ -80,6 +73,21 @@ public class Tlv {
     return Arrays.copyOf(bytes, bytes.length);
   }
 
+  /** Returns the length of the BER-TLV encoding of this Tlv. */
+  int getEncodedLength() {
+    return bytes.length;
+  }
+
+  /**
+   * Writes the BER-TLV encoding of this Tlv into dst.
+   *
+   * @return the number of bytes written.
+   */
+  int writeTo(byte[] dst, int dstOffset) {
+    System.arraycopy(bytes, 0, dst, dstOffset, bytes.length);
+    return bytes.length;
+  }
+
   @Override
   public String toString() {
     return String.format(
@@ -114,27 +122,49 @@ public class Tlv {
   }
 
   static Tlv parseFrom(ByteBuffer buffer) {
-    int tag = buffer.get() & 0xFF;
-    if ((tag & 0x1F) == 0x1F) { // Long form tag
-      tag = (tag << 8) | (buffer.get() & 0xFF);
-      while ((tag & 0x80) == 0x80) {
-        tag = (tag << 8) | (buffer.get() & 0xFF);
-      }
+    TlvReader reader = new TlvReader(buffer);
+    if (!reader.next()) {
+      throw new BufferUnderflowException();
     }
+    return reader.getTlv();
+  }
+
+  /** Returns the number of bytes needed to encode the tag and length of a TLV. */
+  static int headerLength(int tag, int length) {
+    return tagByteCount(tag) + (length < 0x80 ? 1 : 1 + byteCount(length));
+  }
 
-    int length = buffer.get() & 0xFF;
-    if (length == 0x80) {
-      throw new IllegalArgumentException("Indefinite length not supported");
-    } else if (length > 0x80) {
-      int lengthLn = length - 0x80;
-      length = 0;
-      for (int i = 0; i < lengthLn; i++) {
-        length = (length << 8) | (buffer.get() & 0xff);
-      }
+  /**
+   * Writes the BER-TLV encoded tag and length into dst.
+   *
+   * @return the number of bytes written.
+   */
+  static int writeHeader(int tag, int length, byte[] dst, int offset) {
+    int pos = writeBigEndian(tag, tagByteCount(tag), dst, offset);
+    if (length < 0x80) {
+      dst[pos++] = (byte) length;
+    } else {
+      int lengthLn = byteCount(length);
+      dst[pos++] = (byte) (0x80 | lengthLn);
+      pos = writeBigEndian(length, lengthLn, dst, pos);
     }
+    return pos - offset;
+  }
+
+  private static int tagByteCount(int tag) {
+    // Tags given as a sign-extended byte or short, such as (byte) 0xac, are written without the
+    // leading 0xff bytes
+    return tag < 0 ? (32 - Integer.numberOfLeadingZeros(~tag)) / 8 + 1 : byteCount(tag);
+  }
 
-    byte[] value = new byte[length];
-    buffer.get(value);
-    return new Tlv(tag, value);
+  private static int byteCount(int value) {
+    return Math.max(1, (39 - Integer.numberOfLeadingZeros(value)) / 8);
+  }
+
+  private static int writeBigEndian(int value, int count, byte[] dst, int offset) {
+    for (int i = count - 1; i >= 0; i--) {
+      dst[offset++] = (byte) (value >>> (8 * i));
+    }
+    return offset;
   }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.core.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Streaming reader for a sequence of BER-TLV encoded values.
+ *
+ * <p>The reader walks the underlying buffer in place and only exposes the tag, offset and length of
+ * the current element, so iterating over a sequence does not allocate. Value bytes are only copied
+ * when explicitly requested through {@link #getValue()}.
+ *
+ * <pre>{@code
+ * TlvReader reader = new TlvReader(data);
+ * while (reader.next()) {
+ *   if (reader.getTag() == TAG_NAME) {
+ *     name = reader.getValue();
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>Offsets returned by {@link #getValueOffset()} and {@link #getOffset()} are absolute indices
+ * into the buffer passed to the constructor. This class is not thread safe.
+ */
+public class TlvReader {
+  private final ByteBuffer buffer;
+  private int tag;
+  private int offset = -1;
+  private int valueOffset;
+  private int valueLength;
+
+  /**
+   * Creates a reader over all of the given data.
+   *
+   * @param data a byte array containing a sequence of TLV encoded values.
+   */
+  public TlvReader(byte[] data) {
+    this(data, 0, data.length);
+  }
+
+  /**
+   * Creates a reader over a range of the given data.
+   *
+   * @param data a byte array containing a sequence of TLV encoded values.
+   * @param offset the offset in data where the TLV data begins.
+   * @param length the length of the TLV encoded data.
+   */
+  public TlvReader(byte[] data, int offset, int length) {
+    this(ByteBuffer.wrap(data, offset, length));
+  }
+
+  /**
+   * Creates a reader over the remaining bytes of a buffer.
+   *
+   * <p>The reader consumes the buffer, advancing its position past each element read.
+   *
+   * @param buffer a buffer positioned at the start of the TLV encoded data.
+   */
+  public TlvReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /** Returns true if there is more data to read. */
+  public boolean hasRemaining() {
+    return buffer.hasRemaining();
+  }
+
+  /**
+   * Advances to the next TLV element.
+   *
+   * @return true if an element was read, false if the end of the data was reached.
+   * @throws IllegalArgumentException if the element uses indefinite length encoding.
+   * @throws BufferUnderflowException if the element is truncated.
+   */
+  public boolean next() {
+    if (!buffer.hasRemaining()) {
+      return false;
+    }
+    int start = buffer.position();
+    int t = buffer.get() & 0xFF;
+    if ((t & 0x1F) == 0x1F) { // Long form tag
+      t = (t << 8) | (buffer.get() & 0xFF);
+      while ((t & 0x80) == 0x80) {
+        t = (t << 8) | (buffer.get() & 0xFF);
+      }
+    }
+
+    int ln = buffer.get() & 0xFF;
+    if (ln == 0x80) {
+      throw new IllegalArgumentException("Indefinite length not supported");
+    } else if (ln > 0x80) {
+      int lengthLn = ln - 0x80;
+      ln = 0;
+      for (int i = 0; i < lengthLn; i++) {
+        ln = (ln << 8) | (buffer.get() & 0xff);
+      }
+    }
+
+    if (ln < 0 || ln > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+
+    tag = t;
+    offset = start;
+    valueOffset = buffer.position();
+    valueLength = ln;
+    buffer.position(valueOffset + ln);
+    return true;
+  }
+
+  /** Returns the tag of the current element. */
+  public int getTag() {
+    ensureElement();
+    return tag;
+  }
+
+  /** Returns the offset of the first byte of the current element, including its tag. */
+  public int getOffset() {
+    ensureElement();
+    return offset;
+  }
+
+  /** Returns the total length of the current element, including tag and length bytes. */
+  public int getEncodedLength() {
+    ensureElement();
+    return valueOffset + valueLength - offset;
+  }
+
+  /** Returns the offset of the first value byte of the current element. */
+  public int getValueOffset() {
+    ensureElement();
+    return valueOffset;
+  }
+
+  /** Returns the length of the value of the current element. */
+  public int getValueLength() {
+    ensureElement();
+    return valueLength;
+  }
+
+  /** Returns a copy of the value of the current element. */
+  public byte[] getValue() {
+    ensureElement();
+    byte[] value = new byte[valueLength];
+    copyTo(valueOffset, value, 0, valueLength);
+    return value;
+  }
+
+  /**
+   * Returns a read-only view of the value of the current element, without copying it.
+   *
+   * <p>The returned buffer shares its content with the underlying data.
+   */
+  public ByteBuffer getValueBuffer() {
+    ensureElement();
+    ByteBuffer view = buffer.duplicate();
+    view.limit(valueOffset + valueLength).position(valueOffset);
+    return view.slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns a reader over the value of the current element, for parsing constructed values.
+   *
+   * <p>The returned reader shares its content with the underlying data.
+   */
+  public TlvReader getValueReader() {
+    ensureElement();
+    ByteBuffer view = buffer.duplicate();
+    view.limit(valueOffset + valueLength).position(valueOffset);
+    return new TlvReader(view);
+  }
+
+  /** Returns the current element as a {@link Tlv}, copying its encoding once. */
+  public Tlv getTlv() {
+    ensureElement();
+    byte[] encoded = new byte[valueOffset + valueLength - offset];
+    copyTo(offset, encoded, 0, encoded.length);
+    return new Tlv(tag, encoded, valueOffset - offset, valueLength);
+  }
+
+  private void copyTo(int index, byte[] dst, int dstOffset, int length) {
+    if (buffer.hasArray()) {
+      System.arraycopy(buffer.array(), buffer.arrayOffset() + index, dst, dstOffset, length);
+    } else {
+      ByteBuffer view = buffer.duplicate();
+      view.limit(index + length).position(index);
+      view.get(dst, dstOffset, length);
+    }
+  }
+
+  private void ensureElement() {
+    if (offset < 0) {
+      throw new IllegalStateException("No current element, call next() first");
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2019-2022 Yubico.
+ * Copyright (C) 2019-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,12 +17,11 @@
 package com.yubico.yubikit.core.util;
 
 import com.yubico.yubikit.core.application.BadResponseException;
-import java.io.ByteArrayOutputStream;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.jspecify.annotations.Nullable;
 
 /** Utility methods to encode and decode BER-TLV data. */
 public class Tlvs {
@@ -34,11 +33,10 @@ public class Tlvs {
    * @return list of Tlvs
    */
   public static List<Tlv> decodeList(byte[] data) {
-    ByteBuffer buffer = ByteBuffer.wrap(data);
+    TlvReader reader = new TlvReader(data);
     List<Tlv> tlvs = new ArrayList<>();
-    while (buffer.hasRemaining()) {
-      Tlv tlv = Tlv.parseFrom(buffer);
-      tlvs.add(tlv);
+    while (reader.next()) {
+      tlvs.add(reader.getTlv());
     }
     return tlvs;
   }
@@ -53,11 +51,10 @@ public class Tlvs {
    * @return map of Tag-Value pairs
    */
   public static Map<Integer, byte[]> decodeMap(byte[] data) {
-    ByteBuffer buffer = ByteBuffer.wrap(data);
+    TlvReader reader = new TlvReader(data);
     Map<Integer, byte[]> tlvs = new LinkedHashMap<>();
-    while (buffer.hasRemaining()) {
-      Tlv tlv = Tlv.parseFrom(buffer);
-      tlvs.put(tlv.getTag(), tlv.getValue());
+    while (reader.next()) {
+      tlvs.put(reader.getTag(), reader.getValue());
     }
     return tlvs;
   }
@@ -69,12 +66,16 @@ public class Tlvs {
    * @return the data encoded as a sequence of TLV values
    */
   public static byte[] encodeList(Iterable<? extends Tlv> list) {
-    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    int size = 0;
     for (Tlv tlv : list) {
-      byte[] tlvBytes = tlv.getBytes();
-      stream.write(tlvBytes, 0, tlvBytes.length);
+      size += tlv.getEncodedLength();
     }
-    return stream.toByteArray();
+    byte[] data = new byte[size];
+    int offset = 0;
+    for (Tlv tlv : list) {
+      offset += tlv.writeTo(data, offset);
+    }
+    return data;
   }
 
   /**
@@ -87,13 +88,23 @@ public class Tlvs {
    * @return the data encoded as a sequence of TLV values
    */
   public static byte[] encodeMap(Map<Integer, byte[]> map) {
-    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    int size = 0;
+    for (Map.Entry<Integer, byte[]> entry : map.entrySet()) {
+      int length = valueLength(entry.getValue());
+      size += Tlv.headerLength(entry.getKey(), length) + length;
+    }
+    byte[] data = new byte[size];
+    int offset = 0;
     for (Map.Entry<Integer, byte[]> entry : map.entrySet()) {
-      Tlv tlv = new Tlv(entry.getKey(), entry.getValue());
-      byte[] tlvBytes = tlv.getBytes();
-      stream.write(tlvBytes, 0, tlvBytes.length);
+      byte @Nullable [] value = entry.getValue();
+      int length = valueLength(value);
+      offset += Tlv.writeHeader(entry.getKey(), length, data, offset);
+      if (value != null) {
+        System.arraycopy(value, 0, data, offset, length);
+      }
+      offset += length;
     }
-    return stream.toByteArray();
+    return data;
   }
 
   /**
@@ -105,11 +116,19 @@ public class Tlvs {
    * @throws BadResponseException if the TLV tag differs from expectedTag
    */
   public static byte[] unpackValue(int expectedTag, byte[] tlvData) throws BadResponseException {
-    Tlv tlv = Tlv.parse(tlvData, 0, tlvData.length);
-    if (tlv.getTag() != expectedTag) {
+    TlvReader reader = new TlvReader(tlvData);
+    reader.next();
+    if (reader.hasRemaining()) {
+      throw new IllegalArgumentException("Extra data remaining");
+    }
+    if (reader.getTag() != expectedTag) {
       throw new BadResponseException(
-          String.format("Expected tag: %02x, got %02x", expectedTag, tlv.getTag()));
+          String.format("Expected tag: %02x, got %02x", expectedTag, reader.getTag()));
     }
-    return tlv.getValue();
+    return reader.getValue();
+  }
+
+  private static int valueLength(byte @Nullable [] value) {
+    return value == null ? 0 : value.length;
   }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class HistogramCommandListenerTest {
+
+  @Test
+  public void summarizesPerCommand() {
+    HistogramCommandListener listener = new HistogramCommandListener();
+    for (int i = 1; i <= 100; i++) {
+      listener.onCommand(event("PIV", 0x87, i * 100, null));
+    }
+    listener.onCommand(event("OATH", 0xa4, 50, null));
+    listener.onCommand(event("OATH", 0xa4, 150, new IOException()));
+
+    List<HistogramCommandListener.Summary> summaries = listener.getSummaries();
+    assertEquals(2, summaries.size());
+
+    HistogramCommandListener.Summary piv = summaries.get(0);
+    assertEquals("PIV", piv.getApplication());
+    assertEquals(0x87, piv.getCommand());
+    assertEquals(100, piv.getCount());
+    assertEquals(0, piv.getErrorCount());
+    assertEquals(micros(10_000), piv.getMaxNanos());
+    assertEquals(micros(5_050), piv.getMeanNanos());
+    assertEquals(1000, piv.getBytesSent());
+    // 5ms falls in the bucket below 8192us, the maximum is below the upper bound of its bucket
+    assertEquals(micros(8192), piv.getPercentileNanos(50));
+    assertEquals(micros(10_000), piv.getPercentileNanos(99));
+    assertEquals(micros(128), piv.getPercentileNanos(0));
+
+    HistogramCommandListener.Summary oath = summaries.get(1);
+    assertEquals("OATH", oath.getApplication());
+    assertEquals(2, oath.getCount());
+    assertEquals(1, oath.getErrorCount());
+    assertEquals(micros(64), oath.getPercentileNanos(50));
+
+    listener.reset();
+    assertEquals(0, listener.getSummaries().size());
+  }
+
+  private static CommandEvent event(
+      String application, int command, long durationMicros, Exception error) {
+    return new CommandEvent.Builder(CommandEvent.Protocol.SMART_CARD)
+        .setApplication(application)
+        .setCommand(command)
+        .setBytes(10, 2)
+        .setDurationNanos(micros(durationMicros))
+        .setError(error)
+        .build();
+  }
+
+  private static long micros(long micros) {
+    return TimeUnit.MICROSECONDS.toNanos(micros);
+  }
+}
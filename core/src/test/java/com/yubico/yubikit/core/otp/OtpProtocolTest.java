@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.otp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.yubico.yubikit.core.application.CommandState;
+import com.yubico.yubikit.core.application.TimeoutException;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class OtpProtocolTest {
+  private static final byte SLOT = 0x30;
+  private static final byte[] CHALLENGE = new byte[64];
+  private static final byte[] RESPONSE = new byte[22];
+
+  static {
+    Arrays.fill(CHALLENGE, (byte) 0x55);
+    for (int i = 0; i < RESPONSE.length; i++) {
+      RESPONSE[i] = (byte) (i + 1);
+    }
+  }
+
+  @Test
+  public void pollsWithoutFixedDelays() throws Exception {
+    // The YubiKey is busy after each report written, and processes the command for a few polls
+    FakeOtpConnection connection = new FakeOtpConnection(1, 3, 0);
+    OtpProtocol protocol = new OtpProtocol(connection);
+    RecordingState state = new RecordingState();
+
+    long start = System.nanoTime();
+    byte[] response = protocol.sendAndReceive(SLOT, CHALLENGE, state);
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertArrayEquals(RESPONSE, Arrays.copyOf(response, RESPONSE.length));
+    assertEquals(10, connection.reportsWritten);
+    // Busy after the last report written, then processing
+    assertEquals(Collections.nCopies(4, CommandState.STATUS_PROCESSING), state.statuses);
+    // Fixed delays of 50 ms for each write would take over 450 ms
+    assertTrue("Took " + elapsed + " ms", elapsed < 200);
+  }
+
+  @Test
+  public void waitsForTouch() throws Exception {
+    FakeOtpConnection connection = new FakeOtpConnection(0, 0, 2);
+    OtpProtocol protocol = new OtpProtocol(connection);
+    RecordingState state = new RecordingState();
+
+    byte[] response = protocol.sendAndReceive(SLOT, CHALLENGE, state);
+    assertArrayEquals(RESPONSE, Arrays.copyOf(response, RESPONSE.length));
+    assertEquals(
+        Arrays.asList(CommandState.STATUS_UPNEEDED, CommandState.STATUS_UPNEEDED), state.statuses);
+  }
+
+  @Test
+  public void cancelsWaitForTouch() throws Exception {
+    FakeOtpConnection connection = new FakeOtpConnection(0, 0, 100);
+    OtpProtocol protocol = new OtpProtocol(connection);
+    CommandState state =
+        new CommandState() {
+          @Override
+          public void onKeepAliveStatus(byte status) {
+            cancel();
+          }
+        };
+
+    try {
+      protocol.sendAndReceive(SLOT, CHALLENGE, state);
+      fail("Expected TimeoutException");
+    } catch (TimeoutException e) {
+      assertTrue(connection.resetWritten);
+    }
+  }
+
+  @Test
+  public void timesOutWaitingToWrite() throws Exception {
+    FakeOtpConnection connection = new FakeOtpConnection(Integer.MAX_VALUE, 0, 0);
+    OtpProtocol protocol =
+        new OtpProtocol(
+            connection, new OtpWaitStrategy.Builder().setWriteTimeoutMillis(50).build());
+
+    try {
+      protocol.sendAndReceive(SLOT, CHALLENGE, null);
+      fail("Expected IOException");
+    } catch (IOException e) {
+      assertEquals(1, connection.reportsWritten);
+    }
+  }
+
+  private static class RecordingState extends CommandState {
+    final List<Byte> statuses = new ArrayList<>();
+
+    @Override
+    public void onKeepAliveStatus(byte status) {
+      statuses.add(status);
+    }
+  }
+
+  /** Acts as a YubiKey over the OTP HID interface, responding to any command with RESPONSE. */
+  private static class FakeOtpConnection implements OtpConnection {
+    private final int writeBusyPolls;
+    private final int processingPolls;
+    private final int touchPolls;
+
+    private int busy;
+    private int processing;
+    private int touch;
+    private final Deque<byte[]> responseReports = new ArrayDeque<>();
+
+    int reportsWritten;
+    boolean resetWritten;
+
+    FakeOtpConnection(int writeBusyPolls, int processingPolls, int touchPolls) {
+      this.writeBusyPolls = writeBusyPolls;
+      this.processingPolls = processingPolls;
+      this.touchPolls = touchPolls;
+    }
+
+    @Override
+    public void send(byte[] report) {
+      if ((0xff & report[7]) == OtpProtocol.DUMMY_REPORT_WRITE) {
+        resetWritten = true;
+        responseReports.clear();
+        return;
+      }
+      reportsWritten++;
+      busy = writeBusyPolls;
+      if ((report[7] & OtpProtocol.SEQUENCE_MASK) == 9) {
+        // Last report of the frame
+        processing = processingPolls;
+        touch = touchPolls;
+        byte seq = 0;
+        for (int offset = 0; offset < RESPONSE.length; offset += 7) {
+          byte[] responseReport =
+              Arrays.copyOf(Arrays.copyOfRange(RESPONSE, offset, offset + 7), 8);
+          responseReport[7] = (byte) (OtpProtocol.RESP_PENDING_FLAG | seq++);
+          responseReports.add(responseReport);
+        }
+        byte[] end = new byte[8];
+        end[7] = OtpProtocol.RESP_PENDING_FLAG;
+        responseReports.add(end);
+      }
+    }
+
+    @Override
+    public void receive(byte[] report) {
+      Arrays.fill(report, (byte) 0);
+      if (busy > 0) {
+        busy--;
+        report[7] = (byte) OtpProtocol.SLOT_WRITE_FLAG;
+      } else if (touch > 0) {
+        touch--;
+        report[7] = (byte) (OtpProtocol.RESP_TIMEOUT_WAIT_FLAG | 15);
+      } else if (processing > 0) {
+        processing--;
+        report[7] = (byte) OtpProtocol.SLOT_WRITE_FLAG;
+      } else if (!responseReports.isEmpty()) {
+        System.arraycopy(responseReports.poll(), 0, report, 0, 8);
+      } else {
+        // Status: version 5.4.3, programming sequence 1
+        report[1] = 5;
+        report[2] = 4;
+        report[3] = 3;
+        report[4] = 1;
+      }
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.otp;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class OtpWaitStrategyTest {
+
+  @Test
+  public void backsOffExponentially() {
+    OtpWaitStrategy.Backoff backoff = new OtpWaitStrategy.Backoff(2, 1, 20);
+    long[] expected = {0, 0, 1, 2, 4, 8, 16, 20, 20};
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], backoff.getDelayMillis(i));
+    }
+    assertEquals(20, backoff.getDelayMillis(Integer.MAX_VALUE));
+
+    OtpWaitStrategy.Backoff large = new OtpWaitStrategy.Backoff(0, 1L << 40, Long.MAX_VALUE);
+    assertEquals(1L << 62, large.getDelayMillis(22));
+    assertEquals(Long.MAX_VALUE, large.getDelayMillis(23));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsZeroDelay() {
+    new OtpWaitStrategy.Backoff(2, 0, 20);
+  }
+}
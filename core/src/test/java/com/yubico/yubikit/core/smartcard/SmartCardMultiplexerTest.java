@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.core.smartcard;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.Version;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class SmartCardMultiplexerTest {
+  private static final byte INS_GET_VERSION = (byte) 0xfd;
+  private static final byte INS_OTHER = 0x12;
+  private static final byte INS_VERIFY = 0x20;
+  private static final byte INS_VALIDATE = (byte) 0xa3;
+  private static final byte INS_INITIALIZE_UPDATE = 0x50;
+
+  private final FakeConnection connection = new FakeConnection();
+  private final SmartCardMultiplexer multiplexer = new SmartCardMultiplexer(connection);
+
+  @Test
+  public void switchesOnlyWhenAnotherApplicationSendsCommands() throws Exception {
+    SmartCardProtocol oath = new SmartCardProtocol(multiplexer.openConnection());
+    SmartCardProtocol piv = new SmartCardProtocol(multiplexer.openConnection());
+
+    oath.select(AppId.OATH);
+    piv.select(AppId.PIV);
+    assertArrayEquals(AppId.PIV, multiplexer.getSelectedAid());
+
+    piv.sendAndReceive(new Apdu(0, INS_OTHER, 0, 0, null));
+    piv.sendAndReceive(new Apdu(0, INS_OTHER, 0, 0, null));
+    oath.sendAndReceive(new Apdu(0, INS_OTHER, 0, 0, null));
+    oath.sendAndReceive(new Apdu(0, INS_OTHER, 0, 0, null));
+    piv.sendAndReceive(new Apdu(0, INS_OTHER, 0, 0, null));
+
+    assertEquals(
+        Arrays.asList(
+            "select OATH",
+            "select PIV",
+            "command",
+            "command",
+            "select OATH",
+            "command",
+            "command",
+            "select PIV",
+            "command"),
+        connection.log);
+  }
+
+  @Test
+  public void cachesSelectAndVersion() throws Exception {
+    SmartCardProtocol first = new SmartCardProtocol(multiplexer.openConnection());
+    byte[] selectResponse = first.select(AppId.PIV);
+    Version version =
+        Version.fromBytes(first.sendAndReceive(new Apdu(0, INS_GET_VERSION, 0, 0, null)));
+    assertEquals(new Version(5, 7, 2), version);
+
+    // A new session for the same application, switching back from another one
+    SmartCardProtocol other = new SmartCardProtocol(multiplexer.openConnection());
+    other.select(AppId.OATH);
+    SmartCardProtocol second = new SmartCardProtocol(multiplexer.openConnection());
+    assertArrayEquals(selectResponse, second.select(AppId.PIV));
+    assertArrayEquals(
+        new byte[] {5, 7, 2}, second.sendAndReceive(new Apdu(0, INS_GET_VERSION, 0, 0, null)));
+
+    // Selecting the freshly selected application again is served from the cache
+    SmartCardProtocol third = new SmartCardProtocol(multiplexer.openConnection());
+    assertArrayEquals(selectResponse, third.select(AppId.PIV));
+
+    assertEquals(
+        Arrays.asList("select PIV", "version", "select OATH", "select PIV"), connection.log);
+  }
+
+  @Test
+  public void failedSelectIsNotTracked() throws Exception {
+    SmartCardProtocol protocol = new SmartCardProtocol(multiplexer.openConnection());
+    protocol.select(AppId.PIV);
+    assertThrows(Exception.class, () -> protocol.select(AppId.HSMAUTH));
+    assertNull(multiplexer.getSelectedAid());
+
+    // The application bound to the connection is selected again
+    protocol.sendAndReceive(new Apdu(0, INS_OTHER, 0, 0, null));
+    assertEquals(
+        Arrays.asList("select PIV", "select HSMAUTH", "select PIV", "command"), connection.log);
+  }
+
+  @Test
+  public void switchingAwayFromStateFailsTheStatefulSession() throws Exception {
+    SmartCardProtocol piv = new SmartCardProtocol(multiplexer.openConnection());
+    SmartCardProtocol oath = new SmartCardProtocol(multiplexer.openConnection());
+    piv.select(AppId.PIV);
+    piv.sendAndReceive(new Apdu(0, INS_VERIFY, 0, 0x80, new byte[8]));
+    oath.select(AppId.OATH);
+    oath.sendAndReceive(new Apdu(0, INS_VALIDATE, 0, 0, new byte[4]));
+
+    IOException e =
+        assertThrows(
+            IOException.class, () -> piv.sendAndReceive(new Apdu(0, INS_OTHER, 0, 0, null)));
+    assertTrue(e.getMessage().contains("verified PIN"));
+    // PIV was not selected again, which would also reset the OATH validation
+    assertArrayEquals(AppId.OATH, multiplexer.getSelectedAid());
+
+    // Once reported, the session starts over without the state
+    piv.sendAndReceive(new Apdu(0, INS_OTHER, 0, 0, null));
+    e =
+        assertThrows(
+            IOException.class, () -> oath.sendAndReceive(new Apdu(0, INS_OTHER, 0, 0, null)));
+    assertTrue(e.getMessage().contains("OATH"));
+
+    assertEquals(
+        Arrays.asList("select PIV", "command", "select OATH", "command", "select PIV", "command"),
+        connection.log);
+  }
+
+  @Test
+  public void secureChannelStateIsTracked() throws Exception {
+    SmartCardProtocol piv = new SmartCardProtocol(multiplexer.openConnection());
+    SmartCardProtocol oath = new SmartCardProtocol(multiplexer.openConnection());
+    piv.select(AppId.PIV);
+    piv.sendAndReceive(new Apdu(0x84, INS_OTHER, 0, 0, new byte[8]));
+    oath.select(AppId.OATH);
+    IOException e =
+        assertThrows(
+            IOException.class, () -> piv.sendAndReceive(new Apdu(0x84, INS_OTHER, 0, 0, null)));
+    assertTrue(e.getMessage().contains("secure channel"));
+
+    // Another session selecting the same application also resets the channel
+    piv.select(AppId.PIV);
+    piv.sendAndReceive(new Apdu(0x80, INS_INITIALIZE_UPDATE, 0, 0, new byte[8]));
+    new SmartCardProtocol(multiplexer.openConnection()).select(AppId.PIV);
+    assertThrows(
+        IOException.class, () -> piv.sendAndReceive(new Apdu(0x84, INS_OTHER, 0, 0, null)));
+  }
+
+  @Test
+  public void closedConnectionsDoNotCloseTheMultiplexer() throws Exception {
+    SmartCardConnection first = multiplexer.openConnection();
+    first.close();
+    assertThrows(IOException.class, () -> first.sendAndReceive(new byte[] {0, INS_OTHER, 0, 0}));
+    multiplexer.openConnection().sendAndReceive(new byte[] {0, INS_OTHER, 0, 0});
+    assertEquals(0, connection.closed);
+
+    multiplexer.close();
+    assertEquals(1, connection.closed);
+  }
+
+  private static class FakeConnection implements SmartCardConnection {
+    final List<String> log = new ArrayList<>();
+    int closed;
+
+    @Override
+    public byte[] sendAndReceive(byte[] apdu) {
+      if (apdu[1] == SmartCardProtocol.INS_SELECT) {
+        byte[] aid = Arrays.copyOfRange(apdu, 5, 5 + apdu[4]);
+        if (Arrays.equals(aid, AppId.HSMAUTH)) {
+          log.add("select HSMAUTH");
+          return new byte[] {0x6a, (byte) 0x82};
+        }
+        log.add("select " + (Arrays.equals(aid, AppId.PIV) ? "PIV" : "OATH"));
+        return new byte[] {aid[aid.length - 1], (byte) 0x90, 0x00};
+      } else if (apdu[1] == INS_GET_VERSION) {
+        log.add("version");
+        return new byte[] {5, 7, 2, (byte) 0x90, 0x00};
+      }
+      log.add("command");
+      return new byte[] {(byte) 0x90, 0x00};
+    }
+
+    @Override
+    public Transport getTransport() {
+      return Transport.USB;
+    }
+
+    @Override
+    public boolean isExtendedLengthApduSupported() {
+      return false;
+    }
+
+    @Override
+    public byte[] getAtr() {
+      return new byte[0];
+    }
+
+    @Override
+    public void close() {
+      closed++;
+    }
+  }
+}
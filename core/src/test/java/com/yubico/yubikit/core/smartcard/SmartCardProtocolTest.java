@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.core.smartcard;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.Version;
+import com.yubico.yubikit.core.metrics.CommandEvent;
+import com.yubico.yubikit.core.metrics.TransportMetrics;
+import com.yubico.yubikit.core.util.RandomUtils;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SmartCardProtocolTest {
+
+  @Test
+  public void testCommandChaining() throws Exception {
+    ScriptedConnection connection = new ScriptedConnection(false);
+    connection.responses.add(new byte[] {(byte) 0x90, 0x00});
+    connection.responses.add(new byte[] {(byte) 0x90, 0x00});
+    connection.responses.add(new byte[] {0x01, 0x02, (byte) 0x90, 0x00});
+
+    byte[] data = RandomUtils.getRandomBytes(600);
+    SmartCardProtocol protocol = new SmartCardProtocol(connection);
+    byte[] response = protocol.sendAndReceive(new Apdu(0x00, 0x12, 0x34, 0x56, data));
+    Assert.assertArrayEquals(new byte[] {0x01, 0x02}, response);
+
+    Assert.assertEquals(3, connection.commands.size());
+    assertFrame(connection.commands.get(0), 0x10, data, 0, 255);
+    assertFrame(connection.commands.get(1), 0x10, data, 255, 255);
+    assertFrame(connection.commands.get(2), 0x00, data, 510, 90);
+  }
+
+  @Test
+  public void testCommandChainingStopsOnError() throws Exception {
+    ScriptedConnection connection = new ScriptedConnection(false);
+    connection.responses.add(new byte[] {0x6a, (byte) 0x80});
+
+    SmartCardProtocol protocol = new SmartCardProtocol(connection);
+    try {
+      protocol.sendAndReceive(new Apdu(0x00, 0x12, 0, 0, new byte[300]));
+      Assert.fail("Expected ApduException");
+    } catch (ApduException e) {
+      Assert.assertEquals(SW.INCORRECT_PARAMETERS, e.getSw());
+    }
+    Assert.assertEquals(1, connection.commands.size());
+  }
+
+  @Test
+  public void testExtendedApdu() throws Exception {
+    ScriptedConnection connection = new ScriptedConnection(true);
+    connection.responses.add(new byte[] {(byte) 0x90, 0x00});
+
+    SmartCardProtocol protocol = new SmartCardProtocol(connection);
+    protocol.configure(new Version(5, 7, 0));
+    byte[] data = RandomUtils.getRandomBytes(600);
+    Assert.assertArrayEquals(
+        new byte[0], protocol.sendAndReceive(new Apdu(0x00, 0x12, 0x34, 0x56, data, 0x100)));
+
+    Assert.assertEquals(1, connection.commands.size());
+    byte[] command = connection.commands.get(0);
+    Assert.assertEquals(5 + 2 + 600 + 2, command.length);
+    Assert.assertArrayEquals(
+        new byte[] {0x00, 0x12, 0x34, 0x56, 0x00, 0x02, 0x58}, Arrays.copyOf(command, 7));
+    Assert.assertArrayEquals(data, Arrays.copyOfRange(command, 7, 607));
+    Assert.assertArrayEquals(new byte[] {0x01, 0x00}, Arrays.copyOfRange(command, 607, 609));
+  }
+
+  @Test
+  public void testResponseChaining() throws Exception {
+    ScriptedConnection connection = new ScriptedConnection(false);
+    connection.responses.add(new byte[] {0x01, 0x02, 0x61, 0x02});
+    connection.responses.add(new byte[] {0x03, 0x04, 0x61, 0x01});
+    connection.responses.add(new byte[] {0x05, (byte) 0x90, 0x00});
+
+    SmartCardProtocol protocol = new SmartCardProtocol(connection);
+    byte[] response = protocol.sendAndReceive(new Apdu(0x00, 0x12, 0, 0, null));
+    Assert.assertArrayEquals(new byte[] {0x01, 0x02, 0x03, 0x04, 0x05}, response);
+
+    Assert.assertEquals(3, connection.commands.size());
+    Assert.assertArrayEquals(new byte[] {0x00, (byte) 0xc0, 0, 0, 0}, connection.commands.get(1));
+    Assert.assertArrayEquals(new byte[] {0x00, (byte) 0xc0, 0, 0, 0}, connection.commands.get(2));
+
+    // The reassembly buffer is reused for the next command
+    connection.responses.add(new byte[] {0x06, 0x61, 0x01});
+    connection.responses.add(new byte[] {0x07, 0x6a, (byte) 0x82});
+    try {
+      protocol.sendAndReceive(new Apdu(0x00, 0x12, 0, 0, null));
+      Assert.fail("Expected ApduException");
+    } catch (ApduException e) {
+      Assert.assertEquals(SW.FILE_NOT_FOUND, e.getSw());
+      Assert.assertArrayEquals(new byte[] {0x06, 0x07}, e.getData());
+    }
+  }
+
+  @Test
+  public void testReportsCommandEvents() throws Exception {
+    ScriptedConnection connection = new ScriptedConnection(false);
+    connection.responses.add(new byte[] {(byte) 0x90, 0x00});
+    connection.responses.add(new byte[] {(byte) 0x90, 0x00});
+    connection.responses.add(new byte[] {0x01, 0x61, 0x01});
+    connection.responses.add(new byte[] {0x02, 0x6a, (byte) 0x82});
+
+    List<CommandEvent> events = new ArrayList<>();
+    TransportMetrics.setListener(events::add);
+    try {
+      SmartCardProtocol protocol = new SmartCardProtocol(connection);
+      protocol.select(AppId.PIV);
+      try {
+        protocol.sendAndReceive(new Apdu(0x00, 0x12, 0, 0, new byte[300]));
+        Assert.fail("Expected ApduException");
+      } catch (ApduException e) {
+        Assert.assertEquals(SW.FILE_NOT_FOUND, e.getSw());
+      }
+    } finally {
+      TransportMetrics.setListener(null);
+    }
+
+    Assert.assertEquals(2, events.size());
+    CommandEvent select = events.get(0);
+    Assert.assertEquals(CommandEvent.Protocol.SMART_CARD, select.getProtocol());
+    Assert.assertEquals("PIV", select.getApplication());
+    Assert.assertEquals(0xa4, select.getCommand());
+    Assert.assertEquals(0x9000, select.getStatus());
+
+    CommandEvent command = events.get(1);
+    Assert.assertEquals("PIV", command.getApplication());
+    Assert.assertEquals(0x12, command.getCommand());
+    Assert.assertEquals(3, command.getFramesSent());
+    Assert.assertEquals(1, command.getChainedCommands());
+    Assert.assertEquals(1, command.getChainedResponses());
+    Assert.assertEquals(5 + 255 + 5 + 45 + 5, command.getBytesSent());
+    Assert.assertEquals(2 + 3 + 3, command.getBytesReceived());
+    Assert.assertEquals(SW.FILE_NOT_FOUND & 0xffff, command.getStatus());
+    Assert.assertNull(command.getError());
+  }
+
+  private static void assertFrame(byte[] frame, int chainBit, byte[] data, int offset, int length) {
+    Assert.assertEquals(5 + length, frame.length);
+    Assert.assertEquals(chainBit, frame[0]);
+    Assert.assertArrayEquals(new byte[] {0x12, 0x34, 0x56}, Arrays.copyOfRange(frame, 1, 4));
+    Assert.assertEquals(length, frame[4] & 0xff);
+    Assert.assertArrayEquals(
+        Arrays.copyOfRange(data, offset, offset + length),
+        Arrays.copyOfRange(frame, 5, 5 + length));
+  }
+
+  private static class ScriptedConnection implements SmartCardConnection {
+    private final boolean extendedLengthApdus;
+    final List<byte[]> commands = new ArrayList<>();
+    final Deque<byte[]> responses = new ArrayDeque<>();
+
+    ScriptedConnection(boolean extendedLengthApdus) {
+      this.extendedLengthApdus = extendedLengthApdus;
+    }
+
+    @Override
+    public byte[] sendAndReceive(byte[] apdu) throws IOException {
+      commands.add(apdu);
+      byte[] response = responses.poll();
+      if (response == null) {
+        throw new IOException("No scripted response");
+      }
+      return response;
+    }
+
+    @Override
+    public Transport getTransport() {
+      return Transport.USB;
+    }
+
+    @Override
+    public boolean isExtendedLengthApduSupported() {
+      return extendedLengthApdus;
+    }
+
+    @Override
+    public byte[] getAtr() {
+      return new byte[0];
+    }
+
+    @Override
+    public void close() {}
+  }
+}
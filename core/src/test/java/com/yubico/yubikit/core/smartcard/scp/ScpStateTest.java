@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.core.smartcard.scp;
+
+import com.yubico.yubikit.core.application.BadResponseException;
+import com.yubico.yubikit.core.util.RandomUtils;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class ScpStateTest {
+  private final SecretKey senc = aesKey();
+  private final SecretKey smac = aesKey();
+  private final SecretKey srmac = aesKey();
+
+  @Test
+  public void testEncryptUsesCounterIv() throws Exception {
+    ScpState state = new ScpState(new SessionKeys(senc, smac, srmac, null), new byte[16]);
+    for (int counter = 1; counter <= 3; counter++) {
+      byte[] data = RandomUtils.getRandomBytes(counter * 10);
+      Assert.assertArrayEquals(expectedEncrypt(data, counter), state.encrypt(data));
+    }
+  }
+
+  @Test
+  public void testDecryptResponse() throws Exception {
+    ScpState state = new ScpState(new SessionKeys(senc, smac, srmac, null), new byte[16]);
+    for (int counter = 1; counter <= 3; counter++) {
+      state.encrypt(new byte[8]);
+      byte[] response = RandomUtils.getRandomBytes(counter * 7);
+      byte[] encrypted = cbc(pad(response), iv((byte) 0x80, counter));
+      Assert.assertArrayEquals(response, state.decrypt(encrypted));
+    }
+  }
+
+  @Test(expected = BadResponseException.class)
+  public void testDecryptBadPadding() throws Exception {
+    ScpState state = new ScpState(new SessionKeys(senc, smac, srmac, null), new byte[16]);
+    state.encrypt(new byte[8]);
+    state.decrypt(cbc(new byte[16], iv((byte) 0x80, 1)));
+  }
+
+  @Test
+  public void testMacChain() throws Exception {
+    Assume.assumeTrue("AESCMAC not available", hasAesCmac());
+    byte[] chain = RandomUtils.getRandomBytes(16);
+    ScpState state = new ScpState(new SessionKeys(senc, smac, srmac, null), chain);
+    byte[] expectedChain = chain;
+    for (int i = 0; i < 3; i++) {
+      byte[] data = RandomUtils.getRandomBytes(20 + i);
+      Mac mac = Mac.getInstance("AESCMAC");
+      mac.init(smac);
+      mac.update(expectedChain);
+      expectedChain = mac.doFinal(data);
+
+      byte[] buffer = new byte[data.length + 4];
+      System.arraycopy(data, 0, buffer, 2, data.length);
+      Assert.assertArrayEquals(Arrays.copyOf(expectedChain, 8), state.mac(buffer, 2, data.length));
+    }
+
+    // R-MAC is calculated over the response data and SW, using the current chain
+    byte[] response = RandomUtils.getRandomBytes(12);
+    Mac mac = Mac.getInstance("AESCMAC");
+    mac.init(srmac);
+    mac.update(expectedChain);
+    mac.update(response);
+    byte[] rmac = Arrays.copyOf(mac.doFinal(new byte[] {(byte) 0x90, 0x00}), 8);
+    byte[] macedResponse = ByteBuffer.allocate(20).put(response).put(rmac).array();
+    Assert.assertArrayEquals(response, state.unmac(macedResponse, (short) 0x9000));
+
+    macedResponse[0] ^= 1;
+    Assert.assertThrows(
+        BadResponseException.class, () -> state.unmac(macedResponse, (short) 0x9000));
+  }
+
+  private byte[] expectedEncrypt(byte[] data, int counter) throws Exception {
+    return cbc(pad(data), iv((byte) 0x00, counter));
+  }
+
+  private byte[] iv(byte prefix, int counter) throws Exception {
+    @SuppressWarnings("GetInstance")
+    Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
+    cipher.init(Cipher.ENCRYPT_MODE, senc);
+    byte[] block = new byte[16];
+    block[0] = prefix;
+    ByteBuffer.wrap(block, 12, 4).putInt(counter);
+    return cipher.doFinal(block);
+  }
+
+  private byte[] cbc(byte[] data, byte[] iv) throws Exception {
+    Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+    cipher.init(Cipher.ENCRYPT_MODE, senc, new IvParameterSpec(iv));
+    return cipher.doFinal(data);
+  }
+
+  private static byte[] pad(byte[] data) {
+    byte[] padded = Arrays.copyOf(data, data.length + 16 - (data.length % 16));
+    padded[data.length] = (byte) 0x80;
+    return padded;
+  }
+
+  private static boolean hasAesCmac() {
+    try {
+      Mac.getInstance("AESCMAC");
+      return true;
+    } catch (NoSuchAlgorithmException e) {
+      return false;
+    }
+  }
+
+  private static SecretKey aesKey() {
+    return new SecretKeySpec(RandomUtils.getRandomBytes(16), "AES");
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.core.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TlvReaderTest {
+  @Test
+  public void testReadSequence() {
+    byte[] data = {0x01, 0x02, 0x0a, 0x0b, 0x7F, 0x49, 0x00, (byte) 0x80, 0x01, 0x05};
+    TlvReader reader = new TlvReader(data);
+
+    Assert.assertTrue(reader.next());
+    Assert.assertEquals(0x01, reader.getTag());
+    Assert.assertEquals(0, reader.getOffset());
+    Assert.assertEquals(2, reader.getValueOffset());
+    Assert.assertEquals(2, reader.getValueLength());
+    Assert.assertEquals(4, reader.getEncodedLength());
+    Assert.assertArrayEquals(new byte[] {0x0a, 0x0b}, reader.getValue());
+
+    Assert.assertTrue(reader.next());
+    Assert.assertEquals(0x7F49, reader.getTag());
+    Assert.assertEquals(0, reader.getValueLength());
+
+    Assert.assertTrue(reader.next());
+    Assert.assertEquals(0x80, reader.getTag());
+    Assert.assertEquals(9, reader.getValueOffset());
+    Assert.assertArrayEquals(new byte[] {0x05}, reader.getValue());
+
+    Assert.assertFalse(reader.hasRemaining());
+    Assert.assertFalse(reader.next());
+  }
+
+  @Test
+  public void testOffsetsAreAbsolute() {
+    byte[] data = {0x00, 0x00, 0x01, 0x01, 0x0a};
+    TlvReader reader = new TlvReader(data, 2, 3);
+    Assert.assertTrue(reader.next());
+    Assert.assertEquals(2, reader.getOffset());
+    Assert.assertEquals(4, reader.getValueOffset());
+    Assert.assertEquals(0x0a, data[reader.getValueOffset()]);
+    Assert.assertFalse(reader.next());
+  }
+
+  @Test
+  public void testLongLength() {
+    byte[] value = RandomUtils.getRandomBytes(300);
+    byte[] encoded = new Tlv(0x53, value).getBytes();
+    Assert.assertEquals(0x82, encoded[1] & 0xff);
+
+    TlvReader reader = new TlvReader(encoded);
+    Assert.assertTrue(reader.next());
+    Assert.assertEquals(0x53, reader.getTag());
+    Assert.assertEquals(4, reader.getValueOffset());
+    Assert.assertEquals(300, reader.getValueLength());
+    Assert.assertArrayEquals(value, reader.getValue());
+    Assert.assertEquals(ByteBuffer.wrap(value), reader.getValueBuffer());
+  }
+
+  @Test
+  public void testNestedReader() {
+    byte[] inner = Tlvs.encodeList(Arrays.asList(new Tlv(0x81, new byte[] {1})));
+    byte[] data = new Tlv(0x7C, inner).getBytes();
+
+    TlvReader reader = new TlvReader(data);
+    Assert.assertTrue(reader.next());
+    TlvReader nested = reader.getValueReader();
+    Assert.assertTrue(nested.next());
+    Assert.assertEquals(0x81, nested.getTag());
+    Assert.assertArrayEquals(new byte[] {1}, nested.getValue());
+    Assert.assertFalse(nested.next());
+  }
+
+  @Test
+  public void testGetTlv() {
+    byte[] data = {0x01, 0x01, 0x0a, 0x5F, 0x1F, 0x02, 0x0b, 0x0c};
+    TlvReader reader = new TlvReader(data);
+    reader.next();
+    reader.next();
+    Tlv tlv = reader.getTlv();
+    Assert.assertEquals(0x5F1F, tlv.getTag());
+    Assert.assertArrayEquals(new byte[] {0x0b, 0x0c}, tlv.getValue());
+    Assert.assertArrayEquals(new byte[] {0x5F, 0x1F, 0x02, 0x0b, 0x0c}, tlv.getBytes());
+  }
+
+  @Test(expected = BufferUnderflowException.class)
+  public void testTruncatedValue() {
+    new TlvReader(new byte[] {0x01, 0x03, 0x0a}).next();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIndefiniteLength() {
+    new TlvReader(new byte[] {0x01, (byte) 0x80}).next();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoCurrentElement() {
+    new TlvReader(new byte[] {0x01, 0x00}).getTag();
+  }
+
+  @Test
+  public void testEncodeDecodeRoundTrip() {
+    Map<Integer, byte[]> values = new LinkedHashMap<>();
+    values.put(0x01, new byte[0]);
+    values.put(0x7F49, RandomUtils.getRandomBytes(0x7F));
+    values.put(0x80, RandomUtils.getRandomBytes(0x80));
+    values.put(0x5FC105, RandomUtils.getRandomBytes(0x1234));
+
+    byte[] encoded = Tlvs.encodeMap(values);
+    Map<Integer, byte[]> decoded = Tlvs.decodeMap(encoded);
+    Assert.assertEquals(values.keySet(), decoded.keySet());
+    for (Map.Entry<Integer, byte[]> entry : values.entrySet()) {
+      Assert.assertArrayEquals(entry.getValue(), decoded.get(entry.getKey()));
+    }
+
+    List<Tlv> tlvs = Tlvs.decodeList(encoded);
+    Assert.assertEquals(4, tlvs.size());
+    Assert.assertArrayEquals(encoded, Tlvs.encodeList(tlvs));
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2020-2022 Yubico.
+ * Copyright (C) 2020-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,6 +39,9 @@ public class TlvsTest {
     Assert.assertEquals(0x80, tlv.getTag());
     Assert.assertEquals(0, tlv.getLength());
     Assert.assertArrayEquals(new byte[] {(byte) 0x80, 0}, tlv.getBytes());
+
+    tlv = new Tlv((byte) 0xac, new byte[] {1});
+    Assert.assertArrayEquals(new byte[] {(byte) 0xac, 1, 1}, tlv.getBytes());
   }
 
   @Test
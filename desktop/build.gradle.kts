@@ -21,6 +21,8 @@ plugins {
 dependencies {
     api(project(":support"))
     implementation(libs.hid4java)
+
+    testImplementation(project(":testing-simulator"))
 }
 
 description = "This module is the core library desktop implementation and provides functionality to detect a YubiKey plugged in or tapped over NFC and to open an ISO/IEC 7816 connection, using the javax.smartcardio API."
@@ -0,0 +1,468 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.desktop;
+
+import com.yubico.yubikit.core.UsbPid;
+import com.yubico.yubikit.core.YubiKeyConnection;
+import com.yubico.yubikit.core.YubiKeyDevice;
+import com.yubico.yubikit.core.fido.FidoConnection;
+import com.yubico.yubikit.core.otp.OtpConnection;
+import com.yubico.yubikit.core.smartcard.SmartCardConnection;
+import com.yubico.yubikit.core.util.Callback;
+import com.yubico.yubikit.core.util.Result;
+import com.yubico.yubikit.desktop.hid.HidDevice;
+import com.yubico.yubikit.desktop.hid.HidManager;
+import com.yubico.yubikit.desktop.pcsc.NfcPcscDevice;
+import com.yubico.yubikit.desktop.pcsc.PcscManager;
+import com.yubico.yubikit.desktop.pcsc.UsbPcscDevice;
+import com.yubico.yubikit.management.DeviceInfo;
+import com.yubico.yubikit.support.DeviceInfoCache;
+import com.yubico.yubikit.support.DeviceUtil;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the YubiKeys connected to the system, and notifies listeners as they are added, removed or
+ * changed.
+ *
+ * <p>Unlike {@link YubiKitManager}, which opens every device each time it lists them, the monitor
+ * maintains a table of device nodes and only reads the DeviceInfo of nodes which are new. PC/SC
+ * readers are watched using {@link PcscManager#waitForChange(long)}, and HID devices using the
+ * attach and detach notifications of {@link HidManager}, so an idle monitor causes no USB traffic.
+ *
+ * <p>Events are published for each device node: a YubiKey with several USB interfaces is reported
+ * once per interface, and the serial number in the DeviceInfo can be used to tell which nodes
+ * belong to the same YubiKey. An NFC reader is reported while a YubiKey is present on it, and as
+ * changed if a different YubiKey is presented. Nodes which can't be identified as a YubiKey are not
+ * reported.
+ *
+ * <p>Listeners are called on a single thread owned by the monitor, in the order the changes were
+ * seen.
+ *
+ * <pre>{@code
+ * DeviceMonitor monitor = new DeviceMonitor();
+ * monitor.addListener(new DeviceMonitor.Listener() { ... });
+ * monitor.start();
+ * ...
+ * monitor.close();
+ * }</pre>
+ */
+public class DeviceMonitor implements Closeable {
+  private static final long DEFAULT_PCSC_TIMEOUT_MILLIS = 1000;
+  private static final long DEFAULT_READ_TIMEOUT_MILLIS = 10000;
+
+  /** Receives notifications of changes to the connected devices. */
+  public interface Listener {
+    /** Called when a device is connected, or once for each device already connected on start. */
+    void deviceAdded(YubiKeyDevice device, DeviceInfo info);
+
+    /** Called when a device previously added is disconnected. */
+    void deviceRemoved(YubiKeyDevice device, DeviceInfo info);
+
+    /** Called when a device previously added now reports different DeviceInfo. */
+    void deviceChanged(YubiKeyDevice device, DeviceInfo info);
+  }
+
+  private final PcscManager pcscManager;
+  private final HidManager hidManager;
+  private final @Nullable DeviceInfoCache cache;
+  private final long pcscTimeoutMillis;
+  private final long readTimeoutMillis;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private final ExecutorService eventExecutor =
+      Executors.newSingleThreadExecutor(r -> newThread(r, "yubikit-device-monitor"));
+  private final HidManager.HidDeviceListener hidListener =
+      new HidManager.HidDeviceListener() {
+        @Override
+        public void deviceAttached(HidDevice device) {
+          submit(() -> hidAttached(device));
+        }
+
+        @Override
+        public void deviceDetached(HidDevice device) {
+          submit(() -> remove(device.getFingerprint()));
+        }
+      };
+
+  // Device table, keyed by fingerprint. Only accessed from the event thread.
+  private final Map<String, Node> nodes = new LinkedHashMap<>();
+  // Devices which have been added, for snapshot access from other threads
+  private final Map<YubiKeyDevice, DeviceInfo> published =
+      Collections.synchronizedMap(new LinkedHashMap<>());
+
+  private @Nullable Thread pcscWatcher;
+  private volatile boolean closed;
+
+  private static final Logger logger = LoggerFactory.getLogger(DeviceMonitor.class);
+
+  public DeviceMonitor() {
+    this(new PcscManager(), new HidManager(), null);
+  }
+
+  /**
+   * Create a monitor for devices provided by the given backends.
+   *
+   * @param pcscManager the PC/SC backend
+   * @param hidManager the HID backend
+   * @param cache optional cache used when reading the DeviceInfo of new devices
+   */
+  public DeviceMonitor(
+      PcscManager pcscManager, HidManager hidManager, @Nullable DeviceInfoCache cache) {
+    this(pcscManager, hidManager, cache, DEFAULT_PCSC_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Create a monitor for devices provided by the given backends.
+   *
+   * @param pcscManager the PC/SC backend
+   * @param hidManager the HID backend
+   * @param cache optional cache used when reading the DeviceInfo of new devices
+   * @param pcscTimeoutMillis the maximum time to wait for a PC/SC change before checking for new
+   *     readers
+   */
+  public DeviceMonitor(
+      PcscManager pcscManager,
+      HidManager hidManager,
+      @Nullable DeviceInfoCache cache,
+      long pcscTimeoutMillis) {
+    this(pcscManager, hidManager, cache, pcscTimeoutMillis, DEFAULT_READ_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Create a monitor for devices provided by the given backends.
+   *
+   * @param pcscManager the PC/SC backend
+   * @param hidManager the HID backend
+   * @param cache optional cache used when reading the DeviceInfo of new devices
+   * @param pcscTimeoutMillis the maximum time to wait for a PC/SC change before checking for new
+   *     readers
+   * @param readTimeoutMillis the maximum time to wait for the DeviceInfo of a new device, after
+   *     which the device is left unread, to be read again the next time it is seen
+   */
+  public DeviceMonitor(
+      PcscManager pcscManager,
+      HidManager hidManager,
+      @Nullable DeviceInfoCache cache,
+      long pcscTimeoutMillis,
+      long readTimeoutMillis) {
+    if (pcscTimeoutMillis <= 0) {
+      throw new IllegalArgumentException("pcscTimeoutMillis must be positive");
+    }
+    if (readTimeoutMillis <= 0) {
+      throw new IllegalArgumentException("readTimeoutMillis must be positive");
+    }
+    this.pcscManager = pcscManager;
+    this.hidManager = hidManager;
+    this.cache = cache;
+    this.pcscTimeoutMillis = pcscTimeoutMillis;
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  public void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /** Returns the devices currently connected, with their DeviceInfo. */
+  public Map<YubiKeyDevice, DeviceInfo> getDevices() {
+    synchronized (published) {
+      return new LinkedHashMap<>(published);
+    }
+  }
+
+  /**
+   * Starts monitoring. Devices already connected are read, and reported to listeners as added.
+   *
+   * @throws IllegalStateException if the monitor has already been started, or is closed
+   */
+  public synchronized void start() {
+    if (closed || pcscWatcher != null) {
+      throw new IllegalStateException("Monitor already started");
+    }
+    hidManager.addDeviceListener(hidListener);
+    submit(this::scanHid);
+
+    Thread watcher = newThread(this::watchPcsc, "yubikit-device-monitor-pcsc");
+    pcscWatcher = watcher;
+    watcher.start();
+  }
+
+  /** Stops monitoring. Listeners are not notified of any further changes. */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    hidManager.removeDeviceListener(hidListener);
+    Thread watcher = pcscWatcher;
+    if (watcher != null) {
+      watcher.interrupt();
+    }
+    eventExecutor.shutdownNow();
+  }
+
+  private void watchPcsc() {
+    boolean primed = false;
+    while (!closed) {
+      try {
+        if (!primed) {
+          // The first wait records the current state of the readers, which are then read in full
+          pcscManager.waitForChange(1);
+          primed = true;
+          submit(() -> scanPcsc(Collections.emptySet()));
+        }
+        Set<String> inserted = pcscManager.waitForChange(pcscTimeoutMillis);
+        if (inserted != null) {
+          submit(() -> scanPcsc(inserted));
+        }
+      } catch (Exception e) {
+        // Typically no readers, or the PC/SC service not running. Check again after a while.
+        logger.debug("Waiting for PC/SC changes failed: {}", e.getMessage());
+        try {
+          Thread.sleep(pcscTimeoutMillis);
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+        submit(() -> scanPcsc(Collections.emptySet()));
+      }
+    }
+  }
+
+  private void submit(Runnable task) {
+    if (closed) {
+      return;
+    }
+    try {
+      eventExecutor.execute(task);
+    } catch (RejectedExecutionException e) {
+      logger.debug("Monitor closed, dropping event");
+    }
+  }
+
+  private void scanHid() {
+    List<HidDevice> devices = new ArrayList<>(hidManager.getOtpDevices());
+    devices.addAll(hidManager.getFidoDevices());
+    for (HidDevice device : devices) {
+      hidAttached(device);
+    }
+  }
+
+  private void hidAttached(HidDevice device) {
+    if (!nodes.containsKey(device.getFingerprint())) {
+      Class<? extends YubiKeyConnection> connectionType =
+          device.supportsConnection(OtpConnection.class)
+              ? OtpConnection.class
+              : FidoConnection.class;
+      readAndUpdate(device.getFingerprint(), device, connectionType, device.getPid());
+    }
+  }
+
+  private void scanPcsc(Set<String> inserted) {
+    List<YubiKeyDevice> devices = new ArrayList<>();
+    PcscManager.PcscDevices scanned;
+    try {
+      scanned = pcscManager.scanDevices();
+    } catch (RuntimeException e) {
+      logger.debug("Failed to list PC/SC readers: {}", e.getMessage());
+      return;
+    }
+    devices.addAll(scanned.getUsbDevices());
+    devices.addAll(scanned.getNfcDevices());
+
+    Map<String, YubiKeyDevice> present = new HashMap<>();
+    for (YubiKeyDevice device : devices) {
+      String fingerprint = fingerprint(device);
+      present.put(fingerprint, device);
+      // A card inserted into a known reader may be a different YubiKey
+      if (!nodes.containsKey(fingerprint) || inserted.contains(fingerprint)) {
+        UsbPid pid =
+            device instanceof UsbYubiKeyDevice ? ((UsbYubiKeyDevice) device).getPid() : null;
+        readAndUpdate(fingerprint, device, SmartCardConnection.class, pid);
+      }
+    }
+
+    for (Node node : new ArrayList<>(nodes.values())) {
+      if (node.pcsc && !present.containsKey(node.fingerprint)) {
+        remove(node.fingerprint);
+      }
+    }
+  }
+
+  private void readAndUpdate(
+      String fingerprint,
+      YubiKeyDevice device,
+      Class<? extends YubiKeyConnection> connectionType,
+      @Nullable UsbPid pid) {
+    DeviceInfo info;
+    try {
+      info = readInfo(device, connectionType, pid);
+    } catch (TimeoutException e) {
+      // Leave the node unread, so that it is read again the next time it is seen
+      logger.debug("Timed out reading device {} after {} ms", fingerprint, readTimeoutMillis);
+      Node node = nodes.get(fingerprint);
+      if (node == null || node.device != device) {
+        close(device);
+      }
+      return;
+    }
+    update(fingerprint, device, info);
+  }
+
+  private @Nullable DeviceInfo readInfo(
+      YubiKeyDevice device, Class<? extends YubiKeyConnection> connectionType, @Nullable UsbPid pid)
+      throws TimeoutException {
+    // Read at background priority, so that requests made by the application are not delayed
+    CompletableFuture<DeviceInfo> future = new CompletableFuture<>();
+    try {
+      request(
+          device,
+          connectionType,
+          result -> {
+            try {
+              YubiKeyConnection connection = result.getValue();
+              future.complete(
+                  cache != null
+                      ? DeviceUtil.readInfo(connection, pid, cache)
+                      : DeviceUtil.readInfo(connection, pid));
+            } catch (Exception e) {
+              future.completeExceptionally(e);
+            }
+          });
+      return future.get(readTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(false);
+      throw e;
+    } catch (ExecutionException e) {
+      logger.debug("Failed to read device {}: {}", fingerprint(device), e.getCause().getMessage());
+    } catch (RejectedExecutionException e) {
+      logger.debug("Failed to read device {}: {}", fingerprint(device), e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  private void update(String fingerprint, YubiKeyDevice scanned, @Nullable DeviceInfo info) {
+    Node previous = nodes.get(fingerprint);
+    if (info == null) {
+      if (previous != null) {
+        remove(fingerprint);
+      }
+      // Remember the node, to not read it again until it changes
+      nodes.put(fingerprint, new Node(fingerprint, scanned, null));
+      return;
+    }
+
+    // Keep the device instance already known to listeners
+    YubiKeyDevice device = previous != null ? previous.device : scanned;
+    nodes.put(fingerprint, new Node(fingerprint, device, info));
+    if (previous == null || previous.info == null) {
+      logger.debug("Device added: {}", fingerprint);
+      published.put(device, info);
+      for (Listener listener : listeners) {
+        listener.deviceAdded(device, info);
+      }
+    } else if (!info.equals(previous.info)) {
+      logger.debug("Device changed: {}", fingerprint);
+      published.put(device, info);
+      for (Listener listener : listeners) {
+        listener.deviceChanged(device, info);
+      }
+    }
+  }
+
+  private void remove(String fingerprint) {
+    Node node = nodes.remove(fingerprint);
+    if (node != null && node.info != null) {
+      logger.debug("Device removed: {}", fingerprint);
+      published.remove(node.device);
+      for (Listener listener : listeners) {
+        listener.deviceRemoved(node.device, node.info);
+      }
+    }
+    if (node != null) {
+      close(node.device);
+    }
+  }
+
+  private static <T extends YubiKeyConnection> void request(
+      YubiKeyDevice device, Class<T> connectionType, Callback<Result<T, IOException>> callback) {
+    DeviceScheduler.Priority priority = DeviceScheduler.Priority.BACKGROUND;
+    if (device instanceof HidDevice) {
+      ((HidDevice) device).requestConnection(connectionType, priority, callback);
+    } else if (device instanceof UsbPcscDevice) {
+      ((UsbPcscDevice) device).requestConnection(connectionType, priority, callback);
+    } else if (device instanceof NfcPcscDevice) {
+      ((NfcPcscDevice) device).requestConnection(connectionType, priority, callback);
+    } else {
+      device.requestConnection(connectionType, callback);
+    }
+  }
+
+  private static void close(YubiKeyDevice device) {
+    try {
+      ((Closeable) device).close();
+    } catch (IOException e) {
+      logger.debug("Failed to close device: {}", e.getMessage());
+    }
+  }
+
+  private static String fingerprint(YubiKeyDevice device) {
+    if (device instanceof UsbYubiKeyDevice) {
+      return ((UsbYubiKeyDevice) device).getFingerprint();
+    }
+    return ((NfcYubiKeyDevice) device).getFingerprint();
+  }
+
+  private static Thread newThread(Runnable runnable, String name) {
+    Thread thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private static class Node {
+    private final String fingerprint;
+    private final YubiKeyDevice device;
+    private final boolean pcsc;
+    private final @Nullable DeviceInfo info;
+
+    private Node(String fingerprint, YubiKeyDevice device, @Nullable DeviceInfo info) {
+      this.fingerprint = fingerprint;
+      this.device = device;
+      this.pcsc = !(device instanceof HidDevice);
+      this.info = info;
+    }
+  }
+}
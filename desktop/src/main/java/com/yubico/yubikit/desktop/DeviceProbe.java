@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.desktop;
+
+import com.yubico.yubikit.management.DeviceInfo;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reads DeviceInfo on an executor, with a timeout counted from when the read starts running rather
+ * than from when it is awaited, so that time spent queued behind other work is not counted.
+ *
+ * <p>The wait for a probe to start is bounded separately, by a deadline shared by all probes of a
+ * listing, so that a listing still completes if the executor is busy with probes which hang.
+ */
+final class DeviceProbe extends FutureTask<DeviceInfo> {
+  private final CountDownLatch started = new CountDownLatch(1);
+  private volatile long startNanos;
+
+  private DeviceProbe(Callable<DeviceInfo> callable) {
+    super(callable);
+  }
+
+  static DeviceProbe start(Executor executor, Callable<DeviceInfo> callable) {
+    DeviceProbe probe = new DeviceProbe(callable);
+    executor.execute(probe);
+    return probe;
+  }
+
+  /**
+   * Returns the deadline, in {@link System#nanoTime()}, for a number of probes started together to
+   * start running: the time for each of them to run in turn, plus one timeout for work already
+   * queued on the executor.
+   */
+  static long startDeadline(int probeCount, long timeoutMillis) {
+    return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) * (probeCount + 1);
+  }
+
+  @Override
+  public void run() {
+    startNanos = System.nanoTime();
+    started.countDown();
+    super.run();
+  }
+
+  /**
+   * Waits for the probe to start, and then for at most the timeout after it started.
+   *
+   * @param timeoutMillis the maximum time for the probe to run
+   * @param startDeadlineNanos the time, in {@link System#nanoTime()}, by which the probe must have
+   *     started running
+   * @return the DeviceInfo read
+   * @throws TimeoutException if the probe did not start by the deadline, or did not complete within
+   *     the timeout
+   */
+  DeviceInfo await(long timeoutMillis, long startDeadlineNanos)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    if (!started.await(Math.max(startDeadlineNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+      throw new TimeoutException("Probe did not start running");
+    }
+    long elapsed = System.nanoTime() - startNanos;
+    return get(
+        Math.max(TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - elapsed, 0), TimeUnit.NANOSECONDS);
+  }
+}
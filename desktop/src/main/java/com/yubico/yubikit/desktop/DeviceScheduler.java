@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.desktop;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs tasks for many devices on a bounded pool of worker threads.
+ *
+ * <p>Each device has its own {@link Queue}, in which tasks run one at a time. Tasks for different
+ * devices run concurrently, up to the size of the pool. Tasks are ordered by {@link Priority}, both
+ * within a queue and across queues, so that interactive operations run ahead of background work
+ * such as inventory scans. Queues of the same priority take turns, one task at a time.
+ *
+ * <p>Worker threads are daemon threads, which are stopped after being idle for a while.
+ */
+public class DeviceScheduler {
+  private static final int DEFAULT_MAX_QUEUED_PER_DEVICE = 64;
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private static @Nullable DeviceScheduler defaultScheduler;
+
+  /** The priority of a task. */
+  public enum Priority {
+    /** An operation a user is waiting on, such as one requiring touch. */
+    INTERACTIVE,
+    /** The default priority. */
+    NORMAL,
+    /** Work which can wait, such as reading the info of devices. */
+    BACKGROUND
+  }
+
+  private final ThreadPoolExecutor pool;
+  private final int maxQueuedPerDevice;
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicLong completed = new AtomicLong();
+
+  private static final Logger logger = LoggerFactory.getLogger(DeviceScheduler.class);
+
+  /**
+   * Create a scheduler.
+   *
+   * @param maxThreads the maximum number of tasks running at once
+   * @param maxQueuedPerDevice the maximum number of tasks waiting in each queue, after which
+   *     further tasks are rejected
+   */
+  public DeviceScheduler(int maxThreads, int maxQueuedPerDevice) {
+    if (maxThreads <= 0 || maxQueuedPerDevice <= 0) {
+      throw new IllegalArgumentException("Limits must be positive");
+    }
+    this.maxQueuedPerDevice = maxQueuedPerDevice;
+    AtomicInteger threadCount = new AtomicInteger();
+    pool =
+        new ThreadPoolExecutor(
+            maxThreads,
+            maxThreads,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new PriorityBlockingQueue<>(),
+            r -> {
+              Thread thread = new Thread(r, "yubikit-device-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    pool.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Returns the scheduler shared by devices which are not given one, with one worker thread per
+   * available processor.
+   */
+  public static synchronized DeviceScheduler getDefault() {
+    DeviceScheduler scheduler = defaultScheduler;
+    if (scheduler == null) {
+      scheduler =
+          new DeviceScheduler(
+              Math.max(2, Runtime.getRuntime().availableProcessors()),
+              DEFAULT_MAX_QUEUED_PER_DEVICE);
+      defaultScheduler = scheduler;
+    }
+    return scheduler;
+  }
+
+  /** Creates a new queue, for the tasks of a single device. */
+  public Queue newQueue() {
+    return new Queue();
+  }
+
+  /** Returns the number of tasks waiting to run, in all queues. */
+  public int getQueuedTaskCount() {
+    return queued.get();
+  }
+
+  /** Returns the number of tasks currently running. */
+  public int getActiveTaskCount() {
+    return active.get();
+  }
+
+  /** Returns the number of tasks which have finished running. */
+  public long getCompletedTaskCount() {
+    return completed.get();
+  }
+
+  /** A queue of tasks for a single device, which are run one at a time. */
+  public class Queue {
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+    private boolean running;
+    private boolean closed;
+    // The best priority of any activation of this queue waiting in the pool, if any
+    private @Nullable Priority scheduled;
+
+    private Queue() {}
+
+    /**
+     * Adds a task to the queue.
+     *
+     * @param priority the priority of the task
+     * @param task the task to run
+     * @throws RejectedExecutionException if the queue is closed or full
+     */
+    public void submit(Priority priority, Runnable task) {
+      synchronized (this) {
+        if (closed) {
+          throw new RejectedExecutionException("Queue is closed");
+        }
+        if (tasks.size() >= maxQueuedPerDevice) {
+          throw new RejectedExecutionException("Too many tasks queued for device");
+        }
+        tasks.add(new Task(priority, sequence.getAndIncrement(), task));
+        queued.incrementAndGet();
+        if (running || (scheduled != null && scheduled.compareTo(priority) <= 0)) {
+          // Already due to run at this priority or better
+          return;
+        }
+        scheduled = priority;
+      }
+      activate(priority);
+    }
+
+    /** Returns the number of tasks waiting to run in this queue. */
+    public synchronized int getQueuedTaskCount() {
+      return tasks.size();
+    }
+
+    /** Rejects any further tasks. Tasks already queued are still run. */
+    public synchronized void close() {
+      closed = true;
+    }
+
+    private void activate(Priority priority) {
+      pool.execute(new Activation(this, priority, sequence.getAndIncrement()));
+    }
+
+    private void runNext() {
+      Task task;
+      synchronized (this) {
+        if (running || tasks.isEmpty()) {
+          // A stale activation, superseded by one of higher priority
+          return;
+        }
+        running = true;
+        scheduled = null;
+        task = tasks.poll();
+      }
+      queued.decrementAndGet();
+      active.incrementAndGet();
+      try {
+        task.runnable.run();
+      } catch (RuntimeException e) {
+        logger.error("Device task threw an exception", e);
+      } finally {
+        active.decrementAndGet();
+        completed.incrementAndGet();
+      }
+
+      Priority next;
+      synchronized (this) {
+        running = false;
+        Task head = tasks.peek();
+        if (head == null) {
+          return;
+        }
+        next = head.priority;
+        scheduled = next;
+      }
+      // Go to the back of the line, to let other queues of the same priority run
+      activate(next);
+    }
+  }
+
+  private static class Task implements Comparable<Task> {
+    private final Priority priority;
+    private final long sequence;
+    private final Runnable runnable;
+
+    private Task(Priority priority, long sequence, Runnable runnable) {
+      this.priority = priority;
+      this.sequence = sequence;
+      this.runnable = runnable;
+    }
+
+    @Override
+    public int compareTo(Task other) {
+      int result = priority.compareTo(other.priority);
+      return result != 0 ? result : Long.compare(sequence, other.sequence);
+    }
+  }
+
+  private static class Activation implements Runnable, Comparable<Activation> {
+    private final Queue queue;
+    private final Priority priority;
+    private final long sequence;
+
+    private Activation(Queue queue, Priority priority, long sequence) {
+      this.queue = queue;
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public void run() {
+      queue.runNext();
+    }
+
+    @Override
+    public int compareTo(Activation other) {
+      int result = priority.compareTo(other.priority);
+      return result != 0 ? result : Long.compare(sequence, other.sequence);
+    }
+  }
+}
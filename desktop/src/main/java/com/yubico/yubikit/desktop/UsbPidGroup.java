@@ -27,6 +27,7 @@ import com.yubico.yubikit.core.smartcard.SmartCardConnection;
 import com.yubico.yubikit.core.util.Callback;
 import com.yubico.yubikit.core.util.Result;
 import com.yubico.yubikit.management.DeviceInfo;
+import com.yubico.yubikit.support.DeviceInfoCache;
 import com.yubico.yubikit.support.DeviceUtil;
 import java.io.Closeable;
 import java.io.IOException;
@@ -35,12 +36,16 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class UsbPidGroup implements Closeable {
   final UsbPid pid;
+  private final @Nullable DeviceInfoCache cache;
 
   private final Map<String, DeviceInfo> infos = new HashMap<>();
   private final Map<String, Map<Integer, UsbYubiKeyDevice>> resolved = new HashMap<>();
@@ -49,8 +54,9 @@ public class UsbPidGroup implements Closeable {
 
   private final Logger logger = LoggerFactory.getLogger(UsbPidGroup.class);
 
-  UsbPidGroup(UsbPid pid) {
+  UsbPidGroup(UsbPid pid, @Nullable DeviceInfoCache cache) {
     this.pid = pid;
+    this.cache = cache;
   }
 
   /**
@@ -97,22 +103,134 @@ public class UsbPidGroup implements Closeable {
     int usbInterface = getUsbInterface(connectionType);
     devCount.put(usbInterface, devCount.getOrDefault(usbInterface, 0) + 1);
     if (forceResolve || resolved.size() < devCount.values().stream().reduce(0, Math::max)) {
-      try (YubiKeyConnection connection = device.openConnection(connectionType)) {
-        DeviceInfo info = DeviceUtil.readInfo(connection, pid);
-        String key = buildKey(info, device.getFingerprint());
-        infos.put(key, info);
-        if (!resolved.containsKey(key)) {
-          resolved.put(key, new HashMap<>());
-        }
-        resolved.get(key).put(usbInterface, device);
-        Integer serialNumber = info.getSerialNumber();
-        logger.trace(
-            "Resolved device {}", serialNumber != null ? serialNumber : "without serial number");
+      try {
+        resolve(usbInterface, device, readInfo(connectionType, device));
         return;
       } catch (UnsupportedOperationException | IOException e) {
         logger.error("Failed opening device: {}", e.getMessage());
       }
     }
+    addUnresolved(usbInterface, device);
+  }
+
+  /**
+   * Starts reading DeviceInfo on the executor from each of the given device nodes that {@link
+   * #addProbed} may need to resolve.
+   *
+   * <p>The nodes all use the same USB interface, so each belongs to a different YubiKey and they
+   * can safely be probed concurrently. The returned list holds one entry per node, which is null
+   * for nodes that will not be probed.
+   */
+  List<@Nullable DeviceProbe> startProbes(
+      Class<? extends YubiKeyConnection> connectionType,
+      List<UsbYubiKeyDevice> devices,
+      ExecutorService executor) {
+    int usbInterface = getUsbInterface(connectionType);
+    int otherCount = 0;
+    for (Map.Entry<Integer, Integer> entry : devCount.entrySet()) {
+      if (entry.getKey() != usbInterface) {
+        otherCount = Math.max(otherCount, entry.getValue());
+      }
+    }
+    int count = devCount.getOrDefault(usbInterface, 0);
+    List<@Nullable DeviceProbe> probes = new ArrayList<>(devices.size());
+    for (UsbYubiKeyDevice device : devices) {
+      // Resolving nodes only adds keys, so the current size is a lower bound for each node
+      if (resolved.size() < Math.max(otherCount, ++count)) {
+        probes.add(DeviceProbe.start(executor, () -> readInfo(connectionType, device)));
+      } else {
+        probes.add(null);
+      }
+    }
+    return probes;
+  }
+
+  /**
+   * Adds device nodes using the probes from {@link #startProbes}, with the same outcome as calling
+   * {@link #add} for each node in order. A probe that does not complete within the timeout is
+   * cancelled, and its node is left unresolved. The timeout of each probe counts from when it
+   * started running, and a probe which has not started by the start deadline is treated the same.
+   */
+  void addProbed(
+      Class<? extends YubiKeyConnection> connectionType,
+      List<UsbYubiKeyDevice> devices,
+      List<@Nullable DeviceProbe> probes,
+      long timeoutMillis,
+      long startDeadlineNanos) {
+    int usbInterface = getUsbInterface(connectionType);
+    for (int i = 0; i < devices.size(); i++) {
+      UsbYubiKeyDevice device = devices.get(i);
+      DeviceProbe probe = probes.get(i);
+      logger.trace("Add device node {}{}", device, connectionType);
+      devCount.put(usbInterface, devCount.getOrDefault(usbInterface, 0) + 1);
+      if (probe != null) {
+        if (resolved.size() < devCount.values().stream().reduce(0, Math::max)) {
+          DeviceInfo info = awaitProbe(probe, timeoutMillis, startDeadlineNanos);
+          if (info != null) {
+            resolve(usbInterface, device, info);
+            continue;
+          }
+        } else {
+          probe.cancel(false);
+        }
+      }
+      addUnresolved(usbInterface, device);
+    }
+  }
+
+  private DeviceInfo readInfo(
+      Class<? extends YubiKeyConnection> connectionType, UsbYubiKeyDevice device)
+      throws IOException {
+    try (YubiKeyConnection connection = device.openConnection(connectionType)) {
+      return readInfo(connection);
+    }
+  }
+
+  private DeviceInfo readInfo(YubiKeyConnection connection) throws IOException {
+    return cache != null
+        ? DeviceUtil.readInfo(connection, pid, cache)
+        : DeviceUtil.readInfo(connection, pid);
+  }
+
+  private @Nullable DeviceInfo awaitProbe(
+      DeviceProbe probe, long timeoutMillis, long startDeadlineNanos) {
+    try {
+      return probe.await(timeoutMillis, startDeadlineNanos);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UnsupportedOperationException || cause instanceof IOException) {
+        logger.error("Failed opening device: {}", cause.getMessage());
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new IllegalStateException(cause);
+      }
+    } catch (TimeoutException e) {
+      probe.cancel(true);
+      logger.error("Timed out reading device info: {}", e.getMessage());
+    } catch (InterruptedException e) {
+      probe.cancel(true);
+      Thread.currentThread().interrupt();
+      logger.error("Interrupted while reading device info");
+    }
+    return null;
+  }
+
+  private void resolve(int usbInterface, UsbYubiKeyDevice device, DeviceInfo info) {
+    String key = buildKey(info, device.getFingerprint());
+    infos.put(key, info);
+    if (!resolved.containsKey(key)) {
+      resolved.put(key, new HashMap<>());
+    }
+    resolved.get(key).put(usbInterface, device);
+    Integer serialNumber = info.getSerialNumber();
+    logger.trace(
+        "Resolved device {}", serialNumber != null ? serialNumber : "without serial number");
+  }
+
+  private void addUnresolved(int usbInterface, UsbYubiKeyDevice device) {
     if (!unresolved.containsKey(usbInterface)) {
       unresolved.put(usbInterface, new ArrayList<>());
     }
@@ -142,7 +260,7 @@ public class UsbPidGroup implements Closeable {
         T connection = null;
         try {
           connection = device.openConnection(connectionType);
-          DeviceInfo info = DeviceUtil.readInfo(connection, pid);
+          DeviceInfo info = readInfo(connection);
           String deviceKey = buildKey(info, device.getFingerprint());
           if (infos.containsKey(deviceKey)) {
             if (!resolved.containsKey(deviceKey)) {
@@ -195,7 +313,7 @@ public class UsbPidGroup implements Closeable {
           device = devices.remove(0);
           logger.debug("Candidate: {}", device);
           try (T connection = device.openConnection(connectionType)) {
-            DeviceInfo info = DeviceUtil.readInfo(connection, pid);
+            DeviceInfo info = readInfo(connection);
             String deviceKey = buildKey(info, device.getFingerprint());
             if (infos.containsKey(deviceKey)) {
               if (!resolved.containsKey(deviceKey)) {
@@ -329,7 +447,7 @@ public class UsbPidGroup implements Closeable {
             T connection = null;
             try {
               connection = candidate.openConnection(connectionType);
-              DeviceInfo info = DeviceUtil.readInfo(connection, pid);
+              DeviceInfo info = readInfo(connection);
               String deviceKey = buildKey(info, candidate.getFingerprint());
               infos.put(deviceKey, info);
               if (!resolved.containsKey(deviceKey)) {
@@ -24,9 +24,13 @@ import com.yubico.yubikit.core.smartcard.SmartCardConnection;
 import com.yubico.yubikit.desktop.hid.HidManager;
 import com.yubico.yubikit.desktop.pcsc.PcscManager;
 import com.yubico.yubikit.management.DeviceInfo;
+import com.yubico.yubikit.support.DeviceInfoCache;
 import com.yubico.yubikit.support.DeviceUtil;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -35,12 +39,85 @@ import org.slf4j.LoggerFactory;
 public class YubiKitManager {
   private final PcscManager pcscManager;
   private final HidManager hidManager;
+  private final @Nullable ExecutorService discoveryExecutor;
+  private final long probeTimeoutMillis;
+  private final @Nullable DeviceInfoCache cache;
 
   private final Logger logger = LoggerFactory.getLogger(YubiKitManager.class);
 
   public YubiKitManager(PcscManager pcscManager, HidManager hidManager) {
+    this(pcscManager, hidManager, null);
+  }
+
+  /**
+   * Creates a manager which reads device info using a cache when listing devices.
+   *
+   * @param pcscManager the PC/SC backend
+   * @param hidManager the HID backend
+   * @param cache optional cache used when reading the DeviceInfo of devices
+   */
+  public YubiKitManager(
+      PcscManager pcscManager, HidManager hidManager, @Nullable DeviceInfoCache cache) {
     this.pcscManager = pcscManager;
     this.hidManager = hidManager;
+    this.discoveryExecutor = null;
+    this.probeTimeoutMillis = 0;
+    this.cache = cache;
+  }
+
+  /**
+   * Creates a manager which reads device info from independent devices in parallel when listing
+   * devices.
+   *
+   * <p>Device nodes belonging to different YubiKeys, as well as NFC readers, are probed
+   * concurrently on the given executor, which also bounds the parallelism. The interfaces of a
+   * single YubiKey are still probed one at a time. The listed devices are the same, and in the same
+   * order, as for a manager listing devices serially.
+   *
+   * <p>The executor is not shut down by this class.
+   *
+   * @param pcscManager the PC/SC backend
+   * @param hidManager the HID backend
+   * @param discoveryExecutor the executor used to probe devices
+   * @param probeTimeoutMillis the maximum time to wait for the info of a single device, after which
+   *     the probe is cancelled and the device is treated as failing. The time is counted from when
+   *     the probe starts running on the executor. A probe which has not started running once the
+   *     probes queued with it could all have timed out in turn, plus one more timeout, is also
+   *     cancelled
+   */
+  public YubiKitManager(
+      PcscManager pcscManager,
+      HidManager hidManager,
+      ExecutorService discoveryExecutor,
+      long probeTimeoutMillis) {
+    this(pcscManager, hidManager, discoveryExecutor, probeTimeoutMillis, null);
+  }
+
+  /**
+   * Creates a manager which reads device info from independent devices in parallel, using a cache,
+   * when listing devices.
+   *
+   * @param pcscManager the PC/SC backend
+   * @param hidManager the HID backend
+   * @param discoveryExecutor the executor used to probe devices
+   * @param probeTimeoutMillis the maximum time to wait for the info of a single device
+   * @param cache optional cache used when reading the DeviceInfo of devices
+   * @see #YubiKitManager(PcscManager, HidManager, ExecutorService, long)
+   */
+  public YubiKitManager(
+      PcscManager pcscManager,
+      HidManager hidManager,
+      ExecutorService discoveryExecutor,
+      long probeTimeoutMillis,
+      @Nullable DeviceInfoCache cache) {
+    if (probeTimeoutMillis <= 0) {
+      throw new IllegalArgumentException("probeTimeoutMillis must be positive");
+    }
+    this.pcscManager = pcscManager;
+    this.hidManager = hidManager;
+    this.discoveryExecutor = discoveryExecutor;
+    this.probeTimeoutMillis = probeTimeoutMillis;
+    this.cache = cache;
   }
 
   public YubiKitManager() {
@@ -70,14 +147,7 @@ public class YubiKitManager {
       }
 
       if (connectionTypes.contains(SmartCardConnection.class)) {
-        for (NfcYubiKeyDevice nfcDevice : pcscManager.getNfcDevices()) {
-          try (SmartCardConnection conn = nfcDevice.openConnection(SmartCardConnection.class)) {
-            DeviceInfo info = DeviceUtil.readInfo(conn, null);
-            devices.put(nfcDevice, info);
-          } catch (Exception e) {
-            logger.debug("Failed to read NFC device: {}", e.getMessage());
-          }
-        }
+        devices.putAll(readNfcDevices());
       }
 
       return devices;
@@ -147,14 +217,11 @@ public class YubiKitManager {
       }
 
       if (connectionTypes.contains(SmartCardConnection.class)) {
-        for (NfcYubiKeyDevice nfcDevice : pcscManager.getNfcDevices()) {
-          try (SmartCardConnection conn = nfcDevice.openConnection(SmartCardConnection.class)) {
-            DeviceInfo info = DeviceUtil.readInfo(conn, null);
-            DesktopDeviceSelector selector = buildSelector(nfcDevice, info);
-            records.add(new DesktopDeviceRecord(nfcDevice, info, selector));
-          } catch (Exception e) {
-            logger.debug("Failed to read NFC device: {}", e.getMessage());
-          }
+        for (Map.Entry<NfcYubiKeyDevice, DeviceInfo> entry : readNfcDevices().entrySet()) {
+          NfcYubiKeyDevice nfcDevice = entry.getKey();
+          DeviceInfo info = entry.getValue();
+          DesktopDeviceSelector selector = buildSelector(nfcDevice, info);
+          records.add(new DesktopDeviceRecord(nfcDevice, info, selector));
         }
       }
 
@@ -285,7 +352,7 @@ public class YubiKitManager {
           try {
             T conn = nfcDevice.openConnection(connectionType);
             try {
-              DeviceInfo info = DeviceUtil.readInfo(conn, null);
+              DeviceInfo info = readInfo(conn);
               if (selector.getSerial().equals(info.getSerialNumber())) {
                 return conn; // match — return the already-open connection
               }
@@ -314,21 +381,102 @@ public class YubiKitManager {
 
   private Map<UsbPid, UsbPidGroup> buildGroups(
       Set<Class<? extends YubiKeyConnection>> connectionTypes) {
-    Map<UsbPid, UsbPidGroup> groups = new HashMap<>();
+    Map<UsbPid, UsbPidGroup> groups = new EnumMap<>(UsbPid.class);
     for (Class<? extends YubiKeyConnection> connectionType : connectionTypes) {
       logger.debug("Enumerate devices for {}", connectionType);
+      Map<UsbPidGroup, List<UsbYubiKeyDevice>> nodes = new LinkedHashMap<>();
       for (UsbYubiKeyDevice device : listDevices(connectionType)) {
         UsbPid pid = device.getPid();
         logger.debug("Found device with PID {}", pid);
         if (!groups.containsKey(pid)) {
-          groups.put(pid, new UsbPidGroup(pid));
+          groups.put(pid, new UsbPidGroup(pid, cache));
+        }
+        if (discoveryExecutor == null) {
+          groups.get(pid).add(connectionType, device, false);
+        } else {
+          nodes.computeIfAbsent(groups.get(pid), g -> new ArrayList<>()).add(device);
+        }
+      }
+      if (discoveryExecutor != null) {
+        // Probe all groups at once, then add the results to each group in enumeration order
+        Map<UsbPidGroup, List<@Nullable DeviceProbe>> probes = new LinkedHashMap<>();
+        int probeCount = 0;
+        for (Map.Entry<UsbPidGroup, List<UsbYubiKeyDevice>> entry : nodes.entrySet()) {
+          List<@Nullable DeviceProbe> started =
+              entry.getKey().startProbes(connectionType, entry.getValue(), discoveryExecutor);
+          for (@Nullable DeviceProbe probe : started) {
+            if (probe != null) {
+              probeCount++;
+            }
+          }
+          probes.put(entry.getKey(), started);
+        }
+        long startDeadline = DeviceProbe.startDeadline(probeCount, probeTimeoutMillis);
+        for (Map.Entry<UsbPidGroup, List<UsbYubiKeyDevice>> entry : nodes.entrySet()) {
+          entry
+              .getKey()
+              .addProbed(
+                  connectionType,
+                  entry.getValue(),
+                  probes.get(entry.getKey()),
+                  probeTimeoutMillis,
+                  startDeadline);
         }
-        groups.get(pid).add(connectionType, device, false);
       }
     }
     return groups;
   }
 
+  /** Reads the DeviceInfo of each NFC device in reader order, skipping devices that fail. */
+  private Map<NfcYubiKeyDevice, DeviceInfo> readNfcDevices() {
+    List<NfcYubiKeyDevice> nfcDevices = pcscManager.getNfcDevices();
+    Map<NfcYubiKeyDevice, DeviceInfo> infos = new LinkedHashMap<>();
+    if (discoveryExecutor == null) {
+      for (NfcYubiKeyDevice nfcDevice : nfcDevices) {
+        try {
+          infos.put(nfcDevice, readNfcInfo(nfcDevice));
+        } catch (Exception e) {
+          logger.debug("Failed to read NFC device: {}", e.getMessage());
+        }
+      }
+      return infos;
+    }
+
+    List<DeviceProbe> probes = new ArrayList<>(nfcDevices.size());
+    for (NfcYubiKeyDevice nfcDevice : nfcDevices) {
+      probes.add(DeviceProbe.start(discoveryExecutor, () -> readNfcInfo(nfcDevice)));
+    }
+    long startDeadline = DeviceProbe.startDeadline(probes.size(), probeTimeoutMillis);
+    for (int i = 0; i < nfcDevices.size(); i++) {
+      DeviceProbe probe = probes.get(i);
+      try {
+        infos.put(nfcDevices.get(i), probe.await(probeTimeoutMillis, startDeadline));
+      } catch (ExecutionException e) {
+        logger.debug("Failed to read NFC device: {}", e.getCause().getMessage());
+      } catch (TimeoutException e) {
+        probe.cancel(true);
+        logger.debug("Timed out reading NFC device: {}", e.getMessage());
+      } catch (InterruptedException e) {
+        probe.cancel(true);
+        Thread.currentThread().interrupt();
+        logger.debug("Interrupted while reading NFC device");
+      }
+    }
+    return infos;
+  }
+
+  private DeviceInfo readNfcInfo(NfcYubiKeyDevice nfcDevice) throws IOException {
+    try (SmartCardConnection conn = nfcDevice.openConnection(SmartCardConnection.class)) {
+      return readInfo(conn);
+    }
+  }
+
+  private DeviceInfo readInfo(YubiKeyConnection connection) throws IOException {
+    return cache != null
+        ? DeviceUtil.readInfo(connection, null, cache)
+        : DeviceUtil.readInfo(connection, null);
+  }
+
   private void closeGroups(Map<UsbPid, UsbPidGroup> groups) {
     for (UsbPidGroup group : groups.values()) {
       try {
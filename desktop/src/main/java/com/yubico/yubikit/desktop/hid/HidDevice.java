@@ -20,35 +20,34 @@ import com.yubico.yubikit.core.UsbPid;
 import com.yubico.yubikit.core.YubiKeyConnection;
 import com.yubico.yubikit.core.util.Callback;
 import com.yubico.yubikit.core.util.Result;
+import com.yubico.yubikit.desktop.DeviceScheduler;
 import com.yubico.yubikit.desktop.UsbYubiKeyDevice;
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import org.jspecify.annotations.Nullable;
 
 public class HidDevice implements UsbYubiKeyDevice, Closeable {
   private final org.hid4java.HidDevice hidDevice;
   private final int usagePage;
-  private volatile @Nullable ExecutorService executorService;
+  private volatile DeviceScheduler.@Nullable Queue queue;
 
   HidDevice(org.hid4java.HidDevice hidDevice) {
     this.hidDevice = hidDevice;
     usagePage = hidDevice.getUsagePage() & 0xffff;
   }
 
-  private ExecutorService getExecutorService() {
-    ExecutorService executor = executorService;
-    if (executor == null) {
+  private DeviceScheduler.Queue getQueue() {
+    DeviceScheduler.Queue result = queue;
+    if (result == null) {
       synchronized (this) {
-        executor = executorService;
-        if (executor == null) {
-          executor = Executors.newSingleThreadExecutor();
-          executorService = executor;
+        result = queue;
+        if (result == null) {
+          result = DeviceScheduler.getDefault().newQueue();
+          queue = result;
         }
       }
     }
-    return executor;
+    return result;
   }
 
   public HidOtpConnection openOtpConnection() throws IOException {
@@ -80,11 +79,29 @@ public class HidDevice implements UsbYubiKeyDevice, Closeable {
   @Override
   public <T extends YubiKeyConnection> void requestConnection(
       Class<T> connectionType, Callback<Result<T, IOException>> callback) {
+    requestConnection(connectionType, DeviceScheduler.Priority.NORMAL, callback);
+  }
+
+  /**
+   * Requests a connection, like {@link #requestConnection(Class, Callback)}, with the given
+   * priority relative to other requests.
+   *
+   * @param connectionType the type of connection to open
+   * @param priority the priority of the request, see {@link DeviceScheduler}
+   * @param callback invoked with the open connection, which is closed once it returns
+   * @throws java.util.concurrent.RejectedExecutionException if the device is closed, or too many
+   *     requests are pending
+   */
+  public <T extends YubiKeyConnection> void requestConnection(
+      Class<T> connectionType,
+      DeviceScheduler.Priority priority,
+      Callback<Result<T, IOException>> callback) {
     if (!supportsConnection(connectionType)) {
       throw new IllegalStateException("Unsupported connection type");
     }
-    getExecutorService()
+    getQueue()
         .submit(
+            priority,
             () -> {
               try (T connection = openConnection(connectionType)) {
                 callback.invoke(Result.success(connection));
@@ -118,9 +135,9 @@ public class HidDevice implements UsbYubiKeyDevice, Closeable {
 
   @Override
   public void close() {
-    ExecutorService executor = executorService;
-    if (executor != null) {
-      executor.shutdown();
+    DeviceScheduler.Queue current = queue;
+    if (current != null) {
+      current.close();
     }
   }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022-2025 Yubico.
+ * Copyright (C) 2022-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,12 @@
 package com.yubico.yubikit.desktop.hid;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.hid4java.HidServices;
+import org.hid4java.HidServicesListener;
+import org.hid4java.event.HidServicesEvent;
 import org.jspecify.annotations.Nullable;
 
 public class HidManager {
@@ -27,6 +31,14 @@ public class HidManager {
   private static final int HID_USAGE_PAGE_FIDO = 0xf1d0;
 
   private final HidServices services;
+  private final Map<HidDeviceListener, HidServicesListener> listeners = new HashMap<>();
+
+  /** Receives notifications of YubiKey HID devices being attached and detached. */
+  public interface HidDeviceListener {
+    void deviceAttached(HidDevice device);
+
+    void deviceDetached(HidDevice device);
+  }
 
   public HidManager() {
     services = org.hid4java.HidManager.getHidServices();
@@ -50,4 +62,57 @@ public class HidManager {
   public List<HidDevice> getFidoDevices() {
     return getHidDevices(YUBICO_VENDOR_ID, HID_USAGE_PAGE_FIDO);
   }
+
+  /**
+   * Registers a listener notified when a YubiKey OTP or FIDO HID device is attached or detached.
+   * Devices already attached are not reported.
+   *
+   * <p>Notifications are delivered on the thread used by hid4java to scan for devices, and should
+   * not block.
+   */
+  public void addDeviceListener(HidDeviceListener listener) {
+    HidServicesListener servicesListener =
+        new HidServicesListener() {
+          @Override
+          public void hidDeviceAttached(HidServicesEvent event) {
+            if (isYubiKey(event.getHidDevice())) {
+              listener.deviceAttached(new HidDevice(event.getHidDevice()));
+            }
+          }
+
+          @Override
+          public void hidDeviceDetached(HidServicesEvent event) {
+            if (isYubiKey(event.getHidDevice())) {
+              listener.deviceDetached(new HidDevice(event.getHidDevice()));
+            }
+          }
+
+          @Override
+          public void hidFailure(HidServicesEvent event) {}
+
+          @Override
+          public void hidDataReceived(HidServicesEvent event) {}
+        };
+    synchronized (listeners) {
+      listeners.put(listener, servicesListener);
+    }
+    services.addHidServicesListener(servicesListener);
+  }
+
+  /** Unregisters a listener added with {@link #addDeviceListener}. */
+  public void removeDeviceListener(HidDeviceListener listener) {
+    HidServicesListener servicesListener;
+    synchronized (listeners) {
+      servicesListener = listeners.remove(listener);
+    }
+    if (servicesListener != null) {
+      services.removeHidServicesListener(servicesListener);
+    }
+  }
+
+  private static boolean isYubiKey(org.hid4java.HidDevice device) {
+    int usagePage = device.getUsagePage() & 0xffff;
+    return device.getVendorId() == YUBICO_VENDOR_ID
+        && (usagePage == HID_USAGE_PAGE_OTP || usagePage == HID_USAGE_PAGE_FIDO);
+  }
 }
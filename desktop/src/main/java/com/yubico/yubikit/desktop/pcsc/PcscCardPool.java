@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.desktop.pcsc;
+
+import com.yubico.yubikit.core.smartcard.AppId;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import javax.smartcardio.Card;
+import javax.smartcardio.CardException;
+import javax.smartcardio.CardTerminal;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a Card connected between logical connections to a PC/SC terminal, together with the
+ * application last selected on it.
+ */
+class PcscCardPool {
+  private static final byte INS_SELECT = (byte) 0xa4;
+  private static final byte P1_SELECT_BY_AID = 0x04;
+  private static final byte CLA_SECURE_MESSAGING = 0x04;
+  private static final byte INS_INITIALIZE_UPDATE = 0x50;
+
+  // Applications whose response to SELECT does not change, so that selecting them again can be
+  // skipped. OATH returns a new challenge, and OTP its current status, so they are always selected.
+  private static final Set<ByteBuffer> REUSABLE_SELECT = new HashSet<>();
+
+  static {
+    for (byte[] aid :
+        new byte[][] {AppId.MANAGEMENT, AppId.PIV, AppId.FIDO, AppId.OPENPGP, AppId.HSMAUTH}) {
+      REUSABLE_SELECT.add(ByteBuffer.wrap(aid));
+    }
+  }
+
+  private final CardTerminal terminal;
+  private final Semaphore permit = new Semaphore(1);
+  private @Nullable Card card;
+  private @Nullable ByteBuffer selectedAid;
+  private byte @Nullable [] selectResponse;
+  private boolean closed;
+
+  private static final Logger logger = LoggerFactory.getLogger(PcscCardPool.class);
+
+  PcscCardPool(CardTerminal terminal) {
+    this.terminal = terminal;
+  }
+
+  /**
+   * Opens a connection using the pooled Card, connecting to the terminal if needed. Connections are
+   * given out one at a time, waiting until the previous one is closed. Once the pool is closed, a
+   * connection which resets the card when closed is returned instead.
+   */
+  PcscSmartCardConnection open() throws IOException {
+    try {
+      permit.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for pooled card");
+    }
+    if (isClosed()) {
+      permit.release();
+      try {
+        return new PcscSmartCardConnection(terminal.connect("T=1"));
+      } catch (CardException e) {
+        throw new IOException(e);
+      }
+    }
+    try {
+      try {
+        return new PcscSmartCardConnection(getCard(), this);
+      } catch (IOException e) {
+        // The pooled card may have been removed, or reset by another process
+        logger.debug("Pooled card unusable, reconnecting: {}", e.getMessage());
+        reset();
+        return new PcscSmartCardConnection(getCard(), this);
+      }
+    } catch (IOException | RuntimeException e) {
+      permit.release();
+      throw e;
+    } catch (CardException e) {
+      permit.release();
+      throw new IOException(e);
+    }
+  }
+
+  /** Called when a connection opened by {@link #open()} is closed. */
+  void release() {
+    synchronized (this) {
+      if (closed) {
+        reset();
+      }
+    }
+    permit.release();
+  }
+
+  /**
+   * Closes the pool, resetting the card. If a connection is open the reset is done once it is
+   * closed, so that the card is not disconnected while in use.
+   */
+  synchronized void close() {
+    closed = true;
+    if (permit.tryAcquire()) {
+      try {
+        reset();
+      } finally {
+        permit.release();
+      }
+    }
+  }
+
+  private synchronized boolean isClosed() {
+    return closed;
+  }
+
+  private synchronized Card getCard() throws CardException {
+    Card current = card;
+    if (current == null) {
+      logger.debug("Connecting pooled card");
+      current = terminal.connect("T=1");
+      card = current;
+    }
+    return current;
+  }
+
+  /** Returns the cached response if the application is selected, and SELECT can be skipped. */
+  synchronized byte @Nullable [] getSelectResponse(byte[] aid) {
+    byte[] response = selectResponse;
+    if (response != null && ByteBuffer.wrap(aid).equals(selectedAid)) {
+      return Arrays.copyOf(response, response.length);
+    }
+    return null;
+  }
+
+  /** Records the response to a SELECT sent to the card, or clears the selection if it failed. */
+  synchronized void setSelected(byte[] aid, byte[] response) {
+    ByteBuffer key = ByteBuffer.wrap(aid);
+    int length = response.length;
+    boolean ok = length >= 2 && response[length - 2] == (byte) 0x90 && response[length - 1] == 0x00;
+    if (ok && REUSABLE_SELECT.contains(key)) {
+      selectedAid = key;
+      selectResponse = Arrays.copyOf(response, length);
+    } else {
+      selectedAid = null;
+      selectResponse = null;
+    }
+  }
+
+  /** Forgets the selected application, so that the next SELECT is sent to the card. */
+  synchronized void clearSelected() {
+    selectedAid = null;
+    selectResponse = null;
+  }
+
+  /**
+   * Returns true if the APDU uses secure messaging, or starts setting up a secure channel. The
+   * application must then be selected again to get a session without it.
+   */
+  static boolean isSecureMessaging(byte[] apdu) {
+    return apdu.length >= 2
+        && ((apdu[0] & CLA_SECURE_MESSAGING) != 0 || apdu[1] == INS_INITIALIZE_UPDATE);
+  }
+
+  /**
+   * Returns the AID if the APDU is a SELECT by AID, or an empty array for any other SELECT, or null
+   * if the APDU is not a SELECT.
+   */
+  static byte @Nullable [] selectAid(byte[] apdu) {
+    if (apdu.length < 2 || apdu[1] != INS_SELECT) {
+      return null;
+    }
+    if (apdu.length < 6 || apdu[0] != 0 || apdu[2] != P1_SELECT_BY_AID) {
+      return new byte[0];
+    }
+    int length = 0xff & apdu[4];
+    if (length == 0 || 5 + length > apdu.length) {
+      return new byte[0];
+    }
+    return Arrays.copyOfRange(apdu, 5, 5 + length);
+  }
+
+  /** Disconnects the card, resetting it. The next connection connects to the terminal again. */
+  synchronized void reset() {
+    Card current = card;
+    card = null;
+    selectedAid = null;
+    selectResponse = null;
+    if (current != null) {
+      try {
+        current.disconnect(true);
+      } catch (CardException e) {
+        logger.debug("Failed to disconnect pooled card: {}", e.getMessage());
+      }
+    }
+  }
+}
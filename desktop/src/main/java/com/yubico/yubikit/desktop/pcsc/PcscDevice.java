@@ -20,41 +20,73 @@ import com.yubico.yubikit.core.YubiKeyDevice;
 import com.yubico.yubikit.core.smartcard.SmartCardConnection;
 import com.yubico.yubikit.core.util.Callback;
 import com.yubico.yubikit.core.util.Result;
+import com.yubico.yubikit.desktop.DeviceScheduler;
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import javax.smartcardio.CardException;
 import javax.smartcardio.CardTerminal;
 import org.jspecify.annotations.Nullable;
 
 abstract class PcscDevice implements YubiKeyDevice, Closeable {
   private final CardTerminal terminal;
-  private volatile @Nullable ExecutorService executorService;
+  private volatile DeviceScheduler.@Nullable Queue queue;
+  private @Nullable PcscCardPool pool;
 
   public PcscDevice(CardTerminal terminal) {
     this.terminal = terminal;
   }
 
-  private ExecutorService getExecutorService() {
-    ExecutorService executor = executorService;
-    if (executor == null) {
+  private DeviceScheduler.Queue getQueue() {
+    DeviceScheduler.Queue result = queue;
+    if (result == null) {
       synchronized (this) {
-        executor = executorService;
-        if (executor == null) {
-          executor = Executors.newSingleThreadExecutor();
-          executorService = executor;
+        result = queue;
+        if (result == null) {
+          result = DeviceScheduler.getDefault().newQueue();
+          queue = result;
         }
       }
     }
-    return executor;
+    return result;
   }
 
   public String getName() {
     return terminal.getName();
   }
 
+  /**
+   * Enables or disables connection pooling.
+   *
+   * <p>By default, each connection connects to the card and resets it when closed, so that every
+   * connection starts from a freshly powered card. With pooling enabled, the card is kept connected
+   * between connections, and each connection only holds exclusive access to it while open. The
+   * application last selected is remembered, and selecting it again in the next connection is
+   * skipped for applications which always give the same response to SELECT.
+   *
+   * <p>As the card is not reset, state such as a verified PIN is retained from one connection to
+   * the next. Pooling assumes that no other process uses the YubiKey while enabled, as it would not
+   * see applications selected by others. Disabling pooling, or closing the device, resets the card
+   * once any open connection is closed.
+   *
+   * @param enabled true to keep the card connected between connections
+   */
+  public synchronized void setConnectionPooling(boolean enabled) {
+    if (enabled && pool == null) {
+      pool = new PcscCardPool(terminal);
+    } else if (!enabled && pool != null) {
+      pool.close();
+      pool = null;
+    }
+  }
+
   public SmartCardConnection openIso7816Connection() throws IOException {
+    PcscCardPool current;
+    synchronized (this) {
+      current = pool;
+    }
+    if (current != null) {
+      return current.open();
+    }
     try {
       return new PcscSmartCardConnection(terminal.connect("T=1"));
     } catch (CardException e) {
@@ -80,11 +112,29 @@ abstract class PcscDevice implements YubiKeyDevice, Closeable {
   @Override
   public <T extends YubiKeyConnection> void requestConnection(
       Class<T> connectionType, Callback<Result<T, IOException>> callback) {
+    requestConnection(connectionType, DeviceScheduler.Priority.NORMAL, callback);
+  }
+
+  /**
+   * Requests a connection, like {@link #requestConnection(Class, Callback)}, with the given
+   * priority relative to other requests.
+   *
+   * @param connectionType the type of connection to open
+   * @param priority the priority of the request, see {@link DeviceScheduler}
+   * @param callback invoked with the open connection, which is closed once it returns
+   * @throws java.util.concurrent.RejectedExecutionException if the device is closed, or too many
+   *     requests are pending
+   */
+  public <T extends YubiKeyConnection> void requestConnection(
+      Class<T> connectionType,
+      DeviceScheduler.Priority priority,
+      Callback<Result<T, IOException>> callback) {
     if (!supportsConnection(connectionType)) {
       throw new IllegalStateException("Unsupported connection type");
     }
-    getExecutorService()
+    getQueue()
         .submit(
+            priority,
             () -> {
               try (T connection = openConnection(connectionType)) {
                 callback.invoke(Result.success(connection));
@@ -96,9 +146,10 @@ abstract class PcscDevice implements YubiKeyDevice, Closeable {
 
   @Override
   public void close() throws IOException {
-    ExecutorService executor = executorService;
-    if (executor != null) {
-      executor.shutdown();
+    setConnectionPooling(false);
+    DeviceScheduler.Queue current = queue;
+    if (current != null) {
+      current.close();
     }
   }
 }
@@ -21,10 +21,12 @@ import javax.smartcardio.CardException;
 import javax.smartcardio.CardTerminal;
 import javax.smartcardio.CardTerminals;
 import javax.smartcardio.TerminalFactory;
+import org.jspecify.annotations.Nullable;
 
 public class PcscManager {
   private static final String YK_READER_NAME = "yubikey";
   private final TerminalFactory terminalFactory;
+  private @Nullable CardTerminals watchedTerminals;
 
   public PcscManager(TerminalFactory terminalFactory) {
     this.terminalFactory = terminalFactory;
@@ -85,6 +87,36 @@ public class PcscManager {
     return scanDevices().getNfcDevices();
   }
 
+  /**
+   * Blocks until a card is inserted into, or removed from, any terminal, or until the timeout
+   * expires.
+   *
+   * <p>Changes are tracked between calls, so a change which happens while the caller is not waiting
+   * causes the next call to return immediately. Terminals connected while waiting are only noticed
+   * by the next call, so callers should wait with a finite timeout.
+   *
+   * @param timeoutMillis the maximum time to wait, in milliseconds
+   * @return the names of the terminals into which a card was inserted since the previous call, or
+   *     null if the timeout expired without any change
+   * @throws CardException in case of a PC/SC error, such as the service being unavailable
+   */
+  public synchronized @Nullable Set<String> waitForChange(long timeoutMillis) throws CardException {
+    CardTerminals terminals = watchedTerminals;
+    if (terminals == null) {
+      // The same instance must be used across calls, as it holds the state to compare against
+      terminals = terminalFactory.terminals();
+      watchedTerminals = terminals;
+    }
+    if (!terminals.waitForChange(timeoutMillis)) {
+      return null;
+    }
+    Set<String> inserted = new HashSet<>();
+    for (CardTerminal terminal : terminals.list(CardTerminals.State.CARD_INSERTION)) {
+      inserted.add(terminal.getName());
+    }
+    return inserted;
+  }
+
   private static boolean isYubiKeyReader(String name) {
     return name.toLowerCase().contains(YK_READER_NAME);
   }
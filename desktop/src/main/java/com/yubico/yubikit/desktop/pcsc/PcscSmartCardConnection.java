@@ -24,6 +24,7 @@ import javax.smartcardio.Card;
 import javax.smartcardio.CardChannel;
 import javax.smartcardio.CardException;
 import javax.smartcardio.CommandAPDU;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,11 +32,23 @@ public class PcscSmartCardConnection implements SmartCardConnection {
   private final Card card;
   private final Transport transport;
   private final CardChannel cardChannel;
+  private final @Nullable PcscCardPool pool;
+  private boolean failed;
+  private boolean released;
 
   private final Logger logger = LoggerFactory.getLogger(PcscSmartCardConnection.class);
 
   public PcscSmartCardConnection(Card card) throws IOException {
+    this(card, null);
+  }
+
+  /**
+   * Creates a connection using a Card which is kept connected by a pool. Closing the connection
+   * ends exclusive access to the card, without disconnecting it.
+   */
+  PcscSmartCardConnection(Card card, @Nullable PcscCardPool pool) throws IOException {
     this.card = card;
+    this.pool = pool;
     this.transport = (card.getATR().getBytes()[1] & 0xf0) == 0xf0 ? Transport.USB : Transport.NFC;
     try {
       logger.debug("Opening CCID connection");
@@ -64,6 +77,24 @@ public class PcscSmartCardConnection implements SmartCardConnection {
   @Override
   public void close() throws IOException {
     logger.debug("Closing CCID connection");
+    if (pool != null) {
+      if (released) {
+        return;
+      }
+      released = true;
+      try {
+        card.endExclusive();
+      } catch (CardException | IllegalStateException e) {
+        logger.debug("Failed to end exclusive access: {}", e.getMessage());
+        failed = true;
+      }
+      if (failed) {
+        // The card may have been removed, or reset, so connect again next time
+        pool.reset();
+      }
+      pool.release();
+      return;
+    }
     try {
       card.endExclusive();
       card.disconnect(true);
@@ -82,11 +113,24 @@ public class PcscSmartCardConnection implements SmartCardConnection {
           .addArgument(sentApdu.length)
           .addArgument(() -> StringUtils.bytesToHex(sentApdu))
           .log();
+      byte[] selectAid = pool != null ? PcscCardPool.selectAid(apdu) : null;
+      if (pool != null && selectAid != null) {
+        byte[] cached = pool.getSelectResponse(selectAid);
+        if (cached != null) {
+          logger.trace("Application already selected on pooled card, skipping SELECT");
+          return cached;
+        }
+      } else if (pool != null && PcscCardPool.isSecureMessaging(apdu)) {
+        pool.clearSelected();
+      }
       if (apdu.length < 5) {
         // CardChannel.transmit requires at least 5 bytes.
         apdu = Arrays.copyOf(apdu, 5);
       }
       byte[] response = cardChannel.transmit(new CommandAPDU(apdu)).getBytes();
+      if (pool != null && selectAid != null) {
+        pool.setSelected(selectAid, response);
+      }
       logger
           .atTrace()
           .setMessage("{} bytes received over PCSC: {}")
@@ -95,6 +139,7 @@ public class PcscSmartCardConnection implements SmartCardConnection {
           .log();
       return response;
     } catch (CardException e) {
+      failed = true;
       throw new IOException(e);
     }
   }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.desktop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.UsbPid;
+import com.yubico.yubikit.core.YubiKeyDevice;
+import com.yubico.yubikit.core.smartcard.SmartCardConnection;
+import com.yubico.yubikit.core.util.Callback;
+import com.yubico.yubikit.core.util.Result;
+import com.yubico.yubikit.desktop.hid.HidManager;
+import com.yubico.yubikit.desktop.pcsc.NfcPcscDevice;
+import com.yubico.yubikit.desktop.pcsc.PcscManager;
+import com.yubico.yubikit.desktop.pcsc.UsbPcscDevice;
+import com.yubico.yubikit.management.DeviceInfo;
+import com.yubico.yubikit.simulator.YubiKeySimulator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+
+public class DeviceMonitorTest {
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private final PcscManager pcscManager = mock(PcscManager.class);
+  private final HidManager hidManager = mock(HidManager.class);
+  // Sets of readers with an inserted card, returned by waitForChange
+  private final BlockingQueue<Set<String>> pcscChanges = new LinkedBlockingQueue<>();
+  private final List<UsbPcscDevice> usbDevices = new CopyOnWriteArrayList<>();
+  private final List<NfcYubiKeyDevice> nfcDevices = new CopyOnWriteArrayList<>();
+  private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+  private DeviceMonitor monitor;
+
+  @Before
+  public void setUp() throws Exception {
+    when(pcscManager.waitForChange(anyLong()))
+        .thenAnswer(
+            invocation -> {
+              long timeout = invocation.getArgument(0);
+              return pcscChanges.poll(timeout, TimeUnit.MILLISECONDS);
+            });
+    when(pcscManager.scanDevices())
+        .thenAnswer(
+            invocation -> {
+              PcscManager.PcscDevices devices = mock(PcscManager.PcscDevices.class);
+              when(devices.getUsbDevices()).thenReturn(new ArrayList<>(usbDevices));
+              when(devices.getNfcDevices()).thenReturn(new ArrayList<>(nfcDevices));
+              return devices;
+            });
+    monitor = new DeviceMonitor(pcscManager, hidManager, null, 100, 500);
+    monitor.addListener(
+        new DeviceMonitor.Listener() {
+          @Override
+          public void deviceAdded(YubiKeyDevice device, DeviceInfo info) {
+            events.add("added " + info.getSerialNumber());
+          }
+
+          @Override
+          public void deviceRemoved(YubiKeyDevice device, DeviceInfo info) {
+            events.add("removed " + info.getSerialNumber());
+          }
+
+          @Override
+          public void deviceChanged(YubiKeyDevice device, DeviceInfo info) {
+            events.add("changed " + info.getSerialNumber());
+          }
+        });
+  }
+
+  @After
+  public void tearDown() {
+    monitor.close();
+  }
+
+  @Test
+  public void testAddAndRemove() throws Exception {
+    usbDevices.add(usbDevice("usb0", new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 1000)));
+    monitor.start();
+    assertEquals("added 1000", nextEvent());
+
+    usbDevices.add(usbDevice("usb1", new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 1001)));
+    pcscChanges.add(Collections.singleton("usb1"));
+    assertEquals("added 1001", nextEvent());
+    assertEquals(2, monitor.getDevices().size());
+
+    usbDevices.remove(0);
+    pcscChanges.add(Collections.emptySet());
+    assertEquals("removed 1000", nextEvent());
+    assertEquals(1, monitor.getDevices().size());
+  }
+
+  @Test
+  public void testNfcReinsert() throws Exception {
+    monitor.start();
+    YubiKeySimulator first = new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 2000);
+    nfcDevices.add(nfcDevice("reader", first));
+    pcscChanges.add(Collections.singleton("reader"));
+    assertEquals("added 2000", nextEvent());
+
+    // The same YubiKey presented again is not reported
+    nfcDevices.set(0, nfcDevice("reader", first));
+    pcscChanges.add(Collections.singleton("reader"));
+
+    // A different YubiKey on the same reader is reported as a change
+    nfcDevices.set(
+        0, nfcDevice("reader", new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 2001)));
+    pcscChanges.add(Collections.singleton("reader"));
+    assertEquals("changed 2001", nextEvent());
+
+    nfcDevices.clear();
+    pcscChanges.add(Collections.emptySet());
+    assertEquals("removed 2001", nextEvent());
+    assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testReadTimeoutLeavesDeviceUnread() throws Exception {
+    UsbPcscDevice unresponsive = mock(UsbPcscDevice.class);
+    when(unresponsive.getFingerprint()).thenReturn("usb0");
+    when(unresponsive.getPid()).thenReturn(UsbPid.YK4_CCID);
+    usbDevices.add(unresponsive);
+    monitor.start();
+
+    // The event thread is not blocked by the unresponsive device
+    usbDevices.add(usbDevice("usb1", new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 1001)));
+    pcscChanges.add(Collections.singleton("usb1"));
+    assertEquals("added 1001", nextEvent());
+
+    // The device is read again once it responds
+    usbDevices.set(
+        0, usbDevice("usb0", new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 1000)));
+    pcscChanges.add(Collections.emptySet());
+    assertEquals("added 1000", nextEvent());
+  }
+
+  private String nextEvent() throws InterruptedException {
+    String event = events.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    if (event == null) {
+      throw new AssertionError("No event received");
+    }
+    return event;
+  }
+
+  private static UsbPcscDevice usbDevice(String fingerprint, YubiKeySimulator simulator)
+      throws IOException {
+    UsbPcscDevice device = mock(UsbPcscDevice.class);
+    when(device.getFingerprint()).thenReturn(fingerprint);
+    when(device.getPid()).thenReturn(UsbPid.YK4_CCID);
+    doAnswer(connect(simulator, Transport.USB))
+        .when(device)
+        .requestConnection(eq(SmartCardConnection.class), any(), any());
+    return device;
+  }
+
+  private static NfcPcscDevice nfcDevice(String fingerprint, YubiKeySimulator simulator)
+      throws IOException {
+    NfcPcscDevice device = mock(NfcPcscDevice.class);
+    when(device.getFingerprint()).thenReturn(fingerprint);
+    doAnswer(connect(simulator, Transport.NFC))
+        .when(device)
+        .requestConnection(eq(SmartCardConnection.class), any(), any());
+    return device;
+  }
+
+  private static Answer<Void> connect(YubiKeySimulator simulator, Transport transport) {
+    return invocation -> {
+      Callback<Result<SmartCardConnection, IOException>> callback = invocation.getArgument(2);
+      try (SmartCardConnection connection = simulator.openConnection(transport)) {
+        callback.invoke(Result.success(connection));
+      }
+      return null;
+    };
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.desktop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class DeviceSchedulerTest {
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+  private final CountDownLatch blockerStarted = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    release.countDown();
+  }
+
+  @Test
+  public void testTasksInQueueRunOneAtATime() throws Exception {
+    DeviceScheduler scheduler = new DeviceScheduler(4, 64);
+    DeviceScheduler.Queue queue = scheduler.newQueue();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      String name = "task" + i;
+      expected.add(name);
+      queue.submit(
+          DeviceScheduler.Priority.NORMAL,
+          () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(2);
+            order.add(name);
+            running.decrementAndGet();
+          });
+    }
+    awaitCompleted(scheduler, 20);
+    assertEquals(1, maxRunning.get());
+    assertEquals(expected, order);
+  }
+
+  @Test
+  public void testInteractiveRunsAheadOfBackground() throws Exception {
+    DeviceScheduler scheduler = new DeviceScheduler(1, 64);
+    block(scheduler);
+    DeviceScheduler.Queue background = scheduler.newQueue();
+    DeviceScheduler.Queue interactive = scheduler.newQueue();
+    background.submit(DeviceScheduler.Priority.BACKGROUND, record("b1"));
+    background.submit(DeviceScheduler.Priority.BACKGROUND, record("b2"));
+    interactive.submit(DeviceScheduler.Priority.INTERACTIVE, record("i1"));
+    // Within a queue, a later interactive task also runs first
+    background.submit(DeviceScheduler.Priority.INTERACTIVE, record("i2"));
+
+    release.countDown();
+    awaitCompleted(scheduler, 5);
+    assertEquals(Arrays.asList("i1", "i2", "b1", "b2"), order);
+  }
+
+  @Test
+  public void testQueuesOfSamePriorityTakeTurns() throws Exception {
+    DeviceScheduler scheduler = new DeviceScheduler(1, 64);
+    block(scheduler);
+    DeviceScheduler.Queue first = scheduler.newQueue();
+    DeviceScheduler.Queue second = scheduler.newQueue();
+    for (int i = 1; i <= 3; i++) {
+      first.submit(DeviceScheduler.Priority.NORMAL, record("a" + i));
+    }
+    for (int i = 1; i <= 3; i++) {
+      second.submit(DeviceScheduler.Priority.NORMAL, record("b" + i));
+    }
+
+    release.countDown();
+    awaitCompleted(scheduler, 7);
+    assertEquals(Arrays.asList("a1", "b1", "a2", "b2", "a3", "b3"), order);
+  }
+
+  @Test
+  public void testRejectsWhenQueueIsFull() throws Exception {
+    DeviceScheduler scheduler = new DeviceScheduler(1, 2);
+    block(scheduler);
+    DeviceScheduler.Queue queue = scheduler.newQueue();
+    queue.submit(DeviceScheduler.Priority.NORMAL, record("t1"));
+    queue.submit(DeviceScheduler.Priority.NORMAL, record("t2"));
+    assertThrows(
+        RejectedExecutionException.class,
+        () -> queue.submit(DeviceScheduler.Priority.INTERACTIVE, record("t3")));
+    assertEquals(2, queue.getQueuedTaskCount());
+
+    // Other queues are not affected
+    scheduler.newQueue().submit(DeviceScheduler.Priority.NORMAL, record("other"));
+
+    release.countDown();
+    awaitCompleted(scheduler, 4);
+    assertEquals(3, order.size());
+
+    // Once drained, the queue accepts tasks again until it is closed
+    queue.submit(DeviceScheduler.Priority.NORMAL, record("t4"));
+    queue.close();
+    assertThrows(
+        RejectedExecutionException.class,
+        () -> queue.submit(DeviceScheduler.Priority.NORMAL, record("t5")));
+    awaitCompleted(scheduler, 5);
+    assertTrue(order.contains("t4"));
+  }
+
+  @Test
+  public void testCounters() throws Exception {
+    DeviceScheduler scheduler = new DeviceScheduler(1, 64);
+    block(scheduler);
+    DeviceScheduler.Queue queue = scheduler.newQueue();
+    queue.submit(DeviceScheduler.Priority.NORMAL, record("t1"));
+    queue.submit(DeviceScheduler.Priority.NORMAL, record("t2"));
+    // A task which throws still counts as completed
+    scheduler
+        .newQueue()
+        .submit(
+            DeviceScheduler.Priority.NORMAL,
+            () -> {
+              throw new IllegalStateException("Failed");
+            });
+
+    assertEquals(1, scheduler.getActiveTaskCount());
+    assertEquals(3, scheduler.getQueuedTaskCount());
+    assertEquals(2, queue.getQueuedTaskCount());
+    assertEquals(0, scheduler.getCompletedTaskCount());
+
+    release.countDown();
+    awaitCompleted(scheduler, 4);
+    assertEquals(0, scheduler.getActiveTaskCount());
+    assertEquals(0, scheduler.getQueuedTaskCount());
+    assertEquals(0, queue.getQueuedTaskCount());
+  }
+
+  /** Occupies a worker thread of the scheduler until released. */
+  private void block(DeviceScheduler scheduler) throws InterruptedException {
+    scheduler
+        .newQueue()
+        .submit(
+            DeviceScheduler.Priority.INTERACTIVE,
+            () -> {
+              blockerStarted.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    assertTrue(blockerStarted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+  }
+
+  private Runnable record(String name) {
+    return () -> order.add(name);
+  }
+
+  private static void awaitCompleted(DeviceScheduler scheduler, long count)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (scheduler.getCompletedTaskCount() < count) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError(
+            "Completed " + scheduler.getCompletedTaskCount() + " of " + count + " tasks");
+      }
+      Thread.sleep(5);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
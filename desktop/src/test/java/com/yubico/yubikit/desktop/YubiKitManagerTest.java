@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.desktop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.UsbPid;
+import com.yubico.yubikit.core.YubiKeyDevice;
+import com.yubico.yubikit.core.smartcard.SmartCardConnection;
+import com.yubico.yubikit.desktop.hid.HidDevice;
+import com.yubico.yubikit.desktop.hid.HidManager;
+import com.yubico.yubikit.desktop.pcsc.PcscManager;
+import com.yubico.yubikit.desktop.pcsc.UsbPcscDevice;
+import com.yubico.yubikit.management.DeviceInfo;
+import com.yubico.yubikit.simulator.Latency;
+import com.yubico.yubikit.simulator.YubiKeySimulator;
+import com.yubico.yubikit.support.DeviceInfoCache;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class YubiKitManagerTest {
+  private static final Latency LATENCY = new Latency(2_000, 0);
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testParallelListingMatchesSerial() throws Exception {
+    PcscManager pcscManager = mock(PcscManager.class);
+    HidManager hidManager = mock(HidManager.class);
+    List<UsbPcscDevice> ccidDevices = new ArrayList<>();
+    List<HidDevice> otpDevices = new ArrayList<>();
+    List<HidDevice> fidoDevices = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      YubiKeySimulator simulator = new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 1000 + i);
+      ccidDevices.add(ccidDevice(UsbPid.YK4_OTP_FIDO_CCID, "ccid" + i, simulator));
+      otpDevices.add(hidDevice(UsbPid.YK4_OTP_FIDO_CCID, "otp" + i));
+      fidoDevices.add(hidDevice(UsbPid.YK4_OTP_FIDO_CCID, "fido" + i));
+    }
+    // A second kind of YubiKey, in its own group
+    ccidDevices.add(
+        ccidDevice(
+            UsbPid.YK4_CCID,
+            "ccid3",
+            new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 1003)));
+    // A node which fails to open
+    UsbPcscDevice broken = mock(UsbPcscDevice.class);
+    when(broken.getPid()).thenReturn(UsbPid.YK4_CCID);
+    when(broken.getFingerprint()).thenReturn("broken");
+    doThrow(new IOException("Unplugged")).when(broken).openConnection(any());
+    ccidDevices.add(broken);
+
+    List<NfcYubiKeyDevice> nfcDevices =
+        Arrays.asList(
+            nfcDevice("nfc0", new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 2000)),
+            nfcDevice("nfc1", new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 2001)));
+
+    when(pcscManager.getDevices()).thenReturn(ccidDevices);
+    when(pcscManager.getNfcDevices()).thenReturn(nfcDevices);
+    when(hidManager.getOtpDevices()).thenReturn(otpDevices);
+    when(hidManager.getFidoDevices()).thenReturn(fidoDevices);
+
+    List<DeviceInfo> serial = infos(new YubiKitManager(pcscManager, hidManager).listAllDevices());
+    List<DeviceInfo> parallel =
+        infos(new YubiKitManager(pcscManager, hidManager, executor, 5000).listAllDevices());
+
+    assertEquals(6, serial.size());
+    assertEquals(serial, parallel);
+    List<Integer> serials = new ArrayList<>();
+    for (DeviceInfo info : serial) {
+      serials.add(info.getSerialNumber());
+    }
+    // NFC devices are listed last, in reader order
+    assertEquals(Arrays.asList(2000, 2001), serials.subList(4, 6));
+    serials.sort(null);
+    assertEquals(Arrays.asList(1000, 1001, 1002, 1003, 2000, 2001), serials);
+  }
+
+  @Test
+  public void testListingFillsCache() throws Exception {
+    PcscManager pcscManager = mock(PcscManager.class);
+    HidManager hidManager = mock(HidManager.class);
+    UsbPcscDevice device =
+        ccidDevice(
+            UsbPid.YK4_CCID, "ccid", new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 1000));
+    NfcYubiKeyDevice nfcDevice =
+        nfcDevice("nfc", new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 2000));
+    when(pcscManager.getDevices()).thenReturn(Collections.singletonList(device));
+    when(pcscManager.getNfcDevices()).thenReturn(Collections.singletonList(nfcDevice));
+
+    DeviceInfoCache cache = new DeviceInfoCache();
+    new YubiKitManager(pcscManager, hidManager, executor, 5000, cache)
+        .listAllDevices(Collections.singleton(SmartCardConnection.class));
+    assertNotNull(cache.get(1000, YubiKeySimulator.DEFAULT_VERSION, UsbPid.YK4_CCID));
+    assertNotNull(cache.get(2000, YubiKeySimulator.DEFAULT_VERSION, null));
+  }
+
+  @Test
+  public void testProbeTimeoutStartsWhenProbeRuns() throws Exception {
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    try {
+      PcscManager pcscManager = mock(PcscManager.class);
+      HidManager hidManager = mock(HidManager.class);
+      UsbPcscDevice device =
+          ccidDevice(
+              UsbPid.YK4_CCID,
+              "ccid",
+              new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 1000));
+      when(pcscManager.getDevices()).thenReturn(Collections.singletonList(device));
+      when(pcscManager.getNfcDevices()).thenReturn(Collections.emptyList());
+
+      // Keep the executor busy for longer than the probe timeout before the probe can run
+      CountDownLatch blocking = new CountDownLatch(1);
+      single.execute(
+          () -> {
+            blocking.countDown();
+            try {
+              Thread.sleep(750);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+      assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+      Map<YubiKeyDevice, DeviceInfo> devices =
+          new YubiKitManager(pcscManager, hidManager, single, 500)
+              .listAllDevices(Collections.singleton(SmartCardConnection.class));
+      assertEquals(1, devices.size());
+      assertEquals(Integer.valueOf(1000), devices.values().iterator().next().getSerialNumber());
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testProbeWhichCannotStartTimesOut() throws Exception {
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    CountDownLatch hung = new CountDownLatch(1);
+    try {
+      PcscManager pcscManager = mock(PcscManager.class);
+      HidManager hidManager = mock(HidManager.class);
+      UsbPcscDevice device =
+          ccidDevice(
+              UsbPid.YK4_CCID,
+              "ccid",
+              new YubiKeySimulator(YubiKeySimulator.DEFAULT_VERSION, 1000));
+      when(pcscManager.getDevices()).thenReturn(Collections.singletonList(device));
+      when(pcscManager.getNfcDevices()).thenReturn(Collections.emptyList());
+
+      // The only thread of the executor is taken by a task which never completes
+      single.execute(
+          () -> {
+            try {
+              hung.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+
+      long start = System.nanoTime();
+      Map<YubiKeyDevice, DeviceInfo> devices =
+          new YubiKitManager(pcscManager, hidManager, single, 200)
+              .listAllDevices(Collections.singleton(SmartCardConnection.class));
+      assertTrue(devices.isEmpty());
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    } finally {
+      hung.countDown();
+      single.shutdownNow();
+    }
+  }
+
+  private static List<DeviceInfo> infos(Map<YubiKeyDevice, DeviceInfo> devices) {
+    return new ArrayList<>(devices.values());
+  }
+
+  private static UsbPcscDevice ccidDevice(
+      UsbPid pid, String fingerprint, YubiKeySimulator simulator) throws IOException {
+    UsbPcscDevice device = mock(UsbPcscDevice.class);
+    when(device.getPid()).thenReturn(pid);
+    when(device.getFingerprint()).thenReturn(fingerprint);
+    doAnswer(invocation -> simulator.openConnection(Transport.USB, LATENCY))
+        .when(device)
+        .openConnection(SmartCardConnection.class);
+    return device;
+  }
+
+  private static HidDevice hidDevice(UsbPid pid, String fingerprint) throws IOException {
+    HidDevice device = mock(HidDevice.class);
+    when(device.getPid()).thenReturn(pid);
+    when(device.getFingerprint()).thenReturn(fingerprint);
+    // The simulator has no OTP HID interface, and these nodes don't need to be read
+    doThrow(new IOException("Not simulated")).when(device).openConnection(any());
+    return device;
+  }
+
+  private static NfcYubiKeyDevice nfcDevice(String fingerprint, YubiKeySimulator simulator)
+      throws IOException {
+    NfcYubiKeyDevice device = mock(NfcYubiKeyDevice.class);
+    when(device.getFingerprint()).thenReturn(fingerprint);
+    doAnswer(invocation -> simulator.openConnection(Transport.NFC, LATENCY))
+        .when(device)
+        .openConnection(SmartCardConnection.class);
+    return device;
+  }
+}
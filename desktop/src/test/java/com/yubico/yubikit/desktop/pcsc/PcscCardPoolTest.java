@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.desktop.pcsc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yubico.yubikit.core.smartcard.AppId;
+import com.yubico.yubikit.core.smartcard.SmartCardConnection;
+import java.nio.ByteBuffer;
+import javax.smartcardio.ATR;
+import javax.smartcardio.Card;
+import javax.smartcardio.CardChannel;
+import javax.smartcardio.CardTerminal;
+import javax.smartcardio.CommandAPDU;
+import javax.smartcardio.ResponseAPDU;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PcscCardPoolTest {
+  private static final byte[] OK = {(byte) 0x90, 0x00};
+
+  private CardTerminal terminal;
+  private Card card;
+  private CardChannel channel;
+
+  @Before
+  public void setUp() throws Exception {
+    terminal = mock(CardTerminal.class);
+    card = mock(Card.class);
+    channel = mock(CardChannel.class);
+    when(terminal.connect("T=1")).thenReturn(card);
+    when(card.getATR()).thenReturn(new ATR(new byte[] {0x3b, (byte) 0xf8, 0x13, 0x00}));
+    when(card.getBasicChannel()).thenReturn(channel);
+    when(channel.transmit(any(CommandAPDU.class))).thenReturn(new ResponseAPDU(OK));
+  }
+
+  private static byte[] select(byte[] aid) {
+    ByteBuffer apdu = ByteBuffer.allocate(6 + aid.length);
+    apdu.put(new byte[] {0x00, (byte) 0xa4, 0x04, 0x00, (byte) aid.length}).put(aid).put((byte) 0);
+    return apdu.array();
+  }
+
+  @Test
+  public void testSelectAid() {
+    assertArrayEquals(AppId.PIV, PcscCardPool.selectAid(select(AppId.PIV)));
+
+    // Without Le
+    byte[] apdu = select(AppId.OATH);
+    byte[] noLe = new byte[apdu.length - 1];
+    System.arraycopy(apdu, 0, noLe, 0, noLe.length);
+    assertArrayEquals(AppId.OATH, PcscCardPool.selectAid(noLe));
+  }
+
+  @Test
+  public void testSelectAidOtherSelect() {
+    // SELECT by file ID
+    assertEquals(
+        0,
+        PcscCardPool.selectAid(new byte[] {0x00, (byte) 0xa4, 0x00, 0x0c, 0x02, 0x3f, 0x00})
+            .length);
+    // SELECT with secure messaging
+    byte[] secure = select(AppId.PIV);
+    secure[0] = (byte) 0x84;
+    assertEquals(0, PcscCardPool.selectAid(secure).length);
+    // Empty or truncated AID
+    assertEquals(
+        0, PcscCardPool.selectAid(new byte[] {0x00, (byte) 0xa4, 0x04, 0x00, 0x00, 0x00}).length);
+    assertEquals(
+        0,
+        PcscCardPool.selectAid(new byte[] {0x00, (byte) 0xa4, 0x04, 0x00, 0x08, 0x01, 0x02})
+            .length);
+    assertEquals(0, PcscCardPool.selectAid(new byte[] {0x00, (byte) 0xa4}).length);
+  }
+
+  @Test
+  public void testSelectAidNotSelect() {
+    assertNull(PcscCardPool.selectAid(new byte[0]));
+    assertNull(PcscCardPool.selectAid(new byte[] {0x00}));
+    assertNull(PcscCardPool.selectAid(new byte[] {0x00, (byte) 0xfd, 0x00, 0x00}));
+  }
+
+  @Test
+  public void testIsSecureMessaging() {
+    assertTrue(PcscCardPool.isSecureMessaging(new byte[] {(byte) 0x84, 0x20, 0x00, (byte) 0x80}));
+    assertTrue(PcscCardPool.isSecureMessaging(new byte[] {(byte) 0x80, 0x50, 0x00, 0x00}));
+    assertFalse(PcscCardPool.isSecureMessaging(new byte[] {0x00, 0x20, 0x00, (byte) 0x80}));
+    assertFalse(PcscCardPool.isSecureMessaging(select(AppId.PIV)));
+  }
+
+  @Test
+  public void testSelectSkipped() throws Exception {
+    PcscCardPool pool = new PcscCardPool(terminal);
+    try (SmartCardConnection connection = pool.open()) {
+      connection.sendAndReceive(select(AppId.PIV));
+    }
+    try (SmartCardConnection connection = pool.open()) {
+      assertArrayEquals(OK, connection.sendAndReceive(select(AppId.PIV)));
+    }
+    verify(channel, times(1)).transmit(any(CommandAPDU.class));
+    verify(terminal, times(1)).connect("T=1");
+  }
+
+  @Test
+  public void testSecureMessagingClearsSelection() throws Exception {
+    PcscCardPool pool = new PcscCardPool(terminal);
+    try (SmartCardConnection connection = pool.open()) {
+      connection.sendAndReceive(select(AppId.PIV));
+      assertNotNull(pool.getSelectResponse(AppId.PIV));
+      connection.sendAndReceive(new byte[] {(byte) 0x80, 0x50, 0x00, 0x00, 0x08});
+      assertNull(pool.getSelectResponse(AppId.PIV));
+    }
+    try (SmartCardConnection connection = pool.open()) {
+      connection.sendAndReceive(select(AppId.PIV));
+      connection.sendAndReceive(new byte[] {(byte) 0x84, (byte) 0xcb, 0x3f, (byte) 0xff});
+      assertNull(pool.getSelectResponse(AppId.PIV));
+    }
+  }
+
+  @Test
+  public void testCloseDefersResetUntilReleased() throws Exception {
+    PcscCardPool pool = new PcscCardPool(terminal);
+    SmartCardConnection connection = pool.open();
+    pool.close();
+    verify(card, never()).disconnect(anyBoolean());
+
+    connection.sendAndReceive(select(AppId.PIV));
+    connection.close();
+    verify(card).endExclusive();
+    verify(card).disconnect(true);
+  }
+
+  @Test
+  public void testCloseResetsIdleCard() throws Exception {
+    PcscCardPool pool = new PcscCardPool(terminal);
+    pool.open().close();
+    pool.close();
+    verify(card).disconnect(true);
+
+    // Connections opened after closing reset the card themselves
+    pool.open().close();
+    verify(terminal, times(2)).connect("T=1");
+    verify(card, times(2)).disconnect(true);
+  }
+}
@@ -16,13 +16,12 @@
 
 package com.yubico.yubikit.fido;
 
-import com.yubico.yubikit.core.util.ZeroingByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -46,11 +45,12 @@ public class Cbor {
    * @return CBOR encoded bytes.
    */
   public static byte[] encode(Object value) {
-    try (ZeroingByteArrayOutputStream baos = new ZeroingByteArrayOutputStream()) {
-      encodeTo(baos, value);
-      return baos.toByteArray();
-    } catch (IOException e) {
-      throw new RuntimeException(e); // Shouldn't happen
+    Encoder encoder = new Encoder(64);
+    try {
+      encoder.write(value);
+      return encoder.toByteArray();
+    } finally {
+      encoder.clear();
     }
   }
 
@@ -62,23 +62,12 @@ public class Cbor {
    * @throws IOException A communication error in the transport layer.
    */
   public static void encodeTo(OutputStream stream, @Nullable Object value) throws IOException {
-    if (value == null) {
-      dumpSimple(stream, null);
-    } else if (value instanceof Number) {
-      dumpInt(stream, ((Number) value).intValue(), 0);
-    } else if (value instanceof Boolean) {
-      dumpSimple(stream, (Boolean) value);
-    } else if (value instanceof List) {
-      dumpList(stream, (List<?>) value);
-    } else if (value instanceof Map) {
-      dumpMap(stream, (Map<?, ?>) value);
-    } else if (value instanceof byte[]) {
-      dumpBytes(stream, (byte[]) value);
-    } else if (value instanceof String) {
-      dumpText(stream, (String) value);
-    } else {
-      throw new IllegalArgumentException(
-          String.format(Locale.ROOT, "Unsupported object type: %s", value.getClass()));
+    Encoder encoder = new Encoder(64);
+    try {
+      encoder.write(value);
+      stream.write(encoder.buf, 0, encoder.count);
+    } finally {
+      encoder.clear();
     }
   }
 
@@ -109,6 +98,28 @@ public class Cbor {
     return decode(data, 0, data.length);
   }
 
+  /**
+   * Decodes a CBOR map, deferring the decoding of its values until they are accessed.
+   *
+   * <p>The keys of the map are decoded immediately, while each value is decoded the first time it
+   * is read from the returned map. The returned map is read-only and keeps a reference to data,
+   * which must not be modified afterwards. It is thread safe.
+   *
+   * @param data The CBOR encoded byte array.
+   * @param offset The offset of where the CBOR encoded map is in the given byte array.
+   * @param length The length of CBOR encoded data.
+   * @return A read-only view of the decoded map.
+   * @throws IllegalArgumentException if the data is not a single CBOR map.
+   */
+  public static Map<?, ?> decodeMap(byte[] data, int offset, int length) {
+    CborReader reader = new CborReader(data, offset, length);
+    LazyCborMap map = new LazyCborMap(data, reader);
+    if (reader.hasRemaining()) {
+      throw new IllegalArgumentException("Extraneous data");
+    }
+    return map;
+  }
+
   /**
    * Decodes a single Object from a ByteBuffer containing CBOR encoded data at the buffers current
    * position. The position will be updated to point to the end of the CBOR data.
@@ -138,84 +149,6 @@ public class Cbor {
     throw new IllegalArgumentException("Unsupported major type");
   }
 
-  private static void dumpInt(OutputStream stream, int value, int majorType) throws IOException {
-    if (value < 0) {
-      majorType = 1;
-      value = -1 - value;
-    }
-
-    byte head = (byte) (majorType << 5);
-    if (value <= 23) {
-      stream.write((byte) (head | value));
-    } else if (value <= 0xff) {
-      stream.write((byte) (head | 24));
-      stream.write((byte) value);
-    } else if (value <= 0xffff) {
-      stream.write((byte) (head | 25));
-      stream.write(ByteBuffer.allocate(2).putShort((short) value).array());
-    } else {
-      stream.write((byte) (head | 26));
-      stream.write(ByteBuffer.allocate(4).putInt(value).array());
-    }
-  }
-
-  private static void dumpSimple(OutputStream stream, @Nullable Boolean value) throws IOException {
-    if (value == null) {
-      stream.write((byte) 0xf6);
-    } else {
-      stream.write((byte) (value ? 0xf5 : 0xf4));
-    }
-  }
-
-  private static void dumpList(OutputStream stream, List<?> value) throws IOException {
-    dumpInt(stream, value.size(), 4);
-    for (Object item : value) {
-      stream.write(encode(item));
-    }
-  }
-
-  private static void dumpMap(OutputStream stream, Map<?, ?> value) throws IOException {
-    dumpInt(stream, value.size(), 5);
-    List<byte[][]> entries = new ArrayList<>();
-    for (Map.Entry<?, ?> entry : value.entrySet()) {
-      entries.add(new byte[][] {encode(entry.getKey()), encode(entry.getValue())});
-    }
-    // Canonical order of map keys, as specified here:
-    // https://fidoalliance.org/specs/fido-v2.0-ps-20190130/fido-client-to-authenticator-protocol-v2.0-ps-20190130.html#ctap2-canonical-cbor-encoding-form
-    // Corresponds to lexicographical comparison.
-    //noinspection Java8ListSort // List.sort(Comparator<>) is available first in Android API 24
-    Collections.sort(
-        entries,
-        (o1, o2) -> {
-          byte[] key1 = o1[0];
-          byte[] key2 = o2[0];
-          int minLength = Math.min(key1.length, key2.length);
-          for (int i = 0; i < minLength; i++) {
-            int a = 0xff & key1[i];
-            int b = 0xff & key2[i];
-            if (a != b) {
-              return a - b;
-            }
-          }
-          return key1.length - key2.length;
-        });
-    for (byte[][] entry : entries) {
-      stream.write(entry[0]);
-      stream.write(entry[1]);
-    }
-  }
-
-  private static void dumpBytes(OutputStream stream, byte[] value) throws IOException {
-    dumpInt(stream, value.length, 2);
-    stream.write(value);
-  }
-
-  private static void dumpText(OutputStream stream, String value) throws IOException {
-    byte[] data = value.getBytes(StandardCharsets.UTF_8);
-    dumpInt(stream, data.length, 3);
-    stream.write(data);
-  }
-
   private static int loadInt(byte additionalInfo, ByteBuffer buf) {
     if (additionalInfo < 24) {
       return 0xff & additionalInfo;
@@ -277,4 +210,162 @@ public class Cbor {
     }
     return map;
   }
+
+  /**
+   * Single pass canonical CBOR encoder writing into one growable buffer.
+   *
+   * <p>List items and map values are written directly in place. Only map keys are encoded on their
+   * own, so that the entries can be written in canonical order. The buffer is zeroed when it grows
+   * and when the encoder is cleared, as the encoded data may contain secrets such as PIN tokens.
+   */
+  private static final class Encoder {
+    private byte[] buf;
+    private int count;
+
+    Encoder(int initialCapacity) {
+      buf = new byte[initialCapacity];
+    }
+
+    void write(@Nullable Object value) {
+      if (value == null) {
+        writeByte(0xf6);
+      } else if (value instanceof Number) {
+        writeInt(((Number) value).intValue(), 0);
+      } else if (value instanceof Boolean) {
+        writeByte((Boolean) value ? 0xf5 : 0xf4);
+      } else if (value instanceof List) {
+        writeList((List<?>) value);
+      } else if (value instanceof Map) {
+        writeMap((Map<?, ?>) value);
+      } else if (value instanceof byte[]) {
+        writeBytes((byte[]) value, 2);
+      } else if (value instanceof String) {
+        writeBytes(((String) value).getBytes(StandardCharsets.UTF_8), 3);
+      } else {
+        throw new IllegalArgumentException(
+            String.format(Locale.ROOT, "Unsupported object type: %s", value.getClass()));
+      }
+    }
+
+    private void writeInt(int value, int majorType) {
+      if (value < 0) {
+        majorType = 1;
+        value = -1 - value;
+      }
+
+      int head = majorType << 5;
+      if (value <= 23) {
+        writeByte(head | value);
+      } else if (value <= 0xff) {
+        ensureCapacity(2);
+        buf[count++] = (byte) (head | 24);
+        buf[count++] = (byte) value;
+      } else if (value <= 0xffff) {
+        ensureCapacity(3);
+        buf[count++] = (byte) (head | 25);
+        buf[count++] = (byte) (value >> 8);
+        buf[count++] = (byte) value;
+      } else {
+        ensureCapacity(5);
+        buf[count++] = (byte) (head | 26);
+        buf[count++] = (byte) (value >> 24);
+        buf[count++] = (byte) (value >> 16);
+        buf[count++] = (byte) (value >> 8);
+        buf[count++] = (byte) value;
+      }
+    }
+
+    private void writeBytes(byte[] value, int majorType) {
+      writeInt(value.length, majorType);
+      ensureCapacity(value.length);
+      System.arraycopy(value, 0, buf, count, value.length);
+      count += value.length;
+    }
+
+    private void writeList(List<?> value) {
+      writeInt(value.size(), 4);
+      for (Object item : value) {
+        write(item);
+      }
+    }
+
+    private void writeMap(Map<?, ?> value) {
+      int size = value.size();
+      writeInt(size, 5);
+      byte[][] keys = new byte[size][];
+      Object[] values = new Object[size];
+      int i = 0;
+      for (Map.Entry<?, ?> entry : value.entrySet()) {
+        keys[i] = encodeKey(entry.getKey());
+        values[i] = entry.getValue();
+        i++;
+      }
+
+      // Canonical order of map keys, as specified here:
+      // https://fidoalliance.org/specs/fido-v2.0-ps-20190130/fido-client-to-authenticator-protocol-v2.0-ps-20190130.html#ctap2-canonical-cbor-encoding-form
+      // Corresponds to lexicographical comparison. Maps are small, so a stable insertion sort of
+      // the entries is used.
+      for (i = 1; i < size; i++) {
+        byte[] key = keys[i];
+        Object entryValue = values[i];
+        int j = i - 1;
+        while (j >= 0 && compareKeys(keys[j], key) > 0) {
+          keys[j + 1] = keys[j];
+          values[j + 1] = values[j];
+          j--;
+        }
+        keys[j + 1] = key;
+        values[j + 1] = entryValue;
+      }
+
+      for (i = 0; i < size; i++) {
+        ensureCapacity(keys[i].length);
+        System.arraycopy(keys[i], 0, buf, count, keys[i].length);
+        count += keys[i].length;
+        write(values[i]);
+      }
+    }
+
+    private void writeByte(int value) {
+      ensureCapacity(1);
+      buf[count++] = (byte) value;
+    }
+
+    private void ensureCapacity(int length) {
+      if (count + length > buf.length) {
+        byte[] newBuf = new byte[Math.max(buf.length * 2, count + length)];
+        System.arraycopy(buf, 0, newBuf, 0, count);
+        Arrays.fill(buf, (byte) 0);
+        buf = newBuf;
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buf, count);
+    }
+
+    void clear() {
+      Arrays.fill(buf, 0, count, (byte) 0);
+      count = 0;
+    }
+
+    private static byte[] encodeKey(@Nullable Object key) {
+      // Keys are typically small integers or short strings
+      Encoder encoder = new Encoder(8);
+      encoder.write(key);
+      return encoder.count == encoder.buf.length ? encoder.buf : encoder.toByteArray();
+    }
+
+    private static int compareKeys(byte[] key1, byte[] key2) {
+      int minLength = Math.min(key1.length, key2.length);
+      for (int i = 0; i < minLength; i++) {
+        int a = 0xff & key1[i];
+        int b = 0xff & key2[i];
+        if (a != b) {
+          return a - b;
+        }
+      }
+      return key1.length - key2.length;
+    }
+  }
 }
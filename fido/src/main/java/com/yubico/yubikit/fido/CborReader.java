@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.fido;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Pull-style reader for CBOR encoded data.
+ *
+ * <p>The reader walks the underlying buffer in place, one data item at a time. Arrays and maps are
+ * read by first reading their header, followed by their items (or key-value pairs). Items which are
+ * not needed can be skipped without being decoded.
+ *
+ * <pre>{@code
+ * CborReader reader = new CborReader(data);
+ * for (int i = reader.readMapHeader(); i > 0; i--) {
+ *   if (reader.nextInt() == RESULT_AUTH_DATA) {
+ *     authData = reader.nextByteArray();
+ *   } else {
+ *     reader.skip();
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>The same subset of CBOR as {@link Cbor} is supported. This class is not thread safe.
+ */
+public class CborReader {
+  public static final int MAJOR_TYPE_UNSIGNED_INT = 0;
+  public static final int MAJOR_TYPE_NEGATIVE_INT = 1;
+  public static final int MAJOR_TYPE_BYTE_STRING = 2;
+  public static final int MAJOR_TYPE_TEXT_STRING = 3;
+  public static final int MAJOR_TYPE_ARRAY = 4;
+  public static final int MAJOR_TYPE_MAP = 5;
+  public static final int MAJOR_TYPE_SIMPLE = 7;
+
+  private static final int SIMPLE_FALSE = 0xf4;
+  private static final int SIMPLE_TRUE = 0xf5;
+  private static final int SIMPLE_NULL = 0xf6;
+  private static final int SIMPLE_UNDEFINED = 0xf7;
+
+  private final ByteBuffer buffer;
+
+  /**
+   * Creates a reader over all of the given data.
+   *
+   * @param data a byte array containing CBOR encoded data.
+   */
+  public CborReader(byte[] data) {
+    this(data, 0, data.length);
+  }
+
+  /**
+   * Creates a reader over a range of the given data.
+   *
+   * @param data a byte array containing CBOR encoded data.
+   * @param offset the offset in data where the CBOR data begins.
+   * @param length the length of the CBOR encoded data.
+   */
+  public CborReader(byte[] data, int offset, int length) {
+    this(ByteBuffer.wrap(data, offset, length));
+  }
+
+  /**
+   * Creates a reader over the remaining bytes of a buffer.
+   *
+   * <p>The reader consumes the buffer, advancing its position past each item read.
+   *
+   * @param buffer a buffer positioned at the start of the CBOR encoded data.
+   */
+  public CborReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /** Returns true if there is more data to read. */
+  public boolean hasRemaining() {
+    return buffer.hasRemaining();
+  }
+
+  /** Returns the absolute position of the next item in the underlying buffer. */
+  public int getPosition() {
+    return buffer.position();
+  }
+
+  /**
+   * Returns the major type of the next item, without consuming it.
+   *
+   * @return one of the MAJOR_TYPE constants.
+   * @throws BufferUnderflowException if there is no more data.
+   */
+  public int getMajorType() {
+    return (0xff & buffer.get(buffer.position())) >> 5;
+  }
+
+  /** Returns true if the next item is a CBOR null or undefined value, without consuming it. */
+  public boolean isNull() {
+    int head = 0xff & buffer.get(buffer.position());
+    return head == SIMPLE_NULL || head == SIMPLE_UNDEFINED;
+  }
+
+  /**
+   * Reads the header of an array.
+   *
+   * @return the number of items in the array, which should be read next.
+   */
+  public int readArrayHeader() {
+    return readHeader(MAJOR_TYPE_ARRAY);
+  }
+
+  /**
+   * Reads the header of a map.
+   *
+   * @return the number of key-value pairs in the map, which should be read next.
+   */
+  public int readMapHeader() {
+    return readHeader(MAJOR_TYPE_MAP);
+  }
+
+  /** Reads a positive or negative integer. */
+  public int nextInt() {
+    int head = 0xff & buffer.get();
+    switch (head >> 5) {
+      case MAJOR_TYPE_UNSIGNED_INT:
+        return readLength(head);
+      case MAJOR_TYPE_NEGATIVE_INT:
+        return -1 - readLength(head);
+      default:
+        throw unexpected("integer", head);
+    }
+  }
+
+  /** Reads a boolean. */
+  public boolean nextBoolean() {
+    int head = 0xff & buffer.get();
+    if (head == SIMPLE_TRUE) {
+      return true;
+    } else if (head == SIMPLE_FALSE) {
+      return false;
+    }
+    throw unexpected("boolean", head);
+  }
+
+  /**
+   * Reads a byte string, without copying it.
+   *
+   * @return a read-only buffer sharing its content with the underlying data.
+   */
+  public ByteBuffer nextBytes() {
+    int length = readHeader(MAJOR_TYPE_BYTE_STRING);
+    return slice(length).asReadOnlyBuffer();
+  }
+
+  /** Reads a byte string into a new byte array. */
+  public byte[] nextByteArray() {
+    byte[] value = new byte[readHeader(MAJOR_TYPE_BYTE_STRING)];
+    buffer.get(value);
+    return value;
+  }
+
+  /** Reads a text string. */
+  public String nextText() {
+    int length = readHeader(MAJOR_TYPE_TEXT_STRING);
+    return StandardCharsets.UTF_8.decode(slice(length)).toString();
+  }
+
+  /**
+   * Reads the next item, fully decoded in the same way as {@link Cbor#decodeFrom(ByteBuffer)}.
+   *
+   * @return the decoded item.
+   */
+  public @Nullable Object nextValue() {
+    return Cbor.decodeFrom(buffer);
+  }
+
+  /** Skips over the next item, including all nested items, without decoding it. */
+  public void skip() {
+    int head = 0xff & buffer.get();
+    int majorType = head >> 5;
+    if (majorType == MAJOR_TYPE_SIMPLE) {
+      if ((head & 0x1f) < 20 || (head & 0x1f) > 23) {
+        throw new IllegalArgumentException("Unsupported simple type: " + (head & 0x1f));
+      }
+      return;
+    }
+    int length = readLength(head);
+    switch (majorType) {
+      case MAJOR_TYPE_UNSIGNED_INT:
+      case MAJOR_TYPE_NEGATIVE_INT:
+        break;
+      case MAJOR_TYPE_BYTE_STRING:
+      case MAJOR_TYPE_TEXT_STRING:
+        if (length > buffer.remaining()) {
+          throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + length);
+        break;
+      case MAJOR_TYPE_ARRAY:
+        for (int i = 0; i < length; i++) {
+          skip();
+        }
+        break;
+      case MAJOR_TYPE_MAP:
+        for (int i = 0; i < length; i++) {
+          skip();
+          skip();
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported major type");
+    }
+  }
+
+  private int readHeader(int majorType) {
+    int head = 0xff & buffer.get();
+    if (head >> 5 != majorType) {
+      throw unexpected("major type " + majorType, head);
+    }
+    return readLength(head);
+  }
+
+  private int readLength(int head) {
+    int additionalInfo = head & 0x1f;
+    if (additionalInfo < 24) {
+      return additionalInfo;
+    } else if (additionalInfo == 24) {
+      return 0xff & buffer.get();
+    } else if (additionalInfo == 25) {
+      return 0xffff & buffer.getShort();
+    } else if (additionalInfo == 26) {
+      int value = buffer.getInt();
+      if (value < 0) {
+        throw new IllegalArgumentException("Unsupported integer size");
+      }
+      return value;
+    }
+    throw new IllegalArgumentException("Unable to load integer");
+  }
+
+  private ByteBuffer slice(int length) {
+    if (length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    ByteBuffer view = buffer.duplicate();
+    view.limit(view.position() + length);
+    buffer.position(buffer.position() + length);
+    return view.slice();
+  }
+
+  private static IllegalArgumentException unexpected(String expected, int head) {
+    return new IllegalArgumentException(
+        String.format(Locale.ROOT, "Expected %s, got initial byte 0x%02x", expected, head));
+  }
+}
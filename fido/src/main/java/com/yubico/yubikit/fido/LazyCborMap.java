@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.fido;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Read-only view of a CBOR encoded map, which decodes values on first access.
+ *
+ * <p>Keys are decoded when the view is created, while values are only located. Each value is
+ * decoded the first time it is accessed, and then kept.
+ *
+ * <p>Values are decoded and stored while holding the lock of the map, so that instances can be
+ * shared between threads.
+ */
+final class LazyCborMap extends AbstractMap<@Nullable Object, @Nullable Object> {
+  private static final Object UNDECODED = new Object();
+
+  private final byte[] data;
+  private final @Nullable Object[] keys;
+  private final int[] valueOffsets;
+  private final int[] valueLengths;
+  private final @Nullable Object[] values;
+  private int size;
+  private @Nullable Set<Entry<@Nullable Object, @Nullable Object>> entrySet;
+
+  /**
+   * Reads the keys of a map and locates its values.
+   *
+   * @param data the array holding the encoded map, which must not be modified afterwards.
+   * @param reader a reader positioned at the start of the map.
+   */
+  LazyCborMap(byte[] data, CborReader reader) {
+    this.data = data;
+    int count = reader.readMapHeader();
+    keys = new Object[count];
+    valueOffsets = new int[count];
+    valueLengths = new int[count];
+    values = new Object[count];
+    for (int i = 0; i < count; i++) {
+      Object key = reader.nextValue();
+      int index = indexOf(key);
+      if (index < 0) {
+        // Later values replace earlier ones for duplicate keys, as in a HashMap
+        index = size++;
+        keys[index] = key;
+      }
+      valueOffsets[index] = reader.getPosition();
+      reader.skip();
+      valueLengths[index] = reader.getPosition() - valueOffsets[index];
+      values[index] = UNDECODED;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(@Nullable Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public @Nullable Object get(@Nullable Object key) {
+    int index = indexOf(key);
+    return index >= 0 ? getValue(index) : null;
+  }
+
+  @Override
+  public Set<Entry<@Nullable Object, @Nullable Object>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private int indexOf(@Nullable Object key) {
+    for (int i = 0; i < size; i++) {
+      if (Objects.equals(keys[i], key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private synchronized @Nullable Object getValue(int index) {
+    Object value = values[index];
+    if (value == UNDECODED) {
+      value = Cbor.decodeFrom(ByteBuffer.wrap(data, valueOffsets[index], valueLengths[index]));
+      values[index] = value;
+    }
+    return value;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<@Nullable Object, @Nullable Object>> {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Iterator<Entry<@Nullable Object, @Nullable Object>> iterator() {
+      return new Iterator<Entry<@Nullable Object, @Nullable Object>>() {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+          return index < size;
+        }
+
+        @Override
+        public Entry<@Nullable Object, @Nullable Object> next() {
+          if (index >= size) {
+            throw new NoSuchElementException();
+          }
+          Entry<@Nullable Object, @Nullable Object> entry =
+              new SimpleImmutableEntry<>(keys[index], getValue(index));
+          index++;
+          return entry;
+        }
+      };
+    }
+  }
+}
@@ -111,6 +111,8 @@ public class Ctap2Client implements WebAuthnClient {
 
   private final List<Extension> extensions;
 
+  private @Nullable PinUvAuthTokenCache tokenCache;
+
   private static final Logger logger = LoggerFactory.getLogger(Ctap2Client.class);
 
   public static class UserAgentConfiguration {
@@ -198,6 +200,7 @@ public class Ctap2Client implements WebAuthnClient {
 
   @Override
   public void close() throws IOException {
+    clearTokenCache();
     ctap.close();
   }
 
@@ -205,6 +208,39 @@ public class Ctap2Client implements WebAuthnClient {
     return userAgentConfiguration;
   }
 
+  /**
+   * Enable or disable caching of the pinUvAuthToken between operations. Caching is disabled by
+   * default.
+   *
+   * <p>When enabled, the token obtained for a makeCredential or getAssertion operation is reused by
+   * later operations requesting the same permissions and RP ID, and the shared secret from the key
+   * agreement is reused when a new token is needed. This saves up to three CTAP round trips per
+   * operation. Note that the PIN, or built-in user verification, is then only verified when a new
+   * token is obtained.
+   *
+   * <p>If the authenticator rejects a reused token as invalid or expired, the token is discarded
+   * and the operation is retried once with a new one. Disabling caching clears any cached token.
+   *
+   * @param enabled true to cache tokens
+   */
+  public void setPinUvAuthTokenCacheEnabled(boolean enabled) {
+    if (enabled) {
+      if (tokenCache == null) {
+        tokenCache = new PinUvAuthTokenCache();
+      }
+    } else {
+      clearTokenCache();
+      tokenCache = null;
+    }
+  }
+
+  /** Clear the cached pinUvAuthToken, if any. */
+  public void clearTokenCache() {
+    if (tokenCache != null) {
+      tokenCache.clear();
+    }
+  }
+
   public Ctap2Session getSession() {
     return ctap;
   }
@@ -367,6 +403,7 @@ public class Ctap2Client implements WebAuthnClient {
           ClientError.Code.BAD_REQUEST, "A PIN is already configured on this device");
     }
     try {
+      clearTokenCache();
       clientPin.setPin(pin);
       pinConfigured = true;
     } catch (CtapException e) {
@@ -393,6 +430,7 @@ public class Ctap2Client implements WebAuthnClient {
           ClientError.Code.BAD_REQUEST, "No PIN currently configured on this device");
     }
     try {
+      clearTokenCache();
       clientPin.changePin(currentPin, newPin);
     } catch (CtapException e) {
       if (e.getCtapError() == CtapException.ERR_PIN_INVALID) {
@@ -448,7 +486,6 @@ public class Ctap2Client implements WebAuthnClient {
    * @throws CommandException A communication in the protocol layer
    * @throws ClientError A higher level error
    */
-  @SuppressWarnings("unchecked")
   protected Pair<Ctap2Session.CredentialData, ClientExtensionResults> ctapMakeCredential(
       byte[] clientDataHash,
       PublicKeyCredentialCreationOptions options,
@@ -457,6 +494,27 @@ public class Ctap2Client implements WebAuthnClient {
       @Nullable Integer enterpriseAttestation,
       @Nullable CommandState state)
       throws IOException, CommandException, ClientError {
+    try {
+      return makeCredentialWithToken(
+          clientDataHash, options, effectiveDomain, pin, enterpriseAttestation, state);
+    } catch (CtapException e) {
+      if (!retryWithNewToken(e)) {
+        throw e;
+      }
+      return makeCredentialWithToken(
+          clientDataHash, options, effectiveDomain, pin, enterpriseAttestation, state);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Pair<Ctap2Session.CredentialData, ClientExtensionResults> makeCredentialWithToken(
+      byte[] clientDataHash,
+      PublicKeyCredentialCreationOptions options,
+      String effectiveDomain,
+      char @Nullable [] pin,
+      @Nullable Integer enterpriseAttestation,
+      @Nullable CommandState state)
+      throws IOException, CommandException, ClientError {
 
     final SerializationType serializationType = SerializationType.CBOR;
 
@@ -636,6 +694,23 @@ public class Ctap2Client implements WebAuthnClient {
       char @Nullable [] pin,
       @Nullable CommandState state)
       throws IOException, CommandException, ClientError {
+    try {
+      return getAssertionsWithToken(clientDataHash, options, effectiveDomain, pin, state);
+    } catch (CtapException e) {
+      if (!retryWithNewToken(e)) {
+        throw e;
+      }
+      return getAssertionsWithToken(clientDataHash, options, effectiveDomain, pin, state);
+    }
+  }
+
+  private List<Pair<Ctap2Session.AssertionData, ClientExtensionResults>> getAssertionsWithToken(
+      byte[] clientDataHash,
+      PublicKeyCredentialRequestOptions options,
+      String effectiveDomain,
+      char @Nullable [] pin,
+      @Nullable CommandState state)
+      throws IOException, CommandException, ClientError {
     String rpId = options.getRpId();
     if (rpId == null) {
       rpId = effectiveDomain;
@@ -732,6 +807,9 @@ public class Ctap2Client implements WebAuthnClient {
       return result;
 
     } catch (CtapException e) {
+      if (isTokenRejected(e) && tokenCache != null && tokenCache.isReused()) {
+        throw e; // Retried with a new token by ctapGetAssertions
+      }
       if (e.getCtapError() == CtapException.ERR_PIN_INVALID) {
         throw new AuthInvalidClientError(
             e, AuthInvalidClientError.AuthType.PIN, getSafePinRetryCount());
@@ -813,10 +891,23 @@ public class Ctap2Client implements WebAuthnClient {
       @Nullable CommandState state)
       throws IOException, CommandException, ClientError {
     final Ctap2Session.InfoData info = ctap.getCachedInfo();
+    final PinUvAuthTokenCache cache = tokenCache;
 
     if (uvConfigured && pin == null) {
       if (ClientPin.isTokenSupported(info)) {
+        byte[] token = cache != null ? cache.getToken(permissions, rpId, null) : null;
+        if (token != null) {
+          return token;
+        }
         if (clientPin.getUvRetries() > 0) {
+          if (cache != null) {
+            return requestToken(
+                cache,
+                permissions,
+                rpId,
+                null,
+                sharedSecret -> clientPin.getUvToken(permissions, rpId, state, sharedSecret));
+          }
           return clientPin.getUvToken(permissions, rpId, state);
         } else if (allowInternalUv) {
           return null;
@@ -829,6 +920,18 @@ public class Ctap2Client implements WebAuthnClient {
       if (pin == null) {
         throw new PinRequiredClientError();
       }
+      if (cache != null) {
+        byte[] token = cache.getToken(permissions, rpId, pin);
+        if (token != null) {
+          return token;
+        }
+        return requestToken(
+            cache,
+            permissions,
+            rpId,
+            pin,
+            sharedSecret -> clientPin.getPinToken(pin, permissions, rpId, sharedSecret));
+      }
       return clientPin.getPinToken(pin, permissions, rpId);
     }
 
@@ -836,6 +939,56 @@ public class Ctap2Client implements WebAuthnClient {
         ClientError.Code.CONFIGURATION_UNSUPPORTED, "User verification not configured");
   }
 
+  private interface TokenRequest {
+    byte[] invoke(Pair<Map<Integer, ?>, byte[]> sharedSecret) throws IOException, CommandException;
+  }
+
+  /** Obtains a new token, reusing the cached shared secret if there is one, and caches it. */
+  private byte[] requestToken(
+      PinUvAuthTokenCache cache,
+      int permissions,
+      @Nullable String rpId,
+      char @Nullable [] pin,
+      TokenRequest request)
+      throws IOException, CommandException {
+    Pair<Map<Integer, ?>, byte[]> sharedSecret = cache.getSharedSecret();
+    boolean sharedSecretReused = sharedSecret != null;
+    if (sharedSecret == null) {
+      sharedSecret = clientPin.getSharedSecret();
+      cache.putSharedSecret(sharedSecret);
+    }
+    try {
+      byte[] token = request.invoke(sharedSecret);
+      cache.putToken(token, permissions, rpId, pin, sharedSecretReused);
+      return token;
+    } catch (CommandException | IOException | RuntimeException e) {
+      // The authenticator may have a new key agreement key, start over on the next request
+      cache.clear();
+      throw e;
+    }
+  }
+
+  /**
+   * Called when an operation fails, returns true if it failed because a reused token was rejected
+   * and should be retried once with a new token.
+   */
+  private boolean retryWithNewToken(CtapException e) {
+    PinUvAuthTokenCache cache = tokenCache;
+    if (cache == null || !isTokenRejected(e)) {
+      return false;
+    }
+    boolean retry = cache.invalidate(e.getCtapError());
+    if (retry) {
+      logger.debug("Cached token was rejected: {}, retrying with a new token", e.getMessage());
+    }
+    return retry;
+  }
+
+  private static boolean isTokenRejected(CtapException e) {
+    return e.getCtapError() == CtapException.ERR_PIN_AUTH_INVALID
+        || e.getCtapError() == CtapException.ERR_PIN_TOKEN_EXPIRED;
+  }
+
   private AuthParams getAuthParams(
       char @Nullable [] pin,
       @Nullable String userVerification,
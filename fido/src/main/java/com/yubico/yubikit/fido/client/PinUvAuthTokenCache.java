@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.fido.client;
+
+import com.yubico.yubikit.core.fido.CtapException;
+import com.yubico.yubikit.core.util.Pair;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Holds the pinUvAuthToken last obtained by a {@link Ctap2Client}, together with the shared secret
+ * used to obtain it.
+ *
+ * <p>An authenticator only keeps its most recently issued token valid, so a single token is cached,
+ * keyed by its permissions and permissions RP ID, and by how the user was verified: a salted hash
+ * of the PIN for a PIN token, or built-in user verification. A token is therefore never handed out
+ * for a PIN other than the one used to obtain it. Following the CTAP 2.1 token lifetime rules, a
+ * token is no longer reused once the maximum usage time period has elapsed since it was obtained.
+ * The initial usage time limit does not apply, as a token is always used right after being
+ * obtained.
+ *
+ * <p>Authenticators implementing CTAP 2.1 may clear the permissions of a token once it has been
+ * used for an operation with user presence. If a reused token is rejected as invalid, token reuse
+ * is turned off and only the shared secret is reused.
+ */
+final class PinUvAuthTokenCache {
+  // CTAP 2.1 suggested default for maxUsageTimePeriod
+  static final long MAX_USAGE_TIME_PERIOD_MS = TimeUnit.MINUTES.toMillis(10);
+
+  private final LongSupplier clock;
+  private final byte[] salt = new byte[16];
+
+  private @Nullable Pair<Map<Integer, ?>, byte[]> sharedSecret;
+  private byte @Nullable [] token;
+  private int permissions;
+  private @Nullable String rpId;
+  // Salted hash of the PIN used to obtain the token, null for built-in user verification
+  private byte @Nullable [] pinHash;
+  private long obtainedAt;
+
+  private boolean tokenReused;
+  private boolean sharedSecretReused;
+  private boolean tokenReuseEnabled = true;
+
+  PinUvAuthTokenCache() {
+    this(() -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+  }
+
+  PinUvAuthTokenCache(LongSupplier clock) {
+    this.clock = clock;
+    new SecureRandom().nextBytes(salt);
+  }
+
+  /**
+   * Returns the cached token if it was obtained for the same permissions and RP ID, using the same
+   * PIN, and is still within its lifetime.
+   *
+   * @param pin the PIN to use, or null for built-in user verification
+   */
+  byte @Nullable [] getToken(int permissions, @Nullable String rpId, char @Nullable [] pin) {
+    if (token == null || !tokenReuseEnabled) {
+      return null;
+    }
+    byte[] hash = pin != null ? hashPin(pin) : null;
+    boolean samePin =
+        hash == null ? pinHash == null : pinHash != null && MessageDigest.isEqual(hash, pinHash);
+    if (hash != null) {
+      Arrays.fill(hash, (byte) 0);
+    }
+    if (this.permissions != permissions
+        || !Objects.equals(this.rpId, rpId)
+        || !samePin
+        || clock.getAsLong() - obtainedAt >= MAX_USAGE_TIME_PERIOD_MS) {
+      clearToken();
+      return null;
+    }
+    tokenReused = true;
+    return token;
+  }
+
+  /** Returns the cached shared secret, or null if a new one needs to be obtained. */
+  @Nullable Pair<Map<Integer, ?>, byte[]> getSharedSecret() {
+    return sharedSecret;
+  }
+
+  void putSharedSecret(Pair<Map<Integer, ?>, byte[]> sharedSecret) {
+    clear();
+    this.sharedSecret = sharedSecret;
+  }
+
+  /**
+   * Caches a newly obtained token.
+   *
+   * @param pin the PIN used to obtain the token, or null for built-in user verification
+   * @param sharedSecretReused true if the token was obtained using the cached shared secret
+   */
+  void putToken(
+      byte[] token,
+      int permissions,
+      @Nullable String rpId,
+      char @Nullable [] pin,
+      boolean sharedSecretReused) {
+    clearToken();
+    this.token = token;
+    this.permissions = permissions;
+    this.rpId = rpId;
+    this.pinHash = pin != null ? hashPin(pin) : null;
+    this.obtainedAt = clock.getAsLong();
+    this.sharedSecretReused = sharedSecretReused;
+  }
+
+  /**
+   * Returns true if the current token was served from the cache, or obtained using the cached
+   * shared secret, in which case an operation rejecting it is worth retrying with a new token.
+   */
+  boolean isReused() {
+    return token != null && (tokenReused || sharedSecretReused);
+  }
+
+  /**
+   * Discards the cached token and shared secret after the authenticator rejected the token.
+   *
+   * @return true if the rejected token was reused, and the operation should be retried once
+   */
+  boolean invalidate(int ctapError) {
+    boolean retry = isReused();
+    if (tokenReused && ctapError == CtapException.ERR_PIN_AUTH_INVALID) {
+      tokenReuseEnabled = false;
+    }
+    clear();
+    return retry;
+  }
+
+  /** Clears the cached token and shared secret. */
+  void clear() {
+    clearToken();
+    if (sharedSecret != null) {
+      Arrays.fill(sharedSecret.second, (byte) 0);
+      sharedSecret = null;
+    }
+  }
+
+  private void clearToken() {
+    if (token != null) {
+      Arrays.fill(token, (byte) 0);
+      token = null;
+    }
+    rpId = null;
+    if (pinHash != null) {
+      Arrays.fill(pinHash, (byte) 0);
+      pinHash = null;
+    }
+    tokenReused = false;
+    sharedSecretReused = false;
+  }
+
+  private byte[] hashPin(char[] pin) {
+    ByteBuffer pinBytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(pin));
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(salt);
+      digest.update(pinBytes);
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      Arrays.fill(pinBytes.array(), (byte) 0); // clear sensitive data
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2024-2025 Yubico.
+ * Copyright (C) 2024-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package com.yubico.yubikit.fido.client.extensions;
 import com.yubico.yubikit.core.application.CommandException;
 import com.yubico.yubikit.core.util.RandomUtils;
 import com.yubico.yubikit.fido.Cbor;
+import com.yubico.yubikit.fido.CborReader;
 import com.yubico.yubikit.fido.ctap.Ctap2Session;
 import com.yubico.yubikit.fido.ctap.PinUvAuthProtocol;
 import java.io.ByteArrayInputStream;
@@ -27,6 +28,7 @@ import java.io.FilterInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.security.DigestException;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -49,7 +51,10 @@ import org.jspecify.annotations.Nullable;
 public class LargeBlobs {
 
   private final Ctap2Session session;
+  private static final int HASH_LEN = 16;
+
   private final int maxFragmentLen;
+  private final int maxSerializedLength;
 
   @Nullable final PinUvAuthProtocol pinUvAuthProtocol;
   final byte @Nullable [] pinUvAuthToken;
@@ -71,6 +76,7 @@ public class LargeBlobs {
 
     this.session = session;
     this.maxFragmentLen = info.getMaxMsgSize() - 64;
+    this.maxSerializedLength = info.getMaxSerializedLargeBlobArray();
 
     if (pinUvAuthToken != null && pinUvAuthProtocol != null) {
       this.pinUvAuthProtocol = pinUvAuthProtocol;
@@ -85,54 +91,99 @@ public class LargeBlobs {
     return Boolean.TRUE.equals(info.getOptions().get("largeBlobs"));
   }
 
+  /**
+   * Reads the serialized large-blob array, fragment by fragment.
+   *
+   * <p>Fragments are appended to a single buffer, and hashed as they arrive, so that only the
+   * trailing 16 byte hash remains to be checked after the last fragment.
+   */
   LargeBlobArray readBlobArray() throws IOException, CommandException {
-    int offset = 0;
-    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    MessageDigest digest = sha256();
+    byte[] buffer = new byte[Math.max(maxFragmentLen, maxSerializedLength)];
+    int size = 0;
+    int hashed = 0;
     while (true) {
-      Map<Integer, ?> map = session.largeBlobs(offset, maxFragmentLen, null, null, null, null);
+      Map<Integer, ?> map = session.largeBlobs(size, maxFragmentLen, null, null, null, null);
       if (!map.containsKey(1)) {
         return LargeBlobArray.empty();
       }
 
       byte[] fragment = (byte[]) map.get(1);
-      os.write(fragment);
+      if (size + fragment.length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + fragment.length));
+      }
+      System.arraycopy(fragment, 0, buffer, size, fragment.length);
+      size += fragment.length;
+
+      // everything but the last 16 bytes read so far is part of the hashed data
+      if (size - HASH_LEN > hashed) {
+        digest.update(buffer, hashed, size - HASH_LEN - hashed);
+        hashed = size - HASH_LEN;
+      }
 
       if (fragment.length < maxFragmentLen) {
         break;
       }
-      offset += fragment.length;
-    }
-    byte[] buffer = os.toByteArray();
-    byte[] data = Arrays.copyOf(buffer, buffer.length - 16);
-    byte[] digest = hash(data);
-    if (!Arrays.equals(
-        Arrays.copyOfRange(buffer, buffer.length - 16, buffer.length),
-        Arrays.copyOf(digest, digest.length - 16))) {
+    }
+    if (size < HASH_LEN) {
+      return LargeBlobArray.empty();
+    }
+
+    byte[] expected = digest.digest();
+    int diff = 0;
+    for (int i = 0; i < HASH_LEN; i++) {
+      diff |= expected[i] ^ buffer[hashed + i];
+    }
+    if (diff != 0) {
       return LargeBlobArray.empty();
     }
 
-    return LargeBlobArray.fromBytes(data);
+    return LargeBlobArray.fromBytes(buffer, 0, hashed);
   }
 
+  /**
+   * Writes a serialized large-blob array, fragment by fragment.
+   *
+   * <p>The array is serialized once, into a buffer which also holds the trailing hash. Fragments
+   * are authenticated by hashing their range of that buffer directly.
+   */
   void writeBlobArray(LargeBlobArray largeBlobArray) throws IOException, CommandException {
-    final byte[] data = largeBlobArray.toBytes();
+    final byte[] dataWithHash = largeBlobArray.toBytes(HASH_LEN);
+    final int size = dataWithHash.length;
 
-    byte[] dataWithHash =
-        ByteBuffer.allocate(data.length + 16).put(data).put(hash(data), 0, 16).array();
+    MessageDigest digest = sha256();
+    digest.update(dataWithHash, 0, size - HASH_LEN);
+    System.arraycopy(digest.digest(), 0, dataWithHash, size - HASH_LEN, HASH_LEN);
+
+    byte[] message = null;
+    if (pinUvAuthToken != null && pinUvAuthProtocol != null) {
+      message = new byte[70];
+      Arrays.fill(message, 0, 32, (byte) 0xff);
+      message[32] = 0x0c;
+      message[33] = 0x00;
+    }
 
     int offset = 0;
-    int size = dataWithHash.length;
     while (offset < size) {
       int ln = Math.min(size - offset, maxFragmentLen);
-      byte[] fragment = Arrays.copyOfRange(dataWithHash, offset, offset + ln);
+      byte[] fragment =
+          offset == 0 && ln == size
+              ? dataWithHash
+              : Arrays.copyOfRange(dataWithHash, offset, offset + ln);
 
       Integer pinUvAuthProtocolVersion = null;
       byte[] pinUvAuthParam = null;
 
-      if (pinUvAuthToken != null && pinUvAuthProtocol != null) {
-        byte[] msg = fragmentMessage(offset, fragment);
+      if (message != null && pinUvAuthToken != null && pinUvAuthProtocol != null) {
+        ByteBuffer.wrap(message, 34, 4).order(ByteOrder.LITTLE_ENDIAN).putInt(offset);
+        digest.update(dataWithHash, offset, ln);
+        try {
+          digest.digest(message, 38, 32);
+        } catch (DigestException e) {
+          throw new IllegalStateException(e);
+        }
         pinUvAuthProtocolVersion = this.pinUvAuthProtocol.getVersion();
-        pinUvAuthParam = pinUvAuthProtocol.authenticate(pinUvAuthToken, msg);
+        pinUvAuthParam = pinUvAuthProtocol.authenticate(pinUvAuthToken, message);
       }
 
       session.largeBlobs(
@@ -147,23 +198,6 @@ public class LargeBlobs {
     }
   }
 
-  private static final byte[] fragmentMessagePrefix = new byte[32];
-
-  static {
-    Arrays.fill(fragmentMessagePrefix, (byte) 0xff);
-  }
-
-  private byte[] fragmentMessage(int offset, byte[] fragment) {
-    return ByteBuffer.allocate(70)
-        .put(fragmentMessagePrefix)
-        .put((byte) 0x0c)
-        .put((byte) 0x00)
-        .order(ByteOrder.LITTLE_ENDIAN)
-        .putInt(offset)
-        .put(hash(fragment))
-        .array();
-  }
-
   byte @Nullable [] getBlob(byte[] largeBlobKey) throws IOException, CommandException {
     for (LargeBlobMap entry : readBlobArray()) {
       try {
@@ -178,6 +212,13 @@ public class LargeBlobs {
     return null;
   }
 
+  /**
+   * Replaces the blob stored for a largeBlobKey, or removes it if data is null.
+   *
+   * <p>Only the entries belonging to the key are replaced. Other entries are written back using
+   * their existing encoding. The authenticator only accepts the whole array being written, so the
+   * array is written in full whenever it changes.
+   */
   void putBlob(byte[] largeBlobKey, byte @Nullable [] data)
       throws IOException, CommandException, GeneralSecurityException {
     boolean modified = data != null;
@@ -216,7 +257,7 @@ public class LargeBlobs {
     byte[] ciphertext =
         AesGcm.encrypt(key, nonce, CompressionUtils.compress(data), associatedData(origSize));
 
-    return new LargeBlobMap(ciphertext, nonce, origSize);
+    return new LargeBlobMap(ciphertext, nonce, origSize, null);
   }
 
   private byte[] associatedData(int origSize) {
@@ -240,16 +281,21 @@ public class LargeBlobs {
       return new LargeBlobArray(null);
     }
 
-    static LargeBlobArray fromBytes(byte[] cbor) {
+    /**
+     * Parses a serialized large-blob array.
+     *
+     * <p>The encoding of each entry is kept, so that entries which are not modified can be written
+     * back without being encoded again.
+     */
+    static LargeBlobArray fromBytes(byte[] cbor, int offset, int length) {
       try {
-        @SuppressWarnings("unchecked")
-        List<Map<Integer, Object>> list = (List<Map<Integer, Object>>) Cbor.decode(cbor);
-        if (list == null) {
+        CborReader reader = new CborReader(cbor, offset, length);
+        if (reader.isNull()) {
           return empty();
         }
         final List<LargeBlobMap> entries = new ArrayList<>();
-        for (Map<Integer, Object> entry : list) {
-          LargeBlobMap largeBlobMap = LargeBlobMap.fromMap(entry);
+        for (int i = reader.readArrayHeader(); i > 0; i--) {
+          LargeBlobMap largeBlobMap = LargeBlobMap.read(cbor, reader);
           if (largeBlobMap != null) {
             // only add conforming items
             entries.add(largeBlobMap);
@@ -261,17 +307,56 @@ public class LargeBlobs {
       }
     }
 
-    byte[] toBytes() {
+    /**
+     * Serializes the large-blob array, reusing the encoding of entries which were read.
+     *
+     * @param trailing the number of bytes to reserve after the serialized array
+     */
+    byte[] toBytes(int trailing) {
       if (entries == null) {
-        return new byte[0];
+        return new byte[trailing];
+      }
+
+      byte[][] encoded = new byte[entries.size()][];
+      int length = arrayHeaderLength(entries.size());
+      for (int i = 0; i < encoded.length; i++) {
+        LargeBlobMap entry = entries.get(i);
+        if (entry.encoding == null) {
+          encoded[i] = Cbor.encode(entry.toMap());
+          length += encoded[i].length;
+        } else {
+          length += entry.encoding.remaining();
+        }
       }
 
-      List<Map<Integer, Object>> largeBlobs = new ArrayList<>();
-      for (LargeBlobMap map : entries) {
-        largeBlobs.add(map.toMap());
+      ByteBuffer buffer = ByteBuffer.allocate(length + trailing);
+      putArrayHeader(buffer, entries.size());
+      for (int i = 0; i < encoded.length; i++) {
+        ByteBuffer encoding = entries.get(i).encoding;
+        if (encoded[i] != null) {
+          buffer.put(encoded[i]);
+        } else if (encoding != null) {
+          buffer.put(encoding.duplicate());
+        }
       }
+      return buffer.array();
+    }
+
+    private static int arrayHeaderLength(int size) {
+      return size < 24 ? 1 : size <= 0xff ? 2 : size <= 0xffff ? 3 : 5;
+    }
 
-      return Cbor.encode(largeBlobs);
+    private static void putArrayHeader(ByteBuffer buffer, int size) {
+      int head = CborReader.MAJOR_TYPE_ARRAY << 5;
+      if (size < 24) {
+        buffer.put((byte) (head | size));
+      } else if (size <= 0xff) {
+        buffer.put((byte) (head | 24)).put((byte) size);
+      } else if (size <= 0xffff) {
+        buffer.put((byte) (head | 25)).putShort((short) size);
+      } else {
+        buffer.put((byte) (head | 26)).putInt(size);
+      }
     }
 
     @Override
@@ -302,30 +387,62 @@ public class LargeBlobs {
     static final int ORIG_SIZE = 3;
 
     private final Map<Integer, Object> data;
+    // the encoding of an entry which was read, or null for a new entry
+    @Nullable final ByteBuffer encoding;
 
-    private LargeBlobMap(byte[] ciphertext, byte[] nonce, int origSize) {
+    private LargeBlobMap(
+        byte[] ciphertext, byte[] nonce, int origSize, @Nullable ByteBuffer encoding) {
       data = new HashMap<>();
       data.put(CIPHERTEXT, ciphertext);
       data.put(NONCE, nonce);
       data.put(ORIG_SIZE, origSize);
+      this.encoding = encoding;
     }
 
     Map<Integer, Object> toMap() {
       return data;
     }
 
+    /**
+     * Reads the next entry of a serialized large-blob array, keeping a view of its encoding.
+     *
+     * @return the entry, or null if it does not conform to a large-blob map
+     */
     @Nullable
-    static LargeBlobMap fromMap(Map<Integer, Object> map) {
-      byte[] ciphertext = (byte[]) map.get(CIPHERTEXT);
-      byte[] nonce = (byte[]) map.get(NONCE);
-      Integer origSize = (Integer) map.get(ORIG_SIZE);
+    static LargeBlobMap read(byte[] cbor, CborReader reader) {
+      int start = reader.getPosition();
+      byte[] ciphertext = null;
+      byte[] nonce = null;
+      Integer origSize = null;
+      for (int i = reader.readMapHeader(); i > 0; i--) {
+        if (reader.getMajorType() != CborReader.MAJOR_TYPE_UNSIGNED_INT) {
+          reader.skip();
+          reader.skip();
+          continue;
+        }
+        switch (reader.nextInt()) {
+          case CIPHERTEXT:
+            ciphertext = reader.nextByteArray();
+            break;
+          case NONCE:
+            nonce = reader.nextByteArray();
+            break;
+          case ORIG_SIZE:
+            origSize = reader.nextInt();
+            break;
+          default:
+            reader.skip();
+        }
+      }
 
       if (ciphertext == null || nonce == null || origSize == null) {
         // does not conform large-blob map
         return null;
       }
 
-      return new LargeBlobMap(ciphertext, nonce, origSize);
+      ByteBuffer encoding =
+          ByteBuffer.wrap(cbor, start, reader.getPosition() - start).slice().asReadOnlyBuffer();
+      return new LargeBlobMap(ciphertext, nonce, origSize, encoding);
     }
 
     byte[] getCiphertext() {
@@ -386,14 +503,13 @@ public class LargeBlobs {
       GCMParameterSpec p = new GCMParameterSpec(128, nonce);
       c.init(mode, k, p);
       c.updateAAD(associatedData);
-      c.update(ciphertext);
-      return c.doFinal();
+      return c.doFinal(ciphertext);
     }
   }
 
-  static byte[] hash(byte[] message) {
+  private static MessageDigest sha256() {
     try {
-      return MessageDigest.getInstance("SHA-256").digest(message);
+      return MessageDigest.getInstance("SHA-256");
     } catch (NoSuchAlgorithmException e) {
       throw new RuntimeException(e);
     }
@@ -156,12 +156,45 @@ public class ClientPin {
     }
 
     Pair<Map<Integer, ?>, byte[]> pair = getSharedSecret();
+    try {
+      return getPinToken(pin, permissions, permissionsRpId, pair);
+    } finally {
+      Arrays.fill(pair.second, (byte) 0);
+    }
+  }
+
+  /**
+   * Get a pinToken from the YubiKey, using a shared secret previously obtained from {@link
+   * #getSharedSecret()}.
+   *
+   * <p>The shared secret stays valid until the authenticator regenerates its key agreement key,
+   * which happens on power up, reset and after a PIN mismatch. It is not cleared by this method.
+   *
+   * @param pin The FIDO PIN set for the YubiKey.
+   * @param permissions requested permissions
+   * @param permissionsRpId rpId for token used in permission context
+   * @param sharedSecret key agreement and shared secret from {@link #getSharedSecret()}
+   * @return A pinToken valid for the current CTAP2 session.
+   * @throws IOException A communication error in the transport layer.
+   * @throws CommandException A communication in the protocol layer.
+   */
+  public byte[] getPinToken(
+      char[] pin,
+      @Nullable Integer permissions,
+      @Nullable String permissionsRpId,
+      Pair<Map<Integer, ?>, byte[]> sharedSecret)
+      throws IOException, CommandException {
+
+    if (!isSupported(ctap.getCachedInfo())) {
+      throw new IllegalStateException("Not supported");
+    }
+
     byte[] pinBytes = preparePin(pin, false);
     byte[] pinHash = null;
     byte[] pinHashEnc = null;
     try {
       pinHash = Arrays.copyOf(MessageDigest.getInstance("SHA-256").digest(pinBytes), PIN_HASH_LEN);
-      pinHashEnc = pinUvAuth.encrypt(pair.second, pinHash);
+      pinHashEnc = pinUvAuth.encrypt(sharedSecret.second, pinHash);
 
       logger.debug("Getting PIN token");
 
@@ -173,7 +206,7 @@ public class ClientPin {
           ctap.clientPin(
               pinUvAuth.getVersion(),
               subCommand,
-              pair.first,
+              sharedSecret.first,
               null,
               null,
               pinHashEnc,
@@ -186,7 +219,7 @@ public class ClientPin {
           "Got PIN token for permissions: {}, permissionsRpId provided: {}",
           permissions != null ? permissions : "none",
           permissionsRpId != null);
-      return pinUvAuth.decrypt(pair.second, pinTokenEnc);
+      return pinUvAuth.decrypt(sharedSecret.second, pinTokenEnc);
     } catch (NoSuchAlgorithmException e) {
       logger.error("Failure getting PIN token: ", e);
       throw new IllegalStateException(e);
@@ -194,7 +227,6 @@ public class ClientPin {
       if (pinHash != null) {
         Arrays.fill(pinHash, (byte) 0);
       }
-      Arrays.fill(pair.second, (byte) 0);
       Arrays.fill(pinBytes, (byte) 0);
       if (pinHashEnc != null) {
         Arrays.fill(pinHashEnc, (byte) 0);
@@ -222,33 +254,58 @@ public class ClientPin {
     }
 
     Pair<Map<Integer, ?>, byte[]> pair = getSharedSecret();
-
     try {
-      logger.debug("Getting UV token");
+      return getUvToken(permissions, permissionsRpId, state, pair);
+    } finally {
+      Arrays.fill(pair.second, (byte) 0);
+    }
+  }
 
-      Map<Integer, ?> result =
-          ctap.clientPin(
-              pinUvAuth.getVersion(),
-              CMD_GET_PIN_TOKEN_USING_UV_WITH_PERMISSIONS,
-              pair.first,
-              null,
-              null,
-              null,
-              permissions,
-              permissionsRpId,
-              state);
+  /**
+   * Get a UV Token from the YubiKey, using a shared secret previously obtained from {@link
+   * #getSharedSecret()}. The shared secret is not cleared by this method.
+   *
+   * @param permissions requested permissions
+   * @param permissionsRpId rpId for token used in permission context
+   * @param state If needed, the state to provide control over the ongoing operation
+   * @param sharedSecret key agreement and shared secret from {@link #getSharedSecret()}
+   * @return A pinToken valid for the current CTAP2 session.
+   * @throws IOException A communication error in the transport layer.
+   * @throws CommandException A communication in the protocol layer.
+   */
+  public byte[] getUvToken(
+      @Nullable Integer permissions,
+      @Nullable String permissionsRpId,
+      @Nullable CommandState state,
+      Pair<Map<Integer, ?>, byte[]> sharedSecret)
+      throws IOException, CommandException {
 
-      byte[] pinTokenEnc = (byte[]) result.get(RESULT_PIN_UV_TOKEN);
+    if (!isTokenSupported(ctap.getCachedInfo())) {
+      throw new IllegalStateException("Not supported");
+    }
 
-      logger.debug(
-          "Got UV token for permissions: {}, permissionsRpId provided: {}",
-          permissions != null ? permissions : "none",
-          permissionsRpId != null);
+    logger.debug("Getting UV token");
 
-      return pinUvAuth.decrypt(pair.second, pinTokenEnc);
-    } finally {
-      Arrays.fill(pair.second, (byte) 0);
-    }
+    Map<Integer, ?> result =
+        ctap.clientPin(
+            pinUvAuth.getVersion(),
+            CMD_GET_PIN_TOKEN_USING_UV_WITH_PERMISSIONS,
+            sharedSecret.first,
+            null,
+            null,
+            null,
+            permissions,
+            permissionsRpId,
+            state);
+
+    byte[] pinTokenEnc = (byte[]) result.get(RESULT_PIN_UV_TOKEN);
+
+    logger.debug(
+        "Got UV token for permissions: {}, permissionsRpId provided: {}",
+        permissions != null ? permissions : "none",
+        permissionsRpId != null);
+
+    return pinUvAuth.decrypt(sharedSecret.second, pinTokenEnc);
   }
 
   /**
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2020-2025 Yubico.
+ * Copyright (C) 2020-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,7 @@ import com.yubico.yubikit.core.smartcard.SmartCardProtocol;
 import com.yubico.yubikit.core.smartcard.scp.ScpKeyParams;
 import com.yubico.yubikit.core.util.StringUtils;
 import com.yubico.yubikit.fido.Cbor;
+import com.yubico.yubikit.fido.CborReader;
 import com.yubico.yubikit.fido.webauthn.PublicKeyCredentialDescriptor;
 import com.yubico.yubikit.fido.webauthn.PublicKeyCredentialParameters;
 import java.io.ByteArrayOutputStream;
@@ -190,8 +191,8 @@ public class Ctap2Session extends Ctap1Session {
     return argMap;
   }
 
-  private Map<Integer, ?> sendCbor(
-      byte command, @Nullable Object payload, @Nullable CommandState state)
+  /** Sends a command, returning the response data following the successful status byte. */
+  private byte[] sendCommand(byte command, @Nullable Object payload, @Nullable CommandState state)
       throws IOException, CommandException {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     baos.write(command);
@@ -211,6 +212,42 @@ public class Ctap2Session extends Ctap1Session {
     if (status != 0x00) {
       throw new CtapException(status);
     }
+    return response;
+  }
+
+  /**
+   * Sends a command, returning a read-only view of the response map which decodes values as they
+   * are read, so that fields which are not used are never decoded.
+   */
+  private Map<Integer, ?> sendCbor(
+      byte command, @Nullable Object payload, @Nullable CommandState state)
+      throws IOException, CommandException {
+    byte[] response = sendCommand(command, payload, state);
+    if (response.length == 1) {
+      return Collections.emptyMap(); // Empty response
+    }
+
+    CborReader reader = new CborReader(response, 1, response.length - 1);
+    if (reader.getMajorType() != CborReader.MAJOR_TYPE_MAP) {
+      if (Cbor.decode(response, 1, response.length - 1) == null) {
+        return Collections.emptyMap();
+      }
+      throw new BadResponseException("Unexpected CBOR data in response");
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<Integer, ?> value = (Map<Integer, ?>) Cbor.decodeMap(response, 1, response.length - 1);
+    return value;
+  }
+
+  /**
+   * Like {@link #sendCbor}, but decodes the whole response into a mutable map. Used for maps
+   * returned to callers, which may modify them.
+   */
+  private Map<Integer, ?> sendCborEagerly(
+      byte command, @Nullable Object payload, @Nullable CommandState state)
+      throws IOException, CommandException {
+    byte[] response = sendCommand(command, payload, state);
     if (response.length == 1) {
       return Collections.emptyMap(); // Empty response
     }
@@ -423,7 +460,7 @@ public class Ctap2Session extends Ctap1Session {
         pinHashEnc,
         permissions,
         rpId);
-    return sendCbor(
+    return sendCborEagerly(
         CMD_CLIENT_PIN,
         args(
             pinUvAuthProtocol,
@@ -483,7 +520,7 @@ public class Ctap2Session extends Ctap1Session {
     if (bioEnrollmentCommand == null) {
       throw new IllegalStateException("Bio enrollment not supported");
     }
-    return sendCbor(
+    return sendCborEagerly(
         bioEnrollmentCommand,
         args(
             modality, subCommand, subCommandParams, pinUvAuthProtocol, pinUvAuthParam, getModality),
@@ -554,7 +591,7 @@ public class Ctap2Session extends Ctap1Session {
       byte @Nullable [] pinUvAuthParam,
       @Nullable Integer pinUvAuthProtocol)
       throws IOException, CommandException {
-    return sendCbor(
+    return sendCborEagerly(
         CMD_LARGE_BLOBS,
         args(
             get,
@@ -588,7 +625,7 @@ public class Ctap2Session extends Ctap1Session {
       @Nullable Integer pinUvAuthProtocol,
       byte @Nullable [] pinUvAuthParam)
       throws IOException, CommandException {
-    return sendCbor(
+    return sendCborEagerly(
         CMD_CONFIG,
         args(
             subCommand,
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.fido;
+
+import static com.yubico.yubikit.fido.TestUtils.encodeHex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.jspecify.annotations.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Differential tests comparing {@link Cbor#encode(Object)} with the previous encoder, which encoded
+ * every map entry and list item separately before writing it.
+ */
+public class CborEncoderTest {
+
+  @Test
+  public void testCtapCorpus() throws IOException {
+    List<Map<String, Object>> excludeList = new ArrayList<>();
+    for (int i = 0; i < 32; i++) {
+      Map<String, Object> descriptor = new HashMap<>();
+      descriptor.put("type", "public-key");
+      descriptor.put("id", bytes(i, 64));
+      descriptor.put("transports", Arrays.asList("usb", "nfc"));
+      excludeList.add(descriptor);
+    }
+    Map<String, Object> rp = new HashMap<>();
+    rp.put("id", "example.com");
+    rp.put("name", "Example");
+    Map<String, Object> user = new HashMap<>();
+    user.put("id", bytes(1, 32));
+    user.put("name", "user@example.com");
+    user.put("displayName", "Üser Ëxample ☃ 🔑");
+    Map<String, Object> alg = new LinkedHashMap<>();
+    alg.put("alg", -7);
+    alg.put("type", "public-key");
+    Map<String, Object> options = new HashMap<>();
+    options.put("rk", true);
+    options.put("uv", false);
+
+    Map<Integer, Object> makeCredential = new HashMap<>();
+    makeCredential.put(1, bytes(2, 32));
+    makeCredential.put(2, rp);
+    makeCredential.put(3, user);
+    makeCredential.put(4, Collections.singletonList(alg));
+    makeCredential.put(5, excludeList);
+    makeCredential.put(7, options);
+    makeCredential.put(8, bytes(3, 16));
+    makeCredential.put(9, 2);
+    assertSameEncoding(makeCredential);
+
+    List<Map<Integer, Object>> largeBlobArray = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Map<Integer, Object> entry = new HashMap<>();
+      entry.put(1, bytes(i, 300 + i));
+      entry.put(2, bytes(i + 1, 12));
+      entry.put(3, 1000 * i);
+      largeBlobArray.add(entry);
+    }
+    assertSameEncoding(largeBlobArray);
+
+    // COSE key with negative integer keys
+    Map<Integer, Object> coseKey = new HashMap<>();
+    coseKey.put(1, 2);
+    coseKey.put(3, -7);
+    coseKey.put(-1, 1);
+    coseKey.put(-2, bytes(4, 32));
+    coseKey.put(-3, bytes(5, 32));
+    assertSameEncoding(coseKey);
+  }
+
+  @Test
+  public void testMixedKeyTypes() throws IOException {
+    Map<Object, @Nullable Object> map = new LinkedHashMap<>();
+    map.put("a", 1);
+    map.put(1000000, null);
+    map.put(-1, "negative");
+    map.put((byte) 5, (short) 300);
+    map.put(70000L, 1L);
+    map.put("aa", Collections.emptyList());
+    map.put("b", Collections.emptyMap());
+    map.put(bytes(6, 3), true);
+    map.put(false, new byte[0]);
+    map.put("", "");
+    assertSameEncoding(map);
+  }
+
+  @Test
+  public void testRandomCorpus() throws IOException {
+    Random random = new Random(0x5eed);
+    for (int i = 0; i < 500; i++) {
+      assertSameEncoding(randomValue(random, 4));
+    }
+  }
+
+  @Test
+  public void testEncodeTo() throws IOException {
+    Random random = new Random(42);
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    stream.write(0x42);
+    Object value = randomValue(random, 3);
+    Cbor.encodeTo(stream, value);
+    byte[] encoded = stream.toByteArray();
+    Assert.assertEquals(0x42, encoded[0]);
+    Assert.assertArrayEquals(
+        ReferenceEncoder.encode(value), Arrays.copyOfRange(encoded, 1, encoded.length));
+  }
+
+  private static void assertSameEncoding(@Nullable Object value) throws IOException {
+    byte[] expected = ReferenceEncoder.encode(value);
+    byte[] actual = Cbor.encode(value);
+    Assert.assertEquals(encodeHex(expected), encodeHex(actual));
+  }
+
+  private static byte[] bytes(int seed, int length) {
+    byte[] data = new byte[length];
+    new Random(seed).nextBytes(data);
+    return data;
+  }
+
+  private static @Nullable Object randomValue(Random random, int depth) {
+    switch (random.nextInt(depth > 0 ? 9 : 6)) {
+      case 0:
+        return null;
+      case 1:
+        return random.nextBoolean();
+      case 2:
+        int[] ranges = {24, 256, 65536, Integer.MAX_VALUE};
+        int value = random.nextInt(ranges[random.nextInt(ranges.length)]);
+        return random.nextBoolean() ? value : -1 - value;
+      case 3:
+        return (long) random.nextInt(1000);
+      case 4:
+        return bytes(random.nextInt(), random.nextInt(random.nextBoolean() ? 24 : 600));
+      case 5:
+        return randomString(random);
+      case 6:
+        List<@Nullable Object> list = new ArrayList<>();
+        for (int i = random.nextInt(30); i > 0; i--) {
+          list.add(randomValue(random, depth - 1));
+        }
+        return list;
+      default:
+        Map<@Nullable Object, @Nullable Object> map = new HashMap<>();
+        for (int i = random.nextInt(20); i > 0; i--) {
+          Object key = random.nextBoolean() ? random.nextInt(1000) - 500 : randomString(random);
+          map.put(key, randomValue(random, depth - 1));
+        }
+        return map;
+    }
+  }
+
+  private static String randomString(Random random) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = random.nextInt(random.nextBoolean() ? 8 : 40); i > 0; i--) {
+      sb.append(
+          random.nextInt(4) == 0
+              ? (char) (0xa0 + random.nextInt(0x500))
+              : (char) ('a' + random.nextInt(26)));
+    }
+    return sb.toString();
+  }
+
+  /** The encoder as it was implemented before it was changed to write in a single pass. */
+  private static class ReferenceEncoder {
+    static byte[] encode(@Nullable Object value) throws IOException {
+      ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      encodeTo(stream, value);
+      return stream.toByteArray();
+    }
+
+    static void encodeTo(OutputStream stream, @Nullable Object value) throws IOException {
+      if (value == null) {
+        stream.write((byte) 0xf6);
+      } else if (value instanceof Number) {
+        dumpInt(stream, ((Number) value).intValue(), 0);
+      } else if (value instanceof Boolean) {
+        stream.write((byte) ((Boolean) value ? 0xf5 : 0xf4));
+      } else if (value instanceof List) {
+        dumpInt(stream, ((List<?>) value).size(), 4);
+        for (Object item : (List<?>) value) {
+          stream.write(encode(item));
+        }
+      } else if (value instanceof Map) {
+        dumpMap(stream, (Map<?, ?>) value);
+      } else if (value instanceof byte[]) {
+        dumpInt(stream, ((byte[]) value).length, 2);
+        stream.write((byte[]) value);
+      } else if (value instanceof String) {
+        byte[] data = ((String) value).getBytes(StandardCharsets.UTF_8);
+        dumpInt(stream, data.length, 3);
+        stream.write(data);
+      } else {
+        throw new IllegalArgumentException("Unsupported object type: " + value.getClass());
+      }
+    }
+
+    private static void dumpInt(OutputStream stream, int value, int majorType) throws IOException {
+      if (value < 0) {
+        majorType = 1;
+        value = -1 - value;
+      }
+
+      byte head = (byte) (majorType << 5);
+      if (value <= 23) {
+        stream.write((byte) (head | value));
+      } else if (value <= 0xff) {
+        stream.write((byte) (head | 24));
+        stream.write((byte) value);
+      } else if (value <= 0xffff) {
+        stream.write((byte) (head | 25));
+        stream.write(ByteBuffer.allocate(2).putShort((short) value).array());
+      } else {
+        stream.write((byte) (head | 26));
+        stream.write(ByteBuffer.allocate(4).putInt(value).array());
+      }
+    }
+
+    private static void dumpMap(OutputStream stream, Map<?, ?> value) throws IOException {
+      dumpInt(stream, value.size(), 5);
+      List<byte[][]> entries = new ArrayList<>();
+      for (Map.Entry<?, ?> entry : value.entrySet()) {
+        entries.add(new byte[][] {encode(entry.getKey()), encode(entry.getValue())});
+      }
+      Collections.sort(
+          entries,
+          (o1, o2) -> {
+            byte[] key1 = o1[0];
+            byte[] key2 = o2[0];
+            int minLength = Math.min(key1.length, key2.length);
+            for (int i = 0; i < minLength; i++) {
+              int a = 0xff & key1[i];
+              int b = 0xff & key2[i];
+              if (a != b) {
+                return a - b;
+              }
+            }
+            return key1.length - key2.length;
+          });
+      for (byte[][] entry : entries) {
+        stream.write(entry[0]);
+        stream.write(entry[1]);
+      }
+    }
+  }
+}
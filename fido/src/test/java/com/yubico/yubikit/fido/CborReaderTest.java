@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.fido;
+
+import static com.yubico.yubikit.fido.TestUtils.decodeHex;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CborReaderTest {
+
+  @Test
+  public void testReadItems() {
+    Map<Object, Object> map = new LinkedHashMap<>();
+    map.put(1, -1000);
+    map.put(2, new byte[] {1, 2, 3});
+    map.put(3, "text ☃");
+    map.put(4, Arrays.asList(true, false));
+    CborReader reader = new CborReader(Cbor.encode(map));
+
+    Assert.assertEquals(CborReader.MAJOR_TYPE_MAP, reader.getMajorType());
+    Assert.assertEquals(4, reader.readMapHeader());
+    Assert.assertEquals(1, reader.nextInt());
+    Assert.assertEquals(-1000, reader.nextInt());
+    Assert.assertEquals(2, reader.nextInt());
+    ByteBuffer bytes = reader.nextBytes();
+    Assert.assertTrue(bytes.isReadOnly());
+    Assert.assertEquals(ByteBuffer.wrap(new byte[] {1, 2, 3}), bytes);
+    Assert.assertEquals(3, reader.nextInt());
+    Assert.assertEquals("text ☃", reader.nextText());
+    Assert.assertEquals(4, reader.nextInt());
+    Assert.assertEquals(2, reader.readArrayHeader());
+    Assert.assertTrue(reader.nextBoolean());
+    Assert.assertFalse(reader.nextBoolean());
+    Assert.assertFalse(reader.hasRemaining());
+  }
+
+  @Test
+  public void testSkip() {
+    Map<Object, Object> nested = new HashMap<>();
+    nested.put("a", Arrays.asList(1, "two", new byte[300], Collections.singletonMap(3, null)));
+    nested.put("b", 70000);
+    byte[] encoded = Cbor.encode(Arrays.asList(nested, true, "end"));
+
+    CborReader reader = new CborReader(encoded);
+    Assert.assertEquals(3, reader.readArrayHeader());
+    reader.skip();
+    reader.skip();
+    Assert.assertEquals("end", reader.nextValue());
+    Assert.assertFalse(reader.hasRemaining());
+  }
+
+  @Test
+  public void testNull() {
+    CborReader reader = new CborReader(decodeHex("f6f7f4"));
+    Assert.assertTrue(reader.isNull());
+    Assert.assertNull(reader.nextValue());
+    Assert.assertTrue(reader.isNull());
+    reader.skip();
+    Assert.assertFalse(reader.isNull());
+    Assert.assertFalse(reader.nextBoolean());
+  }
+
+  @Test
+  public void testUnexpectedType() {
+    CborReader reader = new CborReader(Cbor.encode("text"));
+    Assert.assertThrows(IllegalArgumentException.class, reader::nextInt);
+  }
+
+  @Test(expected = BufferUnderflowException.class)
+  public void testTruncatedSkip() {
+    byte[] encoded = Cbor.encode(new byte[10]);
+    new CborReader(encoded, 0, encoded.length - 1).skip();
+  }
+
+  @Test
+  public void testDecodeMap() {
+    Map<Object, Object> map = new HashMap<>();
+    map.put(1, "one");
+    map.put(2, Collections.singletonMap("x", Arrays.asList(1, 2, 3)));
+    map.put("three", new byte[] {3});
+    map.put(-4, null);
+    byte[] encoded = Cbor.encode(map);
+    byte[] data = new byte[encoded.length + 2];
+    System.arraycopy(encoded, 0, data, 1, encoded.length);
+
+    Map<?, ?> lazy = Cbor.decodeMap(data, 1, encoded.length);
+    Assert.assertEquals(4, lazy.size());
+    Assert.assertEquals("one", lazy.get(1));
+    Assert.assertEquals(Collections.singletonMap("x", Arrays.asList(1, 2, 3)), lazy.get(2));
+    Assert.assertArrayEquals(new byte[] {3}, (byte[]) lazy.get("three"));
+    Assert.assertTrue(lazy.containsKey(-4));
+    Assert.assertNull(lazy.get(-4));
+    Assert.assertFalse(lazy.containsKey(5));
+    Assert.assertNull(lazy.get(5));
+    Assert.assertEquals(((Map<?, ?>) Cbor.decode(encoded)).keySet(), new HashMap<>(lazy).keySet());
+    Assert.assertSame(lazy.get(2), lazy.get(2));
+  }
+
+  @Test
+  public void testDecodeMapSharedBetweenThreads() throws Exception {
+    Map<Integer, Object> map = new HashMap<>();
+    for (int i = 0; i < 16; i++) {
+      map.put(i, Collections.singletonMap("value", Arrays.asList(i, i + 1)));
+    }
+    byte[] encoded = Cbor.encode(map);
+    Map<?, ?> lazy = Cbor.decodeMap(encoded, 0, encoded.length);
+
+    List<Future<List<Object>>> results = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int t = 0; t < 4; t++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  List<Object> values = new ArrayList<>();
+                  for (int i = 0; i < 16; i++) {
+                    values.add(lazy.get(i));
+                  }
+                  return values;
+                }));
+      }
+      List<Object> first = results.get(0).get(5, TimeUnit.SECONDS);
+      for (Future<List<Object>> result : results) {
+        List<Object> values = result.get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 16; i++) {
+          // Each value is decoded once, and seen by all threads
+          Assert.assertSame(first.get(i), values.get(i));
+          Assert.assertEquals(map.get(i), values.get(i));
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testDecodeMapErrors() {
+    byte[] list = Cbor.encode(Collections.emptyList());
+    Assert.assertThrows(IllegalArgumentException.class, () -> Cbor.decodeMap(list, 0, list.length));
+    byte[] extra = decodeHex("a0a0");
+    Assert.assertThrows(
+        IllegalArgumentException.class, () -> Cbor.decodeMap(extra, 0, extra.length));
+  }
+}
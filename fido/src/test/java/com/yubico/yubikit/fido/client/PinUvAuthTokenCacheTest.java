@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.fido.client;
+
+import static com.yubico.yubikit.fido.ctap.ClientPin.PIN_PERMISSION_GA;
+import static com.yubico.yubikit.fido.ctap.ClientPin.PIN_PERMISSION_MC;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.yubico.yubikit.core.fido.CtapException;
+import com.yubico.yubikit.core.util.Pair;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Test;
+
+public class PinUvAuthTokenCacheTest {
+  private static final char[] PIN = "123456".toCharArray();
+
+  private long now = 1000;
+  private final PinUvAuthTokenCache cache = new PinUvAuthTokenCache(() -> now);
+
+  @Test
+  public void testTokenKeyedByPermissionsAndRpId() {
+    byte[] token = {1, 2, 3};
+    cache.putToken(token, PIN_PERMISSION_GA, "example.com", PIN, false);
+    assertFalse(cache.isReused());
+
+    assertSame(token, cache.getToken(PIN_PERMISSION_GA, "example.com", PIN));
+    assertTrue(cache.isReused());
+
+    // A different RP ID evicts the token, as a new one will be requested
+    assertNull(cache.getToken(PIN_PERMISSION_GA, "example.org", PIN));
+    assertArrayEquals(new byte[3], token);
+    assertNull(cache.getToken(PIN_PERMISSION_GA, "example.com", PIN));
+
+    cache.putToken(new byte[] {4}, PIN_PERMISSION_GA, null, PIN, false);
+    assertNull(cache.getToken(PIN_PERMISSION_MC | PIN_PERMISSION_GA, null, PIN));
+  }
+
+  @Test
+  public void testTokenKeyedByPin() {
+    cache.putToken(new byte[] {1}, PIN_PERMISSION_GA, null, PIN, false);
+    assertArrayEquals(new byte[] {1}, cache.getToken(PIN_PERMISSION_GA, null, PIN));
+    assertArrayEquals(
+        new byte[] {1}, cache.getToken(PIN_PERMISSION_GA, null, "123456".toCharArray()));
+
+    // A different PIN must be verified by the authenticator, and evicts the token
+    assertNull(cache.getToken(PIN_PERMISSION_GA, null, "654321".toCharArray()));
+    assertNull(cache.getToken(PIN_PERMISSION_GA, null, PIN));
+
+    // Tokens from built-in user verification are not used for a PIN, or the other way around
+    cache.putToken(new byte[] {2}, PIN_PERMISSION_GA, null, null, false);
+    assertNull(cache.getToken(PIN_PERMISSION_GA, null, PIN));
+    cache.putToken(new byte[] {3}, PIN_PERMISSION_GA, null, PIN, false);
+    assertNull(cache.getToken(PIN_PERMISSION_GA, null, null));
+  }
+
+  @Test
+  public void testTokenExpires() {
+    cache.putToken(new byte[] {1}, PIN_PERMISSION_GA, "example.com", PIN, false);
+    now += PinUvAuthTokenCache.MAX_USAGE_TIME_PERIOD_MS - 1;
+    assertArrayEquals(new byte[] {1}, cache.getToken(PIN_PERMISSION_GA, "example.com", PIN));
+    now += 1;
+    assertNull(cache.getToken(PIN_PERMISSION_GA, "example.com", PIN));
+  }
+
+  @Test
+  public void testInvalidateRetriesOnlyReusedTokens() {
+    Pair<Map<Integer, ?>, byte[]> sharedSecret = sharedSecret();
+    cache.putSharedSecret(sharedSecret);
+    cache.putToken(new byte[] {1}, PIN_PERMISSION_GA, null, PIN, false);
+    // A fresh token from a fresh shared secret is not retried
+    assertFalse(cache.invalidate(CtapException.ERR_PIN_AUTH_INVALID));
+    assertNull(cache.getSharedSecret());
+    assertArrayEquals(new byte[32], sharedSecret.second);
+
+    // A fresh token obtained with the cached shared secret is retried
+    cache.putSharedSecret(sharedSecret());
+    cache.putToken(new byte[] {1}, PIN_PERMISSION_GA, null, PIN, true);
+    assertTrue(cache.invalidate(CtapException.ERR_PIN_AUTH_INVALID));
+
+    // Expired reused tokens are retried, and tokens are still reused afterwards
+    cache.putToken(new byte[] {2}, PIN_PERMISSION_GA, null, PIN, false);
+    cache.getToken(PIN_PERMISSION_GA, null, PIN);
+    assertTrue(cache.invalidate(CtapException.ERR_PIN_TOKEN_EXPIRED));
+    cache.putToken(new byte[] {3}, PIN_PERMISSION_GA, null, PIN, false);
+    assertArrayEquals(new byte[] {3}, cache.getToken(PIN_PERMISSION_GA, null, PIN));
+  }
+
+  @Test
+  public void testRejectedReuseDisablesTokenReuse() {
+    cache.putToken(new byte[] {1}, PIN_PERMISSION_GA, null, PIN, false);
+    cache.getToken(PIN_PERMISSION_GA, null, PIN);
+    assertTrue(cache.invalidate(CtapException.ERR_PIN_AUTH_INVALID));
+
+    // The authenticator clears token permissions after use, only reuse the shared secret
+    cache.putSharedSecret(sharedSecret());
+    cache.putToken(new byte[] {2}, PIN_PERMISSION_GA, null, PIN, false);
+    assertNull(cache.getToken(PIN_PERMISSION_GA, null, PIN));
+    assertTrue(cache.getSharedSecret() != null);
+  }
+
+  @Test
+  public void testClear() {
+    Pair<Map<Integer, ?>, byte[]> sharedSecret = sharedSecret();
+    byte[] token = {1, 2};
+    cache.putSharedSecret(sharedSecret);
+    cache.putToken(token, PIN_PERMISSION_GA, null, PIN, false);
+    cache.clear();
+    assertNull(cache.getSharedSecret());
+    assertNull(cache.getToken(PIN_PERMISSION_GA, null, PIN));
+    assertArrayEquals(new byte[2], token);
+    assertArrayEquals(new byte[32], sharedSecret.second);
+  }
+
+  private static Pair<Map<Integer, ?>, byte[]> sharedSecret() {
+    byte[] secret = new byte[32];
+    secret[0] = 1;
+    return new Pair<>(Collections.emptyMap(), secret);
+  }
+}
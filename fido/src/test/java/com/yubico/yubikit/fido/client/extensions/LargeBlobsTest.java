@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.fido.client.extensions;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.yubico.yubikit.fido.ctap.Ctap2Session;
+import com.yubico.yubikit.fido.ctap.PinUvAuthProtocol;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Reads and writes of the large-blob array against an in-memory authenticator. */
+public class LargeBlobsTest {
+  // 20 byte fragments, to exercise fragmentation and a hash split over fragments
+  private static final int MAX_MSG_SIZE = 64 + 20;
+
+  private static final byte[] KEY_1 = new byte[32];
+  private static final byte[] KEY_2 = new byte[32];
+
+  static {
+    Arrays.fill(KEY_1, (byte) 1);
+    Arrays.fill(KEY_2, (byte) 2);
+  }
+
+  private final Ctap2Session session = mock(Ctap2Session.class);
+  private final PinUvAuthProtocol pinUvAuthProtocol = mock(PinUvAuthProtocol.class);
+  private final List<byte[]> authenticated = new ArrayList<>();
+
+  private byte[] stored;
+  private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+  private int pendingLength;
+
+  @Before
+  public void setUp() throws Exception {
+    Ctap2Session.InfoData info = mock(Ctap2Session.InfoData.class);
+    doReturn(Collections.singletonMap("largeBlobs", true)).when(info).getOptions();
+    when(info.getMaxMsgSize()).thenReturn(MAX_MSG_SIZE);
+    when(info.getMaxSerializedLargeBlobArray()).thenReturn(1024);
+    when(session.getCachedInfo()).thenReturn(info);
+
+    // initial serialized large-blob array: an empty CBOR array
+    stored = withHash(new byte[] {(byte) 0x80});
+
+    when(session.largeBlobs(anyInt(), any(), any(), any(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              int offset = invocation.getArgument(0);
+              Integer get = invocation.getArgument(1);
+              if (get != null) {
+                int end = Math.min(stored.length, offset + get);
+                return Collections.singletonMap(1, Arrays.copyOfRange(stored, offset, end));
+              }
+              byte[] set = invocation.getArgument(2);
+              Integer length = invocation.getArgument(3);
+              if (offset == 0) {
+                pending = new ByteArrayOutputStream();
+                pendingLength = length;
+              }
+              assertEquals(pending.size(), offset);
+              pending.write(set);
+              if (pending.size() == pendingLength) {
+                stored = pending.toByteArray();
+              }
+              return Collections.emptyMap();
+            });
+    when(pinUvAuthProtocol.getVersion()).thenReturn(2);
+    when(pinUvAuthProtocol.authenticate(any(), any()))
+        .thenAnswer(
+            invocation -> {
+              authenticated.add(((byte[]) invocation.getArgument(1)).clone());
+              return new byte[32];
+            });
+  }
+
+  @Test
+  public void putAndGetBlobs() throws Exception {
+    LargeBlobs largeBlobs = new LargeBlobs(session, pinUvAuthProtocol, new byte[32]);
+    assertNull(largeBlobs.getBlob(KEY_1));
+
+    byte[] blob1 = "first blob, long enough to span fragments".getBytes(StandardCharsets.UTF_8);
+    byte[] blob2 = "second blob".getBytes(StandardCharsets.UTF_8);
+    largeBlobs.putBlob(KEY_1, blob1);
+    largeBlobs.putBlob(KEY_2, blob2);
+    assertArrayEquals(blob1, largeBlobs.getBlob(KEY_1));
+    assertArrayEquals(blob2, largeBlobs.getBlob(KEY_2));
+
+    largeBlobs.putBlob(KEY_1, null);
+    assertNull(largeBlobs.getBlob(KEY_1));
+    assertArrayEquals(blob2, largeBlobs.getBlob(KEY_2));
+  }
+
+  @Test
+  public void unmodifiedEntriesKeepTheirEncoding() throws Exception {
+    LargeBlobs largeBlobs = new LargeBlobs(session, pinUvAuthProtocol, new byte[32]);
+    largeBlobs.putBlob(KEY_1, new byte[] {1, 2, 3});
+    // the array header is followed by the encoded entry, and the hash
+    byte[] entry = Arrays.copyOfRange(stored, 1, stored.length - 16);
+
+    largeBlobs.putBlob(KEY_2, new byte[] {4, 5, 6});
+    assertEquals((byte) 0x82, stored[0]);
+    assertArrayEquals(entry, Arrays.copyOfRange(stored, 1, 1 + entry.length));
+  }
+
+  @Test
+  public void fragmentsAreAuthenticated() throws Exception {
+    LargeBlobs largeBlobs = new LargeBlobs(session, pinUvAuthProtocol, new byte[32]);
+    largeBlobs.putBlob(KEY_1, new byte[100]);
+
+    int fragmentLen = MAX_MSG_SIZE - 64;
+    assertEquals((stored.length + fragmentLen - 1) / fragmentLen, authenticated.size());
+    for (int i = 0; i < authenticated.size(); i++) {
+      int offset = i * fragmentLen;
+      byte[] fragment =
+          Arrays.copyOfRange(stored, offset, Math.min(stored.length, offset + fragmentLen));
+      byte[] expected =
+          ByteBuffer.allocate(70)
+              .put(filled(32, (byte) 0xff))
+              .put((byte) 0x0c)
+              .put((byte) 0x00)
+              .order(ByteOrder.LITTLE_ENDIAN)
+              .putInt(offset)
+              .put(MessageDigest.getInstance("SHA-256").digest(fragment))
+              .array();
+      assertArrayEquals(expected, authenticated.get(i));
+    }
+  }
+
+  @Test
+  public void invalidHashReadsAsEmpty() throws Exception {
+    LargeBlobs largeBlobs = new LargeBlobs(session, pinUvAuthProtocol, new byte[32]);
+    largeBlobs.putBlob(KEY_1, new byte[] {1, 2, 3});
+    assertTrue(largeBlobs.getBlob(KEY_1) != null);
+
+    stored[stored.length - 1] ^= 1;
+    assertNull(largeBlobs.getBlob(KEY_1));
+
+    // arrays shorter than the hash are treated as empty
+    stored = new byte[] {(byte) 0x80};
+    assertNull(largeBlobs.getBlob(KEY_1));
+  }
+
+  private static byte[] withHash(byte[] data) throws Exception {
+    byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+    return ByteBuffer.allocate(data.length + 16).put(data).put(hash, 0, 16).array();
+  }
+
+  private static byte[] filled(int length, byte value) {
+    byte[] data = new byte[length];
+    Arrays.fill(data, value);
+    return data;
+  }
+}
@@ -16,7 +16,11 @@
 
 package com.yubico.yubikit.fido.ctap;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyByte;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -25,7 +29,11 @@ import com.yubico.yubikit.core.Version;
 import com.yubico.yubikit.core.fido.FidoProtocol;
 import com.yubico.yubikit.core.smartcard.AppId;
 import com.yubico.yubikit.core.smartcard.SmartCardProtocol;
+import com.yubico.yubikit.fido.Cbor;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.junit.Test;
 
 public class Ctap2SessionTest {
@@ -54,4 +62,61 @@ public class Ctap2SessionTest {
     }
     verify(protocol).close();
   }
+
+  @Test
+  public void getAssertionsReadsLazyResponses() throws Exception {
+    FidoProtocol protocol = mock(FidoProtocol.class);
+    Ctap2Session.InfoData infoData = mock(Ctap2Session.InfoData.class);
+    when(protocol.getVersion()).thenReturn(new Version(5, 7, 0));
+    when(infoData.getMaxMsgSize()).thenReturn(1024);
+    when(protocol.sendAndReceive(anyByte(), any(byte[].class), isNull()))
+        .thenReturn(response(assertion(2)), response(assertion(null)));
+
+    try (Ctap2Session session = new Ctap2Session(protocol, infoData)) {
+      List<Ctap2Session.AssertionData> assertions =
+          session.getAssertions("example.com", new byte[32], null, null, null, null, null, null);
+      assertEquals(2, assertions.size());
+      assertEquals(Integer.valueOf(2), assertions.get(0).getNumberOfCredentials());
+      assertArrayEquals(new byte[37], assertions.get(1).getAuthenticatorData());
+      assertArrayEquals(new byte[] {1, 2, 3}, assertions.get(1).getSignature());
+      assertEquals("public-key", assertions.get(1).getCredential().get("type"));
+    }
+  }
+
+  @Test
+  public void clientPinReturnsMutableMap() throws Exception {
+    FidoProtocol protocol = mock(FidoProtocol.class);
+    Ctap2Session.InfoData infoData = mock(Ctap2Session.InfoData.class);
+    when(protocol.getVersion()).thenReturn(new Version(5, 7, 0));
+    when(infoData.getMaxMsgSize()).thenReturn(1024);
+    when(protocol.sendAndReceive(anyByte(), any(byte[].class), isNull()))
+        .thenReturn(response(Collections.singletonMap(3, 8)));
+
+    try (Ctap2Session session = new Ctap2Session(protocol, infoData)) {
+      Map<Integer, ?> result = session.clientPin(1, 1, null, null, null, null, null, null, null);
+      assertEquals(8, result.get(3));
+      result.remove(3);
+      assertEquals(0, result.size());
+    }
+  }
+
+  private static Map<Integer, Object> assertion(Integer numberOfCredentials) {
+    Map<Integer, Object> assertion = new HashMap<>();
+    assertion.put(
+        Ctap2Session.AssertionData.RESULT_CREDENTIAL,
+        Collections.singletonMap("type", "public-key"));
+    assertion.put(Ctap2Session.AssertionData.RESULT_AUTH_DATA, new byte[37]);
+    assertion.put(Ctap2Session.AssertionData.RESULT_SIGNATURE, new byte[] {1, 2, 3});
+    if (numberOfCredentials != null) {
+      assertion.put(Ctap2Session.AssertionData.RESULT_N_CREDS, numberOfCredentials);
+    }
+    return assertion;
+  }
+
+  private static byte[] response(Map<Integer, Object> data) {
+    byte[] encoded = Cbor.encode(data);
+    byte[] response = new byte[encoded.length + 1];
+    System.arraycopy(encoded, 0, response, 1, encoded.length);
+    return response;
+  }
 }
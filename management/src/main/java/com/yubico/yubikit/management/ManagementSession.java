@@ -31,6 +31,7 @@ import com.yubico.yubikit.core.fido.FidoProtocol;
 import com.yubico.yubikit.core.otp.ChecksumUtils;
 import com.yubico.yubikit.core.otp.OtpConnection;
 import com.yubico.yubikit.core.otp.OtpProtocol;
+import com.yubico.yubikit.core.otp.OtpWaitStrategy;
 import com.yubico.yubikit.core.smartcard.Apdu;
 import com.yubico.yubikit.core.smartcard.ApduException;
 import com.yubico.yubikit.core.smartcard.AppId;
@@ -226,6 +227,20 @@ public class ManagementSession extends ApplicationSession<ManagementSession> {
     this(new OtpProtocol(connection));
   }
 
+  /**
+   * Establishes a new session with a YubiKeys Management application, over an {@link
+   * OtpConnection}, polling the YubiKey according to the given strategy.
+   *
+   * @param connection connection with YubiKey
+   * @param waitStrategy how to wait for the YubiKey while it is busy
+   * @throws IOException in case of connection error
+   * @throws ApplicationNotAvailableException in case the application is missing/disabled
+   */
+  public ManagementSession(OtpConnection connection, OtpWaitStrategy waitStrategy)
+      throws IOException, ApplicationNotAvailableException {
+    this(new OtpProtocol(connection, waitStrategy));
+  }
+
   ManagementSession(OtpProtocol protocol) throws IOException, ApplicationNotAvailableException {
     Version version = Version.fromBytes(protocol.readStatus());
     if (version.isLessThan(3, 0, 0) && version.major != 0) {
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.oath;
+
+import com.yubico.yubikit.core.util.RandomUtils;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An in-memory cache of Access Keys derived from passwords, which can be shared by OathSessions to
+ * avoid running PBKDF2 each time a YubiKey is unlocked.
+ *
+ * <p>Entries are keyed by the salt of the YubiKey and a fingerprint of the password, which is an
+ * HMAC of the password under a random key held by the cache. Passwords themselves are not stored.
+ * Entries expire after a fixed time to live, the least recently used entry is evicted once the
+ * cache is full, and key material is overwritten with zeros when an entry is removed.
+ *
+ * @see OathSession#setAccessKeyCache(AccessKeyCache)
+ */
+public class AccessKeyCache {
+  private final int maxEntries;
+  private final long ttlMillis;
+  private final MillisClock clock;
+  private final SecretKeySpec fingerprintKey;
+  private final Map<ByteBuffer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private @Nullable Mac fingerprintMac;
+
+  /**
+   * Create a new, empty cache.
+   *
+   * @param maxEntries the maximum number of Access Keys to keep
+   * @param ttl the time after which a cached Access Key is discarded
+   * @param unit the unit of ttl
+   */
+  public AccessKeyCache(int maxEntries, long ttl, TimeUnit unit) {
+    this(maxEntries, unit.toMillis(ttl), () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+  }
+
+  AccessKeyCache(int maxEntries, long ttlMillis, MillisClock clock) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+    if (ttlMillis <= 0) {
+      throw new IllegalArgumentException("ttl must be positive");
+    }
+    this.maxEntries = maxEntries;
+    this.ttlMillis = ttlMillis;
+    this.clock = clock;
+    this.fingerprintKey = new SecretKeySpec(RandomUtils.getRandomBytes(32), "HmacSHA256");
+  }
+
+  /** Returns the number of Access Keys currently cached, including expired ones. */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** Removes all cached Access Keys. */
+  public synchronized void clear() {
+    for (Entry entry : entries.values()) {
+      entry.destroy();
+    }
+    entries.clear();
+  }
+
+  /**
+   * Returns a copy of the Access Key cached for a salt and password, or null if there is none or it
+   * has expired.
+   */
+  synchronized byte @Nullable [] get(byte[] salt, char[] password) {
+    ByteBuffer fingerprint = fingerprint(salt, password);
+    Entry entry = entries.get(fingerprint);
+    if (entry == null) {
+      return null;
+    }
+    if (clock.millis() - entry.createdAt >= ttlMillis) {
+      entries.remove(fingerprint);
+      entry.destroy();
+      return null;
+    }
+    return Arrays.copyOf(entry.accessKey, entry.accessKey.length);
+  }
+
+  /** Caches a copy of the Access Key derived from a salt and password. */
+  synchronized void put(byte[] salt, char[] password, byte[] accessKey) {
+    Entry previous =
+        entries.put(
+            fingerprint(salt, password),
+            new Entry(
+                Arrays.copyOf(salt, salt.length),
+                Arrays.copyOf(accessKey, accessKey.length),
+                clock.millis()));
+    if (previous != null) {
+      previous.destroy();
+    }
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (entries.size() > maxEntries) {
+      iterator.next().destroy();
+      iterator.remove();
+    }
+  }
+
+  /** Removes the Access Key cached for a salt and password. */
+  synchronized void remove(byte[] salt, char[] password) {
+    Entry entry = entries.remove(fingerprint(salt, password));
+    if (entry != null) {
+      entry.destroy();
+    }
+  }
+
+  /** Removes all Access Keys cached for a salt, once it is no longer used by the YubiKey. */
+  synchronized void removeSalt(byte[] salt) {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (Arrays.equals(entry.salt, salt)) {
+        entry.destroy();
+        iterator.remove();
+      }
+    }
+  }
+
+  private ByteBuffer fingerprint(byte[] salt, char[] password) {
+    ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+    try {
+      Mac mac = fingerprintMac;
+      if (mac == null) {
+        mac = Mac.getInstance("HmacSHA256");
+        mac.init(fingerprintKey);
+        fingerprintMac = mac;
+      }
+      mac.update((byte) salt.length);
+      mac.update(salt);
+      mac.update(encoded);
+      return ByteBuffer.wrap(mac.doFinal());
+    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+      throw new RuntimeException(e);
+    } finally {
+      Arrays.fill(encoded.array(), (byte) 0);
+    }
+  }
+
+  private static class Entry {
+    private final byte[] salt;
+    private final byte[] accessKey;
+    private final long createdAt;
+
+    private Entry(byte[] salt, byte[] accessKey, long createdAt) {
+      this.salt = salt;
+      this.accessKey = accessKey;
+      this.createdAt = createdAt;
+    }
+
+    private void destroy() {
+      Arrays.fill(accessKey, (byte) 0);
+    }
+  }
+}
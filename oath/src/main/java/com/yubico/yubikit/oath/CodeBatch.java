@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.oath;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The Credentials stored on a YubiKey, together with a Code for each of them, as returned by {@link
+ * OathSession#calculateCodeBatch(long)}.
+ *
+ * <p>Credentials are kept in the order they are stored on the YubiKey, and Codes can be looked up
+ * directly by Credential ID.
+ */
+public class CodeBatch {
+  private final List<Credential> credentials;
+  private final List<@Nullable Code> codes;
+  private final Map<ByteBuffer, Integer> indexes;
+
+  CodeBatch(List<Credential> credentials, List<@Nullable Code> codes) {
+    this.credentials = Collections.unmodifiableList(credentials);
+    this.codes = codes;
+    indexes = new HashMap<>(credentials.size() * 2);
+    for (int i = 0; i < credentials.size(); i++) {
+      indexes.put(ByteBuffer.wrap(credentials.get(i).getId()), i);
+    }
+  }
+
+  /** Returns the number of Credentials in the batch. */
+  public int size() {
+    return credentials.size();
+  }
+
+  /** Returns the Credentials, in the order they are stored on the YubiKey. */
+  public List<Credential> getCredentials() {
+    return credentials;
+  }
+
+  /**
+   * Returns the Code calculated for a Credential.
+   *
+   * @param credentialId the ID of the Credential
+   * @return the Code, or null if the Credential is not in the batch, uses HOTP or requires touch
+   */
+  public @Nullable Code getCode(byte[] credentialId) {
+    Integer index = indexes.get(ByteBuffer.wrap(credentialId));
+    return index != null ? codes.get(index) : null;
+  }
+
+  /**
+   * Returns the Code at the same position as the Credential in {@link #getCredentials()}.
+   *
+   * @param index the index of the Credential
+   * @return the Code, or null if the Credential uses HOTP or requires touch
+   */
+  public @Nullable Code getCode(int index) {
+    return codes.get(index);
+  }
+
+  /** Returns a Map of the Credentials to their Codes, in the order they are stored. */
+  public Map<Credential, @Nullable Code> toMap() {
+    Map<Credential, @Nullable Code> map = new LinkedHashMap<>();
+    for (int i = 0; i < credentials.size(); i++) {
+      map.put(credentials.get(i), codes.get(i));
+    }
+    return map;
+  }
+}
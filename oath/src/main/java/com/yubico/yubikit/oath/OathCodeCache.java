@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.oath;
+
+import com.yubico.yubikit.core.application.BadResponseException;
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.util.Callback;
+import com.yubico.yubikit.core.util.Result;
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the Codes calculated by an {@link OathSession}, serving them until their validity window
+ * ends.
+ *
+ * <p>The cached batch is refreshed with a single {@link OathSession#calculateCodeBatch(long)} once
+ * the first of its Codes expires, which happens at a period boundary. Codes for other periods which
+ * are still valid are carried over from the previous batch. Callers asking for Codes concurrently
+ * wait for a single refresh.
+ *
+ * <p>Codes for Credentials using HOTP, or requiring touch, are never cached, as each calculation
+ * has a side effect on the YubiKey. Adding, deleting or renaming Credentials through this class
+ * evicts the cache.
+ *
+ * <p>All access to the OathSession should go through this class while it is in use, as the session
+ * itself is not thread safe.
+ */
+public class OathCodeCache {
+  private static final long DEFAULT_PERIOD_MILLIS =
+      TimeUnit.SECONDS.toMillis(OathSession.DEFAULT_TOTP_PERIOD);
+
+  private final OathSession session;
+  private final MillisClock clock;
+
+  private @Nullable CodeBatch batch;
+  private long refreshedAt;
+  private long expiresAt;
+
+  private @Nullable ScheduledExecutorService refreshScheduler;
+  private @Nullable Callback<Result<CodeBatch, Exception>> refreshListener;
+  private @Nullable ScheduledFuture<?> refreshTask;
+  // Incremented when refreshing stops, so that a refresh already running does not reschedule
+  private int refreshGeneration;
+
+  private static final Logger logger = LoggerFactory.getLogger(OathCodeCache.class);
+
+  /**
+   * Create a cache over an OathSession, using the system time.
+   *
+   * @param session an OathSession, which must stay open while the cache is in use
+   */
+  public OathCodeCache(OathSession session) {
+    this(session, System::currentTimeMillis);
+  }
+
+  OathCodeCache(OathSession session, MillisClock clock) {
+    this.session = session;
+    this.clock = clock;
+  }
+
+  /** Returns the OathSession the cache calculates Codes with. */
+  public OathSession getSession() {
+    return session;
+  }
+
+  /**
+   * Get all Credentials stored on the YubiKey, together with a Code for each of them.
+   *
+   * <p>The cached batch is returned while all its Codes are still valid, otherwise new Codes are
+   * calculated.
+   *
+   * @return the Credentials and their Codes
+   * @throws IOException in case of connection error
+   * @throws ApduException in case of communication error
+   * @throws BadResponseException in case of incorrect YubiKey response
+   * @see OathSession#calculateCodeBatch(long)
+   */
+  public synchronized CodeBatch getCodes() throws IOException, ApduException, BadResponseException {
+    long now = clock.millis();
+    CodeBatch codes = batch;
+    if (codes == null || now >= expiresAt || now < refreshedAt) {
+      codes = refresh(now);
+    }
+    return codes;
+  }
+
+  /**
+   * Returns a Code for a Credential.
+   *
+   * <p>Codes for TOTP Credentials which do not require touch are served from the cache. Other
+   * Credentials are calculated by the YubiKey on each call.
+   *
+   * @param credential the Credential to calculate
+   * @return the current Code for the Credential
+   * @throws IOException in case of connection error
+   * @throws ApduException in case of communication error
+   * @throws BadResponseException in case of incorrect YubiKey response
+   */
+  public synchronized Code calculateCode(Credential credential)
+      throws IOException, ApduException, BadResponseException {
+    if (credential.getOathType() == OathType.TOTP && !credential.isTouchRequired()) {
+      Code code = getCodes().getCode(credential.getId());
+      if (code != null) {
+        return code;
+      }
+    }
+    return session.calculateCode(credential);
+  }
+
+  /**
+   * Adds a Credential to the YubiKey, and evicts the cache.
+   *
+   * @see OathSession#putCredential(CredentialData, boolean)
+   */
+  public synchronized Credential putCredential(CredentialData credentialData, boolean requireTouch)
+      throws IOException, ApduException {
+    invalidate();
+    return session.putCredential(credentialData, requireTouch);
+  }
+
+  /**
+   * Deletes a Credential from the YubiKey, and evicts the cache.
+   *
+   * @see OathSession#deleteCredential(Credential)
+   */
+  public synchronized void deleteCredential(Credential credential)
+      throws IOException, ApduException {
+    invalidate();
+    session.deleteCredential(credential);
+  }
+
+  /**
+   * Renames a Credential on the YubiKey, and evicts the cache.
+   *
+   * @see OathSession#renameCredential(Credential, String, String)
+   */
+  public synchronized Credential renameCredential(
+      Credential credential, String accountName, @Nullable String issuer)
+      throws IOException, ApduException {
+    invalidate();
+    return session.renameCredential(credential, accountName, issuer);
+  }
+
+  /** Discards the cached Codes, so that the next request calculates new ones. */
+  public synchronized void invalidate() {
+    batch = null;
+  }
+
+  /**
+   * Refreshes the cached Codes as each validity window ends, passing each new batch to a listener.
+   *
+   * <p>The first refresh happens immediately if nothing is cached. Refreshing stops on the first
+   * failure, which is passed to the listener, or when {@link #stopRefreshing()} is called.
+   *
+   * @param scheduler the executor to run refreshes on
+   * @param listener invoked with the result of each refresh
+   */
+  public synchronized void startRefreshing(
+      ScheduledExecutorService scheduler, Callback<Result<CodeBatch, Exception>> listener) {
+    stopRefreshing();
+    refreshScheduler = scheduler;
+    refreshListener = listener;
+    scheduleRefresh();
+  }
+
+  /** Stops refreshing the cached Codes in the background. */
+  public synchronized void stopRefreshing() {
+    if (refreshTask != null) {
+      refreshTask.cancel(false);
+      refreshTask = null;
+    }
+    refreshScheduler = null;
+    refreshListener = null;
+    refreshGeneration++;
+  }
+
+  private CodeBatch refresh(long now) throws IOException, ApduException, BadResponseException {
+    logger.debug("Refreshing cached codes");
+    CodeBatch codes = session.calculateCodeBatch(now, batch);
+
+    // Credentials without Codes are still listed until the next default period boundary
+    long expiry = now - now % DEFAULT_PERIOD_MILLIS + DEFAULT_PERIOD_MILLIS;
+    for (int i = 0; i < codes.size(); i++) {
+      Code code = codes.getCode(i);
+      if (code != null) {
+        expiry = Math.min(expiry, code.getValidUntil());
+      }
+    }
+    batch = codes;
+    refreshedAt = now;
+    expiresAt = expiry;
+    return codes;
+  }
+
+  private void scheduleRefresh() {
+    ScheduledExecutorService scheduler = refreshScheduler;
+    if (scheduler != null) {
+      long delay = batch != null ? Math.max(0, expiresAt - clock.millis()) : 0;
+      int generation = refreshGeneration;
+      refreshTask = scheduler.schedule(() -> runRefresh(generation), delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void runRefresh(int generation) {
+    Callback<Result<CodeBatch, Exception>> listener;
+    Result<CodeBatch, Exception> result;
+    synchronized (this) {
+      listener = refreshListener;
+      if (listener == null || generation != refreshGeneration) {
+        return;
+      }
+      result = Result.of(this::getCodes);
+      if (result.isSuccess()) {
+        scheduleRefresh();
+      } else {
+        stopRefreshing();
+      }
+    }
+    listener.invoke(result);
+  }
+}
@@ -32,6 +32,7 @@ import com.yubico.yubikit.core.smartcard.SmartCardProtocol;
 import com.yubico.yubikit.core.smartcard.scp.ScpKeyParams;
 import com.yubico.yubikit.core.util.RandomUtils;
 import com.yubico.yubikit.core.util.Tlv;
+import com.yubico.yubikit.core.util.TlvReader;
 import com.yubico.yubikit.core.util.Tlvs;
 import com.yubico.yubikit.core.util.ZeroingByteArrayOutputStream;
 import java.io.IOException;
@@ -47,6 +48,7 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import javax.crypto.Mac;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
@@ -116,6 +118,9 @@ public class OathSession extends ApplicationSession<OathSession> {
   private byte[] salt;
   private byte @Nullable [] challenge;
   private boolean isAccessKeySet;
+  private @Nullable AccessKeyCache accessKeyCache;
+  // Initialized lazily and kept for the lifetime of the session
+  private @Nullable Mac hmacSha1;
 
   private static final Logger logger = LoggerFactory.getLogger(OathSession.class);
 
@@ -198,6 +203,9 @@ public class OathSession extends ApplicationSession<OathSession> {
    */
   public void reset() throws IOException, ApduException {
     protocol.sendAndReceive(new Apdu(0, INS_RESET, 0xde, 0xad, null));
+    if (accessKeyCache != null) {
+      accessKeyCache.removeSalt(salt);
+    }
     try {
       // Re-select since the device ID has changed
       SelectResponse selectResponse = new SelectResponse(protocol.select(AppId.OATH));
@@ -250,7 +258,11 @@ public class OathSession extends ApplicationSession<OathSession> {
 
     byte[] secret = deriveAccessKey(password);
     try {
-      return unlock(challenge -> doHmacSha1(secret, challenge));
+      boolean unlocked = unlock(challenge -> doHmacSha1(secret, challenge));
+      if (!unlocked && accessKeyCache != null) {
+        accessKeyCache.remove(salt, password);
+      }
+      return unlocked;
     } finally {
       Arrays.fill(secret, (byte) 0);
     }
@@ -407,48 +419,173 @@ public class OathSession extends ApplicationSession<OathSession> {
    */
   public Map<Credential, @Nullable Code> calculateCodes(long timestamp)
       throws IOException, ApduException, BadResponseException {
-    // CALCULATE_ALL uses a single time step, so we run it with the most common one (period=30)
-    // and then recalculate any codes where period != 30.
-    long timeStep = (timestamp / MILLS_IN_SECOND / DEFAULT_TOTP_PERIOD);
-    byte[] challenge = ByteBuffer.allocate(CHALLENGE_LEN).putLong(timeStep).array();
+    return calculateCodeBatch(timestamp).toMap();
+  }
+
+  /**
+   * Get all Credentials stored on the YubiKey, together with a Code for each of them. The current
+   * system time will be used for TOTP calculation.
+   *
+   * @return the Credentials and their Codes
+   * @throws IOException in case of connection error
+   * @throws ApduException in case of communication error
+   * @throws BadResponseException in case of incorrect YubiKey response
+   * @see #calculateCodeBatch(long)
+   */
+  public CodeBatch calculateCodeBatch() throws IOException, ApduException, BadResponseException {
+    return calculateCodeBatch(System.currentTimeMillis());
+  }
+
+  /**
+   * Get all Credentials stored on the YubiKey, together with a Code for each of them.
+   *
+   * <p>Credentials which use HOTP, or which require touch, will not be calculated. They will still
+   * be present in the result, but without a Code.
+   *
+   * <p>CALCULATE_ALL uses a single time step, so it is first run with the default period of 30
+   * seconds. TOTP Credentials using other periods are then recalculated per period: a single
+   * CALCULATE when only one Credential uses the period, otherwise another CALCULATE_ALL using the
+   * time step of that period.
+   *
+   * @param timestamp the timestamp which is used as start point for TOTP
+   * @return the Credentials and their Codes
+   * @throws IOException in case of connection error
+   * @throws ApduException in case of communication error
+   * @throws BadResponseException in case of incorrect YubiKey response
+   */
+  public CodeBatch calculateCodeBatch(long timestamp)
+      throws IOException, ApduException, BadResponseException {
+    return calculateCodeBatch(timestamp, null);
+  }
+
+  /**
+   * Get all Credentials stored on the YubiKey, together with a Code for each of them, reusing Codes
+   * from a previous batch which are still valid at the given timestamp.
+   *
+   * <p>Only Codes for periods other than the default are reused, as the initial CALCULATE_ALL is
+   * needed to list the Credentials and always calculates the Codes for the default period.
+   *
+   * @param timestamp the timestamp which is used as start point for TOTP
+   * @param previous a previously calculated batch, or null
+   */
+  CodeBatch calculateCodeBatch(long timestamp, @Nullable CodeBatch previous)
+      throws IOException, ApduException, BadResponseException {
     long validFrom = validFrom(timestamp, DEFAULT_TOTP_PERIOD);
     long validUntil = validFrom + DEFAULT_TOTP_PERIOD * MILLS_IN_SECOND;
 
     logger.info("Calculating all codes for time={}", timestamp);
 
-    byte[] data =
-        protocol.sendAndReceive(
-            new Apdu(0, INS_CALCULATE_ALL, 0, 1, new Tlv(TAG_CHALLENGE, challenge).getBytes()));
-    Iterator<Tlv> responseTlvs = Tlvs.decodeList(data).iterator();
-    Map<Credential, @Nullable Code> map = new HashMap<>();
-    while (responseTlvs.hasNext()) {
-      Tlv nameTlv = responseTlvs.next();
-      if (nameTlv.getTag() != TAG_NAME) {
-        throw new BadResponseException(String.format("Unexpected tag: %02x", nameTlv.getTag()));
-      }
-      byte[] credentialId = nameTlv.getValue();
-      CalculateResponse response = new CalculateResponse(responseTlvs.next());
+    List<Credential> credentials = new ArrayList<>();
+    List<@Nullable Code> codes = new ArrayList<>();
+    // Indexes of TOTP credentials which need to be recalculated, by period
+    Map<Integer, List<Integer>> recalculate = new TreeMap<>();
+
+    TlvReader reader = calculateAll(timestamp, DEFAULT_TOTP_PERIOD);
+    while (reader.next()) {
+      byte[] credentialId = readCredentialId(reader);
+      CalculateResponse response = new CalculateResponse(reader);
 
       // parse credential properties
       Credential credential = new Credential(deviceId, credentialId, response);
 
       // Non-empty responses are for TOTP credentials which do not require touch.
+      Code code = null;
       if (response.response.length == 4) {
         int period = credential.getPeriod();
         if (period != DEFAULT_TOTP_PERIOD) {
-          // Recalculate TOTP for correct period.
-          logger.debug("Recalculating code for period={}", period);
-          map.put(credential, calculateCode(credential, timestamp));
+          List<Integer> indexes = recalculate.get(period);
+          if (indexes == null) {
+            indexes = new ArrayList<>();
+            recalculate.put(period, indexes);
+          }
+          indexes.add(credentials.size());
         } else {
-          map.put(credential, new Code(formatTruncated(response), validFrom, validUntil));
+          code = new Code(formatTruncated(response), validFrom, validUntil);
+        }
+      }
+      // HOTP, or TOTP that requires touch, has no code.
+      credentials.add(credential);
+      codes.add(code);
+    }
+
+    for (Map.Entry<Integer, List<Integer>> entry : recalculate.entrySet()) {
+      int period = entry.getKey();
+      List<Integer> indexes = entry.getValue();
+      if (period <= 0) {
+        for (int index : indexes) {
+          codes.set(index, calculateCode(credentials.get(index), timestamp));
         }
+        continue;
+      }
+
+      if (previous != null) {
+        Iterator<Integer> iterator = indexes.iterator();
+        while (iterator.hasNext()) {
+          int index = iterator.next();
+          Code code = previous.getCode(credentials.get(index).getId());
+          if (code != null
+              && code.getValidFrom() <= timestamp
+              && timestamp < code.getValidUntil()) {
+            codes.set(index, code);
+            iterator.remove();
+          }
+        }
+        if (indexes.isEmpty()) {
+          continue;
+        }
+      }
+
+      if (indexes.size() == 1) {
+        int index = indexes.get(0);
+        codes.set(index, calculateCode(credentials.get(index), timestamp));
       } else {
-        // HOTP, or TOTP that requires touch, no code.
-        map.put(credential, null);
+        logger.debug("Recalculating {} codes for period={}", indexes.size(), period);
+        long periodValidFrom = validFrom(timestamp, period);
+        long periodValidUntil = periodValidFrom + period * MILLS_IN_SECOND;
+        Map<ByteBuffer, Integer> pending = new HashMap<>();
+        for (int index : indexes) {
+          pending.put(ByteBuffer.wrap(credentials.get(index).getId()), index);
+        }
+        reader = calculateAll(timestamp, period);
+        while (reader.next() && !pending.isEmpty()) {
+          Integer index = pending.remove(ByteBuffer.wrap(readCredentialId(reader)));
+          CalculateResponse response = new CalculateResponse(reader);
+          if (index != null && response.response.length == 4) {
+            codes.set(
+                index, new Code(formatTruncated(response), periodValidFrom, periodValidUntil));
+          }
+        }
       }
     }
 
-    return map;
+    return new CodeBatch(credentials, codes);
+  }
+
+  /**
+   * Sends CALCULATE_ALL using the time step for the given period, and returns a response reader.
+   */
+  private TlvReader calculateAll(long timestamp, int period) throws IOException, ApduException {
+    byte[] challenge = new Tlv(TAG_CHALLENGE, timeStep(timestamp, period)).getBytes();
+    return new TlvReader(protocol.sendAndReceive(new Apdu(0, INS_CALCULATE_ALL, 0, 1, challenge)));
+  }
+
+  /**
+   * Reads the name TLV of a CALCULATE_ALL response entry, and advances the reader to the response
+   * TLV of the entry.
+   */
+  private static byte[] readCredentialId(TlvReader reader) throws BadResponseException {
+    if (reader.getTag() != TAG_NAME) {
+      throw new BadResponseException(String.format("Unexpected tag: %02x", reader.getTag()));
+    }
+    byte[] credentialId = reader.getValue();
+    if (!reader.next()) {
+      throw new BadResponseException("Missing response for credential");
+    }
+    return credentialId;
+  }
+
+  private static byte[] timeStep(long timestamp, int period) {
+    return ByteBuffer.allocate(CHALLENGE_LEN).putLong(timestamp / MILLS_IN_SECOND / period).array();
   }
 
   /**
@@ -683,14 +820,41 @@ public class OathSession extends ApplicationSession<OathSession> {
         credential.deviceId, newId, credential.getOathType(), credential.isTouchRequired());
   }
 
+  /**
+   * Sets a cache of derived Access Keys, which is used by {@link #deriveAccessKey}, and thereby by
+   * {@link #unlock(char[])} and {@link #setPassword}. The same cache can be shared by sessions with
+   * different YubiKeys, or successive sessions with the same YubiKey.
+   *
+   * @param accessKeyCache the cache to use, or null to always derive Access Keys
+   */
+  public void setAccessKeyCache(@Nullable AccessKeyCache accessKeyCache) {
+    this.accessKeyCache = accessKeyCache;
+  }
+
   /**
    * Derives an access key from a password and the device-specific salt. The key is derived by
    * running 1000 rounds of PBKDF2 using the password and salt as inputs, with a 16 byte output.
    *
+   * <p>If an {@link AccessKeyCache} is set, a previously derived key is returned from it.
+   *
    * @param password a user-supplied password, encoded as UTF-8 bytes.
    * @return an access key for unlocking the session
    */
   public byte[] deriveAccessKey(char[] password) {
+    if (accessKeyCache != null) {
+      byte[] cached = accessKeyCache.get(salt, password);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    byte[] accessKey = pbkdf2(password);
+    if (accessKeyCache != null) {
+      accessKeyCache.put(salt, password, accessKey);
+    }
+    return accessKey;
+  }
+
+  private byte[] pbkdf2(char[] password) {
     PBEKeySpec keyspec = new PBEKeySpec(password, salt, 1000, ACCESS_KEY_LEN * 8);
     try {
       SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
@@ -709,9 +873,13 @@ public class OathSession extends ApplicationSession<OathSession> {
    * @param message data in bytes
    * @return the MAC result
    */
-  private static byte[] doHmacSha1(byte[] secret, byte[] message) {
+  private byte[] doHmacSha1(byte[] secret, byte[] message) {
     try {
-      Mac mac = Mac.getInstance("HmacSHA1");
+      Mac mac = hmacSha1;
+      if (mac == null) {
+        mac = Mac.getInstance("HmacSHA1");
+        hmacSha1 = mac;
+      }
       mac.init(new SecretKeySpec(secret, mac.getAlgorithm()));
       return mac.doFinal(message);
     } catch (NoSuchAlgorithmException | InvalidKeyException e) {
@@ -782,8 +950,15 @@ public class OathSession extends ApplicationSession<OathSession> {
     final byte[] response;
 
     private CalculateResponse(Tlv tlv) {
-      responseType = (byte) tlv.getTag();
-      byte[] value = tlv.getValue();
+      this(tlv.getTag(), tlv.getValue());
+    }
+
+    private CalculateResponse(TlvReader reader) {
+      this(reader.getTag(), reader.getValue());
+    }
+
+    private CalculateResponse(int tag, byte[] value) {
+      responseType = (byte) tag;
       digits = value[0];
       response = Arrays.copyOfRange(value, 1, value.length);
     }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.oath;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class AccessKeyCacheTest {
+  private static final byte[] SALT_A = {1, 2, 3, 4, 5, 6, 7, 8};
+  private static final byte[] SALT_B = {8, 7, 6, 5, 4, 3, 2, 1};
+  private static final byte[] KEY = {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+
+  private long now = 1000;
+  private final AccessKeyCache cache = new AccessKeyCache(2, 60_000, () -> now);
+
+  @Test
+  public void keyedBySaltAndPassword() {
+    byte[] key = KEY.clone();
+    cache.put(SALT_A, "password".toCharArray(), key);
+
+    byte[] cached = cache.get(SALT_A, "password".toCharArray());
+    assertArrayEquals(KEY, cached);
+    assertNotSame(key, cached);
+    assertNull(cache.get(SALT_A, "Password".toCharArray()));
+    assertNull(cache.get(SALT_B, "password".toCharArray()));
+
+    // Callers zeroing their copies do not affect the cache
+    cached[0] = 0;
+    key[1] = 0;
+    assertArrayEquals(KEY, cache.get(SALT_A, "password".toCharArray()));
+  }
+
+  @Test
+  public void entriesExpire() {
+    cache.put(SALT_A, "password".toCharArray(), KEY);
+    now += 59_999;
+    assertArrayEquals(KEY, cache.get(SALT_A, "password".toCharArray()));
+    now += 1;
+    assertNull(cache.get(SALT_A, "password".toCharArray()));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    cache.put(SALT_A, "a".toCharArray(), KEY);
+    cache.put(SALT_A, "b".toCharArray(), KEY);
+    cache.get(SALT_A, "a".toCharArray());
+    cache.put(SALT_A, "c".toCharArray(), KEY);
+
+    assertEquals(2, cache.size());
+    assertArrayEquals(KEY, cache.get(SALT_A, "a".toCharArray()));
+    assertNull(cache.get(SALT_A, "b".toCharArray()));
+    assertArrayEquals(KEY, cache.get(SALT_A, "c".toCharArray()));
+  }
+
+  @Test
+  public void removeAndClear() {
+    cache.put(SALT_A, "a".toCharArray(), KEY);
+    cache.put(SALT_B, "b".toCharArray(), KEY);
+    cache.removeSalt(SALT_A);
+    assertNull(cache.get(SALT_A, "a".toCharArray()));
+    assertArrayEquals(KEY, cache.get(SALT_B, "b".toCharArray()));
+
+    cache.remove(SALT_B, "b".toCharArray());
+    assertEquals(0, cache.size());
+
+    cache.put(SALT_A, "a".toCharArray(), KEY);
+    cache.clear();
+    assertNull(cache.get(SALT_A, "a".toCharArray()));
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.oath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OathCodeCacheTest {
+  private final Credential totp = credential("a", OathType.TOTP, false);
+  private final Credential totp60 = credential("60/b", OathType.TOTP, false);
+  private final Credential touch = credential("c", OathType.TOTP, true);
+  private final Credential hotp = credential("d", OathType.HOTP, false);
+
+  private final OathSession session = mock(OathSession.class);
+  private long now = 1_000_000;
+  private final OathCodeCache cache = new OathCodeCache(session, () -> now);
+
+  @Before
+  public void setUp() throws Exception {
+    when(session.calculateCodeBatch(anyLong(), any()))
+        .thenAnswer(invocation -> batch(invocation.getArgument(0)));
+    when(session.calculateCode(any(Credential.class)))
+        .thenAnswer(invocation -> new Code("123456", now, now + 30_000));
+  }
+
+  @Test
+  public void servesCodesUntilFirstExpiry() throws Exception {
+    CodeBatch codes = cache.getCodes();
+    assertSame(codes, cache.getCodes());
+    assertEquals("a@1000", cache.calculateCode(totp).getValue());
+
+    // The 30 second window ends at 1020000
+    now = 1_019_999;
+    assertSame(codes, cache.getCodes());
+    now = 1_020_000;
+    CodeBatch refreshed = cache.getCodes();
+    assertEquals("a@1020", refreshed.getCode(totp.getId()).getValue());
+    verify(session, times(1)).calculateCodeBatch(1_000_000, null);
+    verify(session, times(1)).calculateCodeBatch(1_020_000, codes);
+
+    // A clock going backwards refreshes as well
+    now = 1_000_000;
+    cache.getCodes();
+    verify(session, times(3)).calculateCodeBatch(anyLong(), any());
+  }
+
+  @Test
+  public void neverCachesTouchOrHotp() throws Exception {
+    cache.calculateCode(touch);
+    cache.calculateCode(touch);
+    cache.calculateCode(hotp);
+    verify(session, times(2)).calculateCode(touch);
+    verify(session, times(1)).calculateCode(hotp);
+  }
+
+  @Test
+  public void evictsOnChanges() throws Exception {
+    cache.getCodes();
+    cache.deleteCredential(totp60);
+    verify(session).deleteCredential(totp60);
+    cache.getCodes();
+    cache.renameCredential(totp, "e", null);
+    cache.getCodes();
+    cache.putCredential(mock(CredentialData.class), false);
+    cache.getCodes();
+
+    // Evicted batches are not reused for carrying over Codes
+    verify(session, times(4)).calculateCodeBatch(now, null);
+  }
+
+  @Test
+  public void deduplicatesConcurrentRefreshes() throws Exception {
+    CountDownLatch calculating = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(session.calculateCodeBatch(anyLong(), any()))
+        .thenAnswer(
+            invocation -> {
+              calculating.countDown();
+              release.await();
+              return batch(invocation.getArgument(0));
+            });
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<CodeBatch>> results = new ArrayList<>();
+      results.add(executor.submit(cache::getCodes));
+      calculating.await();
+      for (int i = 0; i < 3; i++) {
+        results.add(executor.submit(cache::getCodes));
+      }
+      release.countDown();
+      for (Future<CodeBatch> result : results) {
+        assertSame(results.get(0).get(5, TimeUnit.SECONDS), result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(session, times(1)).calculateCodeBatch(anyLong(), any());
+  }
+
+  private CodeBatch batch(long timestamp) {
+    long validFrom = timestamp - timestamp % 30_000;
+    long validFrom60 = timestamp - timestamp % 60_000;
+    return new CodeBatch(
+        new ArrayList<>(Arrays.asList(totp, totp60, touch, hotp)),
+        Arrays.asList(
+            new Code("a@" + timestamp / 1000, validFrom, validFrom + 30_000),
+            new Code("b@" + timestamp / 1000, validFrom60, validFrom60 + 60_000),
+            null,
+            null));
+  }
+
+  private static Credential credential(String name, OathType oathType, boolean touchRequired) {
+    return new Credential("device", name.getBytes(StandardCharsets.UTF_8), oathType, touchRequired);
+  }
+}
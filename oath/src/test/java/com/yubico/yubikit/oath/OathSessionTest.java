@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2025 Yubico.
+ * Copyright (C) 2025-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,18 +19,29 @@ package com.yubico.yubikit.oath;
 import static com.yubico.yubikit.oath.OathSession.TAG_CHALLENGE;
 import static com.yubico.yubikit.oath.OathSession.TAG_NAME;
 import static com.yubico.yubikit.oath.OathSession.TAG_VERSION;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.yubico.yubikit.core.Version;
+import com.yubico.yubikit.core.smartcard.Apdu;
 import com.yubico.yubikit.core.smartcard.AppId;
 import com.yubico.yubikit.core.smartcard.SmartCardProtocol;
+import com.yubico.yubikit.core.util.Tlv;
 import com.yubico.yubikit.core.util.Tlvs;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
 import org.junit.Test;
 
 public class OathSessionTest {
@@ -50,11 +61,110 @@ public class OathSessionTest {
     verify(protocolMock).close();
   }
 
-  private byte[] selectResponse(Version version, byte[] salt, byte[] challenge) {
+  @Test
+  public void calculateCodeBatchGroupsPeriods() throws Exception {
+    SmartCardProtocol protocolMock = mock(SmartCardProtocol.class);
+    when(protocolMock.select(any(byte[].class)))
+        .thenReturn(selectResponse(new Version(5, 7, 0), new byte[] {1, 2, 3}, null));
+    List<Apdu> commands = new ArrayList<>();
+    when(protocolMock.sendAndReceive(any(Apdu.class)))
+        .thenAnswer(
+            invocation -> {
+              Apdu apdu = invocation.getArgument(0);
+              commands.add(apdu);
+              Map<Integer, byte[]> request = Tlvs.decodeMap(apdu.getData());
+              int timeStep = (int) ByteBuffer.wrap(request.get(TAG_CHALLENGE)).getLong();
+              if (apdu.getIns() == OathSession.INS_CALCULATE) {
+                return truncated(timeStep).getBytes();
+              }
+              List<Tlv> response = new ArrayList<>();
+              for (String name : new String[] {"a", "60/b", "hotp", "60/c", "90/d", "60/e"}) {
+                response.add(new Tlv(TAG_NAME, name.getBytes(StandardCharsets.UTF_8)));
+                if (name.equals("hotp")) {
+                  response.add(new Tlv(0x77, new byte[] {6}));
+                } else if (name.equals("60/e")) {
+                  response.add(new Tlv(0x7c, new byte[] {6}));
+                } else {
+                  response.add(truncated(timeStep));
+                }
+              }
+              return Tlvs.encodeList(response);
+            });
+
+    long timestamp = 1_700_000_000_000L;
+    try (OathSession session = new OathSession(protocolMock, null)) {
+      CodeBatch batch = session.calculateCodeBatch(timestamp);
+      assertEquals(6, batch.size());
+      assertEquals(60, batch.getCredentials().get(1).getPeriod());
+
+      assertCode(batch.getCode(bytes("a")), timestamp, 30);
+      assertCode(batch.getCode(bytes("60/b")), timestamp, 60);
+      assertCode(batch.getCode(bytes("60/c")), timestamp, 60);
+      assertCode(batch.getCode(bytes("90/d")), timestamp, 90);
+      assertNull(batch.getCode(bytes("hotp")));
+      assertNull(batch.getCode(bytes("60/e")));
+      assertNull(batch.getCode(bytes("missing")));
+      assertEquals(batch.getCode(bytes("90/d")), batch.getCode(4));
+
+      Map<Credential, Code> map = session.calculateCodes(timestamp);
+      assertEquals(6, map.size());
+
+      // Period 30 and 90 codes have expired, period 60 codes are carried over
+      CodeBatch next = session.calculateCodeBatch(timestamp + 10_000, batch);
+      assertSame(batch.getCode(bytes("60/b")), next.getCode(bytes("60/b")));
+      assertSame(batch.getCode(bytes("60/c")), next.getCode(bytes("60/c")));
+      assertCode(next.getCode(bytes("a")), timestamp + 10_000, 30);
+      assertCode(next.getCode(bytes("90/d")), timestamp + 10_000, 90);
+    }
+
+    // CALCULATE_ALL for periods 30 and 60, CALCULATE for the single period 90 credential
+    assertEquals(OathSession.INS_CALCULATE_ALL, commands.get(0).getIns());
+    assertEquals(OathSession.INS_CALCULATE_ALL, commands.get(1).getIns());
+    assertEquals(OathSession.INS_CALCULATE, commands.get(2).getIns());
+    assertEquals(OathSession.INS_CALCULATE_ALL, commands.get(6).getIns());
+    assertEquals(OathSession.INS_CALCULATE, commands.get(7).getIns());
+    assertEquals(8, commands.size());
+  }
+
+  @Test
+  public void deriveAccessKeyUsesCache() throws Exception {
+    SmartCardProtocol protocolMock = mock(SmartCardProtocol.class);
+    when(protocolMock.select(any(byte[].class)))
+        .thenReturn(selectResponse(new Version(5, 7, 0), new byte[] {1, 2, 3}, null));
+    AccessKeyCache cache = new AccessKeyCache(4, 1, TimeUnit.MINUTES);
+
+    try (OathSession session = new OathSession(protocolMock, null)) {
+      byte[] derived = session.deriveAccessKey("password".toCharArray());
+      session.setAccessKeyCache(cache);
+      assertArrayEquals(derived, session.deriveAccessKey("password".toCharArray()));
+      assertEquals(1, cache.size());
+      assertArrayEquals(derived, session.deriveAccessKey("password".toCharArray()));
+      assertEquals(1, cache.size());
+    }
+  }
+
+  private static void assertCode(Code code, long timestamp, int period) {
+    long timeStep = timestamp / 1000 / period;
+    assertEquals(String.format("%08d", timeStep % 100000000), code.getValue());
+    assertEquals(timeStep * period * 1000, code.getValidFrom());
+    assertEquals((timeStep + 1) * period * 1000, code.getValidUntil());
+  }
+
+  private static Tlv truncated(int value) {
+    return new Tlv(0x76, ByteBuffer.allocate(5).put((byte) 8).putInt(value).array());
+  }
+
+  private static byte[] bytes(String name) {
+    return name.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private byte[] selectResponse(Version version, byte[] salt, byte @Nullable [] challenge) {
     Map<Integer, byte[]> map = new HashMap<>();
     map.put(TAG_VERSION, new byte[] {version.major, version.minor, version.micro});
     map.put(TAG_NAME, salt);
-    map.put(TAG_CHALLENGE, challenge);
+    if (challenge != null) {
+      map.put(TAG_CHALLENGE, challenge);
+    }
 
     return Tlvs.encodeMap(map);
   }
@@ -52,6 +52,7 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -140,6 +141,8 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
   private final SmartCardProtocol protocol;
   private final Version version;
   private final ApplicationRelatedData appData;
+  // Algorithm attributes per key slot, kept up to date with the changes made by this session
+  private final Map<KeyRef, AlgorithmAttributes> algorithmAttributes = new EnumMap<>(KeyRef.class);
 
   private static final Logger logger = LoggerFactory.getLogger(OpenPgpSession.class);
 
@@ -200,6 +203,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
     // Note: This value is cached!
     // Do not rely on contained information that can change!
     appData = getApplicationRelatedData();
+    cacheAlgorithmAttributes(appData);
 
     logger.debug("OpenPGP session initialized (version={})", version);
   }
@@ -253,6 +257,11 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
    */
   public void putData(int doId, byte[] data) throws ApduException, IOException {
     protocol.sendAndReceive(new Apdu(0, INS_PUT_DATA, doId >> 8, doId & 0xff, data));
+    for (KeyRef keyRef : KeyRef.values()) {
+      if (keyRef.getAlgorithmAttributes() == doId) {
+        algorithmAttributes.remove(keyRef);
+      }
+    }
     logger.debug("Wrote Data Object {}", doId);
   }
 
@@ -264,7 +273,33 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
    * @throws IOException in case of connection error
    */
   public ApplicationRelatedData getApplicationRelatedData() throws ApduException, IOException {
-    return ApplicationRelatedData.parse(getData(Do.APPLICATION_RELATED_DATA));
+    ApplicationRelatedData data =
+        ApplicationRelatedData.parse(getData(Do.APPLICATION_RELATED_DATA));
+    cacheAlgorithmAttributes(data);
+    return data;
+  }
+
+  private void cacheAlgorithmAttributes(ApplicationRelatedData data) {
+    algorithmAttributes.clear();
+    for (KeyRef keyRef : KeyRef.values()) {
+      AlgorithmAttributes attributes = data.getDiscretionary().getAlgorithmAttributes(keyRef);
+      if (attributes != null) {
+        algorithmAttributes.put(keyRef, attributes);
+      }
+    }
+  }
+
+  /**
+   * Returns the algorithm attributes of a key slot, reading them from the YubiKey only if they may
+   * have changed since last read.
+   */
+  private @Nullable AlgorithmAttributes getAlgorithmAttributes(KeyRef keyRef)
+      throws ApduException, IOException {
+    AlgorithmAttributes attributes = algorithmAttributes.get(keyRef);
+    if (attributes == null) {
+      attributes = getApplicationRelatedData().getDiscretionary().getAlgorithmAttributes(keyRef);
+    }
+    return attributes;
   }
 
   /**
@@ -493,6 +528,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
     logger.debug("Sending TERMINATE, then ACTIVATE");
     protocol.sendAndReceive(new Apdu(0, INS_TERMINATE, 0, 0, null));
     protocol.sendAndReceive(new Apdu(0, INS_ACTIVATE, 0, 0, null));
+    algorithmAttributes.clear();
     logger.info("OpenPGP application data reset performed");
   }
 
@@ -843,6 +879,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
     }
 
     putData(keyRef.getAlgorithmAttributes(), attributes.getBytes());
+    algorithmAttributes.put(keyRef, attributes);
     logger.info("Algorithm Attributes have been changed");
   }
 
@@ -1051,6 +1088,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
 
     byte[] resp =
         protocol.sendAndReceive(new Apdu(0, INS_GENERATE_ASYM, 0x80, 0x00, keyRef.getCrt()));
+    algorithmAttributes.remove(keyRef);
     if (version.isLessThan(5, 0, 0)) {
       setGenerationTime(keyRef, 0);
     }
@@ -1081,6 +1119,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
 
     byte[] resp =
         protocol.sendAndReceive(new Apdu(0, INS_GENERATE_ASYM, 0x80, 0x00, keyRef.getCrt()));
+    algorithmAttributes.remove(keyRef);
     if (version.isLessThan(5, 0, 0)) {
       setGenerationTime(keyRef, 0);
     }
@@ -1126,6 +1165,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
       templateBytes = template.getBytes();
       protocol.sendAndReceive(new Apdu(0, INS_PUT_DATA_ODD, 0x3f, 0xff, templateBytes));
     } finally {
+      algorithmAttributes.remove(keyRef);
       if (templateBytes != null) {
         Arrays.fill(templateBytes, (byte) 0);
       }
@@ -1155,8 +1195,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
     byte[] resp =
         protocol.sendAndReceive(new Apdu(0, INS_GENERATE_ASYM, 0x81, 0x00, keyRef.getCrt()));
     Map<Integer, byte[]> data = Tlvs.decodeMap(Tlvs.unpackValue(TAG_PUBLIC_KEY, resp));
-    AlgorithmAttributes attributes =
-        getApplicationRelatedData().getDiscretionary().getAlgorithmAttributes(keyRef);
+    AlgorithmAttributes attributes = getAlgorithmAttributes(keyRef);
     if (attributes instanceof AlgorithmAttributes.Ec) {
       byte[] encoded = data.get(0x86);
       OpenPgpCurve curve = ((AlgorithmAttributes.Ec) attributes).getCurve();
@@ -1202,6 +1241,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
           keyRef,
           AlgorithmAttributes.Rsa.create(2048, AlgorithmAttributes.Rsa.ImportFormat.STANDARD));
     }
+    algorithmAttributes.remove(keyRef);
     logger.info("Private key deleted for {}", keyRef);
   }
 
@@ -1228,9 +1268,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
    * @throws IOException in case of connection error
    */
   public byte[] sign(byte[] payload) throws ApduException, IOException {
-    AlgorithmAttributes attributes =
-        Objects.requireNonNull(
-            getApplicationRelatedData().getDiscretionary().getAlgorithmAttributes(KeyRef.SIG));
+    AlgorithmAttributes attributes = Objects.requireNonNull(getAlgorithmAttributes(KeyRef.SIG));
     logger.debug("Signing a message with {}", attributes);
     byte[] response = protocol.sendAndReceive(new Apdu(0, INS_PSO, 0x9e, 0x9a, payload));
     logger.info("Message signed");
@@ -1313,9 +1351,7 @@ public class OpenPgpSession extends ApplicationSession<OpenPgpSession> {
    * @throws IOException in case of connection error
    */
   public byte[] authenticate(byte[] payload) throws ApduException, IOException {
-    AlgorithmAttributes attributes =
-        Objects.requireNonNull(
-            getApplicationRelatedData().getDiscretionary().getAlgorithmAttributes(KeyRef.AUT));
+    AlgorithmAttributes attributes = Objects.requireNonNull(getAlgorithmAttributes(KeyRef.AUT));
     logger.debug("Authenticating a message with {}", attributes);
     byte[] response =
         protocol.sendAndReceive(new Apdu(0, INS_INTERNAL_AUTHENTICATE, 0x0, 0x0, payload));
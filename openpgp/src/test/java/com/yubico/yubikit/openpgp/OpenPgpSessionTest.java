@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2025 Yubico.
+ * Copyright (C) 2025-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,11 @@
 
 package com.yubico.yubikit.openpgp;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -57,6 +59,31 @@ public class OpenPgpSessionTest {
     verify(protocolMock).close();
   }
 
+  @Test
+  public void signUsesCachedAlgorithmAttributes() throws Exception {
+    SmartCardProtocol protocolMock = mock(SmartCardProtocol.class);
+    byte[] signature = new byte[] {1, 2, 3, 4};
+    when(protocolMock.sendAndReceive(any()))
+        .thenReturn(new byte[] {5, 7, 2})
+        .thenReturn(mockApplicationRelatedData())
+        .thenReturn(signature)
+        .thenReturn(signature)
+        .thenReturn(new byte[0])
+        .thenReturn(mockApplicationRelatedData())
+        .thenReturn(signature);
+
+    try (OpenPgpSession session = new OpenPgpSession(protocolMock, null)) {
+      assertArrayEquals(signature, session.sign(new byte[32]));
+      assertArrayEquals(signature, session.sign(new byte[32]));
+      verify(protocolMock, times(4)).sendAndReceive(any());
+
+      // Writing the attributes causes them to be read again
+      session.putData(Do.ALGORITHM_ATTRIBUTES_SIG, new byte[] {1, 8, 0, 0, 0x20, 0});
+      assertArrayEquals(signature, session.sign(new byte[32]));
+      verify(protocolMock, times(7)).sendAndReceive(any());
+    }
+  }
+
   private static byte[] mockApplicationRelatedData() {
     Map<Integer, byte[]> data = new HashMap<>();
     Map<Integer, byte[]> discretionary = new HashMap<>();
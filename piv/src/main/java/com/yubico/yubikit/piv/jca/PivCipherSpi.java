@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022-2025 Yubico.
+ * Copyright (C) 2022-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,7 +29,6 @@ import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
-import java.util.Map;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.CipherSpi;
@@ -42,7 +41,6 @@ import org.slf4j.LoggerFactory;
 
 public class PivCipherSpi extends CipherSpi {
   private final Callback<Callback<Result<PivSession, Exception>>> provider;
-  private final Map<KeyType, KeyPair> dummyKeys;
   private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
   @Nullable private PivPrivateKey privateKey;
   @Nullable private String mode;
@@ -51,11 +49,9 @@ public class PivCipherSpi extends CipherSpi {
 
   private static final Logger logger = LoggerFactory.getLogger(PivCipherSpi.class);
 
-  PivCipherSpi(
-      Callback<Callback<Result<PivSession, Exception>>> provider, Map<KeyType, KeyPair> dummyKeys)
+  PivCipherSpi(Callback<Callback<Result<PivSession, Exception>>> provider)
       throws NoSuchPaddingException {
     this.provider = provider;
-    this.dummyKeys = dummyKeys;
   }
 
   @Override
@@ -152,7 +148,7 @@ public class PivCipherSpi extends CipherSpi {
     }
     byte[] cipherText = buffer.toByteArray();
     try {
-      KeyPair dummy = dummyKeys.get(privateKey.keyType);
+      KeyPair dummy = RsaDummyKeys.get(privateKey.keyType);
       Cipher rawRsa = Cipher.getInstance("RSA/ECB/NoPadding");
       rawRsa.init(opmode, dummy.getPublic());
       Cipher delegate = Cipher.getInstance("RSA/" + mode + "/" + padding);
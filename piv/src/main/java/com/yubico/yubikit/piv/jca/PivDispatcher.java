@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.piv.jca;
+
+import com.yubico.yubikit.core.keys.PublicKeyValues;
+import com.yubico.yubikit.core.util.Callback;
+import com.yubico.yubikit.core.util.Result;
+import com.yubico.yubikit.piv.PivSession;
+import java.io.Closeable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues PIV key operations from any number of threads, and performs them one at a time on a single
+ * worker thread.
+ *
+ * <p>Operations are returned as {@link CompletableFuture}s. Operations which are queued while
+ * another one is running are performed back-to-back on the same PivSession, using a single request
+ * to the session requester, rather than requesting a new session for each.
+ *
+ * <p>When created from a {@link PivSigningEngine}, operations go through the engine, so that the
+ * PIN isn't verified for each operation on keys which don't require it.
+ *
+ * <p>The dispatcher can also be passed to {@link PivProvider#PivProvider(Callback)} as the session
+ * requester, in which case the JCA classes of the Provider queue their session requests through
+ * {@link #invoke(Callback)}. When created from a PivSigningEngine, their key operations are also
+ * performed through the engine.
+ *
+ * <p>Operations submitted from the worker thread, such as from within a callback given to {@link
+ * #invoke(Callback)}, are performed immediately on the session in use, as waiting for them in the
+ * queue would never complete.
+ *
+ * <p>The current queue depth and the time operations have spent waiting in the queue can be read
+ * for monitoring. Note that on Android, this class requires API level 24 or later.
+ */
+public class PivDispatcher implements Callback<Callback<Result<PivSession, Exception>>>, Closeable {
+  private final Callback<Callback<Result<PivSession, Exception>>> sessionRequester;
+  @Nullable private final PivSigningEngine engine;
+  private final BlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+  private volatile @Nullable Thread worker;
+  // The session of the batch being performed, only accessed on the worker thread
+  private @Nullable PivSession currentSession;
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "PivDispatcher");
+            thread.setDaemon(true);
+            worker = thread;
+            return thread;
+          });
+
+  private final AtomicLong completedCount = new AtomicLong();
+  private final AtomicLong sessionCount = new AtomicLong();
+  private final AtomicLong totalWaitNanos = new AtomicLong();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  private static final Logger logger = LoggerFactory.getLogger(PivDispatcher.class);
+
+  /**
+   * Creates a dispatcher which gets a PivSession from a session requester, for each batch of queued
+   * operations.
+   *
+   * @param sessionRequester a mechanism for the dispatcher to get an instance of a PivSession.
+   */
+  public PivDispatcher(Callback<Callback<Result<PivSession, Exception>>> sessionRequester) {
+    this.sessionRequester = sessionRequester;
+    this.engine = null;
+  }
+
+  /**
+   * Creates a dispatcher which performs all operations through a PivSigningEngine.
+   *
+   * @param engine the PivSigningEngine to use for YubiKey interaction.
+   */
+  public PivDispatcher(PivSigningEngine engine) {
+    this.sessionRequester = engine;
+    this.engine = engine;
+  }
+
+  /**
+   * Queues a private key operation on the given payload, either a signature of prepared (hashed and
+   * padded) data, or a raw RSA decryption.
+   *
+   * @param key the private key to use.
+   * @param payload the data to operate on.
+   * @return a future completed with the result of the operation.
+   */
+  public CompletableFuture<byte[]> rawSignOrDecrypt(PivPrivateKey key, byte[] payload) {
+    return submit(
+        (session, provider) ->
+            session != null
+                ? key.rawSignOrDecrypt(session, payload)
+                : key.rawSignOrDecrypt(provider, payload));
+  }
+
+  /**
+   * Queues an ECDH operation with a given public key.
+   *
+   * @param key the private EC or X25519 key to use.
+   * @param peerPublicKeyValues the peer public key values for the operation.
+   * @return a future completed with the shared secret.
+   */
+  public CompletableFuture<byte[]> calculateSecret(
+      PivPrivateKey key, PublicKeyValues peerPublicKeyValues) {
+    return submit(
+        (session, provider) ->
+            session != null
+                ? key.calculateSecret(session, peerPublicKeyValues)
+                : key.calculateSecret(provider, peerPublicKeyValues));
+  }
+
+  /**
+   * Queues a request for the PivSession, for operations not covered by the other methods.
+   *
+   * <p>The callback is invoked on the worker thread, and the session must not be used after it
+   * returns.
+   */
+  @Override
+  public void invoke(Callback<Result<PivSession, Exception>> callback) {
+    AtomicBoolean invoked = new AtomicBoolean();
+    CompletableFuture<byte[]> future =
+        submit(
+            (session, provider) -> {
+              invoked.set(true);
+              if (session != null) {
+                callback.invoke(Result.success(session));
+              } else {
+                provider.invoke(callback);
+              }
+              return new byte[0];
+            });
+    future.whenComplete(
+        (result, error) -> {
+          if (error instanceof Exception && !invoked.get()) {
+            // No session could be provided
+            callback.invoke(Result.failure((Exception) error));
+          }
+        });
+  }
+
+  /** Returns the number of operations currently waiting to be performed. */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  /** Returns the number of operations which have been performed. */
+  public long getCompletedCount() {
+    return completedCount.get();
+  }
+
+  /**
+   * Returns the number of times a PivSession has been requested. Compared to {@link
+   * #getCompletedCount()}, this shows how many operations have been performed back-to-back.
+   */
+  public long getSessionCount() {
+    return sessionCount.get();
+  }
+
+  /** Returns the total time, in nanoseconds, which performed operations spent in the queue. */
+  public long getTotalWaitTimeNanos() {
+    return totalWaitNanos.get();
+  }
+
+  /** Returns the longest time, in nanoseconds, which a performed operation spent in the queue. */
+  public long getMaxWaitTimeNanos() {
+    return maxWaitNanos.get();
+  }
+
+  /** Stops the worker thread. Operations which haven't started are completed exceptionally. */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    Task<?> task;
+    while ((task = queue.poll()) != null) {
+      task.fail(new IllegalStateException("PivDispatcher is closed"));
+    }
+  }
+
+  private <T> CompletableFuture<T> submit(Operation<T> operation) {
+    Task<T> task = new Task<>(operation);
+    if (Thread.currentThread() == worker) {
+      // Submitted by an operation which is running, which can't wait for the queue
+      task.run(currentSession, sessionRequester, completedCount);
+      return task.future;
+    }
+    queue.add(task);
+    try {
+      executor.execute(this::drain);
+    } catch (RejectedExecutionException e) {
+      queue.remove(task);
+      task.fail(new IllegalStateException("PivDispatcher is closed"));
+    }
+    return task.future;
+  }
+
+  private void drain() {
+    Task<?> first = queue.poll();
+    if (first == null) {
+      return; // Already performed as part of an earlier batch
+    }
+    sessionCount.incrementAndGet();
+    if (engine != null) {
+      runBatch(first, null);
+      return;
+    }
+
+    CountDownLatch done = new CountDownLatch(1);
+    sessionRequester.invoke(
+        result -> {
+          try {
+            runBatch(first, result.getValue());
+          } catch (Exception e) {
+            first.fail(e);
+          } finally {
+            done.countDown();
+          }
+        });
+    try {
+      done.await();
+    } catch (InterruptedException e) {
+      first.fail(new IllegalStateException("PivDispatcher is closed"));
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void runBatch(Task<?> first, @Nullable PivSession session) {
+    int count = 0;
+    currentSession = session;
+    try {
+      for (Task<?> task = first; task != null; task = queue.poll()) {
+        long waitNanos = System.nanoTime() - task.queuedAt;
+        totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        while (waitNanos > (max = maxWaitNanos.get())) {
+          if (maxWaitNanos.compareAndSet(max, waitNanos)) {
+            break;
+          }
+        }
+        task.run(session, sessionRequester, completedCount);
+        count++;
+      }
+    } finally {
+      currentSession = null;
+    }
+    logger.trace("Performed {} operation(s) on one session", count);
+  }
+
+  private interface Operation<T> {
+    /**
+     * Performs the operation, either on the given session, or through the PivSigningEngine
+     * (provider) if no session is given.
+     */
+    T invoke(
+        @Nullable PivSession session, Callback<Callback<Result<PivSession, Exception>>> provider)
+        throws Exception;
+  }
+
+  private static class Task<T> {
+    private final Operation<T> operation;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private final long queuedAt = System.nanoTime();
+
+    private Task(Operation<T> operation) {
+      this.operation = operation;
+    }
+
+    // Counts the operation before completing the future, for callers waiting on it
+    private void run(
+        @Nullable PivSession session,
+        Callback<Callback<Result<PivSession, Exception>>> provider,
+        AtomicLong completedCount) {
+      T result;
+      try {
+        result = operation.invoke(session, provider);
+      } catch (Throwable e) {
+        // Errors are also passed on, so that callers waiting for the result don't wait forever
+        completedCount.incrementAndGet();
+        fail(e);
+        return;
+      }
+      completedCount.incrementAndGet();
+      future.complete(result);
+    }
+
+    private void fail(Throwable e) {
+      future.completeExceptionally(e);
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022-2025 Yubico.
+ * Copyright (C) 2022-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -84,19 +84,76 @@ public abstract class PivPrivateKey implements PrivateKey, Destroyable {
     if (destroyed) {
       throw new IllegalStateException("PivPrivateKey has been destroyed");
     }
-    BlockingQueue<Result<byte[], Exception>> queue = new ArrayBlockingQueue<>(1);
-    provider.invoke(
-        result ->
-            queue.add(
-                Result.of(
-                    () -> {
-                      PivSession session = result.getValue();
-                      if (pin != null) {
-                        session.verifyPin(pin);
-                      }
-                      return session.rawSignOrDecrypt(slot, keyType, payload);
-                    })));
-    return queue.take().getValue();
+    return withSession(
+        provider,
+        session -> rawSignOrDecrypt(session, payload),
+        engine -> engine.rawSignOrDecrypt(slot, keyType, pinPolicy, pin, payload));
+  }
+
+  byte[] rawSignOrDecrypt(PivSession session, byte[] payload) throws Exception {
+    if (pin != null) {
+      session.verifyPin(pin);
+    }
+    return session.rawSignOrDecrypt(slot, keyType, payload);
+  }
+
+  byte[] calculateSecret(
+      Callback<Callback<Result<PivSession, Exception>>> provider,
+      PublicKeyValues peerPublicKeyValues)
+      throws Exception {
+    return withSession(
+        provider,
+        session -> calculateSecret(session, peerPublicKeyValues),
+        engine -> engine.calculateSecret(slot, pinPolicy, pin, peerPublicKeyValues));
+  }
+
+  byte[] calculateSecret(PivSession session, PublicKeyValues peerPublicKeyValues) throws Exception {
+    if (pin != null) {
+      session.verifyPin(pin);
+    }
+    return session.calculateSecret(slot, peerPublicKeyValues);
+  }
+
+  private static byte[] withSession(
+      Callback<Callback<Result<PivSession, Exception>>> provider,
+      SessionOperation sessionOperation,
+      EngineOperation engineOperation)
+      throws Exception {
+    KeyOperation operation = new KeyOperation(sessionOperation, engineOperation);
+    provider.invoke(operation);
+    return operation.queue.take().getValue();
+  }
+
+  private interface SessionOperation {
+    byte[] invoke(PivSession session) throws Exception;
+  }
+
+  private interface EngineOperation {
+    byte[] invoke(PivSigningEngine engine) throws Exception;
+  }
+
+  /**
+   * A session request made to perform a key operation. A PivSigningEngine receiving it, directly or
+   * through a PivDispatcher, performs the operation itself to keep track of the PIN verification.
+   */
+  static final class KeyOperation implements Callback<Result<PivSession, Exception>> {
+    private final SessionOperation sessionOperation;
+    private final EngineOperation engineOperation;
+    private final BlockingQueue<Result<byte[], Exception>> queue = new ArrayBlockingQueue<>(1);
+
+    private KeyOperation(SessionOperation sessionOperation, EngineOperation engineOperation) {
+      this.sessionOperation = sessionOperation;
+      this.engineOperation = engineOperation;
+    }
+
+    @Override
+    public void invoke(Result<PivSession, Exception> result) {
+      queue.add(Result.of(() -> sessionOperation.invoke(result.getValue())));
+    }
+
+    void invoke(PivSigningEngine engine) {
+      queue.add(Result.of(() -> engineOperation.invoke(engine)));
+    }
   }
 
   /** Get the PIV slot where the private key is stored. */
@@ -178,19 +235,7 @@ public abstract class PivPrivateKey implements PrivateKey, Destroyable {
         Callback<Callback<Result<PivSession, Exception>>> provider,
         PublicKeyValues peerPublicKeyValues)
         throws Exception {
-      BlockingQueue<Result<byte[], Exception>> queue = new ArrayBlockingQueue<>(1);
-      provider.invoke(
-          result ->
-              queue.add(
-                  Result.of(
-                      () -> {
-                        PivSession session = result.getValue();
-                        if (pin != null) {
-                          session.verifyPin(pin);
-                        }
-                        return session.calculateSecret(slot, peerPublicKeyValues);
-                      })));
-      return queue.take().getValue();
+      return calculateSecret(provider, peerPublicKeyValues);
     }
 
     @Override
@@ -244,19 +289,7 @@ public abstract class PivPrivateKey implements PrivateKey, Destroyable {
         Callback<Callback<Result<PivSession, Exception>>> provider,
         PublicKeyValues peerPublicKeyValues)
         throws Exception {
-      BlockingQueue<Result<byte[], Exception>> queue = new ArrayBlockingQueue<>(1);
-      provider.invoke(
-          result ->
-              queue.add(
-                  Result.of(
-                      () -> {
-                        PivSession session = result.getValue();
-                        if (pin != null) {
-                          session.verifyPin(pin);
-                        }
-                        return session.calculateSecret(slot, peerPublicKeyValues);
-                      })));
-      return queue.take().getValue();
+      return calculateSecret(provider, peerPublicKeyValues);
     }
   }
 }
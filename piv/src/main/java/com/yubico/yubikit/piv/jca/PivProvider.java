@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022-2025 Yubico.
+ * Copyright (C) 2022-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,15 +18,11 @@ package com.yubico.yubikit.piv.jca;
 
 import com.yubico.yubikit.core.util.Callback;
 import com.yubico.yubikit.core.util.Result;
-import com.yubico.yubikit.piv.KeyType;
 import com.yubico.yubikit.piv.PivSession;
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
 import java.security.Provider;
 import java.security.Security;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,7 +42,6 @@ public class PivProvider extends Provider {
       Collections.singletonMap("SupportedKeyClasses", PivPrivateKey.X25519Key.class.getName());
 
   private final Callback<Callback<Result<PivSession, Exception>>> sessionRequester;
-  private final Map<KeyType, KeyPair> rsaDummyKeys = new HashMap<>();
 
   private static final Logger logger = LoggerFactory.getLogger(PivProvider.class);
 
@@ -65,6 +60,10 @@ public class PivProvider extends Provider {
    * Creates a Security Provider capable of using a PivSession with a YubiKey to perform key
    * operations.
    *
+   * <p>A {@link PivSigningEngine} can be used as the sessionRequester, to keep using the same
+   * PivSession without verifying the PIN for each operation on keys which don't require it. A
+   * {@link PivDispatcher} can be used to queue operations from multiple threads on one worker.
+   *
    * @param sessionRequester a mechanism for the Provider to get an instance of a PivSession.
    */
   @SuppressWarnings("deprecation") // Provider(String, double, String) is deprecated from Java 9
@@ -118,21 +117,10 @@ public class PivProvider extends Provider {
           }
         });
 
-    try {
-      KeyPairGenerator rsaGen = KeyPairGenerator.getInstance("RSA");
-      long start = System.currentTimeMillis();
-      for (KeyType keyType :
-          new KeyType[] {KeyType.RSA1024, KeyType.RSA2048, KeyType.RSA3072, KeyType.RSA4096}) {
-        // TODO: import static keys to avoid slow generation?
-        rsaGen.initialize(keyType.params.bitLength);
-        rsaDummyKeys.put(keyType, rsaGen.generateKeyPair());
-      }
-      long end = System.currentTimeMillis();
-      logger.debug("Time taken to generate dummy RSA keys: {}ms", (end - start));
-
+    // RSA dummy keys are generated when first used
+    boolean rsaSupported = RsaDummyKeys.isSupported();
+    if (rsaSupported) {
       putService(new PivRsaCipherService());
-    } catch (NoSuchAlgorithmException e) {
-      logger.error("Unable to support RSA, no underlying Provider with RSA capability", e);
     }
 
     Set<String> digests = Security.getAlgorithms("MessageDigest");
@@ -147,9 +135,9 @@ public class PivProvider extends Provider {
         if (digests.contains(digest)) {
           putService(new PivEcSignatureService(signature, digest, null));
         }
-      } else if (!rsaDummyKeys.isEmpty() && signature.endsWith("WITHRSA")) {
+      } else if (rsaSupported && signature.endsWith("WITHRSA")) {
         putService(new PivRsaSignatureService(signature));
-      } else if (!rsaDummyKeys.isEmpty() && signature.endsWith("PSS")) {
+      } else if (rsaSupported && signature.endsWith("PSS")) {
         putService(new PivRsaSignatureService(signature));
       } else if (signature.equals("ECDSA")) {
         putService(
@@ -242,7 +230,7 @@ public class PivProvider extends Provider {
     @Override
     public Object newInstance(Object constructorParameter) throws NoSuchAlgorithmException {
       try {
-        return new PivRsaSignatureSpi(sessionRequester, rsaDummyKeys, getAlgorithm());
+        return new PivRsaSignatureSpi(sessionRequester, getAlgorithm());
       } catch (NoSuchPaddingException e) {
         throw new NoSuchAlgorithmException(
             "No underlying Provider supporting " + getAlgorithm() + " available.");
@@ -258,7 +246,7 @@ public class PivProvider extends Provider {
     @Override
     public Object newInstance(Object constructorParameter) throws NoSuchAlgorithmException {
       try {
-        return new PivCipherSpi(sessionRequester, rsaDummyKeys);
+        return new PivCipherSpi(sessionRequester);
       } catch (NoSuchPaddingException e) {
         throw new NoSuchAlgorithmException(e);
       }
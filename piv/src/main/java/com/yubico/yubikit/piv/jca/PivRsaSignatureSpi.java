@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022-2025 Yubico.
+ * Copyright (C) 2022-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,27 +32,21 @@ import java.security.Signature;
 import java.security.SignatureException;
 import java.security.SignatureSpi;
 import java.security.spec.AlgorithmParameterSpec;
-import java.util.Map;
 import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
 import org.jspecify.annotations.Nullable;
 
 public class PivRsaSignatureSpi extends SignatureSpi {
   private final Callback<Callback<Result<PivSession, Exception>>> provider;
-  private final Map<KeyType, KeyPair> dummyKeys;
   private final String signature;
 
   private PivPrivateKey.@Nullable RsaKey privateKey;
 
   @Nullable private Signature delegate;
 
-  PivRsaSignatureSpi(
-      Callback<Callback<Result<PivSession, Exception>>> provider,
-      Map<KeyType, KeyPair> dummyKeys,
-      String signature)
+  PivRsaSignatureSpi(Callback<Callback<Result<PivSession, Exception>>> provider, String signature)
       throws NoSuchPaddingException {
     this.provider = provider;
-    this.dummyKeys = dummyKeys;
     this.signature = signature;
   }
 
@@ -64,7 +58,7 @@ public class PivRsaSignatureSpi extends SignatureSpi {
       if (init) {
         try {
           // Key size may be wrong, but that will get fixes once initSign is called.
-          delegate.initSign(dummyKeys.get(KeyType.RSA2048).getPrivate());
+          delegate.initSign(RsaDummyKeys.get(KeyType.RSA2048).getPrivate());
         } catch (InvalidKeyException e) {
           throw new NoSuchAlgorithmException();
         }
@@ -82,7 +76,7 @@ public class PivRsaSignatureSpi extends SignatureSpi {
   protected void engineInitSign(PrivateKey privateKey) throws InvalidKeyException {
     if (privateKey instanceof PivPrivateKey.RsaKey) {
       this.privateKey = (PivPrivateKey.RsaKey) privateKey;
-      KeyPair dummyPair = dummyKeys.get(this.privateKey.keyType);
+      KeyPair dummyPair = RsaDummyKeys.get(this.privateKey.keyType);
       try {
         getDelegate(false).initSign(dummyPair.getPrivate());
       } catch (NoSuchAlgorithmException e) {
@@ -118,7 +112,7 @@ public class PivRsaSignatureSpi extends SignatureSpi {
     }
     try {
       Cipher rawRsa = Cipher.getInstance("RSA/ECB/NoPadding");
-      rawRsa.init(Cipher.ENCRYPT_MODE, dummyKeys.get(this.privateKey.keyType).getPublic());
+      rawRsa.init(Cipher.ENCRYPT_MODE, RsaDummyKeys.get(this.privateKey.keyType).getPublic());
       byte[] padded = rawRsa.doFinal(delegate.sign());
       return privateKey.rawSignOrDecrypt(provider, padded);
     } catch (Exception e) {
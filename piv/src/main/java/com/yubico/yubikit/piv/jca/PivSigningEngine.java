@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.piv.jca;
+
+import com.yubico.yubikit.core.keys.PublicKeyValues;
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.SW;
+import com.yubico.yubikit.core.util.Callback;
+import com.yubico.yubikit.core.util.Result;
+import com.yubico.yubikit.piv.KeyType;
+import com.yubico.yubikit.piv.PinPolicy;
+import com.yubico.yubikit.piv.PivSession;
+import com.yubico.yubikit.piv.Slot;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Performs private key operations using a single, long-lived PivSession, keeping track of when the
+ * PIN needs to be verified.
+ *
+ * <p>The PIN policy of each slot is read from the YubiKey using slot metadata (YubiKey 5.3 or
+ * later), or taken from the key, and cached. Keys with a PIN policy of {@link PinPolicy#ONCE} (or
+ * {@link PinPolicy#MATCH_ONCE}) only need the PIN to be verified once, after which subsequent
+ * operations given the same PIN are performed without verifying it again. The engine keeps a salted
+ * hash of the verified PIN to compare with, and verifies any other PIN given. If the YubiKey
+ * responds to an operation with {@link SW#SECURITY_CONDITION_NOT_SATISFIED}, showing that the
+ * verification was lost, the PIN is verified again and the operation retried once. Keys with a PIN
+ * policy of {@link PinPolicy#ALWAYS}, or with an unknown PIN policy, get the PIN verified before
+ * each operation, while keys with a PIN policy of {@link PinPolicy#NEVER} never do.
+ *
+ * <p>The engine can be passed to {@link PivProvider#PivProvider(Callback)} as the session
+ * requester, in which case all keys used with the Provider go through it. All operations are
+ * serialized on the engine.
+ */
+public class PivSigningEngine
+    implements Callback<Callback<Result<PivSession, Exception>>>, Closeable {
+  private final PivSession session;
+  private final Map<Slot, PinPolicy> pinPolicies = new EnumMap<>(Slot.class);
+  private final byte[] salt = new byte[16];
+  // Salted hash of the PIN last verified, or null if the PIN is not known to be verified
+  private byte @Nullable [] verifiedPinHash;
+
+  private static final Logger logger = LoggerFactory.getLogger(PivSigningEngine.class);
+
+  /**
+   * Creates a new engine using the given PivSession.
+   *
+   * <p>The engine takes ownership of the session, which is closed when the engine is closed. The
+   * session should not be used directly while the engine is in use.
+   *
+   * @param session A PivSession to use for YubiKey interaction.
+   */
+  public PivSigningEngine(PivSession session) {
+    this.session = session;
+    new SecureRandom().nextBytes(salt);
+  }
+
+  /**
+   * Gives access to the PivSession, for operations not handled by the engine.
+   *
+   * <p>As the PIN verification state and the keys of the session may be changed by the callback,
+   * both are read again afterwards. Key operations requested by the JCA classes of a {@link
+   * PivProvider} are instead performed by the engine itself.
+   */
+  @Override
+  public synchronized void invoke(Callback<Result<PivSession, Exception>> callback) {
+    if (callback instanceof PivPrivateKey.KeyOperation) {
+      ((PivPrivateKey.KeyOperation) callback).invoke(this);
+      return;
+    }
+    clearVerifiedPin();
+    pinPolicies.clear();
+    callback.invoke(Result.success(session));
+  }
+
+  /**
+   * Performs a private key operation on the given payload, verifying the PIN first if needed.
+   *
+   * @param slot the slot containing the private key to use
+   * @param keyType the type of the key stored in the slot
+   * @param payload the data to operate on
+   * @param pin the PIN to verify, or null if the key doesn't require one
+   * @return the result of the operation
+   * @throws Exception in case of an error from the YubiKey
+   * @see PivSession#rawSignOrDecrypt(Slot, KeyType, byte[])
+   */
+  public byte[] rawSignOrDecrypt(Slot slot, KeyType keyType, byte[] payload, char @Nullable [] pin)
+      throws Exception {
+    return rawSignOrDecrypt(slot, keyType, null, pin, payload);
+  }
+
+  /**
+   * Performs an ECDH operation with a given public key, verifying the PIN first if needed.
+   *
+   * @param slot the slot containing the private key to use
+   * @param peerPublicKeyValues the peer public key values for the operation
+   * @param pin the PIN to verify, or null if the key doesn't require one
+   * @return the shared secret
+   * @throws Exception in case of an error from the YubiKey
+   * @see PivSession#calculateSecret(Slot, PublicKeyValues)
+   */
+  public byte[] calculateSecret(
+      Slot slot, PublicKeyValues peerPublicKeyValues, char @Nullable [] pin) throws Exception {
+    return calculateSecret(slot, null, pin, peerPublicKeyValues);
+  }
+
+  /**
+   * Forgets that the PIN has been verified, so that it is verified again before the next operation
+   * requiring it.
+   */
+  public synchronized void clearPinVerified() {
+    clearVerifiedPin();
+  }
+
+  /** Closes the underlying PivSession. */
+  @Override
+  public synchronized void close() throws IOException {
+    clearVerifiedPin();
+    pinPolicies.clear();
+    session.close();
+  }
+
+  byte[] rawSignOrDecrypt(
+      Slot slot,
+      KeyType keyType,
+      @Nullable PinPolicy pinPolicy,
+      char @Nullable [] pin,
+      byte[] payload)
+      throws Exception {
+    return withPin(slot, pinPolicy, pin, () -> session.rawSignOrDecrypt(slot, keyType, payload));
+  }
+
+  byte[] calculateSecret(
+      Slot slot,
+      @Nullable PinPolicy pinPolicy,
+      char @Nullable [] pin,
+      PublicKeyValues peerPublicKeyValues)
+      throws Exception {
+    return withPin(slot, pinPolicy, pin, () -> session.calculateSecret(slot, peerPublicKeyValues));
+  }
+
+  private synchronized byte[] withPin(
+      Slot slot, @Nullable PinPolicy keyPinPolicy, char @Nullable [] pin, Operation operation)
+      throws Exception {
+    PinPolicy pinPolicy = pin != null ? getPinPolicy(slot, keyPinPolicy) : PinPolicy.NEVER;
+    if (pin == null || pinPolicy == PinPolicy.NEVER) {
+      return operation.invoke();
+    }
+
+    boolean verifyOnce = pinPolicy == PinPolicy.ONCE || pinPolicy == PinPolicy.MATCH_ONCE;
+    byte[] pinHash = hashPin(pin);
+    try {
+      byte[] verified = verifiedPinHash;
+      boolean skippedVerify =
+          verifyOnce && verified != null && MessageDigest.isEqual(pinHash, verified);
+      if (!skippedVerify) {
+        verifyPin(pin);
+      }
+      try {
+        byte[] result = operation.invoke();
+        // The PIN verification is consumed by the operation unless the policy is ONCE
+        if (verifyOnce && !skippedVerify) {
+          verifiedPinHash = Arrays.copyOf(pinHash, pinHash.length);
+        } else if (!verifyOnce) {
+          clearVerifiedPin();
+        }
+        return result;
+      } catch (ApduException e) {
+        clearVerifiedPin();
+        if (skippedVerify && e.getSw() == SW.SECURITY_CONDITION_NOT_SATISFIED) {
+          logger.debug("PIN verification lost, verifying PIN again for slot {}", slot);
+          verifyPin(pin);
+          byte[] result = operation.invoke();
+          verifiedPinHash = Arrays.copyOf(pinHash, pinHash.length);
+          return result;
+        }
+        throw e;
+      }
+    } finally {
+      Arrays.fill(pinHash, (byte) 0);
+    }
+  }
+
+  private void verifyPin(char[] pin) throws Exception {
+    clearVerifiedPin();
+    session.verifyPin(pin);
+  }
+
+  private void clearVerifiedPin() {
+    if (verifiedPinHash != null) {
+      Arrays.fill(verifiedPinHash, (byte) 0);
+      verifiedPinHash = null;
+    }
+  }
+
+  private byte[] hashPin(char[] pin) {
+    ByteBuffer pinBytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(pin));
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(salt);
+      digest.update(pinBytes);
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      Arrays.fill(pinBytes.array(), (byte) 0);
+    }
+  }
+
+  private PinPolicy getPinPolicy(Slot slot, @Nullable PinPolicy keyPinPolicy) throws Exception {
+    PinPolicy pinPolicy = pinPolicies.get(slot);
+    if (pinPolicy == null) {
+      if (keyPinPolicy != null && keyPinPolicy != PinPolicy.DEFAULT) {
+        pinPolicy = keyPinPolicy;
+      } else if (session.supports(PivSession.FEATURE_METADATA)) {
+        pinPolicy = session.getSlotMetadata(slot).getPinPolicy();
+      } else {
+        // Without metadata the actual policy is unknown, verify the PIN for each operation
+        pinPolicy = PinPolicy.ALWAYS;
+      }
+      if (pinPolicy == PinPolicy.DEFAULT) {
+        pinPolicy = slot == Slot.SIGNATURE ? PinPolicy.ALWAYS : PinPolicy.ONCE;
+      }
+      logger.debug("Using PIN policy {} for slot {}", pinPolicy, slot);
+      pinPolicies.put(slot, pinPolicy);
+    }
+    return pinPolicy;
+  }
+
+  private interface Operation {
+    byte[] invoke() throws Exception;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.piv.jca;
+
+import com.yubico.yubikit.piv.KeyType;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * RSA key pairs used together with the underlying JCA Providers to add and remove padding for RSA
+ * keys stored on a YubiKey. The keys are never used to protect any data, any key of the right size
+ * will do.
+ *
+ * <p>Generating RSA keys is slow, so each key size is only generated when first needed, and then
+ * shared by all PivProvider instances.
+ */
+final class RsaDummyKeys {
+  private static final Map<KeyType, KeyPair> keys = new EnumMap<>(KeyType.class);
+
+  private static final Logger logger = LoggerFactory.getLogger(RsaDummyKeys.class);
+
+  private RsaDummyKeys() {}
+
+  /** Checks that an underlying Provider is able to generate RSA keys. */
+  static boolean isSupported() {
+    try {
+      KeyPairGenerator.getInstance("RSA");
+      return true;
+    } catch (NoSuchAlgorithmException e) {
+      logger.error("Unable to support RSA, no underlying Provider with RSA capability", e);
+      return false;
+    }
+  }
+
+  /**
+   * Gets the dummy key pair for an RSA key type, generating it if needed.
+   *
+   * @param keyType an RSA key type.
+   * @return a key pair of the same size as keyType.
+   */
+  static KeyPair get(KeyType keyType) {
+    synchronized (keys) {
+      KeyPair keyPair = keys.get(keyType);
+      if (keyPair == null) {
+        long start = System.currentTimeMillis();
+        try {
+          KeyPairGenerator rsaGen = KeyPairGenerator.getInstance("RSA");
+          rsaGen.initialize(keyType.params.bitLength);
+          keyPair = rsaGen.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+          throw new IllegalStateException(e); // Checked by isSupported
+        }
+        logger.debug(
+            "Time taken to generate dummy {} key: {}ms",
+            keyType,
+            System.currentTimeMillis() - start);
+        keys.put(keyType, keyPair);
+      }
+      return keyPair;
+    }
+  }
+}
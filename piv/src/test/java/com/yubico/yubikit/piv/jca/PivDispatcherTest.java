@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.piv.jca;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.SW;
+import com.yubico.yubikit.core.util.Callback;
+import com.yubico.yubikit.core.util.Result;
+import com.yubico.yubikit.piv.PinPolicy;
+import com.yubico.yubikit.piv.PivSession;
+import com.yubico.yubikit.piv.Slot;
+import java.io.IOException;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class PivDispatcherTest {
+  private static final char[] PIN = "123456".toCharArray();
+  private static final byte[] SIGNATURE = {1, 2, 3};
+
+  @Test
+  public void testQueuedOperationsShareSession() throws Exception {
+    PivSession session = mock(PivSession.class);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(session.rawSignOrDecrypt(any(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              started.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return SIGNATURE;
+            })
+        .thenReturn(SIGNATURE);
+    AtomicInteger requests = new AtomicInteger();
+    PivPrivateKey key = ecKey(null);
+
+    try (PivDispatcher dispatcher =
+        new PivDispatcher(
+            callback -> {
+              requests.incrementAndGet();
+              callback.invoke(Result.success(session));
+            })) {
+      List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+      futures.add(dispatcher.rawSignOrDecrypt(key, new byte[32]));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      for (int i = 0; i < 4; i++) {
+        futures.add(dispatcher.rawSignOrDecrypt(key, new byte[32]));
+      }
+      assertEquals(4, dispatcher.getQueueDepth());
+      release.countDown();
+
+      for (CompletableFuture<byte[]> future : futures) {
+        assertArrayEquals(SIGNATURE, future.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(0, dispatcher.getQueueDepth());
+      assertEquals(5, dispatcher.getCompletedCount());
+      assertEquals(1, dispatcher.getSessionCount());
+      assertEquals(1, requests.get());
+      assertTrue(dispatcher.getMaxWaitTimeNanos() > 0);
+      assertTrue(dispatcher.getTotalWaitTimeNanos() >= dispatcher.getMaxWaitTimeNanos());
+    }
+    verify(session, times(5)).verifyPin(PIN);
+  }
+
+  @Test
+  public void testOperationFailure() throws Exception {
+    PivSession session = mock(PivSession.class);
+    ApduException error = new ApduException(new byte[0], SW.REFERENCED_DATA_NOT_FOUND);
+    when(session.rawSignOrDecrypt(any(), any(), any())).thenThrow(error);
+    try (PivDispatcher dispatcher =
+        new PivDispatcher(callback -> callback.invoke(Result.success(session)))) {
+      try {
+        await(dispatcher.rawSignOrDecrypt(ecKey(null), new byte[32]));
+        fail("Expected ApduException");
+      } catch (ApduException e) {
+        assertSame(error, e);
+      }
+    }
+  }
+
+  @Test
+  public void testSessionRequestFailure() throws Exception {
+    IOException error = new IOException("No YubiKey");
+    try (PivDispatcher dispatcher =
+        new PivDispatcher(callback -> callback.invoke(Result.failure(error)))) {
+      try {
+        await(dispatcher.rawSignOrDecrypt(ecKey(null), new byte[32]));
+        fail("Expected IOException");
+      } catch (IOException e) {
+        assertSame(error, e);
+      }
+
+      CompletableFuture<Exception> sessionError = new CompletableFuture<>();
+      Callback<Result<PivSession, Exception>> callback =
+          result -> {
+            try {
+              result.getValue();
+            } catch (Exception e) {
+              sessionError.complete(e);
+            }
+          };
+      dispatcher.invoke(callback);
+      assertSame(error, sessionError.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testUsesSigningEngine() throws Exception {
+    PivSession session = mock(PivSession.class);
+    when(session.rawSignOrDecrypt(any(), any(), any())).thenReturn(SIGNATURE);
+    PivPrivateKey key = ecKey(PinPolicy.ONCE);
+    try (PivDispatcher dispatcher = new PivDispatcher(new PivSigningEngine(session))) {
+      List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        futures.add(dispatcher.rawSignOrDecrypt(key, new byte[32]));
+      }
+      for (CompletableFuture<byte[]> future : futures) {
+        assertArrayEquals(SIGNATURE, future.get(5, TimeUnit.SECONDS));
+      }
+
+      // Given to the key as the session requester, the operation also goes through the engine
+      assertArrayEquals(SIGNATURE, key.rawSignOrDecrypt(dispatcher, new byte[32]));
+      assertArrayEquals(SIGNATURE, await(dispatcher.rawSignOrDecrypt(key, new byte[32])));
+    }
+    verify(session, times(1)).verifyPin(PIN);
+    verify(session, times(7)).rawSignOrDecrypt(any(), any(), any());
+  }
+
+  @Test
+  public void testOperationsFromWorkerRunInline() throws Exception {
+    PivSession session = mock(PivSession.class);
+    when(session.rawSignOrDecrypt(any(), any(), any())).thenReturn(SIGNATURE);
+    AtomicInteger requests = new AtomicInteger();
+    PivPrivateKey key = ecKey(null);
+    try (PivDispatcher dispatcher =
+        new PivDispatcher(
+            callback -> {
+              requests.incrementAndGet();
+              callback.invoke(Result.success(session));
+            })) {
+      CompletableFuture<byte[]> nested = new CompletableFuture<>();
+      dispatcher.invoke(
+          result -> {
+            try {
+              // A JCA operation made from within a callback, on the worker thread
+              nested.complete(key.rawSignOrDecrypt(dispatcher, new byte[32]));
+            } catch (Exception e) {
+              nested.completeExceptionally(e);
+            }
+          });
+      assertArrayEquals(SIGNATURE, nested.get(5, TimeUnit.SECONDS));
+      assertEquals(1, requests.get());
+      verify(session).rawSignOrDecrypt(any(), any(), any());
+    }
+  }
+
+  @Test
+  public void testErrorCompletesFuture() throws Exception {
+    PivSession session = mock(PivSession.class);
+    AssertionError error = new AssertionError("Failed");
+    when(session.rawSignOrDecrypt(any(), any(), any())).thenThrow(error).thenReturn(SIGNATURE);
+    try (PivDispatcher dispatcher =
+        new PivDispatcher(callback -> callback.invoke(Result.success(session)))) {
+      try {
+        dispatcher.rawSignOrDecrypt(ecKey(null), new byte[32]).get(5, TimeUnit.SECONDS);
+        fail("Expected ExecutionException");
+      } catch (ExecutionException e) {
+        assertSame(error, e.getCause());
+      }
+      // The worker keeps running
+      assertArrayEquals(SIGNATURE, await(dispatcher.rawSignOrDecrypt(ecKey(null), new byte[32])));
+    }
+  }
+
+  @Test
+  public void testClosed() throws Exception {
+    PivDispatcher dispatcher = new PivDispatcher(callback -> {});
+    dispatcher.close();
+    try {
+      await(dispatcher.rawSignOrDecrypt(ecKey(null), new byte[32]));
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+  }
+
+  private static <T> T await(CompletableFuture<T> future) throws Exception {
+    try {
+      return future.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      throw (Exception) e.getCause();
+    }
+  }
+
+  private static PivPrivateKey ecKey(PinPolicy pinPolicy) throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(256);
+    PublicKey publicKey = generator.generateKeyPair().getPublic();
+    return PivPrivateKey.from(publicKey, Slot.AUTHENTICATION, pinPolicy, null, PIN);
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.piv.jca;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yubico.yubikit.core.application.InvalidPinException;
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.SW;
+import com.yubico.yubikit.piv.KeyType;
+import com.yubico.yubikit.piv.PinPolicy;
+import com.yubico.yubikit.piv.PivSession;
+import com.yubico.yubikit.piv.Slot;
+import com.yubico.yubikit.piv.SlotMetadata;
+import com.yubico.yubikit.piv.TouchPolicy;
+import org.junit.Test;
+
+public class PivSigningEngineTest {
+  private static final char[] PIN = "123456".toCharArray();
+  private static final byte[] PAYLOAD = new byte[32];
+  private static final byte[] SIGNATURE = {1, 2, 3};
+
+  @Test
+  public void testPinPolicyOnceVerifiesOnce() throws Exception {
+    PivSession session = mockSession(PinPolicy.ONCE);
+    PivSigningEngine engine = new PivSigningEngine(session);
+    for (int i = 0; i < 3; i++) {
+      assertArrayEquals(
+          SIGNATURE, engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN));
+    }
+    verify(session, times(1)).verifyPin(PIN);
+    verify(session, times(1)).getSlotMetadata(Slot.AUTHENTICATION);
+    verify(session, times(3)).rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD);
+  }
+
+  @Test
+  public void testWrongPinFailsAfterVerification() throws Exception {
+    char[] wrongPin = "654321".toCharArray();
+    PivSession session = mockSession(PinPolicy.ONCE);
+    doThrow(new InvalidPinException(2)).when(session).verifyPin(wrongPin);
+    PivSigningEngine engine = new PivSigningEngine(session);
+
+    engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+    try {
+      engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, wrongPin);
+      fail("Expected InvalidPinException");
+    } catch (InvalidPinException e) {
+      assertEquals(2, e.getAttemptsRemaining());
+    }
+    verify(session, times(1)).rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD);
+
+    // The failed verification also reset the verified state on the YubiKey
+    engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+    verify(session, times(2)).verifyPin(PIN);
+  }
+
+  @Test
+  public void testPinPolicyAlwaysVerifiesEachTime() throws Exception {
+    PivSession session = mockSession(PinPolicy.ALWAYS);
+    PivSigningEngine engine = new PivSigningEngine(session);
+    for (int i = 0; i < 3; i++) {
+      engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+    }
+    verify(session, times(3)).verifyPin(PIN);
+  }
+
+  @Test
+  public void testPinPolicyNeverDoesNotVerify() throws Exception {
+    PivSession session = mockSession(PinPolicy.NEVER);
+    PivSigningEngine engine = new PivSigningEngine(session);
+    engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+    verify(session, never()).verifyPin(any());
+  }
+
+  @Test
+  public void testDefaultPolicyWithoutMetadata() throws Exception {
+    PivSession session = mockSession(null);
+    PivSigningEngine engine = new PivSigningEngine(session);
+
+    // Without metadata the PIN is verified for each operation
+    engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+    engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+    verify(session, times(2)).verifyPin(PIN);
+
+    // The PIN policy of the key is used when known
+    engine.rawSignOrDecrypt(Slot.KEY_MANAGEMENT, KeyType.ECCP256, PinPolicy.ONCE, PIN, PAYLOAD);
+    engine.rawSignOrDecrypt(Slot.KEY_MANAGEMENT, KeyType.ECCP256, PinPolicy.ONCE, PIN, PAYLOAD);
+    verify(session, times(3)).verifyPin(PIN);
+
+    // DEFAULT resolves to ALWAYS for the signature slot
+    engine.rawSignOrDecrypt(Slot.SIGNATURE, KeyType.ECCP256, PinPolicy.DEFAULT, PIN, PAYLOAD);
+    engine.rawSignOrDecrypt(Slot.SIGNATURE, KeyType.ECCP256, PinPolicy.DEFAULT, PIN, PAYLOAD);
+    verify(session, times(5)).verifyPin(PIN);
+  }
+
+  @Test
+  public void testReverifiesWhenVerificationLost() throws Exception {
+    PivSession session = mockSession(PinPolicy.ONCE);
+    when(session.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD))
+        .thenReturn(SIGNATURE)
+        .thenThrow(new ApduException(new byte[0], SW.SECURITY_CONDITION_NOT_SATISFIED))
+        .thenReturn(SIGNATURE);
+    PivSigningEngine engine = new PivSigningEngine(session);
+
+    engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+    assertArrayEquals(
+        SIGNATURE, engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN));
+    verify(session, times(2)).verifyPin(PIN);
+    verify(session, times(3)).rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD);
+  }
+
+  @Test
+  public void testOtherErrorsAreNotRetried() throws Exception {
+    PivSession session = mockSession(PinPolicy.ONCE);
+    when(session.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD))
+        .thenThrow(new ApduException(new byte[0], SW.REFERENCED_DATA_NOT_FOUND));
+    PivSigningEngine engine = new PivSigningEngine(session);
+    try {
+      engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+      fail("Expected ApduException");
+    } catch (ApduException e) {
+      assertEquals(SW.REFERENCED_DATA_NOT_FOUND, e.getSw());
+    }
+    verify(session, times(1)).rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD);
+  }
+
+  @Test
+  public void testSessionAccessResetsState() throws Exception {
+    PivSession session = mockSession(PinPolicy.ONCE);
+    PivSigningEngine engine = new PivSigningEngine(session);
+    engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+    engine.invoke(result -> {});
+    engine.rawSignOrDecrypt(Slot.AUTHENTICATION, KeyType.ECCP256, PAYLOAD, PIN);
+    verify(session, times(2)).verifyPin(PIN);
+    verify(session, times(2)).getSlotMetadata(Slot.AUTHENTICATION);
+
+    engine.close();
+    verify(session).close();
+  }
+
+  private static PivSession mockSession(PinPolicy pinPolicy) throws Exception {
+    PivSession session = mock(PivSession.class);
+    when(session.supports(PivSession.FEATURE_METADATA)).thenReturn(pinPolicy != null);
+    if (pinPolicy != null) {
+      when(session.getSlotMetadata(any()))
+          .thenReturn(
+              new SlotMetadata(
+                  KeyType.ECCP256, pinPolicy, TouchPolicy.NEVER, true, new byte[] {0x04}));
+    }
+    when(session.rawSignOrDecrypt(any(), any(), any())).thenReturn(SIGNATURE);
+    return session;
+  }
+}
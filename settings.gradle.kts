@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2025 Yubico.
+ * Copyright (C) 2025-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,8 +33,9 @@ dependencyResolutionManagement {
 }
 
 include("core", "oath", "yubiotp", "management", "piv", "openpgp", "support", "fido")
-include("testing")
+include("testing", "testing-simulator")
 include("android", "AndroidDemo", "testing-android")
 include("desktop", "DesktopDemo", "testing-desktop")
 include("fido-android-ui")
+include("benchmarks")
 
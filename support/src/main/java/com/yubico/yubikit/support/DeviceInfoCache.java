@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.support;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.UsbPid;
+import com.yubico.yubikit.core.Version;
+import com.yubico.yubikit.management.DeviceConfig;
+import com.yubico.yubikit.management.DeviceInfo;
+import com.yubico.yubikit.management.FormFactor;
+import com.yubico.yubikit.management.VersionQualifier;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of DeviceInfo, keyed by the serial number of the YubiKey, used by {@link
+ * DeviceUtil#readInfo(com.yubico.yubikit.core.YubiKeyConnection, UsbPid, DeviceInfoCache)} to avoid
+ * reading the full DeviceInfo each time a known YubiKey is connected.
+ *
+ * <p>A cached DeviceInfo is only used if the firmware version of the YubiKey, and the USB product
+ * ID it was read with, are unchanged. The cache can optionally be persisted to a file, so that it
+ * can be used across runs of an application.
+ *
+ * <p>The cache can not detect changes made to the configuration of a YubiKey. Applications must
+ * call {@link #invalidate(int)} after calling {@code ManagementSession.updateDeviceConfig} or
+ * {@code ManagementSession.deviceReset}, or if the YubiKey may have been reconfigured by other
+ * means.
+ */
+public class DeviceInfoCache {
+  private static final int FORMAT_VERSION = 1;
+
+  private final @Nullable File file;
+  private final Map<Key, DeviceInfo> entries = new LinkedHashMap<>();
+
+  private static final Logger logger = LoggerFactory.getLogger(DeviceInfoCache.class);
+
+  /** Create a new, empty cache held in memory only. */
+  public DeviceInfoCache() {
+    this.file = null;
+  }
+
+  /**
+   * Create a cache persisted to a file. Entries are loaded from the file if it exists, and the file
+   * is rewritten each time the cache is modified. An unreadable file is ignored.
+   *
+   * @param file the file to persist the cache to
+   */
+  public DeviceInfoCache(File file) {
+    this.file = file;
+    if (file.exists()) {
+      try (DataInputStream input =
+          new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+        read(input);
+      } catch (IOException | IllegalArgumentException e) {
+        logger.warn("Ignoring unreadable DeviceInfo cache {}", file, e);
+        entries.clear();
+      }
+    }
+  }
+
+  /**
+   * Returns the DeviceInfo cached for a YubiKey.
+   *
+   * @param serial the serial number of the YubiKey
+   * @param version the firmware version of the YubiKey
+   * @param pid the USB product ID of the YubiKey, or null if not connected over USB
+   * @return the cached DeviceInfo, or null if there is none for the given serial number and version
+   */
+  public synchronized @Nullable DeviceInfo get(int serial, Version version, @Nullable UsbPid pid) {
+    DeviceInfo info = entries.get(new Key(serial, pid));
+    if (info != null && !info.getVersion().equals(version)) {
+      return null;
+    }
+    return info;
+  }
+
+  /**
+   * Caches DeviceInfo read from a YubiKey. DeviceInfo without a serial number is not cached.
+   *
+   * @param info the DeviceInfo, as returned by {@link DeviceUtil#readInfo}
+   * @param pid the USB product ID used to read the DeviceInfo, or null if not connected over USB
+   */
+  public synchronized void put(DeviceInfo info, @Nullable UsbPid pid) {
+    Integer serial = info.getSerialNumber();
+    if (serial == null) {
+      return;
+    }
+    if (!info.equals(entries.put(new Key(serial, pid), info))) {
+      save();
+    }
+  }
+
+  /**
+   * Removes all DeviceInfo cached for a YubiKey.
+   *
+   * @param serial the serial number of the YubiKey
+   */
+  public synchronized void invalidate(int serial) {
+    boolean removed = false;
+    Iterator<Key> iterator = entries.keySet().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().serial == serial) {
+        iterator.remove();
+        removed = true;
+      }
+    }
+    if (removed) {
+      save();
+    }
+  }
+
+  /** Removes all cached DeviceInfo. */
+  public synchronized void clear() {
+    entries.clear();
+    save();
+  }
+
+  private void save() {
+    if (file == null) {
+      return;
+    }
+    // Write to a temporary file first, so that a partially written cache is never read
+    File tmp = new File(file.getPath() + ".tmp");
+    try {
+      try (DataOutputStream output =
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+        write(output);
+      }
+      if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+        throw new IOException("Unable to replace " + file);
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to persist DeviceInfo cache", e);
+    }
+  }
+
+  private void read(DataInputStream input) throws IOException {
+    if (input.readUnsignedByte() != FORMAT_VERSION) {
+      throw new IOException("Unsupported format");
+    }
+    int count = input.readInt();
+    for (int i = 0; i < count; i++) {
+      String pidName = readString(input);
+      UsbPid pid = pidName != null ? UsbPid.valueOf(pidName) : null;
+      DeviceInfo info = readInfo(input);
+      Integer serial = info.getSerialNumber();
+      if (serial == null) {
+        throw new IOException("Missing serial number");
+      }
+      entries.put(new Key(serial, pid), info);
+    }
+  }
+
+  private void write(DataOutputStream output) throws IOException {
+    output.writeByte(FORMAT_VERSION);
+    output.writeInt(entries.size());
+    for (Map.Entry<Key, DeviceInfo> entry : entries.entrySet()) {
+      UsbPid pid = entry.getKey().pid;
+      writeString(output, pid != null ? pid.name() : null);
+      writeInfo(output, entry.getValue());
+    }
+  }
+
+  private static DeviceInfo readInfo(DataInputStream input) throws IOException {
+    DeviceInfo.Builder builder = new DeviceInfo.Builder();
+    builder.serialNumber(readInteger(input));
+    builder.version(readVersion(input));
+    builder.versionQualifier(
+        new VersionQualifier(
+            readVersion(input),
+            VersionQualifier.Type.fromValue(input.readByte()),
+            input.readInt()));
+    builder.formFactor(FormFactor.valueOf(input.readUnsignedByte()));
+
+    Map<Transport, Integer> supportedCapabilities = new EnumMap<>(Transport.class);
+    DeviceConfig.Builder configBuilder = new DeviceConfig.Builder();
+    for (Transport transport : Transport.values()) {
+      Integer supported = readInteger(input);
+      if (supported != null) {
+        supportedCapabilities.put(transport, supported);
+      }
+      Integer enabled = readInteger(input);
+      if (enabled != null) {
+        configBuilder.enabledCapabilities(transport, enabled);
+      }
+    }
+    builder.supportedCapabilities(supportedCapabilities);
+
+    if (input.readBoolean()) {
+      configBuilder.autoEjectTimeout(input.readShort());
+    }
+    if (input.readBoolean()) {
+      configBuilder.challengeResponseTimeout(input.readByte());
+    }
+    Integer deviceFlags = readInteger(input);
+    if (deviceFlags != null) {
+      configBuilder.deviceFlags(deviceFlags);
+    }
+    if (input.readBoolean()) {
+      configBuilder.nfcRestricted(input.readBoolean());
+    }
+    builder.config(configBuilder.build());
+
+    builder.isLocked(input.readBoolean());
+    builder.isFips(input.readBoolean());
+    builder.isSky(input.readBoolean());
+    builder.partNumber(readString(input));
+    builder.fipsCapable(input.readInt());
+    builder.fipsApproved(input.readInt());
+    builder.pinComplexity(input.readBoolean());
+    builder.resetBlocked(input.readInt());
+    builder.fpsVersion(input.readBoolean() ? readVersion(input) : null);
+    builder.stmVersion(input.readBoolean() ? readVersion(input) : null);
+    return builder.build();
+  }
+
+  private static void writeInfo(DataOutputStream output, DeviceInfo info) throws IOException {
+    writeInteger(output, info.getSerialNumber());
+    writeVersion(output, info.getVersion());
+    VersionQualifier qualifier = info.getVersionQualifier();
+    writeVersion(output, qualifier.getVersion());
+    output.writeByte(qualifier.getType().ordinal());
+    output.writeInt(qualifier.getIteration());
+    output.writeByte(info.getFormFactor().value);
+
+    DeviceConfig config = info.getConfig();
+    for (Transport transport : Transport.values()) {
+      writeInteger(
+          output, info.hasTransport(transport) ? info.getSupportedCapabilities(transport) : null);
+      writeInteger(output, config.getEnabledCapabilities(transport));
+    }
+
+    Short autoEjectTimeout = config.getAutoEjectTimeout();
+    output.writeBoolean(autoEjectTimeout != null);
+    if (autoEjectTimeout != null) {
+      output.writeShort(autoEjectTimeout);
+    }
+    Byte challengeResponseTimeout = config.getChallengeResponseTimeout();
+    output.writeBoolean(challengeResponseTimeout != null);
+    if (challengeResponseTimeout != null) {
+      output.writeByte(challengeResponseTimeout);
+    }
+    writeInteger(output, config.getDeviceFlags());
+    Boolean nfcRestricted = config.getNfcRestricted();
+    output.writeBoolean(nfcRestricted != null);
+    if (nfcRestricted != null) {
+      output.writeBoolean(nfcRestricted);
+    }
+
+    output.writeBoolean(info.isLocked());
+    output.writeBoolean(info.isFips());
+    output.writeBoolean(info.isSky());
+    writeString(output, info.getPartNumber());
+    output.writeInt(info.getFipsCapable());
+    output.writeInt(info.getFipsApproved());
+    output.writeBoolean(info.getPinComplexity());
+    output.writeInt(info.getResetBlocked());
+    Version fpsVersion = info.getFpsVersion();
+    output.writeBoolean(fpsVersion != null);
+    if (fpsVersion != null) {
+      writeVersion(output, fpsVersion);
+    }
+    Version stmVersion = info.getStmVersion();
+    output.writeBoolean(stmVersion != null);
+    if (stmVersion != null) {
+      writeVersion(output, stmVersion);
+    }
+  }
+
+  private static Version readVersion(DataInputStream input) throws IOException {
+    return new Version(input.readByte(), input.readByte(), input.readByte());
+  }
+
+  private static void writeVersion(DataOutputStream output, Version version) throws IOException {
+    output.write(version.getBytes());
+  }
+
+  private static @Nullable Integer readInteger(DataInputStream input) throws IOException {
+    return input.readBoolean() ? input.readInt() : null;
+  }
+
+  private static void writeInteger(DataOutputStream output, @Nullable Integer value)
+      throws IOException {
+    output.writeBoolean(value != null);
+    if (value != null) {
+      output.writeInt(value);
+    }
+  }
+
+  private static @Nullable String readString(DataInputStream input) throws IOException {
+    return input.readBoolean() ? input.readUTF() : null;
+  }
+
+  private static void writeString(DataOutputStream output, @Nullable String value)
+      throws IOException {
+    output.writeBoolean(value != null);
+    if (value != null) {
+      output.writeUTF(value);
+    }
+  }
+
+  private static class Key {
+    private final int serial;
+    private final @Nullable UsbPid pid;
+
+    private Key(int serial, @Nullable UsbPid pid) {
+      this.serial = serial;
+      this.pid = pid;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return serial == key.serial && pid == key.pid;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(serial, pid);
+    }
+  }
+}
@@ -324,6 +324,58 @@ public class DeviceUtil {
     return adjustDeviceInfo(info, keyType, interfaces);
   }
 
+  /**
+   * Reads out DeviceInfo from a YubiKey, using a cached value if the YubiKey is known.
+   *
+   * <p>The serial number and firmware version of the YubiKey are read using the YubiOTP
+   * application, which requires fewer commands than reading the full DeviceInfo. If these match an
+   * entry in the cache, the cached DeviceInfo is returned. Otherwise, or if the serial number can't
+   * be read this way, the DeviceInfo is read as by {@link #readInfo(YubiKeyConnection, UsbPid)} and
+   * added to the cache. Connections over FIDO are always read in full.
+   *
+   * <p>The cache must be invalidated for the YubiKey after its configuration is changed, see {@link
+   * DeviceInfoCache}.
+   *
+   * @param connection {@link SmartCardConnection}, {@link OtpConnection} or {@link FidoConnection}
+   *     connection to the YubiKey
+   * @param pid USB product ID of the YubiKey, can be null if unknown
+   * @param cache the cache to use
+   * @throws IOException in case of connection error
+   * @throws IllegalArgumentException in case of <code>pid</code> is null for USB connection
+   * @throws IllegalArgumentException in case of connection is not {@link SmartCardConnection},
+   *     {@link OtpConnection} or {@link FidoConnection}
+   * @throws IllegalArgumentException when the hardware key could not be identified
+   */
+  public static DeviceInfo readInfo(
+      YubiKeyConnection connection, @Nullable UsbPid pid, DeviceInfoCache cache)
+      throws IOException, IllegalArgumentException {
+    OtpData otpData = null;
+    if (pid != UsbPid.OTHER) {
+      try {
+        if (connection instanceof SmartCardConnection) {
+          otpData = readOtpData((SmartCardConnection) connection);
+        } else if (connection instanceof OtpConnection) {
+          YubiOtpSession otpSession = new YubiOtpSession((OtpConnection) connection);
+          otpData = new OtpData(otpSession.getVersion(), otpSession.getSerialNumber());
+        }
+      } catch (CommandException e) {
+        logger.debug("Unable to read serial over OTP, not using cache");
+      }
+    }
+
+    if (otpData != null && otpData.serial != null) {
+      DeviceInfo cached = cache.get(otpData.serial, otpData.version, pid);
+      if (cached != null) {
+        logger.debug("Using cached info for {}", otpData.serial);
+        return cached;
+      }
+    }
+
+    DeviceInfo info = readInfo(connection, pid);
+    cache.put(info, pid);
+    return info;
+  }
+
   /**
    * This method adjusts the input DeviceInfo if required, for example it fixes known bad values.
    */
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.support;
+
+import static com.yubico.yubikit.support.TestUtil.config;
+import static com.yubico.yubikit.support.TestUtil.info;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.UsbPid;
+import com.yubico.yubikit.core.Version;
+import com.yubico.yubikit.management.DeviceInfo;
+import com.yubico.yubikit.management.FormFactor;
+import com.yubico.yubikit.management.VersionQualifier;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class DeviceInfoCacheTest {
+  private static final Version VERSION = new Version(5, 7, 2);
+
+  private static final DeviceInfo INFO =
+      info(
+          i -> {
+            Map<Transport, Integer> supported = new EnumMap<>(Transport.class);
+            supported.put(Transport.USB, 0x23f);
+            supported.put(Transport.NFC, 0x23f);
+            i.serialNumber(12345678)
+                .version(VERSION)
+                .versionQualifier(new VersionQualifier(VERSION, VersionQualifier.Type.FINAL, 0))
+                .formFactor(FormFactor.USB_C_KEYCHAIN)
+                .supportedCapabilities(supported)
+                .config(
+                    config(
+                        c ->
+                            c.enabledCapabilities(Transport.USB, 0x23f)
+                                .enabledCapabilities(Transport.NFC, 0x03b)
+                                .autoEjectTimeout((short) 0)
+                                .challengeResponseTimeout((byte) 15)
+                                .deviceFlags(0)
+                                .nfcRestricted(false)))
+                .isLocked(true)
+                .partNumber(null)
+                .fipsCapable(0x01)
+                .resetBlocked(0x02)
+                .stmVersion(new Version(1, 2, 3));
+          });
+
+  @Test
+  public void validatesVersionAndPid() {
+    DeviceInfoCache cache = new DeviceInfoCache();
+    cache.put(INFO, UsbPid.YK4_OTP_FIDO_CCID);
+
+    assertEquals(INFO, cache.get(12345678, VERSION, UsbPid.YK4_OTP_FIDO_CCID));
+    assertNull(cache.get(12345678, new Version(5, 7, 4), UsbPid.YK4_OTP_FIDO_CCID));
+    assertNull(cache.get(12345678, VERSION, UsbPid.YK4_CCID));
+    assertNull(cache.get(12345678, VERSION, null));
+    assertNull(cache.get(87654321, VERSION, UsbPid.YK4_OTP_FIDO_CCID));
+  }
+
+  @Test
+  public void invalidateRemovesAllEntriesForSerial() {
+    DeviceInfoCache cache = new DeviceInfoCache();
+    cache.put(INFO, UsbPid.YK4_OTP_FIDO_CCID);
+    cache.put(INFO, null);
+    cache.invalidate(12345678);
+
+    assertNull(cache.get(12345678, VERSION, UsbPid.YK4_OTP_FIDO_CCID));
+    assertNull(cache.get(12345678, VERSION, null));
+  }
+
+  @Test
+  public void infoWithoutSerialIsNotCached() {
+    DeviceInfoCache cache = new DeviceInfoCache();
+    cache.put(info(i -> i.version(VERSION)), null);
+    assertNull(cache.get(0, VERSION, null));
+  }
+
+  @Test
+  public void persistsToFile() throws Exception {
+    File file = File.createTempFile("deviceinfo", ".cache");
+    try {
+      new DeviceInfoCache(file).put(INFO, UsbPid.YK4_OTP_FIDO_CCID);
+      new DeviceInfoCache(file).put(info(i -> i.serialNumber(1).version(VERSION)), null);
+
+      DeviceInfoCache loaded = new DeviceInfoCache(file);
+      assertEquals(INFO, loaded.get(12345678, VERSION, UsbPid.YK4_OTP_FIDO_CCID));
+      assertEquals(info(i -> i.serialNumber(1).version(VERSION)), loaded.get(1, VERSION, null));
+
+      loaded.invalidate(12345678);
+      assertNull(new DeviceInfoCache(file).get(12345678, VERSION, UsbPid.YK4_OTP_FIDO_CCID));
+
+      // A corrupt file is ignored
+      try (FileOutputStream output = new FileOutputStream(file)) {
+        output.write(new byte[] {1, 0, 0, 0, 5, 1});
+      }
+      assertNull(new DeviceInfoCache(file).get(1, VERSION, null));
+    } finally {
+      file.delete();
+    }
+  }
+}
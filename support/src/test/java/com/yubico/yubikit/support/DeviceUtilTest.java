@@ -18,10 +18,20 @@ package com.yubico.yubikit.support;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.UsbPid;
 import com.yubico.yubikit.core.Version;
 import com.yubico.yubikit.core.smartcard.AppId;
+import com.yubico.yubikit.core.smartcard.SmartCardConnection;
+import com.yubico.yubikit.management.DeviceInfo;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
 
 public class DeviceUtilTest {
@@ -42,4 +52,88 @@ public class DeviceUtilTest {
     assertNull(new DeviceUtil.OtpData(new Version(1, 2, 3), null).serial);
     assertEquals(Integer.valueOf(123), new DeviceUtil.OtpData(new Version(1, 2, 3), 123).serial);
   }
+
+  @Test
+  public void readInfoCacheMiss() throws Exception {
+    DeviceInfoCache cache = new DeviceInfoCache();
+    OtpConnection connection = new OtpConnection(new Version(5, 7, 2), 12345678);
+
+    DeviceInfo info = DeviceUtil.readInfo(connection, UsbPid.YK4_OTP_FIDO_CCID, cache);
+    assertEquals(Integer.valueOf(12345678), info.getSerialNumber());
+    assertEquals(new Version(5, 7, 2), info.getVersion());
+    // The full DeviceInfo was read, and cached
+    assertEquals(
+        Arrays.asList("select OTP", "serial", "select MANAGEMENT"), connection.log.subList(0, 3));
+    assertSame(info, cache.get(12345678, new Version(5, 7, 2), UsbPid.YK4_OTP_FIDO_CCID));
+  }
+
+  @Test
+  public void readInfoCacheHit() throws Exception {
+    DeviceInfoCache cache = new DeviceInfoCache();
+    DeviceInfo info =
+        DeviceUtil.readInfo(
+            new OtpConnection(new Version(5, 7, 2), 12345678), UsbPid.YK4_OTP_FIDO_CCID, cache);
+
+    OtpConnection connection = new OtpConnection(new Version(5, 7, 2), 12345678);
+    assertSame(info, DeviceUtil.readInfo(connection, UsbPid.YK4_OTP_FIDO_CCID, cache));
+    // Only the serial number and version were read
+    assertEquals(Arrays.asList("select OTP", "serial"), connection.log);
+
+    // The cached DeviceInfo is not used for a different firmware version or USB PID
+    connection = new OtpConnection(new Version(5, 7, 4), 12345678);
+    assertEquals(
+        new Version(5, 7, 4),
+        DeviceUtil.readInfo(connection, UsbPid.YK4_OTP_FIDO_CCID, cache).getVersion());
+    connection = new OtpConnection(new Version(5, 7, 4), 12345678);
+    assertNotNull(DeviceUtil.readInfo(connection, UsbPid.YK4_OTP_CCID, cache));
+    assertEquals("select MANAGEMENT", connection.log.get(2));
+  }
+
+  /** A YubiKey exposing only the YubiOTP application over CCID. */
+  private static class OtpConnection implements SmartCardConnection {
+    final List<String> log = new ArrayList<>();
+    private final Version version;
+    private final int serial;
+
+    OtpConnection(Version version, int serial) {
+      this.version = version;
+      this.serial = serial;
+    }
+
+    @Override
+    public byte[] sendAndReceive(byte[] apdu) {
+      if (apdu[1] == (byte) 0xa4) {
+        byte[] aid = Arrays.copyOfRange(apdu, 5, 5 + apdu[4]);
+        if (Arrays.equals(aid, AppId.OTP)) {
+          log.add("select OTP");
+          return new byte[] {version.major, version.minor, version.micro, 1, 0, 0, (byte) 0x90, 0};
+        }
+        log.add(Arrays.equals(aid, AppId.MANAGEMENT) ? "select MANAGEMENT" : "select other");
+      } else if (apdu[1] == 0x01 && apdu[2] == 0x10) {
+        log.add("serial");
+        return ByteBuffer.allocate(6).putInt(serial).put((byte) 0x90).put((byte) 0).array();
+      } else {
+        log.add("other");
+      }
+      return new byte[] {0x6a, (byte) 0x82};
+    }
+
+    @Override
+    public Transport getTransport() {
+      return Transport.USB;
+    }
+
+    @Override
+    public boolean isExtendedLengthApduSupported() {
+      return false;
+    }
+
+    @Override
+    public byte[] getAtr() {
+      return new byte[0];
+    }
+
+    @Override
+    public void close() {}
+  }
 }
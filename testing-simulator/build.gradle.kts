@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+plugins {
+    id("java-library")
+    id("yubikit-common")
+}
+
+dependencies {
+    api(project(":core"))
+    implementation(project(":fido"))
+
+    testImplementation(project(":management"))
+    testImplementation(project(":oath"))
+    testImplementation(project(":piv"))
+    testImplementation(libs.junit.junit)
+    testRuntimeOnly(libs.logback.classic)
+}
+
+description = "An in-process YubiKey simulator, for testing and benchmarking without a device. Not published."
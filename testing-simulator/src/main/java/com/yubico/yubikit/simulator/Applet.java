@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.application.BadResponseException;
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.SW;
+import com.yubico.yubikit.core.util.Tlvs;
+
+/**
+ * An application on the simulated YubiKey. Transport framing, such as chaining, is handled by the
+ * simulator, so applets only see complete commands.
+ */
+abstract class Applet {
+  static final byte INS_SEND_REMAINING = (byte) 0xc0;
+
+  private final byte[] aid;
+
+  Applet(byte[] aid) {
+    this.aid = aid;
+  }
+
+  byte[] getAid() {
+    return aid;
+  }
+
+  /** The instruction used to read the rest of a response, after a 61XX status. */
+  byte getSendRemainingIns() {
+    return INS_SEND_REMAINING;
+  }
+
+  /** Handles SELECT, returning the response data. */
+  abstract byte[] select() throws ApduException;
+
+  /** Called when another SELECT is received, to clear any security state. */
+  void deselect() {}
+
+  /** Handles a command sent while this applet is selected, returning the response data. */
+  abstract byte[] process(CommandApdu command) throws ApduException;
+
+  /** Resets the applet to its initial state, deleting all data. */
+  abstract void reset();
+
+  static ApduException error(short sw) {
+    return new ApduException(new byte[0], sw);
+  }
+
+  /** Unpacks the value of a TLV in command data, failing with INCORRECT_PARAMETERS if missing. */
+  static byte[] unpack(int tag, byte[] data) throws ApduException {
+    try {
+      return Tlvs.unpackValue(tag, data);
+    } catch (BadResponseException e) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.SW;
+import java.util.Arrays;
+
+/** A command APDU received by the simulator, in short or extended length form. */
+final class CommandApdu {
+  final byte cla;
+  final byte ins;
+  final byte p1;
+  final byte p2;
+  final byte[] data;
+  // The maximum length of the response, Ne, or 0 if no response data is expected
+  final int maxResponseLength;
+  final boolean extended;
+
+  private CommandApdu(
+      byte cla, byte ins, byte p1, byte p2, byte[] data, int maxResponseLength, boolean extended) {
+    this.cla = cla;
+    this.ins = ins;
+    this.p1 = p1;
+    this.p2 = p2;
+    this.data = data;
+    this.maxResponseLength = maxResponseLength;
+    this.extended = extended;
+  }
+
+  /** Returns a copy of this command, with other data. Used to join chained commands. */
+  CommandApdu withData(byte[] data) {
+    return new CommandApdu(cla, ins, p1, p2, data, maxResponseLength, extended);
+  }
+
+  int getP1() {
+    return p1 & 0xff;
+  }
+
+  int getP2() {
+    return p2 & 0xff;
+  }
+
+  /**
+   * Parses a command APDU, as defined by ISO 7816-4 for its four cases.
+   *
+   * @throws ApduException with {@link SW#WRONG_LENGTH} if the encoding is invalid
+   */
+  static CommandApdu parse(byte[] apdu) throws ApduException {
+    if (apdu.length < 4) {
+      throw Applet.error(SW.WRONG_LENGTH);
+    }
+    byte cla = apdu[0];
+    byte ins = apdu[1];
+    byte p1 = apdu[2];
+    byte p2 = apdu[3];
+    if (apdu.length == 4) {
+      // Case 1: no data, no response
+      return new CommandApdu(cla, ins, p1, p2, new byte[0], 0, false);
+    }
+
+    int b5 = apdu[4] & 0xff;
+    if (apdu.length == 5) {
+      // Case 2S: Le only
+      return new CommandApdu(cla, ins, p1, p2, new byte[0], b5 == 0 ? 256 : b5, false);
+    }
+    if (b5 != 0) {
+      // Case 3S or 4S: Lc, data and an optional Le
+      int end = 5 + b5;
+      if (apdu.length == end) {
+        return new CommandApdu(cla, ins, p1, p2, Arrays.copyOfRange(apdu, 5, end), 0, false);
+      } else if (apdu.length == end + 1) {
+        int le = apdu[end] & 0xff;
+        return new CommandApdu(
+            cla, ins, p1, p2, Arrays.copyOfRange(apdu, 5, end), le == 0 ? 256 : le, false);
+      }
+      throw Applet.error(SW.WRONG_LENGTH);
+    }
+
+    // Extended length, marked by a leading zero byte
+    if (apdu.length == 7) {
+      // Case 2E: Le only
+      int le = readLength(apdu, 5);
+      return new CommandApdu(cla, ins, p1, p2, new byte[0], le == 0 ? 65536 : le, true);
+    }
+    int lc = readLength(apdu, 5);
+    int end = 7 + lc;
+    if (lc == 0 || apdu.length < end) {
+      throw Applet.error(SW.WRONG_LENGTH);
+    }
+    if (apdu.length == end) {
+      return new CommandApdu(cla, ins, p1, p2, Arrays.copyOfRange(apdu, 7, end), 0, true);
+    } else if (apdu.length == end + 2) {
+      int le = readLength(apdu, end);
+      return new CommandApdu(
+          cla, ins, p1, p2, Arrays.copyOfRange(apdu, 7, end), le == 0 ? 65536 : le, true);
+    }
+    throw Applet.error(SW.WRONG_LENGTH);
+  }
+
+  private static int readLength(byte[] apdu, int offset) {
+    return ((apdu[offset] & 0xff) << 8) | (apdu[offset + 1] & 0xff);
+  }
+}
@@ -0,0 +1,956 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.Version;
+import com.yubico.yubikit.core.fido.CtapException;
+import com.yubico.yubikit.core.util.RandomUtils;
+import com.yubico.yubikit.fido.Cbor;
+import com.yubico.yubikit.fido.ctap.PinUvAuthProtocol;
+import com.yubico.yubikit.fido.ctap.PinUvAuthProtocolV1;
+import com.yubico.yubikit.fido.ctap.PinUvAuthProtocolV2;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.KeyAgreement;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A CTAP2 authenticator, with the commands needed to register and authenticate with ES256 and EdDSA
+ * credentials, protected by a PIN.
+ *
+ * <p>Credentials are kept in memory, including non-discoverable ones, whose credential IDs are
+ * random handles rather than wrapped keys. Attestation is self attestation. Extensions, built-in
+ * user verification, large blobs, biometrics and authenticator config are not supported.
+ */
+class Ctap2Authenticator {
+  private static final byte CMD_MAKE_CREDENTIAL = 0x01;
+  private static final byte CMD_GET_ASSERTION = 0x02;
+  private static final byte CMD_GET_INFO = 0x04;
+  private static final byte CMD_CLIENT_PIN = 0x06;
+  private static final byte CMD_RESET = 0x07;
+  private static final byte CMD_GET_NEXT_ASSERTION = 0x08;
+  private static final byte CMD_CREDENTIAL_MANAGEMENT = 0x0a;
+  private static final byte CMD_SELECTION = 0x0b;
+
+  private static final int PIN_GET_RETRIES = 0x01;
+  private static final int PIN_GET_KEY_AGREEMENT = 0x02;
+  private static final int PIN_SET_PIN = 0x03;
+  private static final int PIN_CHANGE_PIN = 0x04;
+  private static final int PIN_GET_PIN_TOKEN = 0x05;
+  private static final int PIN_GET_PIN_TOKEN_WITH_PERMISSIONS = 0x09;
+
+  private static final int CM_GET_METADATA = 0x01;
+  private static final int CM_ENUMERATE_RPS_BEGIN = 0x02;
+  private static final int CM_ENUMERATE_RPS_NEXT = 0x03;
+  private static final int CM_ENUMERATE_CREDENTIALS_BEGIN = 0x04;
+  private static final int CM_ENUMERATE_CREDENTIALS_NEXT = 0x05;
+  private static final int CM_DELETE_CREDENTIAL = 0x06;
+  private static final int CM_UPDATE_USER_INFORMATION = 0x07;
+
+  private static final int PERMISSION_MC = 0x01;
+  private static final int PERMISSION_GA = 0x02;
+  private static final int PERMISSION_CM = 0x04;
+
+  private static final int FLAG_UP = 0x01;
+  private static final int FLAG_UV = 0x04;
+  private static final int FLAG_AT = 0x40;
+
+  private static final int ALG_ES256 = -7;
+  private static final int ALG_EDDSA = -8;
+  private static final String PUBLIC_KEY = "public-key";
+
+  // An AAGUID for the simulator, which does not belong to any real authenticator
+  private static final byte[] AAGUID = {
+    0x73, 0x69, 0x6d, 0x75, 0x6c, 0x61, 0x74, 0x6f, 0x72, 0x2d, 0x63, 0x74, 0x61, 0x70, 0x32, 0x00
+  };
+  private static final int MAX_MSG_SIZE = 1200;
+  private static final int MAX_CREDS_IN_LIST = 8;
+  private static final int MAX_CRED_ID_LENGTH = 128;
+  private static final int CREDENTIAL_ID_LENGTH = 64;
+  private static final int MAX_RESIDENT_CREDENTIALS = 100;
+  private static final int PIN_RETRIES = 8;
+  private static final int MIN_PIN_LENGTH = 4;
+  private static final int PIN_BUFFER_LENGTH = 64;
+  private static final int PIN_HASH_LENGTH = 16;
+
+  private final Version version;
+  private final boolean eddsaSupported;
+  private final Map<Integer, PinUvAuthProtocol> pinProtocols = new HashMap<>();
+  // Credentials by ID, in the order they were created
+  private final Map<ByteBuffer, Credential> credentials = new LinkedHashMap<>();
+  // Responses left to return by getNextAssertion and the credential management enumerations
+  private final Deque<Map<Integer, Object>> nextAssertions = new ArrayDeque<>();
+  private final Deque<Map<Integer, Object>> nextRps = new ArrayDeque<>();
+  private final Deque<Map<Integer, Object>> nextCredentials = new ArrayDeque<>();
+
+  private KeyPair keyAgreement;
+  private byte @Nullable [] pinHash;
+  private int pinRetries;
+  private byte @Nullable [] pinToken;
+  private int tokenPermissions;
+  private @Nullable String tokenRpId;
+  private int signCount;
+
+  private static final Logger logger = LoggerFactory.getLogger(Ctap2Authenticator.class);
+
+  Ctap2Authenticator(Version version) {
+    this.version = version;
+    this.eddsaSupported = isEddsaSupported();
+    pinProtocols.put(PinUvAuthProtocolV1.VERSION, new PinUvAuthProtocolV1());
+    pinProtocols.put(PinUvAuthProtocolV2.VERSION, new PinUvAuthProtocolV2());
+    keyAgreement = generateKeyPair("EC");
+    reset();
+  }
+
+  /** Deletes all credentials and the PIN. */
+  synchronized void reset() {
+    credentials.clear();
+    nextAssertions.clear();
+    nextRps.clear();
+    nextCredentials.clear();
+    keyAgreement = generateKeyPair("EC");
+    pinHash = null;
+    pinRetries = PIN_RETRIES;
+    pinToken = null;
+    signCount = 0;
+  }
+
+  /**
+   * Processes a CTAP2 request, consisting of the command byte followed by its CBOR encoded
+   * parameters. Parameters are checked immediately, but the response is only created when passed to
+   * {@link #complete(Response)}, which for commands needing touch is done once touch is given.
+   */
+  synchronized Response process(byte[] request) {
+    try {
+      if (request.length == 0) {
+        throw new CtapException(CtapException.ERR_INVALID_LENGTH);
+      }
+      if (request.length > MAX_MSG_SIZE) {
+        throw new CtapException(CtapException.ERR_REQUEST_TOO_LARGE);
+      }
+      byte command = request[0];
+      Map<?, ?> args =
+          request.length > 1
+              ? Cbor.decodeMap(request, 1, request.length - 1)
+              : Collections.emptyMap();
+      if (command != CMD_GET_NEXT_ASSERTION) {
+        nextAssertions.clear();
+      }
+      if (command != CMD_CREDENTIAL_MANAGEMENT) {
+        nextRps.clear();
+        nextCredentials.clear();
+      }
+      switch (command) {
+        case CMD_MAKE_CREDENTIAL:
+          return makeCredential(args);
+        case CMD_GET_ASSERTION:
+          return getAssertion(args);
+        case CMD_GET_INFO:
+          return Response.of(getInfo());
+        case CMD_CLIENT_PIN:
+          return Response.of(clientPin(args));
+        case CMD_RESET:
+          return new Response(
+              true,
+              () -> {
+                reset();
+                return null;
+              });
+        case CMD_GET_NEXT_ASSERTION:
+          return Response.of(next(nextAssertions));
+        case CMD_CREDENTIAL_MANAGEMENT:
+          return Response.of(credentialManagement(args));
+        case CMD_SELECTION:
+          return new Response(true, () -> null);
+        default:
+          throw new CtapException(CtapException.ERR_INVALID_COMMAND);
+      }
+    } catch (CtapException e) {
+      return Response.error(e.getCtapError());
+    } catch (RuntimeException e) {
+      // Malformed CBOR, or parameters of the wrong type
+      logger.debug("Failed to process command", e);
+      return Response.error(CtapException.ERR_INVALID_PARAMETER);
+    }
+  }
+
+  /** Creates the response to a processed command, starting with the status byte. */
+  synchronized byte[] complete(Response response) {
+    try {
+      Object value = response.completion.complete();
+      if (value == null) {
+        return new byte[] {CtapException.ERR_SUCCESS};
+      }
+      byte[] data = Cbor.encode(value);
+      return ByteBuffer.allocate(1 + data.length).put(CtapException.ERR_SUCCESS).put(data).array();
+    } catch (CtapException e) {
+      return new byte[] {e.getCtapError()};
+    }
+  }
+
+  private Map<Integer, Object> getInfo() {
+    Map<String, Object> options = new HashMap<>();
+    options.put("rk", true);
+    options.put("up", true);
+    options.put("plat", false);
+    options.put("clientPin", pinHash != null);
+    options.put("credMgmt", true);
+    options.put("pinUvAuthToken", true);
+    options.put("makeCredUvNotRqd", true);
+
+    List<Map<String, Object>> algorithms = new ArrayList<>();
+    algorithms.add(algorithm(ALG_ES256));
+    if (eddsaSupported) {
+      algorithms.add(algorithm(ALG_EDDSA));
+    }
+
+    Map<Integer, Object> info = new HashMap<>();
+    info.put(0x01, Arrays.asList("FIDO_2_0", "FIDO_2_1"));
+    info.put(0x03, AAGUID);
+    info.put(0x04, options);
+    info.put(0x05, MAX_MSG_SIZE);
+    info.put(0x06, Arrays.asList(PinUvAuthProtocolV2.VERSION, PinUvAuthProtocolV1.VERSION));
+    info.put(0x07, MAX_CREDS_IN_LIST);
+    info.put(0x08, MAX_CRED_ID_LENGTH);
+    info.put(0x09, Collections.singletonList("usb"));
+    info.put(0x0a, algorithms);
+    info.put(0x0d, MIN_PIN_LENGTH);
+    info.put(0x0e, (version.major << 16) | (version.minor << 8) | version.micro);
+    info.put(0x14, MAX_RESIDENT_CREDENTIALS - countResidentCredentials());
+    return info;
+  }
+
+  private Response makeCredential(Map<?, ?> args) throws CtapException {
+    byte[] clientDataHash = require(args, 1, byte[].class);
+    Map<?, ?> rp = require(args, 2, Map.class);
+    Map<?, ?> user = require(args, 3, Map.class);
+    List<?> pubKeyCredParams = require(args, 4, List.class);
+    List<?> excludeList = optional(args, 5, List.class);
+    Map<?, ?> options = optional(args, 7, Map.class);
+    byte[] pinUvAuthParam = optional(args, 8, byte[].class);
+    Integer pinUvAuthProtocol = optional(args, 9, Integer.class);
+
+    String rpId = require(rp, "id", String.class);
+    byte[] userId = require(user, "id", byte[].class);
+    int alg = selectAlgorithm(pubKeyCredParams);
+    boolean rk = getOption(options, "rk", false);
+    if (getOption(options, "uv", false) || !getOption(options, "up", true)) {
+      throw new CtapException(CtapException.ERR_INVALID_OPTION);
+    }
+    if (pinUvAuthParam != null && pinUvAuthParam.length == 0) {
+      return touchToCheckPin();
+    }
+    boolean uv =
+        verifyPinUvAuthParam(
+            pinUvAuthParam, pinUvAuthProtocol, clientDataHash, PERMISSION_MC, rpId);
+    if (rk && !uv && pinHash != null) {
+      throw new CtapException(CtapException.ERR_PUAT_REQUIRED);
+    }
+
+    byte[] rpIdHash = sha256(rpId.getBytes(StandardCharsets.UTF_8));
+    boolean excluded = excludeList != null && findCredential(excludeList, rpIdHash) != null;
+    Credential replaced = rk ? findResidentCredential(rpIdHash, userId) : null;
+    if (rk && replaced == null && countResidentCredentials() >= MAX_RESIDENT_CREDENTIALS) {
+      throw new CtapException(CtapException.ERR_KEY_STORE_FULL);
+    }
+    int flags = FLAG_UP | FLAG_AT | (uv ? FLAG_UV : 0);
+
+    return new Response(
+        true,
+        () -> {
+          if (excluded) {
+            throw new CtapException(CtapException.ERR_CREDENTIAL_EXCLUDED);
+          }
+          if (replaced != null) {
+            credentials.remove(ByteBuffer.wrap(replaced.id));
+          }
+          Credential credential =
+              new Credential(
+                  RandomUtils.getRandomBytes(CREDENTIAL_ID_LENGTH),
+                  rpIdHash,
+                  copy(rp),
+                  copy(user),
+                  alg,
+                  generateKeyPair(alg == ALG_ES256 ? "EC" : "Ed25519"),
+                  rk);
+          credentials.put(ByteBuffer.wrap(credential.id), credential);
+
+          byte[] credentialPublicKey = Cbor.encode(credential.getCosePublicKey());
+          byte[] authData =
+              ByteBuffer.allocate(37 + 18 + credential.id.length + credentialPublicKey.length)
+                  .put(authenticatorData(rpIdHash, flags))
+                  .put(AAGUID)
+                  .putShort((short) credential.id.length)
+                  .put(credential.id)
+                  .put(credentialPublicKey)
+                  .array();
+
+          Map<String, Object> attStmt = new HashMap<>();
+          attStmt.put("alg", alg);
+          attStmt.put("sig", credential.sign(concat(authData, clientDataHash)));
+          Map<Integer, Object> response = new HashMap<>();
+          response.put(0x01, "packed");
+          response.put(0x02, authData);
+          response.put(0x03, attStmt);
+          return response;
+        });
+  }
+
+  private Response getAssertion(Map<?, ?> args) throws CtapException {
+    String rpId = require(args, 1, String.class);
+    byte[] clientDataHash = require(args, 2, byte[].class);
+    List<?> allowList = optional(args, 3, List.class);
+    Map<?, ?> options = optional(args, 5, Map.class);
+    byte[] pinUvAuthParam = optional(args, 6, byte[].class);
+    Integer pinUvAuthProtocol = optional(args, 7, Integer.class);
+
+    if (options != null && options.containsKey("rk")) {
+      throw new CtapException(CtapException.ERR_UNSUPPORTED_OPTION);
+    }
+    if (getOption(options, "uv", false)) {
+      throw new CtapException(CtapException.ERR_INVALID_OPTION);
+    }
+    boolean up = getOption(options, "up", true);
+    if (pinUvAuthParam != null && pinUvAuthParam.length == 0) {
+      return touchToCheckPin();
+    }
+    boolean uv =
+        verifyPinUvAuthParam(
+            pinUvAuthParam, pinUvAuthProtocol, clientDataHash, PERMISSION_GA, rpId);
+
+    byte[] rpIdHash = sha256(rpId.getBytes(StandardCharsets.UTF_8));
+    List<Credential> matches = new ArrayList<>();
+    if (allowList != null) {
+      Credential credential = findCredential(allowList, rpIdHash);
+      if (credential != null) {
+        matches.add(credential);
+      }
+    } else {
+      for (Credential credential : credentials.values()) {
+        if (credential.resident && Arrays.equals(rpIdHash, credential.rpIdHash)) {
+          // The most recently created credential first
+          matches.add(0, credential);
+        }
+      }
+    }
+    if (matches.isEmpty()) {
+      throw new CtapException(CtapException.ERR_NO_CREDENTIALS);
+    }
+    int flags = (up ? FLAG_UP : 0) | (uv ? FLAG_UV : 0);
+
+    return new Response(
+        up,
+        () -> {
+          Map<Integer, Object> response = assertion(matches.get(0), clientDataHash, flags, uv);
+          if (matches.size() > 1) {
+            response.put(0x05, matches.size());
+            for (Credential credential : matches.subList(1, matches.size())) {
+              // Assertions are signed when created, as getNextAssertion has no clientDataHash
+              nextAssertions.add(assertion(credential, clientDataHash, flags, uv));
+            }
+          }
+          return response;
+        });
+  }
+
+  private Map<Integer, Object> assertion(
+      Credential credential, byte[] clientDataHash, int flags, boolean uv) {
+    byte[] authData = authenticatorData(credential.rpIdHash, flags);
+    Map<Integer, Object> response = new HashMap<>();
+    response.put(0x01, credential.getDescriptor());
+    response.put(0x02, authData);
+    response.put(0x03, credential.sign(concat(authData, clientDataHash)));
+    if (credential.resident) {
+      // User names are only given out once the user is verified
+      response.put(
+          0x04, uv ? credential.user : Collections.singletonMap("id", credential.user.get("id")));
+    }
+    return response;
+  }
+
+  private @Nullable Map<Integer, Object> clientPin(Map<?, ?> args) throws CtapException {
+    int subCommand = require(args, 2, Integer.class);
+    if (subCommand == PIN_GET_RETRIES) {
+      Map<Integer, Object> response = new HashMap<>();
+      response.put(0x03, pinRetries);
+      response.put(0x04, false);
+      return response;
+    }
+
+    PinUvAuthProtocol protocol = getPinProtocol(require(args, 1, Integer.class));
+    switch (subCommand) {
+      case PIN_GET_KEY_AGREEMENT:
+        return Collections.singletonMap(0x01, getKeyAgreementKey());
+      case PIN_SET_PIN:
+        {
+          byte[] sharedSecret = getSharedSecret(protocol, require(args, 3, Map.class));
+          byte[] pinUvAuthParam = require(args, 4, byte[].class);
+          byte[] newPinEnc = require(args, 5, byte[].class);
+          if (pinHash != null) {
+            throw new CtapException(CtapException.ERR_NOT_ALLOWED);
+          }
+          verify(protocol, sharedSecret, newPinEnc, pinUvAuthParam);
+          setPin(protocol.decrypt(sharedSecret, newPinEnc));
+          return null;
+        }
+      case PIN_CHANGE_PIN:
+        {
+          byte[] sharedSecret = getSharedSecret(protocol, require(args, 3, Map.class));
+          byte[] pinUvAuthParam = require(args, 4, byte[].class);
+          byte[] newPinEnc = require(args, 5, byte[].class);
+          byte[] pinHashEnc = require(args, 6, byte[].class);
+          verify(protocol, sharedSecret, concat(newPinEnc, pinHashEnc), pinUvAuthParam);
+          checkPin(protocol, sharedSecret, pinHashEnc);
+          setPin(protocol.decrypt(sharedSecret, newPinEnc));
+          pinToken = null;
+          return null;
+        }
+      case PIN_GET_PIN_TOKEN:
+      case PIN_GET_PIN_TOKEN_WITH_PERMISSIONS:
+        {
+          byte[] sharedSecret = getSharedSecret(protocol, require(args, 3, Map.class));
+          byte[] pinHashEnc = require(args, 6, byte[].class);
+          int permissions = PERMISSION_MC | PERMISSION_GA;
+          String rpId = null;
+          if (subCommand == PIN_GET_PIN_TOKEN_WITH_PERMISSIONS) {
+            permissions = require(args, 9, Integer.class);
+            rpId = optional(args, 10, String.class);
+            if (permissions == 0) {
+              throw new CtapException(CtapException.ERR_INVALID_PARAMETER);
+            }
+            if ((permissions & ~(PERMISSION_MC | PERMISSION_GA | PERMISSION_CM)) != 0) {
+              throw new CtapException(CtapException.ERR_UNAUTHORIZED_PERMISSION);
+            }
+            if ((permissions & (PERMISSION_MC | PERMISSION_GA)) != 0 && rpId == null) {
+              throw new CtapException(CtapException.ERR_MISSING_PARAMETER);
+            }
+          }
+          checkPin(protocol, sharedSecret, pinHashEnc);
+          byte[] token = RandomUtils.getRandomBytes(32);
+          pinToken = token;
+          tokenPermissions = permissions;
+          tokenRpId = rpId;
+          return Collections.singletonMap(0x02, protocol.encrypt(sharedSecret, token));
+        }
+      default:
+        throw new CtapException(CtapException.ERR_INVALID_SUBCOMMAND);
+    }
+  }
+
+  private @Nullable Map<Integer, Object> credentialManagement(Map<?, ?> args) throws CtapException {
+    int subCommand = require(args, 1, Integer.class);
+    Map<?, ?> params = optional(args, 2, Map.class);
+    if (subCommand != CM_ENUMERATE_RPS_NEXT && subCommand != CM_ENUMERATE_CREDENTIALS_NEXT) {
+      byte[] message =
+          params != null
+              ? concat(new byte[] {(byte) subCommand}, Cbor.encode(params))
+              : new byte[] {(byte) subCommand};
+      if (!verifyPinUvAuthParam(
+          optional(args, 4, byte[].class),
+          optional(args, 3, Integer.class),
+          message,
+          PERMISSION_CM,
+          null)) {
+        throw new CtapException(CtapException.ERR_PUAT_REQUIRED);
+      }
+    }
+
+    switch (subCommand) {
+      case CM_GET_METADATA:
+        {
+          int count = countResidentCredentials();
+          Map<Integer, Object> response = new HashMap<>();
+          response.put(0x01, count);
+          response.put(0x02, MAX_RESIDENT_CREDENTIALS - count);
+          return response;
+        }
+      case CM_ENUMERATE_RPS_BEGIN:
+        {
+          Map<ByteBuffer, Credential> rps = new LinkedHashMap<>();
+          for (Credential credential : credentials.values()) {
+            if (credential.resident) {
+              rps.putIfAbsent(ByteBuffer.wrap(credential.rpIdHash), credential);
+            }
+          }
+          for (Credential credential : rps.values()) {
+            Map<Integer, Object> response = new HashMap<>();
+            response.put(0x03, credential.rp);
+            response.put(0x04, credential.rpIdHash);
+            nextRps.add(response);
+          }
+          return first(nextRps, 0x05);
+        }
+      case CM_ENUMERATE_RPS_NEXT:
+        return next(nextRps);
+      case CM_ENUMERATE_CREDENTIALS_BEGIN:
+        {
+          if (params == null) {
+            throw new CtapException(CtapException.ERR_MISSING_PARAMETER);
+          }
+          byte[] rpIdHash = require(params, 1, byte[].class);
+          for (Credential credential : credentials.values()) {
+            if (credential.resident && Arrays.equals(rpIdHash, credential.rpIdHash)) {
+              Map<Integer, Object> response = new HashMap<>();
+              response.put(0x06, credential.user);
+              response.put(0x07, credential.getDescriptor());
+              response.put(0x08, credential.getCosePublicKey());
+              response.put(0x0a, 1); // credProtect userVerificationOptional
+              nextCredentials.add(response);
+            }
+          }
+          return first(nextCredentials, 0x09);
+        }
+      case CM_ENUMERATE_CREDENTIALS_NEXT:
+        return next(nextCredentials);
+      case CM_DELETE_CREDENTIAL:
+        {
+          Credential credential = getResidentCredential(params);
+          credentials.remove(ByteBuffer.wrap(credential.id));
+          return null;
+        }
+      case CM_UPDATE_USER_INFORMATION:
+        {
+          Credential credential = getResidentCredential(params);
+          Map<?, ?> user = require(params, 3, Map.class);
+          if (!Arrays.equals(
+              (byte[]) credential.user.get("id"), require(user, "id", byte[].class))) {
+            throw new CtapException(CtapException.ERR_INVALID_PARAMETER);
+          }
+          credential.user = copy(user);
+          return null;
+        }
+      default:
+        throw new CtapException(CtapException.ERR_INVALID_SUBCOMMAND);
+    }
+  }
+
+  /** Returns the first of the enumerated responses, with the total count, leaving the rest. */
+  private static Map<Integer, Object> first(Deque<Map<Integer, Object>> responses, int countKey)
+      throws CtapException {
+    Map<Integer, Object> response = responses.pollFirst();
+    if (response == null) {
+      throw new CtapException(CtapException.ERR_NO_CREDENTIALS);
+    }
+    response.put(countKey, responses.size() + 1);
+    return response;
+  }
+
+  private static Map<Integer, Object> next(Deque<Map<Integer, Object>> responses)
+      throws CtapException {
+    Map<Integer, Object> response = responses.pollFirst();
+    if (response == null) {
+      throw new CtapException(CtapException.ERR_NOT_ALLOWED);
+    }
+    return response;
+  }
+
+  /**
+   * Checks the pinUvAuthParam of a request, if any, against the current PIN token.
+   *
+   * @return true if the request was authenticated, meaning the user is verified
+   */
+  private boolean verifyPinUvAuthParam(
+      byte @Nullable [] pinUvAuthParam,
+      @Nullable Integer pinUvAuthProtocol,
+      byte[] message,
+      int permission,
+      @Nullable String rpId)
+      throws CtapException {
+    if (pinUvAuthParam == null) {
+      return false;
+    }
+    if (pinUvAuthProtocol == null) {
+      throw new CtapException(CtapException.ERR_MISSING_PARAMETER);
+    }
+    PinUvAuthProtocol protocol = getPinProtocol(pinUvAuthProtocol);
+    byte[] token = pinToken;
+    if (token == null
+        || !MessageDigest.isEqual(protocol.authenticate(token, message), pinUvAuthParam)
+        || (tokenPermissions & permission) == 0
+        || (rpId != null && tokenRpId != null && !tokenRpId.equals(rpId))) {
+      throw new CtapException(CtapException.ERR_PIN_AUTH_INVALID);
+    }
+    if (rpId != null) {
+      // A token is bound to the RP it is first used with
+      tokenRpId = rpId;
+    }
+    return true;
+  }
+
+  /** The response to a zero length pinUvAuthParam, sent by a platform to select a key. */
+  private Response touchToCheckPin() {
+    byte error = pinHash != null ? CtapException.ERR_PIN_INVALID : CtapException.ERR_PIN_NOT_SET;
+    return new Response(
+        true,
+        () -> {
+          throw new CtapException(error);
+        });
+  }
+
+  private PinUvAuthProtocol getPinProtocol(int version) throws CtapException {
+    PinUvAuthProtocol protocol = pinProtocols.get(version);
+    if (protocol == null) {
+      throw new CtapException(CtapException.ERR_INVALID_PARAMETER);
+    }
+    return protocol;
+  }
+
+  private Map<Integer, Object> getKeyAgreementKey() {
+    ECPoint point = ((ECPublicKey) keyAgreement.getPublic()).getW();
+    Map<Integer, Object> key = new HashMap<>();
+    key.put(1, 2); // EC2
+    key.put(3, -25); // ECDH-ES+HKDF-256
+    key.put(-1, 1); // P-256
+    key.put(-2, coordinate(point.getAffineX()));
+    key.put(-3, coordinate(point.getAffineY()));
+    return key;
+  }
+
+  private byte[] getSharedSecret(PinUvAuthProtocol protocol, Map<?, ?> peerKey)
+      throws CtapException {
+    BigInteger x = new BigInteger(1, require(peerKey, -2, byte[].class));
+    BigInteger y = new BigInteger(1, require(peerKey, -3, byte[].class));
+    try {
+      ECPublicKey publicKey = (ECPublicKey) keyAgreement.getPublic();
+      PublicKey peerPublicKey =
+          KeyFactory.getInstance("EC")
+              .generatePublic(new ECPublicKeySpec(new ECPoint(x, y), publicKey.getParams()));
+      KeyAgreement ecdh = KeyAgreement.getInstance("ECDH");
+      ecdh.init(keyAgreement.getPrivate());
+      ecdh.doPhase(peerPublicKey, true);
+      return protocol.kdf(ecdh.generateSecret());
+    } catch (GeneralSecurityException e) {
+      logger.debug("Invalid key agreement key", e);
+      throw new CtapException(CtapException.ERR_INVALID_PARAMETER);
+    }
+  }
+
+  private static void verify(
+      PinUvAuthProtocol protocol, byte[] sharedSecret, byte[] message, byte[] pinUvAuthParam)
+      throws CtapException {
+    if (!MessageDigest.isEqual(protocol.authenticate(sharedSecret, message), pinUvAuthParam)) {
+      throw new CtapException(CtapException.ERR_PIN_AUTH_INVALID);
+    }
+  }
+
+  private void checkPin(PinUvAuthProtocol protocol, byte[] sharedSecret, byte[] pinHashEnc)
+      throws CtapException {
+    byte[] expected = pinHash;
+    if (expected == null) {
+      throw new CtapException(CtapException.ERR_PIN_NOT_SET);
+    }
+    if (pinRetries == 0) {
+      throw new CtapException(CtapException.ERR_PIN_BLOCKED);
+    }
+    pinRetries--;
+    if (!MessageDigest.isEqual(expected, protocol.decrypt(sharedSecret, pinHashEnc))) {
+      // A new key agreement key is generated after each wrong PIN
+      keyAgreement = generateKeyPair("EC");
+      throw new CtapException(
+          pinRetries == 0 ? CtapException.ERR_PIN_BLOCKED : CtapException.ERR_PIN_INVALID);
+    }
+    pinRetries = PIN_RETRIES;
+  }
+
+  private void setPin(byte[] paddedPin) throws CtapException {
+    if (paddedPin.length != PIN_BUFFER_LENGTH) {
+      throw new CtapException(CtapException.ERR_INVALID_PARAMETER);
+    }
+    int length = 0;
+    while (length < paddedPin.length && paddedPin[length] != 0) {
+      length++;
+    }
+    byte[] pin = Arrays.copyOf(paddedPin, length);
+    if (new String(pin, StandardCharsets.UTF_8).codePointCount(0, length) < MIN_PIN_LENGTH) {
+      throw new CtapException(CtapException.ERR_PIN_POLICY_VIOLATION);
+    }
+    pinHash = Arrays.copyOf(sha256(pin), PIN_HASH_LENGTH);
+    pinRetries = PIN_RETRIES;
+  }
+
+  private int selectAlgorithm(List<?> pubKeyCredParams) throws CtapException {
+    for (Object param : pubKeyCredParams) {
+      Map<?, ?> map = (Map<?, ?>) param;
+      if (PUBLIC_KEY.equals(map.get("type"))) {
+        int alg = require(map, "alg", Integer.class);
+        if (alg == ALG_ES256 || (alg == ALG_EDDSA && eddsaSupported)) {
+          return alg;
+        }
+      }
+    }
+    throw new CtapException(CtapException.ERR_UNSUPPORTED_ALGORITHM);
+  }
+
+  /** Returns the first credential in the list which belongs to the RP, if any. */
+  private @Nullable Credential findCredential(List<?> descriptors, byte[] rpIdHash)
+      throws CtapException {
+    if (descriptors.size() > MAX_CREDS_IN_LIST) {
+      throw new CtapException(CtapException.ERR_LIMIT_EXCEEDED);
+    }
+    for (Object descriptor : descriptors) {
+      Map<?, ?> map = (Map<?, ?>) descriptor;
+      if (PUBLIC_KEY.equals(map.get("type"))) {
+        Credential credential = credentials.get(ByteBuffer.wrap(require(map, "id", byte[].class)));
+        if (credential != null && Arrays.equals(rpIdHash, credential.rpIdHash)) {
+          return credential;
+        }
+      }
+    }
+    return null;
+  }
+
+  private @Nullable Credential findResidentCredential(byte[] rpIdHash, byte[] userId) {
+    for (Credential credential : credentials.values()) {
+      if (credential.resident
+          && Arrays.equals(rpIdHash, credential.rpIdHash)
+          && Arrays.equals(userId, (byte[]) credential.user.get("id"))) {
+        return credential;
+      }
+    }
+    return null;
+  }
+
+  private Credential getResidentCredential(@Nullable Map<?, ?> params) throws CtapException {
+    if (params == null) {
+      throw new CtapException(CtapException.ERR_MISSING_PARAMETER);
+    }
+    Map<?, ?> descriptor = require(params, 2, Map.class);
+    Credential credential =
+        credentials.get(ByteBuffer.wrap(require(descriptor, "id", byte[].class)));
+    if (credential == null || !credential.resident) {
+      throw new CtapException(CtapException.ERR_NO_CREDENTIALS);
+    }
+    return credential;
+  }
+
+  private int countResidentCredentials() {
+    int count = 0;
+    for (Credential credential : credentials.values()) {
+      if (credential.resident) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private byte[] authenticatorData(byte[] rpIdHash, int flags) {
+    signCount++;
+    return ByteBuffer.allocate(37).put(rpIdHash).put((byte) flags).putInt(signCount).array();
+  }
+
+  private static boolean getOption(@Nullable Map<?, ?> options, String name, boolean defaultValue)
+      throws CtapException {
+    Boolean value = options != null ? optional(options, name, Boolean.class) : null;
+    return value != null ? value : defaultValue;
+  }
+
+  private static <T> T require(Map<?, ?> map, Object key, Class<T> type) throws CtapException {
+    T value = optional(map, key, type);
+    if (value == null) {
+      throw new CtapException(CtapException.ERR_MISSING_PARAMETER);
+    }
+    return value;
+  }
+
+  private static <T> @Nullable T optional(Map<?, ?> map, Object key, Class<T> type)
+      throws CtapException {
+    Object value = map.get(key);
+    if (value == null) {
+      return null;
+    }
+    if (!type.isInstance(value)) {
+      throw new CtapException(CtapException.ERR_CBOR_UNEXPECTED_TYPE);
+    }
+    return type.cast(value);
+  }
+
+  private static Map<String, Object> algorithm(int alg) {
+    Map<String, Object> algorithm = new HashMap<>();
+    algorithm.put("alg", alg);
+    algorithm.put("type", PUBLIC_KEY);
+    return algorithm;
+  }
+
+  /** Copies a decoded map, which may read its values from the request lazily. */
+  private static Map<Object, Object> copy(Map<?, ?> map) {
+    return new HashMap<>(map);
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    return ByteBuffer.allocate(first.length + second.length).put(first).put(second).array();
+  }
+
+  private static byte[] sha256(byte[] data) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(data);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] coordinate(BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    byte[] result = new byte[32];
+    int length = Math.min(bytes.length, result.length);
+    System.arraycopy(bytes, bytes.length - length, result, result.length - length, length);
+    return result;
+  }
+
+  private static KeyPair generateKeyPair(String algorithm) {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+      if ("EC".equals(algorithm)) {
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+      }
+      return generator.generateKeyPair();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static boolean isEddsaSupported() {
+    try {
+      KeyPairGenerator.getInstance("Ed25519");
+      return true;
+    } catch (NoSuchAlgorithmException e) {
+      // Ed25519 is available from Java 15, or with a provider such as BouncyCastle
+      logger.debug("Ed25519 not available, EdDSA disabled");
+      return false;
+    }
+  }
+
+  /** The part of a command which creates its response, once the user has touched the key. */
+  interface Completion {
+    @Nullable Object complete() throws CtapException;
+  }
+
+  /** A processed command, which may need touch before its response is created. */
+  static final class Response {
+    private final boolean touch;
+    private final Completion completion;
+
+    Response(boolean touch, Completion completion) {
+      this.touch = touch;
+      this.completion = completion;
+    }
+
+    static Response of(@Nullable Object value) {
+      return new Response(false, () -> value);
+    }
+
+    static Response error(byte ctapError) {
+      return new Response(
+          false,
+          () -> {
+            throw new CtapException(ctapError);
+          });
+    }
+
+    /** Returns true if the user needs to touch the key for the command to complete. */
+    boolean needsTouch() {
+      return touch;
+    }
+  }
+
+  private static final class Credential {
+    private final byte[] id;
+    private final byte[] rpIdHash;
+    private final Map<Object, Object> rp;
+    private Map<Object, Object> user;
+    private final int alg;
+    private final KeyPair keyPair;
+    private final boolean resident;
+
+    private Credential(
+        byte[] id,
+        byte[] rpIdHash,
+        Map<Object, Object> rp,
+        Map<Object, Object> user,
+        int alg,
+        KeyPair keyPair,
+        boolean resident) {
+      this.id = id;
+      this.rpIdHash = rpIdHash;
+      this.rp = rp;
+      this.user = user;
+      this.alg = alg;
+      this.keyPair = keyPair;
+      this.resident = resident;
+    }
+
+    private Map<String, Object> getDescriptor() {
+      Map<String, Object> descriptor = new HashMap<>();
+      descriptor.put("type", PUBLIC_KEY);
+      descriptor.put("id", id);
+      return descriptor;
+    }
+
+    private Map<Integer, Object> getCosePublicKey() {
+      Map<Integer, Object> key = new HashMap<>();
+      key.put(3, alg);
+      if (alg == ALG_ES256) {
+        ECPoint point = ((ECPublicKey) keyPair.getPublic()).getW();
+        key.put(1, 2); // EC2
+        key.put(-1, 1); // P-256
+        key.put(-2, coordinate(point.getAffineX()));
+        key.put(-3, coordinate(point.getAffineY()));
+      } else {
+        // The raw key ends the SubjectPublicKeyInfo encoding
+        byte[] encoded = keyPair.getPublic().getEncoded();
+        key.put(1, 1); // OKP
+        key.put(-1, 6); // Ed25519
+        key.put(-2, Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length));
+      }
+      return key;
+    }
+
+    private byte[] sign(byte[] message) {
+      try {
+        Signature signature =
+            Signature.getInstance(alg == ALG_ES256 ? "SHA256withECDSA" : "Ed25519");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(message);
+        return signature.sign();
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
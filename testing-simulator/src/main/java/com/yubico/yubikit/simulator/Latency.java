@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The time taken by a simulated YubiKey to exchange an APDU or HID packet, modelling the transport
+ * it is connected over.
+ *
+ * <p>Each command and response frame takes a fixed time, plus a time per byte transferred. The
+ * presets are rough figures for a YubiKey 5, and are meant to make the relative cost of round trips
+ * and payload size visible in benchmarks, not to reproduce timings exactly.
+ */
+public final class Latency {
+  /** No added latency, for measuring the SDK alone. */
+  public static final Latency NONE = new Latency(0, 0);
+
+  /** A USB CCID connection, limited by the 1 ms USB frame time. */
+  public static final Latency USB = new Latency(1_000, 16);
+
+  /** A USB HID connection, in which each 64 byte packet takes a 1 ms USB frame. */
+  public static final Latency USB_HID = new Latency(1_000, 0);
+
+  /** An NFC connection, at 212 kbit/s. */
+  public static final Latency NFC = new Latency(3_000, 40);
+
+  private final long perFrameMicros;
+  private final long perByteMicros;
+
+  /**
+   * Create a latency model.
+   *
+   * @param perFrameMicros the time taken by each APDU exchange or HID packet, in microseconds
+   * @param perByteMicros the time taken by each byte of the command and response, in microseconds
+   */
+  public Latency(long perFrameMicros, long perByteMicros) {
+    if (perFrameMicros < 0 || perByteMicros < 0) {
+      throw new IllegalArgumentException("Latency must not be negative");
+    }
+    this.perFrameMicros = perFrameMicros;
+    this.perByteMicros = perByteMicros;
+  }
+
+  /** Returns the time taken by each APDU exchange or HID packet, in microseconds. */
+  public long getPerFrameMicros() {
+    return perFrameMicros;
+  }
+
+  /** Returns the time taken by each byte transferred, in microseconds. */
+  public long getPerByteMicros() {
+    return perByteMicros;
+  }
+
+  /** Blocks for the time taken to exchange a frame of the given total length. */
+  void await(int length) {
+    long nanos = (perFrameMicros + perByteMicros * length) * 1000;
+    if (nanos == 0) {
+      return;
+    }
+    // parkNanos may return early, and Thread.sleep is too coarse for sub-millisecond delays
+    long deadline = System.nanoTime() + nanos;
+    for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Latency{perFrameMicros=" + perFrameMicros + ", perByteMicros=" + perByteMicros + "}";
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.Version;
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.AppId;
+import com.yubico.yubikit.core.smartcard.SW;
+import com.yubico.yubikit.core.util.Tlvs;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/** The Management application, reporting and changing the device configuration. */
+class ManagementApplet extends Applet {
+  private static final byte INS_READ_CONFIG = 0x1d;
+  private static final byte INS_WRITE_CONFIG = 0x1c;
+  private static final byte INS_DEVICE_RESET = 0x1f;
+
+  private static final int TAG_USB_SUPPORTED = 0x01;
+  private static final int TAG_SERIAL_NUMBER = 0x02;
+  private static final int TAG_USB_ENABLED = 0x03;
+  private static final int TAG_FORM_FACTOR = 0x04;
+  private static final int TAG_FIRMWARE_VERSION = 0x05;
+  private static final int TAG_AUTO_EJECT_TIMEOUT = 0x06;
+  private static final int TAG_CHALLENGE_RESPONSE_TIMEOUT = 0x07;
+  private static final int TAG_DEVICE_FLAGS = 0x08;
+  private static final int TAG_CONFIG_LOCK = 0x0a;
+  private static final int TAG_UNLOCK = 0x0b;
+  private static final int TAG_NFC_SUPPORTED = 0x0d;
+  private static final int TAG_NFC_ENABLED = 0x0e;
+
+  private static final byte FORM_FACTOR_USB_A_KEYCHAIN = 0x01;
+  private static final int LOCK_CODE_LENGTH = 16;
+
+  private final YubiKeySimulator simulator;
+  private final Map<Integer, byte[]> config = new LinkedHashMap<>();
+  private byte @Nullable [] lockCode;
+
+  ManagementApplet(YubiKeySimulator simulator) {
+    super(AppId.MANAGEMENT);
+    this.simulator = simulator;
+    reset();
+  }
+
+  @Override
+  byte[] select() {
+    Version version = simulator.getVersion();
+    return (version.major + "." + version.minor + "." + version.micro)
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  byte[] process(CommandApdu command) throws ApduException {
+    switch (command.ins) {
+      case INS_READ_CONFIG:
+        return readConfig(command.getP1());
+      case INS_WRITE_CONFIG:
+        writeConfig(command.data);
+        return new byte[0];
+      case INS_DEVICE_RESET:
+        simulator.reset();
+        return new byte[0];
+      default:
+        throw error(SW.INVALID_INSTRUCTION);
+    }
+  }
+
+  @Override
+  void reset() {
+    config.clear();
+    config.put(TAG_USB_ENABLED, capabilities(Transport.USB));
+    config.put(TAG_NFC_ENABLED, capabilities(Transport.NFC));
+    config.put(TAG_AUTO_EJECT_TIMEOUT, new byte[2]);
+    config.put(TAG_CHALLENGE_RESPONSE_TIMEOUT, new byte[] {15});
+    config.put(TAG_DEVICE_FLAGS, new byte[] {0});
+    lockCode = null;
+  }
+
+  private byte[] readConfig(int page) {
+    if (page != 0) {
+      // All data fits on the first page
+      return new byte[] {0};
+    }
+    Map<Integer, byte[]> info = new LinkedHashMap<>();
+    info.put(TAG_USB_SUPPORTED, capabilities(Transport.USB));
+    info.put(TAG_SERIAL_NUMBER, ByteBuffer.allocate(4).putInt(simulator.getSerialNumber()).array());
+    info.put(TAG_FORM_FACTOR, new byte[] {FORM_FACTOR_USB_A_KEYCHAIN});
+    info.put(TAG_FIRMWARE_VERSION, simulator.getVersion().getBytes());
+    info.put(TAG_CONFIG_LOCK, new byte[] {(byte) (lockCode != null ? 1 : 0)});
+    info.put(TAG_NFC_SUPPORTED, capabilities(Transport.NFC));
+    info.putAll(config);
+    byte[] data = Tlvs.encodeMap(info);
+    return ByteBuffer.allocate(1 + data.length).put((byte) data.length).put(data).array();
+  }
+
+  private byte[] capabilities(Transport transport) {
+    int capabilities = simulator.getCapabilities(transport);
+    return new byte[] {(byte) (capabilities >> 8), (byte) capabilities};
+  }
+
+  private void writeConfig(byte[] data) throws ApduException {
+    if (data.length == 0 || (data[0] & 0xff) != data.length - 1) {
+      throw error(SW.WRONG_LENGTH);
+    }
+    Map<Integer, byte[]> values = Tlvs.decodeMap(Arrays.copyOfRange(data, 1, data.length));
+    byte[] currentLockCode = lockCode;
+    if (currentLockCode != null) {
+      byte[] unlock = values.get(TAG_UNLOCK);
+      if (unlock == null || !MessageDigest.isEqual(unlock, currentLockCode)) {
+        throw error(SW.CONDITIONS_NOT_SATISFIED);
+      }
+    }
+    byte[] newLockCode = values.remove(TAG_CONFIG_LOCK);
+    if (newLockCode != null && newLockCode.length != LOCK_CODE_LENGTH) {
+      throw error(SW.WRONG_LENGTH);
+    }
+    for (int tag :
+        new int[] {
+          TAG_USB_ENABLED,
+          TAG_NFC_ENABLED,
+          TAG_AUTO_EJECT_TIMEOUT,
+          TAG_CHALLENGE_RESPONSE_TIMEOUT,
+          TAG_DEVICE_FLAGS
+        }) {
+      byte[] value = values.get(tag);
+      if (value != null) {
+        config.put(tag, value);
+      }
+    }
+    if (newLockCode != null) {
+      // An all-zero code removes the lock
+      lockCode = Arrays.equals(newLockCode, new byte[LOCK_CODE_LENGTH]) ? null : newLockCode;
+    }
+  }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.AppId;
+import com.yubico.yubikit.core.smartcard.SW;
+import com.yubico.yubikit.core.util.RandomUtils;
+import com.yubico.yubikit.core.util.Tlv;
+import com.yubico.yubikit.core.util.TlvReader;
+import com.yubico.yubikit.core.util.Tlvs;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.jspecify.annotations.Nullable;
+
+/** The OATH application, storing HOTP and TOTP credentials and calculating codes. */
+class OathApplet extends Applet {
+  private static final byte INS_PUT = 0x01;
+  private static final byte INS_DELETE = 0x02;
+  private static final byte INS_SET_CODE = 0x03;
+  private static final byte INS_RESET = 0x04;
+  private static final byte INS_RENAME = 0x05;
+  private static final byte INS_LIST = (byte) 0xa1;
+  private static final byte INS_CALCULATE = (byte) 0xa2;
+  private static final byte INS_VALIDATE = (byte) 0xa3;
+  private static final byte INS_CALCULATE_ALL = (byte) 0xa4;
+  private static final byte INS_SEND_REMAINING = (byte) 0xa5;
+
+  private static final int TAG_NAME = 0x71;
+  private static final int TAG_NAME_LIST = 0x72;
+  private static final int TAG_KEY = 0x73;
+  private static final int TAG_CHALLENGE = 0x74;
+  private static final int TAG_RESPONSE = 0x75;
+  private static final int TAG_TRUNCATED = 0x76;
+  private static final int TAG_HOTP = 0x77;
+  private static final int TAG_PROPERTY = 0x78;
+  private static final int TAG_VERSION = 0x79;
+  private static final int TAG_IMF = 0x7a;
+  private static final int TAG_ALGORITHM = 0x7b;
+  private static final int TAG_TOUCH = 0x7c;
+
+  private static final byte TYPE_MASK = (byte) 0xf0;
+  private static final byte TYPE_HOTP = 0x10;
+  private static final byte PROPERTY_REQUIRE_TOUCH = 0x02;
+  private static final int MAX_NAME_LENGTH = 64;
+  private static final int SALT_LENGTH = 8;
+  private static final int CHALLENGE_LENGTH = 8;
+
+  private final YubiKeySimulator simulator;
+  private final Map<ByteBuffer, Credential> credentials = new LinkedHashMap<>();
+  private byte[] salt = new byte[0];
+  private byte @Nullable [] accessKey;
+  private byte accessKeyAlgorithm;
+  // The challenge sent in the SELECT response, to be answered with VALIDATE
+  private byte @Nullable [] challenge;
+  private boolean unlocked;
+
+  OathApplet(YubiKeySimulator simulator) {
+    super(AppId.OATH);
+    this.simulator = simulator;
+    reset();
+  }
+
+  @Override
+  byte getSendRemainingIns() {
+    return INS_SEND_REMAINING;
+  }
+
+  @Override
+  byte[] select() {
+    Map<Integer, byte[]> response = new LinkedHashMap<>();
+    response.put(TAG_VERSION, simulator.getVersion().getBytes());
+    response.put(TAG_NAME, salt);
+    if (accessKey != null) {
+      challenge = RandomUtils.getRandomBytes(CHALLENGE_LENGTH);
+      response.put(TAG_CHALLENGE, challenge);
+      response.put(TAG_ALGORITHM, new byte[] {accessKeyAlgorithm});
+    }
+    unlocked = accessKey == null;
+    return Tlvs.encodeMap(response);
+  }
+
+  @Override
+  void deselect() {
+    unlocked = false;
+    challenge = null;
+  }
+
+  @Override
+  void reset() {
+    credentials.clear();
+    salt = RandomUtils.getRandomBytes(SALT_LENGTH);
+    accessKey = null;
+    challenge = null;
+    unlocked = true;
+  }
+
+  @Override
+  byte[] process(CommandApdu command) throws ApduException {
+    switch (command.ins) {
+      case INS_RESET:
+        if (command.getP1() != 0xde || command.getP2() != 0xad) {
+          throw error(SW.WRONG_PARAMETERS_P1P2);
+        }
+        reset();
+        return new byte[0];
+      case INS_VALIDATE:
+        return validate(command.data);
+      default:
+        break;
+    }
+
+    if (!unlocked) {
+      throw error(SW.SECURITY_CONDITION_NOT_SATISFIED);
+    }
+    switch (command.ins) {
+      case INS_PUT:
+        put(command.data);
+        return new byte[0];
+      case INS_DELETE:
+        if (credentials.remove(ByteBuffer.wrap(unpack(TAG_NAME, command.data))) == null) {
+          throw error(SW.DATA_INVALID);
+        }
+        return new byte[0];
+      case INS_RENAME:
+        rename(command.data);
+        return new byte[0];
+      case INS_SET_CODE:
+        setCode(command.data);
+        return new byte[0];
+      case INS_LIST:
+        return list();
+      case INS_CALCULATE:
+        return calculate(command.data, command.getP2() == 1);
+      case INS_CALCULATE_ALL:
+        return calculateAll(command.data, command.getP2() == 1);
+      default:
+        throw error(SW.INVALID_INSTRUCTION);
+    }
+  }
+
+  private void put(byte[] data) throws ApduException {
+    byte[] name = null;
+    byte[] key = null;
+    boolean touch = false;
+    int counter = 0;
+    int offset = 0;
+    while (offset < data.length) {
+      if (data[offset] == TAG_PROPERTY) {
+        // The property is sent as a tag and value, without a length
+        touch = (data[offset + 1] & PROPERTY_REQUIRE_TOUCH) != 0;
+        offset += 2;
+        continue;
+      }
+      TlvReader reader = new TlvReader(data, offset, data.length - offset);
+      if (!reader.next()) {
+        throw error(SW.INCORRECT_PARAMETERS);
+      }
+      offset += reader.getEncodedLength();
+      if (reader.getTag() == TAG_NAME) {
+        name = reader.getValue();
+      } else if (reader.getTag() == TAG_KEY) {
+        key = reader.getValue();
+      } else if (reader.getTag() == TAG_IMF) {
+        counter = reader.getValueBuffer().getInt();
+      }
+    }
+    if (name == null || name.length > MAX_NAME_LENGTH || key == null || key.length < 2) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    ByteBuffer id = ByteBuffer.wrap(name);
+    if (!credentials.containsKey(id) && credentials.size() >= getCapacity()) {
+      throw error(SW.NO_SPACE);
+    }
+    credentials.put(
+        id,
+        new Credential(
+            name, key[0], key[1], Arrays.copyOfRange(key, 2, key.length), touch, counter));
+  }
+
+  private void rename(byte[] data) throws ApduException {
+    List<Tlv> names = Tlvs.decodeList(data);
+    if (names.size() != 2) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    ByteBuffer from = ByteBuffer.wrap(names.get(0).getValue());
+    byte[] to = names.get(1).getValue();
+    Credential credential = credentials.get(from);
+    if (credential == null) {
+      throw error(SW.DATA_INVALID);
+    }
+    if (credentials.containsKey(ByteBuffer.wrap(to)) || to.length > MAX_NAME_LENGTH) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    // Keep the order of credentials, which is the order they are listed in
+    Map<ByteBuffer, Credential> renamed = new LinkedHashMap<>();
+    for (Map.Entry<ByteBuffer, Credential> entry : credentials.entrySet()) {
+      if (entry.getKey().equals(from)) {
+        renamed.put(ByteBuffer.wrap(to), credential.withName(to));
+      } else {
+        renamed.put(entry.getKey(), entry.getValue());
+      }
+    }
+    credentials.clear();
+    credentials.putAll(renamed);
+  }
+
+  private void setCode(byte[] data) throws ApduException {
+    Map<Integer, byte[]> request = Tlvs.decodeMap(data);
+    byte[] key = request.get(TAG_KEY);
+    if (key == null) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    if (key.length == 0) {
+      accessKey = null;
+      return;
+    }
+    byte algorithm = key[0];
+    byte[] newKey = Arrays.copyOfRange(key, 1, key.length);
+    byte[] clientChallenge = request.get(TAG_CHALLENGE);
+    byte[] response = request.get(TAG_RESPONSE);
+    if (clientChallenge == null
+        || response == null
+        || !MessageDigest.isEqual(response, hmac(algorithm, newKey, clientChallenge))) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    accessKey = newKey;
+    accessKeyAlgorithm = algorithm;
+  }
+
+  private byte[] validate(byte[] data) throws ApduException {
+    byte[] key = accessKey;
+    byte[] expected = challenge;
+    if (key == null || expected == null) {
+      throw error(SW.CONDITIONS_NOT_SATISFIED);
+    }
+    Map<Integer, byte[]> request = Tlvs.decodeMap(data);
+    byte[] response = request.get(TAG_RESPONSE);
+    byte[] clientChallenge = request.get(TAG_CHALLENGE);
+    if (response == null
+        || clientChallenge == null
+        || !MessageDigest.isEqual(response, hmac(accessKeyAlgorithm, key, expected))) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    unlocked = true;
+    challenge = null;
+    return new Tlv(TAG_RESPONSE, hmac(accessKeyAlgorithm, key, clientChallenge)).getBytes();
+  }
+
+  private byte[] list() {
+    List<Tlv> entries = new ArrayList<>();
+    for (Credential credential : credentials.values()) {
+      entries.add(
+          new Tlv(
+              TAG_NAME_LIST,
+              ByteBuffer.allocate(1 + credential.name.length)
+                  .put(credential.typeAndAlgorithm)
+                  .put(credential.name)
+                  .array()));
+    }
+    return Tlvs.encodeList(entries);
+  }
+
+  private byte[] calculate(byte[] data, boolean truncate) throws ApduException {
+    Map<Integer, byte[]> request = Tlvs.decodeMap(data);
+    byte[] name = request.get(TAG_NAME);
+    byte[] challenge = request.get(TAG_CHALLENGE);
+    Credential credential = name == null ? null : credentials.get(ByteBuffer.wrap(name));
+    if (credential == null || challenge == null) {
+      throw error(SW.DATA_INVALID);
+    }
+    return response(credential, challenge, truncate).getBytes();
+  }
+
+  private byte[] calculateAll(byte[] data, boolean truncate) throws ApduException {
+    byte[] challenge = unpack(TAG_CHALLENGE, data);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    for (Credential credential : credentials.values()) {
+      Tlv response;
+      if (credential.isHotp()) {
+        response = new Tlv(TAG_HOTP, new byte[] {credential.digits});
+      } else if (credential.touch) {
+        response = new Tlv(TAG_TOUCH, new byte[] {credential.digits});
+      } else {
+        response = response(credential, challenge, truncate);
+      }
+      byte[] name = new Tlv(TAG_NAME, credential.name).getBytes();
+      output.write(name, 0, name.length);
+      byte[] encoded = response.getBytes();
+      output.write(encoded, 0, encoded.length);
+    }
+    return output.toByteArray();
+  }
+
+  private Tlv response(Credential credential, byte[] challenge, boolean truncate) {
+    if (credential.isHotp()) {
+      // The counter is used instead of the challenge
+      challenge = ByteBuffer.allocate(8).putLong(credential.counter++ & 0xffffffffL).array();
+    }
+    byte[] hmac = hmac(credential.typeAndAlgorithm, credential.key, challenge);
+    if (!truncate) {
+      return new Tlv(
+          TAG_RESPONSE,
+          ByteBuffer.allocate(1 + hmac.length).put(credential.digits).put(hmac).array());
+    }
+    int offset = hmac[hmac.length - 1] & 0x0f;
+    int value = ByteBuffer.wrap(hmac, offset, 4).getInt() & 0x7fffffff;
+    return new Tlv(
+        TAG_TRUNCATED, ByteBuffer.allocate(5).put(credential.digits).putInt(value).array());
+  }
+
+  private int getCapacity() {
+    return simulator.getVersion().isAtLeast(5, 7, 0) ? 64 : 32;
+  }
+
+  private static byte[] hmac(byte typeAndAlgorithm, byte[] key, byte[] message) {
+    String algorithm;
+    switch (typeAndAlgorithm & 0x0f) {
+      case 2:
+        algorithm = "HmacSHA256";
+        break;
+      case 3:
+        algorithm = "HmacSHA512";
+        break;
+      default:
+        algorithm = "HmacSHA1";
+    }
+    try {
+      Mac mac = Mac.getInstance(algorithm);
+      mac.init(new SecretKeySpec(key, algorithm));
+      return mac.doFinal(message);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static class Credential {
+    private final byte[] name;
+    private final byte typeAndAlgorithm;
+    private final byte digits;
+    private final byte[] key;
+    private final boolean touch;
+    private int counter;
+
+    private Credential(
+        byte[] name, byte typeAndAlgorithm, byte digits, byte[] key, boolean touch, int counter) {
+      this.name = name;
+      this.typeAndAlgorithm = typeAndAlgorithm;
+      this.digits = digits;
+      this.key = key;
+      this.touch = touch;
+      this.counter = counter;
+    }
+
+    private boolean isHotp() {
+      return (typeAndAlgorithm & TYPE_MASK) == TYPE_HOTP;
+    }
+
+    private Credential withName(byte[] name) {
+      return new Credential(name, typeAndAlgorithm, digits, key, touch, counter);
+    }
+  }
+}
@@ -0,0 +1,690 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.AppId;
+import com.yubico.yubikit.core.smartcard.SW;
+import com.yubico.yubikit.core.util.RandomUtils;
+import com.yubico.yubikit.core.util.Tlv;
+import com.yubico.yubikit.core.util.Tlvs;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import javax.crypto.spec.SecretKeySpec;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The PIV application, with PIN and PUK handling, management key authentication, key generation,
+ * private key operations and data objects.
+ *
+ * <p>RSA and NIST P-256/P-384 keys are supported. Key import, attestation and Curve25519 keys are
+ * not.
+ */
+class PivApplet extends Applet {
+  private static final byte INS_VERIFY = 0x20;
+  private static final byte INS_CHANGE_REFERENCE = 0x24;
+  private static final byte INS_RESET_RETRY = 0x2c;
+  private static final byte INS_GENERATE_ASYMMETRIC = 0x47;
+  private static final byte INS_AUTHENTICATE = (byte) 0x87;
+  private static final byte INS_GET_DATA = (byte) 0xcb;
+  private static final byte INS_PUT_DATA = (byte) 0xdb;
+  private static final byte INS_MOVE_KEY = (byte) 0xf6;
+  private static final byte INS_GET_METADATA = (byte) 0xf7;
+  private static final byte INS_GET_SERIAL = (byte) 0xf8;
+  private static final byte INS_SET_PIN_RETRIES = (byte) 0xfa;
+  private static final byte INS_RESET = (byte) 0xfb;
+  private static final byte INS_GET_VERSION = (byte) 0xfd;
+  private static final byte INS_SET_MGMKEY = (byte) 0xff;
+
+  private static final int TAG_AUTH_WITNESS = 0x80;
+  private static final int TAG_AUTH_CHALLENGE = 0x81;
+  private static final int TAG_AUTH_RESPONSE = 0x82;
+  private static final int TAG_AUTH_EXPONENTIATION = 0x85;
+  private static final int TAG_GEN_ALGORITHM = 0x80;
+  private static final int TAG_OBJ_DATA = 0x53;
+  private static final int TAG_OBJ_ID = 0x5c;
+  private static final int TAG_DYN_AUTH = 0x7c;
+  private static final int TAG_GEN_TEMPLATE = 0xac;
+  private static final int TAG_PUBLIC_KEY = 0x7f49;
+  private static final int TAG_PIN_POLICY = 0xaa;
+  private static final int TAG_TOUCH_POLICY = 0xab;
+
+  private static final int TAG_METADATA_ALGO = 0x01;
+  private static final int TAG_METADATA_POLICY = 0x02;
+  private static final int TAG_METADATA_ORIGIN = 0x03;
+  private static final int TAG_METADATA_PUBLIC_KEY = 0x04;
+  private static final int TAG_METADATA_IS_DEFAULT = 0x05;
+  private static final int TAG_METADATA_RETRIES = 0x06;
+
+  private static final int PIN_P2 = 0x80;
+  private static final int PUK_P2 = 0x81;
+  private static final int SLOT_CARD_MANAGEMENT = 0x9b;
+  private static final int SLOT_SIGNATURE = 0x9c;
+  private static final int SLOT_CARD_AUTH = 0x9e;
+
+  private static final byte MGMKEY_TDES = 0x03;
+  private static final byte MGMKEY_AES128 = 0x08;
+  private static final byte MGMKEY_AES192 = 0x0a;
+  private static final byte MGMKEY_AES256 = 0x0c;
+
+  private static final byte KEY_RSA1024 = 0x06;
+  private static final byte KEY_RSA2048 = 0x07;
+  private static final byte KEY_RSA3072 = 0x05;
+  private static final byte KEY_RSA4096 = 0x16;
+  private static final byte KEY_ECCP256 = 0x11;
+  private static final byte KEY_ECCP384 = 0x14;
+
+  private static final byte PIN_POLICY_DEFAULT = 0;
+  private static final byte PIN_POLICY_NEVER = 1;
+  private static final byte PIN_POLICY_ONCE = 2;
+  private static final byte PIN_POLICY_ALWAYS = 3;
+  private static final byte TOUCH_POLICY_DEFAULT = 0;
+  private static final byte TOUCH_POLICY_NEVER = 1;
+  private static final byte ORIGIN_GENERATED = 1;
+
+  private static final int PIN_LENGTH = 8;
+  private static final int MIN_PIN_LENGTH = 6;
+  private static final int DEFAULT_RETRIES = 3;
+  private static final byte[] DEFAULT_PIN = pinBytes("123456");
+  private static final byte[] DEFAULT_PUK = pinBytes("12345678");
+  private static final byte[] DEFAULT_MANAGEMENT_KEY =
+      new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4, 5, 6, 7, 8};
+
+  private final YubiKeySimulator simulator;
+  private final Reference pin = new Reference();
+  private final Reference puk = new Reference();
+  private byte[] managementKey = new byte[0];
+  private byte managementKeyType;
+  private byte managementKeyTouchPolicy;
+  private final Map<Integer, SlotKey> keys = new HashMap<>();
+  private final Map<ByteBuffer, byte[]> objects = new HashMap<>();
+
+  private boolean pinVerified;
+  // Set by VERIFY, and cleared by the next private key operation, for PIN policy ALWAYS
+  private boolean pinJustVerified;
+  private boolean authenticated;
+  // The witness sent in the first step of management key authentication
+  private byte @Nullable [] witness;
+
+  PivApplet(YubiKeySimulator simulator) {
+    super(AppId.PIV);
+    this.simulator = simulator;
+    reset();
+  }
+
+  @Override
+  byte[] select() {
+    deselect();
+    return new byte[0];
+  }
+
+  @Override
+  void deselect() {
+    pinVerified = false;
+    pinJustVerified = false;
+    authenticated = false;
+    witness = null;
+  }
+
+  @Override
+  void reset() {
+    pin.set(DEFAULT_PIN, DEFAULT_RETRIES);
+    puk.set(DEFAULT_PUK, DEFAULT_RETRIES);
+    managementKey = DEFAULT_MANAGEMENT_KEY;
+    managementKeyType = simulator.getVersion().isAtLeast(5, 7, 0) ? MGMKEY_AES192 : MGMKEY_TDES;
+    managementKeyTouchPolicy = TOUCH_POLICY_NEVER;
+    keys.clear();
+    objects.clear();
+    deselect();
+  }
+
+  @Override
+  byte[] process(CommandApdu command) throws ApduException {
+    switch (command.ins) {
+      case INS_GET_VERSION:
+        return simulator.getVersion().getBytes();
+      case INS_GET_SERIAL:
+        return ByteBuffer.allocate(4).putInt(simulator.getSerialNumber()).array();
+      case INS_VERIFY:
+        verify(command);
+        return new byte[0];
+      case INS_CHANGE_REFERENCE:
+        changeReference(command);
+        return new byte[0];
+      case INS_RESET_RETRY:
+        resetRetry(command.data);
+        return new byte[0];
+      case INS_AUTHENTICATE:
+        return new Tlv(TAG_DYN_AUTH, authenticate(command)).getBytes();
+      case INS_GENERATE_ASYMMETRIC:
+        return generate(command);
+      case INS_GET_DATA:
+        return getObject(command.data);
+      case INS_PUT_DATA:
+        putObject(command.data);
+        return new byte[0];
+      case INS_GET_METADATA:
+        return getMetadata(command.getP2());
+      case INS_SET_MGMKEY:
+        setManagementKey(command);
+        return new byte[0];
+      case INS_MOVE_KEY:
+        moveKey(command.getP1(), command.getP2());
+        return new byte[0];
+      case INS_SET_PIN_RETRIES:
+        setPinRetries(command.getP1(), command.getP2());
+        return new byte[0];
+      case INS_RESET:
+        if (pin.remaining > 0 || puk.remaining > 0) {
+          throw error(SW.CONDITIONS_NOT_SATISFIED);
+        }
+        reset();
+        return new byte[0];
+      default:
+        throw error(SW.INVALID_INSTRUCTION);
+    }
+  }
+
+  private void verify(CommandApdu command) throws ApduException {
+    if (command.getP2() != PIN_P2) {
+      throw error(SW.REFERENCED_DATA_NOT_FOUND);
+    }
+    if (command.getP1() == 0xff) {
+      // Reset the verification status
+      pinVerified = false;
+      pinJustVerified = false;
+      return;
+    }
+    if (command.data.length == 0) {
+      // Query the verification status
+      if (!pinVerified) {
+        throw pin.retriesError();
+      }
+      return;
+    }
+    pinVerified = false;
+    pinJustVerified = false;
+    pin.verify(command.data);
+    pinVerified = true;
+    pinJustVerified = true;
+  }
+
+  private void changeReference(CommandApdu command) throws ApduException {
+    Reference reference = getReference(command.getP2());
+    if (command.data.length != 2 * PIN_LENGTH) {
+      throw error(SW.WRONG_LENGTH);
+    }
+    byte[] newValue = Arrays.copyOfRange(command.data, PIN_LENGTH, 2 * PIN_LENGTH);
+    checkPinLength(newValue);
+    reference.verify(Arrays.copyOf(command.data, PIN_LENGTH));
+    reference.set(newValue, reference.total);
+  }
+
+  private void resetRetry(byte[] data) throws ApduException {
+    if (data.length != 2 * PIN_LENGTH) {
+      throw error(SW.WRONG_LENGTH);
+    }
+    byte[] newPin = Arrays.copyOfRange(data, PIN_LENGTH, 2 * PIN_LENGTH);
+    checkPinLength(newPin);
+    puk.verify(Arrays.copyOf(data, PIN_LENGTH));
+    pin.set(newPin, pin.total);
+  }
+
+  private void setPinRetries(int pinRetries, int pukRetries) throws ApduException {
+    if (!authenticated || !pinVerified) {
+      throw error(SW.SECURITY_CONDITION_NOT_SATISFIED);
+    }
+    if (pinRetries == 0 || pukRetries == 0) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    // The PIN and PUK are reset to their defaults
+    pin.set(DEFAULT_PIN, pinRetries);
+    puk.set(DEFAULT_PUK, pukRetries);
+  }
+
+  private Reference getReference(int p2) throws ApduException {
+    if (p2 == PIN_P2) {
+      return pin;
+    } else if (p2 == PUK_P2) {
+      return puk;
+    }
+    throw error(SW.REFERENCED_DATA_NOT_FOUND);
+  }
+
+  private byte[] authenticate(CommandApdu command) throws ApduException {
+    Map<Integer, byte[]> request = Tlvs.decodeMap(unpack(TAG_DYN_AUTH, command.data));
+    int slot = command.getP2();
+    if (slot == SLOT_CARD_MANAGEMENT) {
+      if (command.p1 != managementKeyType) {
+        throw error(SW.INCORRECT_PARAMETERS);
+      }
+      return authenticateManagementKey(request);
+    }
+
+    SlotKey key = keys.get(slot);
+    if (key == null || command.p1 != key.keyType) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    checkPinPolicy(key.pinPolicy);
+    byte[] result;
+    byte[] challenge = request.get(TAG_AUTH_CHALLENGE);
+    byte[] exponentiation = request.get(TAG_AUTH_EXPONENTIATION);
+    try {
+      if (challenge != null) {
+        result = key.isRsa() ? rsaDecrypt(key, challenge) : ecSign(key, challenge);
+      } else if (exponentiation != null && !key.isRsa()) {
+        result = ecdh(key, exponentiation);
+      } else {
+        throw error(SW.INCORRECT_PARAMETERS);
+      }
+    } catch (GeneralSecurityException e) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    return new Tlv(TAG_AUTH_RESPONSE, result).getBytes();
+  }
+
+  private byte[] authenticateManagementKey(Map<Integer, byte[]> request) throws ApduException {
+    byte[] requestWitness = request.get(TAG_AUTH_WITNESS);
+    if (requestWitness == null) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    authenticated = false;
+    if (requestWitness.length == 0) {
+      // Step one, send an encrypted witness
+      byte[] plaintext = RandomUtils.getRandomBytes(getBlockSize(managementKeyType));
+      witness = plaintext;
+      return new Tlv(TAG_AUTH_WITNESS, managementCipher(Cipher.ENCRYPT_MODE, plaintext)).getBytes();
+    }
+
+    // Step two, check the decrypted witness, and encrypt the challenge
+    byte[] expected = witness;
+    witness = null;
+    byte[] challenge = request.get(TAG_AUTH_CHALLENGE);
+    if (expected == null || challenge == null || !MessageDigest.isEqual(expected, requestWitness)) {
+      throw error(SW.SECURITY_CONDITION_NOT_SATISFIED);
+    }
+    authenticated = true;
+    return new Tlv(TAG_AUTH_RESPONSE, managementCipher(Cipher.ENCRYPT_MODE, challenge)).getBytes();
+  }
+
+  private byte[] managementCipher(int mode, byte[] data) throws ApduException {
+    String algorithm = managementKeyType == MGMKEY_TDES ? "DESede" : "AES";
+    try {
+      Cipher cipher = Cipher.getInstance(algorithm + "/ECB/NoPadding");
+      cipher.init(mode, new SecretKeySpec(managementKey, algorithm));
+      return cipher.doFinal(data);
+    } catch (GeneralSecurityException e) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+  }
+
+  private void checkPinPolicy(byte pinPolicy) throws ApduException {
+    boolean allowed;
+    switch (pinPolicy) {
+      case PIN_POLICY_NEVER:
+        allowed = true;
+        break;
+      case PIN_POLICY_ALWAYS:
+        allowed = pinJustVerified;
+        break;
+      default:
+        allowed = pinVerified;
+    }
+    pinJustVerified = false;
+    if (!allowed) {
+      throw error(SW.SECURITY_CONDITION_NOT_SATISFIED);
+    }
+  }
+
+  private byte[] generate(CommandApdu command) throws ApduException {
+    if (!authenticated) {
+      throw error(SW.SECURITY_CONDITION_NOT_SATISFIED);
+    }
+    int slot = command.getP2();
+    checkKeySlot(slot);
+    Map<Integer, byte[]> template = Tlvs.decodeMap(unpack(TAG_GEN_TEMPLATE, command.data));
+    byte[] algorithm = template.get(TAG_GEN_ALGORITHM);
+    if (algorithm == null || algorithm.length != 1) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    byte keyType = algorithm[0];
+    KeyPair keyPair;
+    try {
+      KeyPairGenerator generator;
+      if (keyType == KEY_ECCP256 || keyType == KEY_ECCP384) {
+        generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(
+            new ECGenParameterSpec(keyType == KEY_ECCP256 ? "secp256r1" : "secp384r1"));
+      } else {
+        generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(getRsaKeySize(keyType));
+      }
+      keyPair = generator.generateKeyPair();
+    } catch (GeneralSecurityException e) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+
+    byte pinPolicy = getPolicy(template, TAG_PIN_POLICY);
+    if (pinPolicy == PIN_POLICY_DEFAULT) {
+      pinPolicy =
+          slot == SLOT_SIGNATURE
+              ? PIN_POLICY_ALWAYS
+              : slot == SLOT_CARD_AUTH ? PIN_POLICY_NEVER : PIN_POLICY_ONCE;
+    }
+    byte touchPolicy = getPolicy(template, TAG_TOUCH_POLICY);
+    if (touchPolicy == TOUCH_POLICY_DEFAULT) {
+      touchPolicy = TOUCH_POLICY_NEVER;
+    }
+    SlotKey key = new SlotKey(keyType, keyPair, pinPolicy, touchPolicy);
+    keys.put(slot, key);
+    return new Tlv(TAG_PUBLIC_KEY, key.encodePublicKey()).getBytes();
+  }
+
+  private void moveKey(int destination, int source) throws ApduException {
+    if (simulator.getVersion().isLessThan(5, 7, 0)) {
+      throw error(SW.INVALID_INSTRUCTION);
+    }
+    if (!authenticated) {
+      throw error(SW.SECURITY_CONDITION_NOT_SATISFIED);
+    }
+    checkKeySlot(source);
+    SlotKey key = keys.remove(source);
+    if (destination == 0xff) {
+      // Delete the key
+      return;
+    }
+    checkKeySlot(destination);
+    if (key == null || keys.containsKey(destination)) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    keys.put(destination, key);
+  }
+
+  private byte[] getObject(byte[] data) throws ApduException {
+    byte[] value = objects.get(ByteBuffer.wrap(unpack(TAG_OBJ_ID, data)));
+    if (value == null) {
+      throw error(SW.FILE_NOT_FOUND);
+    }
+    return new Tlv(TAG_OBJ_DATA, value).getBytes();
+  }
+
+  private void putObject(byte[] data) throws ApduException {
+    if (!authenticated) {
+      throw error(SW.SECURITY_CONDITION_NOT_SATISFIED);
+    }
+    Map<Integer, byte[]> request = Tlvs.decodeMap(data);
+    byte[] objectId = request.get(TAG_OBJ_ID);
+    byte[] value = request.get(TAG_OBJ_DATA);
+    if (objectId == null || value == null) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    if (value.length == 0) {
+      objects.remove(ByteBuffer.wrap(objectId));
+    } else {
+      objects.put(ByteBuffer.wrap(objectId), value);
+    }
+  }
+
+  private void setManagementKey(CommandApdu command) throws ApduException {
+    if (!authenticated) {
+      throw error(SW.SECURITY_CONDITION_NOT_SATISFIED);
+    }
+    byte[] data = command.data;
+    if (data.length < 3 || (data[1] & 0xff) != SLOT_CARD_MANAGEMENT) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    byte keyType = data[0];
+    byte[] key = Arrays.copyOfRange(data, 3, data.length);
+    if (key.length != (data[2] & 0xff) || key.length != getManagementKeyLength(keyType)) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+    managementKeyType = keyType;
+    managementKey = key;
+    managementKeyTouchPolicy = command.getP2() == 0xfe ? (byte) 2 : TOUCH_POLICY_NEVER;
+  }
+
+  private byte[] getMetadata(int p2) throws ApduException {
+    if (simulator.getVersion().isLessThan(5, 3, 0)) {
+      throw error(SW.INVALID_INSTRUCTION);
+    }
+    Map<Integer, byte[]> data = new LinkedHashMap<>();
+    if (p2 == PIN_P2 || p2 == PUK_P2) {
+      Reference reference = getReference(p2);
+      byte[] defaultValue = p2 == PIN_P2 ? DEFAULT_PIN : DEFAULT_PUK;
+      data.put(
+          TAG_METADATA_IS_DEFAULT,
+          new byte[] {(byte) (Arrays.equals(reference.value, defaultValue) ? 1 : 0)});
+      data.put(
+          TAG_METADATA_RETRIES, new byte[] {(byte) reference.total, (byte) reference.remaining});
+    } else if (p2 == SLOT_CARD_MANAGEMENT) {
+      data.put(TAG_METADATA_ALGO, new byte[] {managementKeyType});
+      data.put(TAG_METADATA_POLICY, new byte[] {0, managementKeyTouchPolicy});
+      data.put(
+          TAG_METADATA_IS_DEFAULT,
+          new byte[] {(byte) (Arrays.equals(managementKey, DEFAULT_MANAGEMENT_KEY) ? 1 : 0)});
+    } else {
+      SlotKey key = keys.get(p2);
+      if (key == null) {
+        throw error(SW.REFERENCED_DATA_NOT_FOUND);
+      }
+      data.put(TAG_METADATA_ALGO, new byte[] {key.keyType});
+      data.put(TAG_METADATA_POLICY, new byte[] {key.pinPolicy, key.touchPolicy});
+      data.put(TAG_METADATA_ORIGIN, new byte[] {ORIGIN_GENERATED});
+      data.put(TAG_METADATA_PUBLIC_KEY, key.encodePublicKey());
+    }
+    return Tlvs.encodeMap(data);
+  }
+
+  private static byte[] rsaDecrypt(SlotKey key, byte[] message) throws GeneralSecurityException {
+    Cipher cipher = Cipher.getInstance("RSA/ECB/NoPadding");
+    cipher.init(Cipher.DECRYPT_MODE, key.keyPair.getPrivate());
+    return leftPad(
+        cipher.doFinal(message),
+        (((RSAPublicKey) key.keyPair.getPublic()).getModulus().bitLength() + 7) / 8);
+  }
+
+  private static byte[] ecSign(SlotKey key, byte[] message) throws GeneralSecurityException {
+    // The message is a hash, truncated by the caller to the size of the key
+    Signature signature = Signature.getInstance("NONEwithECDSA");
+    signature.initSign(key.keyPair.getPrivate());
+    signature.update(message);
+    return signature.sign();
+  }
+
+  private static byte[] ecdh(SlotKey key, byte[] peerPoint) throws GeneralSecurityException {
+    ECParameterSpec params = ((ECPrivateKey) key.keyPair.getPrivate()).getParams();
+    int length = (params.getCurve().getField().getFieldSize() + 7) / 8;
+    if (peerPoint.length != 1 + 2 * length || peerPoint[0] != 0x04) {
+      throw new GeneralSecurityException("Invalid point");
+    }
+    ECPoint point =
+        new ECPoint(
+            new BigInteger(1, Arrays.copyOfRange(peerPoint, 1, 1 + length)),
+            new BigInteger(1, Arrays.copyOfRange(peerPoint, 1 + length, peerPoint.length)));
+    PublicKey peer =
+        KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, params));
+    KeyAgreement agreement = KeyAgreement.getInstance("ECDH");
+    agreement.init(key.keyPair.getPrivate());
+    agreement.doPhase(peer, true);
+    return agreement.generateSecret();
+  }
+
+  private static void checkKeySlot(int slot) throws ApduException {
+    boolean retired = slot >= 0x82 && slot <= 0x95;
+    if (!retired && slot != 0x9a && slot != 0x9c && slot != 0x9d && slot != 0x9e) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+  }
+
+  private static void checkPinLength(byte[] pin) throws ApduException {
+    int length = 0;
+    while (length < pin.length && pin[length] != (byte) 0xff) {
+      length++;
+    }
+    if (length < MIN_PIN_LENGTH) {
+      throw error(SW.INCORRECT_PARAMETERS);
+    }
+  }
+
+  private static byte getPolicy(Map<Integer, byte[]> template, int tag) {
+    byte[] value = template.get(tag);
+    return value != null && value.length == 1 ? value[0] : 0;
+  }
+
+  private static int getRsaKeySize(byte keyType) throws ApduException {
+    switch (keyType) {
+      case KEY_RSA1024:
+        return 1024;
+      case KEY_RSA2048:
+        return 2048;
+      case KEY_RSA3072:
+        return 3072;
+      case KEY_RSA4096:
+        return 4096;
+      default:
+        throw error(SW.INCORRECT_PARAMETERS);
+    }
+  }
+
+  private static int getManagementKeyLength(byte keyType) throws ApduException {
+    switch (keyType) {
+      case MGMKEY_TDES:
+      case MGMKEY_AES192:
+        return 24;
+      case MGMKEY_AES128:
+        return 16;
+      case MGMKEY_AES256:
+        return 32;
+      default:
+        throw error(SW.INCORRECT_PARAMETERS);
+    }
+  }
+
+  private static int getBlockSize(byte keyType) {
+    return keyType == MGMKEY_TDES ? 8 : 16;
+  }
+
+  private static byte[] leftPad(byte[] data, int length) {
+    if (data.length >= length) {
+      return data;
+    }
+    byte[] padded = new byte[length];
+    System.arraycopy(data, 0, padded, length - data.length, data.length);
+    return padded;
+  }
+
+  private static byte[] pinBytes(String pin) {
+    byte[] bytes = new byte[PIN_LENGTH];
+    Arrays.fill(bytes, (byte) 0xff);
+    for (int i = 0; i < pin.length(); i++) {
+      bytes[i] = (byte) pin.charAt(i);
+    }
+    return bytes;
+  }
+
+  /** A PIN or PUK, with its retry counter. */
+  private static class Reference {
+    private byte[] value = new byte[0];
+    private int total;
+    private int remaining;
+
+    private void set(byte[] value, int retries) {
+      this.value = value;
+      total = retries;
+      remaining = retries;
+    }
+
+    private void verify(byte[] attempt) throws ApduException {
+      if (remaining == 0) {
+        throw error(SW.AUTH_METHOD_BLOCKED);
+      }
+      if (!MessageDigest.isEqual(value, attempt)) {
+        remaining--;
+        throw retriesError();
+      }
+      remaining = total;
+    }
+
+    private ApduException retriesError() {
+      return remaining == 0
+          ? error(SW.AUTH_METHOD_BLOCKED)
+          : error((short) (SW.VERIFY_FAIL_NO_RETRY | Math.min(remaining, 0x0f)));
+    }
+  }
+
+  private static class SlotKey {
+    private final byte keyType;
+    private final KeyPair keyPair;
+    private final byte pinPolicy;
+    private final byte touchPolicy;
+
+    private SlotKey(byte keyType, KeyPair keyPair, byte pinPolicy, byte touchPolicy) {
+      this.keyType = keyType;
+      this.keyPair = keyPair;
+      this.pinPolicy = pinPolicy;
+      this.touchPolicy = touchPolicy;
+    }
+
+    private boolean isRsa() {
+      return keyType != KEY_ECCP256 && keyType != KEY_ECCP384;
+    }
+
+    /** Encodes the public key, as the value of a 7F49 TLV. */
+    private byte[] encodePublicKey() {
+      if (isRsa()) {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        return Tlvs.encodeList(
+            Arrays.asList(
+                new Tlv(0x81, unsigned(publicKey.getModulus())),
+                new Tlv(0x82, unsigned(publicKey.getPublicExponent()))));
+      }
+      ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+      int length = (publicKey.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+      byte[] point =
+          ByteBuffer.allocate(1 + 2 * length)
+              .put((byte) 0x04)
+              .put(leftPad(unsigned(publicKey.getW().getAffineX()), length))
+              .put(leftPad(unsigned(publicKey.getW().getAffineY()), length))
+              .array();
+      return new Tlv(0x86, point).getBytes();
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+      byte[] bytes = value.toByteArray();
+      return bytes[0] == 0 && bytes.length > 1 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+  }
+}
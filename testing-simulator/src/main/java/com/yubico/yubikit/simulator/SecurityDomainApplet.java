@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.AppId;
+import com.yubico.yubikit.core.smartcard.SW;
+import com.yubico.yubikit.core.util.Tlv;
+import com.yubico.yubikit.core.util.Tlvs;
+import java.util.Arrays;
+
+/**
+ * The Security Domain application, holding only the default SCP03 key set.
+ *
+ * <p>Key information and card recognition data can be read, which is what is needed to open a
+ * {@code SecurityDomainSession}. Secure channels and key management are not supported.
+ */
+class SecurityDomainApplet extends Applet {
+  private static final byte INS_GET_DATA = (byte) 0xca;
+
+  private static final int TAG_KEY_INFORMATION = 0xe0;
+  private static final int TAG_CARD_RECOGNITION_DATA = 0x66;
+
+  private static final byte KID_SCP03 = 0x01;
+  private static final byte KVN_DEFAULT = (byte) 0xff;
+  private static final byte KEY_TYPE_AES = (byte) 0x88;
+  private static final byte KEY_LENGTH_AES128 = 0x10;
+
+  // GlobalPlatform card recognition data, identifying GlobalPlatform 2.3 and SCP03
+  private static final byte[] CARD_RECOGNITION_DATA =
+      new Tlv(
+              0x73,
+              Tlvs.encodeList(
+                  Arrays.asList(
+                      new Tlv(0x06, oid(0x01)),
+                      new Tlv(0x60, new Tlv(0x06, oid(0x02, 0x02, 0x03)).getBytes()),
+                      new Tlv(0x64, new Tlv(0x06, oid(0x04, 0x03, 0x10)).getBytes()))))
+          .getBytes();
+
+  SecurityDomainApplet() {
+    super(AppId.SECURITYDOMAIN);
+  }
+
+  @Override
+  byte[] select() {
+    return new byte[0];
+  }
+
+  @Override
+  byte[] process(CommandApdu command) throws ApduException {
+    if (command.ins != INS_GET_DATA) {
+      throw error(SW.INVALID_INSTRUCTION);
+    }
+    int tag = command.getP1() << 8 | command.getP2();
+    switch (tag) {
+      case TAG_KEY_INFORMATION:
+        // One AES-128 key set, of ENC, MAC and DEK keys
+        return new Tlv(
+                0xc0,
+                new byte[] {
+                  KID_SCP03,
+                  KVN_DEFAULT,
+                  KEY_TYPE_AES,
+                  KEY_LENGTH_AES128,
+                  KEY_TYPE_AES,
+                  KEY_LENGTH_AES128,
+                  KEY_TYPE_AES,
+                  KEY_LENGTH_AES128
+                })
+            .getBytes();
+      case TAG_CARD_RECOGNITION_DATA:
+        return Arrays.copyOf(CARD_RECOGNITION_DATA, CARD_RECOGNITION_DATA.length);
+      default:
+        throw error(SW.REFERENCED_DATA_NOT_FOUND);
+    }
+  }
+
+  @Override
+  void reset() {}
+
+  /** Returns a GlobalPlatform OID, 1.2.840.114283 followed by the given arcs. */
+  private static byte[] oid(int... arcs) {
+    byte[] oid =
+        Arrays.copyOf(
+            new byte[] {0x2a, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xfc, 0x6b}, 6 + arcs.length);
+    for (int i = 0; i < arcs.length; i++) {
+      oid[6 + i] = (byte) arcs[i];
+    }
+    return oid;
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.Version;
+import com.yubico.yubikit.core.fido.CtapException;
+import com.yubico.yubikit.core.fido.FidoConnection;
+import com.yubico.yubikit.core.fido.FidoProtocol;
+import com.yubico.yubikit.core.smartcard.SW;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A HID connection to the CTAP2 authenticator of a {@link YubiKeySimulator}.
+ *
+ * <p>Messages are framed in CTAPHID packets, and the INIT, PING, WINK, CBOR, MSG and CANCEL
+ * commands are handled. While a command waits for touch the connection sends KEEPALIVE packets, as
+ * set by {@link YubiKeySimulator#setTouchKeepAlives(int, long)}, and a CANCEL sent in between ends
+ * it with {@link CtapException#ERR_KEEPALIVE_CANCEL}. CTAP1 is not supported, and every MSG is
+ * answered with the status word for an unsupported instruction.
+ */
+public class SimulatedFidoConnection implements FidoConnection {
+  private static final int BROADCAST_CHANNEL = 0xffffffff;
+  private static final int MAX_MESSAGE_SIZE = 7609;
+  private static final int INIT_DATA_SIZE = PACKET_SIZE - 7;
+  private static final int CONTINUATION_DATA_SIZE = PACKET_SIZE - 5;
+
+  private static final byte TYPE_INIT = (byte) 0x80;
+  private static final byte CTAPHID_PING = TYPE_INIT | 0x01;
+  private static final byte CTAPHID_MSG = TYPE_INIT | 0x03;
+  private static final byte CTAPHID_INIT = TYPE_INIT | 0x06;
+  private static final byte CTAPHID_WINK = TYPE_INIT | 0x08;
+  private static final byte CTAPHID_CBOR = TYPE_INIT | 0x10;
+  private static final byte CTAPHID_CANCEL = TYPE_INIT | 0x11;
+  private static final byte CTAPHID_KEEPALIVE = TYPE_INIT | 0x3b;
+  private static final byte CTAPHID_ERROR = TYPE_INIT | 0x3f;
+
+  private static final byte ERR_INVALID_CMD = 0x01;
+  private static final byte ERR_INVALID_LEN = 0x03;
+  private static final byte ERR_INVALID_SEQ = 0x04;
+  private static final byte ERR_CHANNEL_BUSY = 0x06;
+  private static final byte ERR_INVALID_CHANNEL = 0x0b;
+
+  private static final byte U2FHID_PROTOCOL_VERSION = 2;
+  private static final byte STATUS_UPNEEDED = 0x02;
+
+  private final YubiKeySimulator simulator;
+  private final Ctap2Authenticator authenticator;
+  private final Latency latency;
+  private final Set<Integer> channels = new HashSet<>();
+  private final Queue<byte[]> output = new ArrayDeque<>();
+
+  // The message being received, if any
+  private @Nullable ByteBuffer message;
+  private int messageChannel;
+  private byte messageCommand;
+  private byte messageSequence;
+
+  // A CBOR command waiting to complete, if any
+  private Ctap2Authenticator.@Nullable Response pending;
+  private int pendingChannel;
+  private int keepAlivesSent;
+  private boolean cancelled;
+  private volatile boolean closed;
+
+  SimulatedFidoConnection(
+      YubiKeySimulator simulator, Ctap2Authenticator authenticator, Latency latency) {
+    this.simulator = simulator;
+    this.authenticator = authenticator;
+    this.latency = latency;
+  }
+
+  @Override
+  public synchronized void send(byte[] packet) throws IOException {
+    ensureOpen();
+    latency.await(packet.length);
+    ByteBuffer buffer = ByteBuffer.wrap(packet);
+    int channel = buffer.getInt();
+    byte type = buffer.get();
+
+    if ((type & TYPE_INIT) != 0) {
+      if (type == CTAPHID_CANCEL) {
+        // Ignored unless a command on the channel is waiting
+        cancelled |= pending != null && channel == pendingChannel;
+        return;
+      }
+      if (pending != null) {
+        sendError(channel, ERR_CHANNEL_BUSY);
+        return;
+      }
+      int length = buffer.getShort() & 0xffff;
+      if (length > MAX_MESSAGE_SIZE) {
+        sendError(channel, ERR_INVALID_LEN);
+        return;
+      }
+      message = ByteBuffer.allocate(length);
+      messageChannel = channel;
+      messageCommand = type;
+      messageSequence = 0;
+    } else {
+      if (message == null || channel != messageChannel) {
+        // A continuation packet without a message is ignored
+        return;
+      }
+      if (type != messageSequence++) {
+        message = null;
+        sendError(channel, ERR_INVALID_SEQ);
+        return;
+      }
+    }
+
+    ByteBuffer received = message;
+    if (received != null) {
+      received.put(packet, buffer.position(), Math.min(buffer.remaining(), received.remaining()));
+      if (!received.hasRemaining()) {
+        message = null;
+        dispatch(messageChannel, messageCommand, received.array());
+      }
+    }
+  }
+
+  @Override
+  public synchronized void receive(byte[] packet) throws IOException {
+    ensureOpen();
+    if (output.isEmpty()) {
+      Ctap2Authenticator.Response response = pending;
+      if (response == null) {
+        throw new IOException("No response to receive");
+      }
+      if (response.needsTouch() && !cancelled && keepAlivesSent < simulator.getKeepAliveCount()) {
+        waitForKeepAlive();
+        keepAlivesSent++;
+        output.add(initPacket(pendingChannel, CTAPHID_KEEPALIVE, new byte[] {STATUS_UPNEEDED}));
+      } else {
+        pending = null;
+        byte[] result =
+            response.needsTouch() && cancelled
+                ? new byte[] {CtapException.ERR_KEEPALIVE_CANCEL}
+                : authenticator.complete(response);
+        sendResponse(pendingChannel, CTAPHID_CBOR, result);
+      }
+    }
+    byte[] next = output.remove();
+    latency.await(next.length);
+    System.arraycopy(next, 0, packet, 0, next.length);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Connection is closed");
+    }
+  }
+
+  private void dispatch(int channel, byte command, byte[] data) {
+    if (command == CTAPHID_INIT) {
+      if (data.length != 8) {
+        sendError(channel, ERR_INVALID_LEN);
+        return;
+      }
+      // INIT on an allocated channel synchronizes it, rather than allocating a new one
+      int newChannel = channel == BROADCAST_CHANNEL ? simulator.allocateChannel() : channel;
+      channels.add(newChannel);
+      Version version = simulator.getVersion();
+      sendResponse(
+          channel,
+          CTAPHID_INIT,
+          ByteBuffer.allocate(17)
+              .put(data)
+              .putInt(newChannel)
+              .put(U2FHID_PROTOCOL_VERSION)
+              .put(version.major)
+              .put(version.minor)
+              .put(version.micro)
+              .put((byte) (FidoProtocol.Capability.WINK | FidoProtocol.Capability.CBOR))
+              .array());
+      return;
+    }
+    if (!channels.contains(channel)) {
+      sendError(channel, ERR_INVALID_CHANNEL);
+      return;
+    }
+    switch (command) {
+      case CTAPHID_PING:
+        sendResponse(channel, command, data);
+        break;
+      case CTAPHID_WINK:
+        sendResponse(channel, command, new byte[0]);
+        break;
+      case CTAPHID_MSG:
+        sendResponse(
+            channel,
+            command,
+            new byte[] {(byte) (SW.INVALID_INSTRUCTION >> 8), (byte) SW.INVALID_INSTRUCTION});
+        break;
+      case CTAPHID_CBOR:
+        pending = authenticator.process(data);
+        pendingChannel = channel;
+        keepAlivesSent = 0;
+        cancelled = false;
+        break;
+      default:
+        sendError(channel, ERR_INVALID_CMD);
+    }
+  }
+
+  private void waitForKeepAlive() throws IOException {
+    try {
+      Thread.sleep(simulator.getKeepAliveIntervalMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for touch");
+    }
+  }
+
+  private void sendError(int channel, byte error) {
+    output.add(initPacket(channel, CTAPHID_ERROR, new byte[] {error}));
+  }
+
+  /** Splits a response into an initialization packet and continuation packets. */
+  private void sendResponse(int channel, byte command, byte[] data) {
+    output.add(initPacket(channel, command, data));
+    byte sequence = 0;
+    for (int offset = INIT_DATA_SIZE; offset < data.length; offset += CONTINUATION_DATA_SIZE) {
+      ByteBuffer packet = ByteBuffer.allocate(PACKET_SIZE).putInt(channel).put(sequence++);
+      packet.put(data, offset, Math.min(CONTINUATION_DATA_SIZE, data.length - offset));
+      output.add(packet.array());
+    }
+  }
+
+  private static byte[] initPacket(int channel, byte command, byte[] data) {
+    return ByteBuffer.allocate(PACKET_SIZE)
+        .putInt(channel)
+        .put(command)
+        .putShort((short) data.length)
+        .put(data, 0, Math.min(INIT_DATA_SIZE, data.length))
+        .array();
+  }
+}
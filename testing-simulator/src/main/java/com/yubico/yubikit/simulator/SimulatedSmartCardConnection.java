@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.smartcard.SmartCardConnection;
+import java.io.IOException;
+
+/**
+ * A connection to a {@link YubiKeySimulator}. Connections to the same simulator share its state,
+ * and their APDUs are processed one at a time.
+ */
+public class SimulatedSmartCardConnection implements SmartCardConnection {
+  private final YubiKeySimulator simulator;
+  private final Transport transport;
+  private final Latency latency;
+  private final boolean extendedLengthApdus;
+  private volatile boolean closed;
+
+  SimulatedSmartCardConnection(
+      YubiKeySimulator simulator,
+      Transport transport,
+      Latency latency,
+      boolean extendedLengthApdus) {
+    this.simulator = simulator;
+    this.transport = transport;
+    this.latency = latency;
+    this.extendedLengthApdus = extendedLengthApdus;
+  }
+
+  @Override
+  public byte[] sendAndReceive(byte[] apdu) throws IOException {
+    if (closed) {
+      throw new IOException("Connection is closed");
+    }
+    return simulator.transmit(apdu, extendedLengthApdus, latency);
+  }
+
+  @Override
+  public Transport getTransport() {
+    return transport;
+  }
+
+  @Override
+  public boolean isExtendedLengthApduSupported() {
+    return extendedLengthApdus;
+  }
+
+  @Override
+  public byte[] getAtr() {
+    return simulator.getAtr();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yubico.yubikit.simulator;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.Version;
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.SW;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A simulated YubiKey, with the PIV, OATH, Management and Security Domain applications accessed
+ * over CCID, and a CTAP2 authenticator accessed over HID.
+ *
+ * <p>The simulator handles SELECT, short and extended length APDUs, command chaining and response
+ * chaining the way a YubiKey does, so that {@code SmartCardProtocol} and the sessions built on it
+ * can be tested and benchmarked in-process, without a device. Connections are opened with {@link
+ * #openConnection(Transport, Latency)}, and share the state of the simulated YubiKey. FIDO
+ * connections, for {@code FidoProtocol} and the CTAP2 sessions, are opened with {@link
+ * #openFidoConnection(Latency)}.
+ *
+ * <p>Only the commands needed to use the applications are implemented. Attestation, biometrics, and
+ * Secure Channel Protocol are not supported. Operations requiring touch complete immediately,
+ * except for CTAP2 commands, which wait as set by {@link #setTouchKeepAlives(int, long)}. Data is
+ * kept in memory, and lost when the simulator is garbage collected.
+ */
+public class YubiKeySimulator {
+  /** The firmware version simulated by default. */
+  public static final Version DEFAULT_VERSION = new Version(5, 7, 2);
+
+  /** The serial number used by default. */
+  public static final int DEFAULT_SERIAL_NUMBER = 12345678;
+
+  private static final byte INS_SELECT = (byte) 0xa4;
+  private static final byte P1_SELECT_BY_AID = 0x04;
+  private static final int SHORT_RESPONSE_MAX = 256;
+  private static final int EXTENDED_RESPONSE_MAX = 65536;
+
+  private static final byte[] ATR =
+      new byte[] {
+        0x3b,
+        (byte) 0xfd,
+        0x13,
+        0x00,
+        0x00,
+        (byte) 0x81,
+        0x31,
+        (byte) 0xfe,
+        0x15,
+        (byte) 0x80,
+        0x73,
+        (byte) 0xc0,
+        0x21,
+        (byte) 0xc0,
+        0x57,
+        0x59,
+        0x75,
+        0x62,
+        0x69,
+        0x4b,
+        0x65,
+        0x79,
+        0x40
+      };
+
+  private final Version version;
+  private final int serialNumber;
+  private final List<Applet> applets;
+  private final Ctap2Authenticator authenticator;
+
+  private @Nullable Applet selected;
+  // Data of chained commands received so far, and the instruction they are for
+  private final ByteArrayOutputStream chainedData = new ByteArrayOutputStream();
+  private byte chainedIns;
+  // A response longer than the previous command allowed, read with the send remaining instruction
+  private byte @Nullable [] pendingResponse;
+  private int pendingOffset;
+  private long frameCount;
+  private int nextChannel = 1;
+  private volatile int keepAliveCount;
+  private volatile long keepAliveIntervalMillis = 100;
+
+  private static final Logger logger = LoggerFactory.getLogger(YubiKeySimulator.class);
+
+  /** Create a simulator using the default version and serial number. */
+  public YubiKeySimulator() {
+    this(DEFAULT_VERSION, DEFAULT_SERIAL_NUMBER);
+  }
+
+  /**
+   * Create a simulator.
+   *
+   * @param version the firmware version to report, which should be 4.0 or later
+   * @param serialNumber the serial number to report
+   */
+  public YubiKeySimulator(Version version, int serialNumber) {
+    this.version = version;
+    this.serialNumber = serialNumber;
+    List<Applet> applets = new ArrayList<>();
+    applets.add(new ManagementApplet(this));
+    applets.add(new PivApplet(this));
+    applets.add(new OathApplet(this));
+    applets.add(new SecurityDomainApplet());
+    this.applets = Collections.unmodifiableList(applets);
+    this.authenticator = new Ctap2Authenticator(version);
+  }
+
+  /** Returns the simulated firmware version. */
+  public Version getVersion() {
+    return version;
+  }
+
+  /** Returns the simulated serial number. */
+  public int getSerialNumber() {
+    return serialNumber;
+  }
+
+  /** Returns the ATR reported by connections to the simulator. */
+  public byte[] getAtr() {
+    return Arrays.copyOf(ATR, ATR.length);
+  }
+
+  /**
+   * Opens a connection without added latency, supporting extended length APDUs.
+   *
+   * @param transport the transport to report
+   * @return a new connection
+   */
+  public SimulatedSmartCardConnection openConnection(Transport transport) {
+    return openConnection(transport, Latency.NONE);
+  }
+
+  /**
+   * Opens a connection supporting extended length APDUs.
+   *
+   * @param transport the transport to report
+   * @param latency the time taken by each APDU exchange
+   * @return a new connection
+   */
+  public SimulatedSmartCardConnection openConnection(Transport transport, Latency latency) {
+    return openConnection(transport, latency, true);
+  }
+
+  /**
+   * Opens a connection.
+   *
+   * @param transport the transport to report
+   * @param latency the time taken by each APDU exchange
+   * @param extendedLengthApdus false to only accept short APDUs, which makes the SDK use command
+   *     and response chaining
+   * @return a new connection
+   */
+  public SimulatedSmartCardConnection openConnection(
+      Transport transport, Latency latency, boolean extendedLengthApdus) {
+    return new SimulatedSmartCardConnection(this, transport, latency, extendedLengthApdus);
+  }
+
+  /**
+   * Opens a FIDO HID connection without added latency.
+   *
+   * @return a new connection
+   */
+  public SimulatedFidoConnection openFidoConnection() {
+    return openFidoConnection(Latency.NONE);
+  }
+
+  /**
+   * Opens a FIDO HID connection.
+   *
+   * @param latency the time taken by each HID packet
+   * @return a new connection
+   */
+  public SimulatedFidoConnection openFidoConnection(Latency latency) {
+    return new SimulatedFidoConnection(this, authenticator, latency);
+  }
+
+  /**
+   * Sets how long CTAP2 commands requiring touch wait for it. While waiting, a KEEPALIVE packet
+   * saying that touch is needed is sent at each interval, and the command can be cancelled. By
+   * default no KEEPALIVE is sent, and such commands complete immediately.
+   *
+   * @param count the number of KEEPALIVE packets to send before touch is given
+   * @param intervalMillis the time before each KEEPALIVE packet, in milliseconds
+   */
+  public void setTouchKeepAlives(int count, long intervalMillis) {
+    if (count < 0 || intervalMillis < 0) {
+      throw new IllegalArgumentException("Keepalive count and interval must not be negative");
+    }
+    keepAliveCount = count;
+    keepAliveIntervalMillis = intervalMillis;
+  }
+
+  /** Returns the number of APDUs received, over all connections. */
+  public synchronized long getFrameCount() {
+    return frameCount;
+  }
+
+  /** Resets all applications, deleting all data, as done by a Management device reset. */
+  public synchronized void reset() {
+    logger.debug("Resetting all applications");
+    for (Applet applet : applets) {
+      applet.reset();
+    }
+    authenticator.reset();
+  }
+
+  /**
+   * Processes a single command APDU, and returns the response including the status word. Blocks for
+   * the given latency, during which no other APDU is processed, as with a real reader.
+   */
+  synchronized byte[] transmit(byte[] apdu, boolean extendedLengthApdus, Latency latency) {
+    frameCount++;
+    byte[] response = process(apdu, extendedLengthApdus);
+    latency.await(apdu.length + response.length);
+    return response;
+  }
+
+  private byte[] process(byte[] apdu, boolean extendedLengthApdus) {
+    try {
+      CommandApdu command = CommandApdu.parse(apdu);
+      if (command.extended && !extendedLengthApdus) {
+        throw Applet.error(SW.WRONG_LENGTH);
+      }
+
+      Applet applet = selected;
+      byte[] pending = pendingResponse;
+      if (pending != null && applet != null && command.ins == applet.getSendRemainingIns()) {
+        return nextResponseFrame(pending, command);
+      }
+      pendingResponse = null;
+
+      if ((command.cla & 0x10) != 0) {
+        // Command chaining, keep the data until the last command of the chain
+        if (chainedData.size() > 0 && chainedIns != command.ins) {
+          chainedData.reset();
+        }
+        chainedIns = command.ins;
+        chainedData.write(command.data, 0, command.data.length);
+        return statusWord(SW.OK);
+      }
+      if (chainedData.size() > 0) {
+        if (chainedIns == command.ins) {
+          chainedData.write(command.data, 0, command.data.length);
+          command = command.withData(chainedData.toByteArray());
+        }
+        chainedData.reset();
+      }
+
+      byte[] data;
+      if (command.ins == INS_SELECT && command.p1 == P1_SELECT_BY_AID) {
+        data = select(command.data);
+      } else if (applet != null) {
+        data = applet.process(command);
+      } else {
+        throw Applet.error(SW.INVALID_INSTRUCTION);
+      }
+      pendingOffset = 0;
+      return nextResponseFrame(data, command);
+    } catch (ApduException e) {
+      chainedData.reset();
+      pendingResponse = null;
+      return statusWord(e.getSw());
+    } catch (RuntimeException e) {
+      // Malformed command data, such as invalid TLVs
+      logger.debug("Failed to process command", e);
+      chainedData.reset();
+      pendingResponse = null;
+      return statusWord(SW.INCORRECT_PARAMETERS);
+    }
+  }
+
+  private byte[] select(byte[] aid) throws ApduException {
+    Applet previous = selected;
+    if (previous != null) {
+      previous.deselect();
+      selected = null;
+    }
+    for (Applet applet : applets) {
+      byte[] appletAid = applet.getAid();
+      if (aid.length > 0
+          && aid.length <= appletAid.length
+          && Arrays.equals(aid, Arrays.copyOf(appletAid, aid.length))) {
+        byte[] response = applet.select();
+        selected = applet;
+        return response;
+      }
+    }
+    throw Applet.error(SW.FILE_NOT_FOUND);
+  }
+
+  /** Returns as much of the response as the command allows, with a 61XX status if more remains. */
+  private byte[] nextResponseFrame(byte[] data, CommandApdu command) {
+    int maxLength = command.maxResponseLength;
+    if (maxLength == 0) {
+      maxLength = command.extended ? EXTENDED_RESPONSE_MAX : SHORT_RESPONSE_MAX;
+    }
+    int length = Math.min(data.length - pendingOffset, maxLength);
+    byte[] frame = Arrays.copyOfRange(data, pendingOffset, pendingOffset + length + 2);
+    pendingOffset += length;
+    int remaining = data.length - pendingOffset;
+    if (remaining > 0) {
+      pendingResponse = data;
+      frame[length] = 0x61;
+      frame[length + 1] = (byte) Math.min(remaining, 0xff);
+    } else {
+      pendingResponse = null;
+      frame[length] = (byte) (SW.OK >> 8);
+      frame[length + 1] = (byte) SW.OK;
+    }
+    return frame;
+  }
+
+  private static byte[] statusWord(short sw) {
+    return new byte[] {(byte) (sw >> 8), (byte) sw};
+  }
+
+  /** Returns the capabilities reported in the device info, one bit per application. */
+  int getCapabilities(Transport transport) {
+    // PIV and OATH, which are the applications that are simulated, and FIDO2 over HID
+    return 0x10 | 0x20 | (transport == Transport.USB ? 0x200 : 0);
+  }
+
+  int getKeepAliveCount() {
+    return keepAliveCount;
+  }
+
+  long getKeepAliveIntervalMillis() {
+    return keepAliveIntervalMillis;
+  }
+
+  /** Returns a new CTAPHID channel ID, unique among all connections. */
+  synchronized int allocateChannel() {
+    return nextChannel++;
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.yubico.yubikit.core.application.CommandState;
+import com.yubico.yubikit.core.fido.CtapException;
+import com.yubico.yubikit.core.fido.FidoProtocol;
+import com.yubico.yubikit.fido.Cose;
+import com.yubico.yubikit.fido.client.AuthInvalidClientError;
+import com.yubico.yubikit.fido.client.Ctap2Client;
+import com.yubico.yubikit.fido.client.clientdata.ClientDataProvider;
+import com.yubico.yubikit.fido.ctap.ClientPin;
+import com.yubico.yubikit.fido.ctap.CredentialManagement;
+import com.yubico.yubikit.fido.ctap.Ctap2Session;
+import com.yubico.yubikit.fido.ctap.PinUvAuthProtocol;
+import com.yubico.yubikit.fido.ctap.PinUvAuthProtocolV2;
+import com.yubico.yubikit.fido.webauthn.AuthenticatorData;
+import com.yubico.yubikit.fido.webauthn.PublicKeyCredentialCreationOptions;
+import com.yubico.yubikit.fido.webauthn.PublicKeyCredentialParameters;
+import com.yubico.yubikit.fido.webauthn.PublicKeyCredentialRpEntity;
+import com.yubico.yubikit.fido.webauthn.PublicKeyCredentialUserEntity;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jspecify.annotations.Nullable;
+import org.junit.Test;
+
+public class SimulatedFidoConnectionTest {
+  private static final int ES256 = -7;
+  private static final int EDDSA = -8;
+  private static final String RP_ID = "example.com";
+  private static final byte[] CLIENT_DATA_HASH = new byte[32];
+  private static final char[] PIN = "11234567".toCharArray();
+
+  private final YubiKeySimulator simulator = new YubiKeySimulator();
+
+  @Test
+  public void registersAndAuthenticates() throws Exception {
+    try (Ctap2Session session = new Ctap2Session(simulator.openFidoConnection())) {
+      Ctap2Session.InfoData info = session.getCachedInfo();
+      assertTrue(info.getVersions().contains("FIDO_2_1"));
+
+      // The parsed list holds the CBOR maps, despite its declared type
+      for (Object params : info.getAlgorithms()) {
+        int alg = (Integer) ((Map<?, ?>) params).get("alg");
+        Ctap2Session.CredentialData credential =
+            session.makeCredential(
+                CLIENT_DATA_HASH,
+                rp(),
+                user("user"),
+                Collections.singletonList(param(alg)),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null);
+        assertEquals("packed", credential.getFormat());
+        AuthenticatorData authData =
+            AuthenticatorData.parseFrom(ByteBuffer.wrap(credential.getAuthenticatorData()));
+        assertTrue(authData.isUp());
+        assertFalse(authData.isUv());
+        PublicKey publicKey =
+            Cose.getPublicKey(authData.getAttestedCredentialData().getCosePublicKey());
+        verify(
+            alg,
+            publicKey,
+            credential.getAuthenticatorData(),
+            (byte[]) credential.getAttestationStatement().get("sig"));
+
+        byte[] credentialId = authData.getAttestedCredentialData().getCredentialId();
+        List<Ctap2Session.AssertionData> assertions =
+            session.getAssertions(
+                RP_ID,
+                CLIENT_DATA_HASH,
+                Collections.singletonList(descriptor(credentialId)),
+                null,
+                null,
+                null,
+                null,
+                null);
+        assertEquals(1, assertions.size());
+        Ctap2Session.AssertionData assertion = assertions.get(0);
+        assertArrayEquals(credentialId, (byte[]) assertion.getCredential().get("id"));
+        verify(alg, publicKey, assertion.getAuthenticatorData(), assertion.getSignature());
+      }
+    }
+  }
+
+  @Test
+  public void managesResidentCredentialsWithPin() throws Exception {
+    try (Ctap2Session session = new Ctap2Session(simulator.openFidoConnection())) {
+      PinUvAuthProtocol protocol = new PinUvAuthProtocolV2();
+      ClientPin clientPin = new ClientPin(session, protocol);
+      clientPin.setPin(PIN);
+      assertEquals(8, clientPin.getPinRetries().getCount());
+
+      try {
+        makeResidentCredential(session, null, null, "nobody");
+        fail("Expected PUAT_REQUIRED");
+      } catch (CtapException e) {
+        assertEquals(CtapException.ERR_PUAT_REQUIRED, e.getCtapError());
+      }
+
+      byte[] token =
+          clientPin.getPinToken(
+              PIN, ClientPin.PIN_PERMISSION_MC | ClientPin.PIN_PERMISSION_GA, RP_ID);
+      byte[] pinUvAuthParam = protocol.authenticate(token, CLIENT_DATA_HASH);
+      makeResidentCredential(session, protocol, pinUvAuthParam, "alice");
+      makeResidentCredential(session, protocol, pinUvAuthParam, "bob");
+
+      List<Ctap2Session.AssertionData> assertions =
+          session.getAssertions(
+              RP_ID,
+              CLIENT_DATA_HASH,
+              null,
+              null,
+              null,
+              pinUvAuthParam,
+              protocol.getVersion(),
+              null);
+      assertEquals(2, assertions.size());
+      assertEquals("bob", assertions.get(0).getUser().get("name"));
+      assertEquals("alice", assertions.get(1).getUser().get("name"));
+
+      try {
+        clientPin.getPinToken("87654321".toCharArray(), ClientPin.PIN_PERMISSION_CM, null);
+        fail("Expected PIN_INVALID");
+      } catch (CtapException e) {
+        assertEquals(CtapException.ERR_PIN_INVALID, e.getCtapError());
+      }
+      assertEquals(7, clientPin.getPinRetries().getCount());
+
+      CredentialManagement credMgmt =
+          new CredentialManagement(
+              session, protocol, clientPin.getPinToken(PIN, ClientPin.PIN_PERMISSION_CM, null));
+      assertEquals(2, credMgmt.getMetadata().getExistingResidentCredentialsCount());
+      List<CredentialManagement.RpData> rps = credMgmt.enumerateRps();
+      assertEquals(1, rps.size());
+      assertEquals(RP_ID, rps.get(0).getRp().get("id"));
+
+      List<CredentialManagement.CredentialData> credentials =
+          credMgmt.enumerateCredentials(rps.get(0).getRpIdHash());
+      assertEquals(2, credentials.size());
+      credMgmt.deleteCredential(credentials.get(0).getCredentialId());
+      assertEquals(1, credMgmt.getMetadata().getExistingResidentCredentialsCount());
+    }
+  }
+
+  @Test
+  public void rejectsExcludedCredential() throws Exception {
+    try (Ctap2Session session = new Ctap2Session(simulator.openFidoConnection())) {
+      Ctap2Session.CredentialData credential =
+          session.makeCredential(
+              CLIENT_DATA_HASH,
+              rp(),
+              user("user"),
+              Collections.singletonList(param(ES256)),
+              null,
+              null,
+              null,
+              null,
+              null,
+              null,
+              null);
+      byte[] credentialId =
+          AuthenticatorData.parseFrom(ByteBuffer.wrap(credential.getAuthenticatorData()))
+              .getAttestedCredentialData()
+              .getCredentialId();
+      try {
+        session.makeCredential(
+            CLIENT_DATA_HASH,
+            rp(),
+            user("user"),
+            Collections.singletonList(param(ES256)),
+            Collections.singletonList(descriptor(credentialId)),
+            null,
+            null,
+            null,
+            null,
+            null,
+            null);
+        fail("Expected CREDENTIAL_EXCLUDED");
+      } catch (CtapException e) {
+        assertEquals(CtapException.ERR_CREDENTIAL_EXCLUDED, e.getCtapError());
+      }
+    }
+  }
+
+  @Test
+  public void sendsKeepAlivesAndCancels() throws Exception {
+    simulator.setTouchKeepAlives(3, 0);
+    try (Ctap2Session session = new Ctap2Session(simulator.openFidoConnection())) {
+      AtomicInteger keepAlives = new AtomicInteger();
+      CommandState counting =
+          new CommandState() {
+            @Override
+            public void onKeepAliveStatus(byte status) {
+              keepAlives.incrementAndGet();
+            }
+          };
+      makeCredential(session, counting);
+      assertEquals(3, keepAlives.get());
+
+      CommandState cancelling =
+          new CommandState() {
+            @Override
+            public void onKeepAliveStatus(byte status) {
+              cancel();
+            }
+          };
+      try {
+        makeCredential(session, cancelling);
+        fail("Expected KEEPALIVE_CANCEL");
+      } catch (CtapException e) {
+        assertEquals(CtapException.ERR_KEEPALIVE_CANCEL, e.getCtapError());
+      }
+    }
+  }
+
+  @Test
+  public void echoesPing() throws Exception {
+    byte[] payload = new byte[300];
+    for (int i = 0; i < payload.length; i++) {
+      payload[i] = (byte) i;
+    }
+    try (FidoProtocol protocol = new FidoProtocol(simulator.openFidoConnection())) {
+      assertArrayEquals(payload, protocol.sendAndReceive((byte) 0x81, payload, null));
+    }
+  }
+
+  private static void makeCredential(Ctap2Session session, CommandState state) throws Exception {
+    session.makeCredential(
+        CLIENT_DATA_HASH,
+        rp(),
+        user("user"),
+        Collections.singletonList(param(ES256)),
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        state);
+  }
+
+  @Test
+  public void cachedTokenIsNotUsedForWrongPin() throws Exception {
+    try (Ctap2Session session = new Ctap2Session(simulator.openFidoConnection())) {
+      Ctap2Client client = new Ctap2Client(session);
+      client.setPin(PIN);
+      client.setPinUvAuthTokenCacheEnabled(true);
+      PublicKeyCredentialCreationOptions options =
+          new PublicKeyCredentialCreationOptions(
+              new PublicKeyCredentialRpEntity("Example", RP_ID),
+              new PublicKeyCredentialUserEntity("user", new byte[] {1}, "User"),
+              new byte[32],
+              Collections.singletonList(new PublicKeyCredentialParameters("public-key", ES256)),
+              null,
+              null,
+              null,
+              null,
+              null);
+      ClientDataProvider clientData = ClientDataProvider.fromHash(CLIENT_DATA_HASH);
+
+      // Warm the cache with a token for the correct PIN
+      client.makeCredential(clientData, options, RP_ID, PIN, null, null);
+
+      try {
+        client.makeCredential(clientData, options, RP_ID, "87654321".toCharArray(), null, null);
+        fail("Expected the wrong PIN to be rejected");
+      } catch (AuthInvalidClientError e) {
+        assertEquals(AuthInvalidClientError.AuthType.PIN, e.authType);
+      }
+
+      // The correct PIN still works after the failure
+      client.makeCredential(clientData, options, RP_ID, PIN, null, null);
+    }
+  }
+
+  private static void makeResidentCredential(
+      Ctap2Session session,
+      @Nullable PinUvAuthProtocol protocol,
+      byte @Nullable [] pinUvAuthParam,
+      String name)
+      throws Exception {
+    session.makeCredential(
+        CLIENT_DATA_HASH,
+        rp(),
+        user(name),
+        Collections.singletonList(param(ES256)),
+        null,
+        null,
+        Collections.singletonMap("rk", true),
+        pinUvAuthParam,
+        protocol != null ? protocol.getVersion() : null,
+        null,
+        null);
+  }
+
+  private static void verify(int alg, PublicKey publicKey, byte[] authData, byte[] signature)
+      throws Exception {
+    Signature verifier = Signature.getInstance(alg == EDDSA ? "Ed25519" : "SHA256withECDSA");
+    verifier.initVerify(publicKey);
+    verifier.update(authData);
+    verifier.update(CLIENT_DATA_HASH);
+    assertTrue(verifier.verify(signature));
+  }
+
+  private static Map<String, ?> rp() {
+    Map<String, Object> rp = new HashMap<>();
+    rp.put("id", RP_ID);
+    rp.put("name", "Example");
+    return rp;
+  }
+
+  private static Map<String, ?> user(String name) {
+    Map<String, Object> user = new HashMap<>();
+    user.put("id", name.getBytes(StandardCharsets.UTF_8));
+    user.put("name", name);
+    return user;
+  }
+
+  private static Map<String, ?> param(int alg) {
+    Map<String, Object> param = new HashMap<>();
+    param.put("type", "public-key");
+    param.put("alg", alg);
+    return param;
+  }
+
+  private static Map<String, ?> descriptor(byte[] credentialId) {
+    Map<String, Object> descriptor = new HashMap<>();
+    descriptor.put("type", "public-key");
+    descriptor.put("id", credentialId);
+    return descriptor;
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2026 Yubico.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yubico.yubikit.simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.yubico.yubikit.core.Transport;
+import com.yubico.yubikit.core.application.InvalidPinException;
+import com.yubico.yubikit.core.keys.PublicKeyValues;
+import com.yubico.yubikit.core.smartcard.ApduException;
+import com.yubico.yubikit.core.smartcard.SW;
+import com.yubico.yubikit.core.smartcard.SmartCardConnection;
+import com.yubico.yubikit.core.smartcard.scp.KeyRef;
+import com.yubico.yubikit.core.smartcard.scp.SecurityDomainSession;
+import com.yubico.yubikit.management.DeviceInfo;
+import com.yubico.yubikit.management.ManagementSession;
+import com.yubico.yubikit.oath.Code;
+import com.yubico.yubikit.oath.Credential;
+import com.yubico.yubikit.oath.CredentialData;
+import com.yubico.yubikit.oath.HashAlgorithm;
+import com.yubico.yubikit.oath.OathSession;
+import com.yubico.yubikit.oath.OathType;
+import com.yubico.yubikit.piv.KeyType;
+import com.yubico.yubikit.piv.ManagementKeyType;
+import com.yubico.yubikit.piv.PinPolicy;
+import com.yubico.yubikit.piv.PivSession;
+import com.yubico.yubikit.piv.Slot;
+import com.yubico.yubikit.piv.TouchPolicy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Test;
+
+public class YubiKeySimulatorTest {
+  private static final byte[] DEFAULT_MANAGEMENT_KEY =
+      new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4, 5, 6, 7, 8};
+  private static final byte[] RFC_SECRET = "12345678901234567890".getBytes(StandardCharsets.UTF_8);
+
+  private final YubiKeySimulator simulator = new YubiKeySimulator();
+
+  @Test
+  public void readsDeviceInfo() throws Exception {
+    try (ManagementSession session =
+        new ManagementSession(simulator.openConnection(Transport.USB))) {
+      assertEquals(YubiKeySimulator.DEFAULT_VERSION, session.getVersion());
+      DeviceInfo info = session.getDeviceInfo();
+      assertEquals(Integer.valueOf(YubiKeySimulator.DEFAULT_SERIAL_NUMBER), info.getSerialNumber());
+      assertEquals(YubiKeySimulator.DEFAULT_VERSION, info.getVersion());
+      assertEquals(0x230, info.getSupportedCapabilities(Transport.USB));
+    }
+  }
+
+  @Test
+  public void signsWithGeneratedPivKey() throws Exception {
+    for (boolean extended : new boolean[] {true, false}) {
+      simulator.reset();
+      try (PivSession piv =
+          new PivSession(simulator.openConnection(Transport.USB, Latency.NONE, extended))) {
+        assertEquals(ManagementKeyType.AES192, piv.getManagementKeyType());
+        piv.authenticate(DEFAULT_MANAGEMENT_KEY);
+        for (KeyType keyType : new KeyType[] {KeyType.ECCP256, KeyType.RSA2048}) {
+          PublicKeyValues publicKey =
+              piv.generateKey(Slot.SIGNATURE, keyType, PinPolicy.ONCE, TouchPolicy.NEVER);
+          assertEquals(keyType, piv.getSlotMetadata(Slot.SIGNATURE).getKeyType());
+
+          byte[] message = "message".getBytes(StandardCharsets.UTF_8);
+          byte[] hash = MessageDigest.getInstance("SHA-256").digest(message);
+          piv.verifyPin("123456".toCharArray());
+          Signature verifier;
+          byte[] signature;
+          if (keyType == KeyType.ECCP256) {
+            signature = piv.rawSignOrDecrypt(Slot.SIGNATURE, keyType, hash);
+            verifier = Signature.getInstance("SHA256withECDSA");
+          } else {
+            signature = piv.rawSignOrDecrypt(Slot.SIGNATURE, keyType, pkcs1(hash, 256));
+            verifier = Signature.getInstance("SHA256withRSA");
+          }
+          verifier.initVerify(publicKey.toPublicKey());
+          verifier.update(message);
+          assertTrue(verifier.verify(signature));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void chainsLargeObjectsOverShortApdus() throws Exception {
+    byte[] data = new byte[2000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    try (PivSession piv =
+        new PivSession(simulator.openConnection(Transport.NFC, Latency.NONE, false))) {
+      piv.authenticate(DEFAULT_MANAGEMENT_KEY);
+      long frames = simulator.getFrameCount();
+      piv.putObject(0x5fc105, data);
+      // Command chaining, 255 bytes at a time
+      assertEquals(8, simulator.getFrameCount() - frames);
+
+      frames = simulator.getFrameCount();
+      assertArrayEquals(data, piv.getObject(0x5fc105));
+      // Response chaining, 256 bytes at a time
+      assertEquals(8, simulator.getFrameCount() - frames);
+    }
+  }
+
+  @Test
+  public void blocksPinAfterRetries() throws Exception {
+    try (PivSession piv = new PivSession(simulator.openConnection(Transport.USB))) {
+      for (int remaining = 2; remaining >= 0; remaining--) {
+        try {
+          piv.verifyPin("000000".toCharArray());
+          fail("Wrong PIN accepted");
+        } catch (InvalidPinException e) {
+          assertEquals(remaining, e.getAttemptsRemaining());
+        }
+      }
+      try {
+        piv.verifyPin("123456".toCharArray());
+        fail("Blocked PIN accepted");
+      } catch (InvalidPinException e) {
+        assertEquals(0, e.getAttemptsRemaining());
+      }
+    }
+  }
+
+  @Test
+  public void calculatesOathCodes() throws Exception {
+    try (OathSession oath = new OathSession(simulator.openConnection(Transport.USB))) {
+      Credential hotp =
+          oath.putCredential(
+              new CredentialData(
+                  "hotp", OathType.HOTP, HashAlgorithm.SHA1, RFC_SECRET, 6, 0, 0, null),
+              false);
+      oath.putCredential(
+          new CredentialData(
+              "totp", OathType.TOTP, HashAlgorithm.SHA1, RFC_SECRET, 8, 30, 0, "Test"),
+          false);
+      assertEquals(2, oath.getCredentials().size());
+
+      // Test vectors from RFC 4226 and RFC 6238
+      assertEquals("755224", oath.calculateCode(hotp).getValue());
+      assertEquals("287082", oath.calculateCode(hotp).getValue());
+      Map<Credential, Code> codes = oath.calculateCodes(59_000);
+      for (Map.Entry<Credential, Code> entry : codes.entrySet()) {
+        if (entry.getKey().getOathType() == OathType.TOTP) {
+          assertEquals("94287082", entry.getValue().getValue());
+        } else {
+          assertNull(entry.getValue());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void requiresOathPassword() throws Exception {
+    char[] password = "password".toCharArray();
+    try (OathSession oath = new OathSession(simulator.openConnection(Transport.USB))) {
+      oath.setPassword(password);
+    }
+    try (OathSession oath = new OathSession(simulator.openConnection(Transport.USB))) {
+      assertTrue(oath.isLocked());
+      try {
+        oath.getCredentials();
+        fail("Listed credentials while locked");
+      } catch (ApduException e) {
+        assertEquals(SW.SECURITY_CONDITION_NOT_SATISFIED, e.getSw());
+      }
+      assertFalse(oath.unlock("wrong".toCharArray()));
+      assertTrue(oath.unlock(password));
+      assertTrue(oath.getCredentials().isEmpty());
+    }
+  }
+
+  @Test
+  public void readsSecurityDomainKeyInformation() throws Exception {
+    try (SecurityDomainSession session =
+        new SecurityDomainSession(simulator.openConnection(Transport.USB))) {
+      assertEquals(
+          Arrays.asList(new KeyRef((byte) 0x01, (byte) 0xff)),
+          Arrays.asList(session.getKeyInformation().keySet().toArray()));
+    }
+  }
+
+  @Test
+  public void rejectsUnknownApplication() throws Exception {
+    SmartCardConnection connection = simulator.openConnection(Transport.USB);
+    byte[] response = connection.sendAndReceive(new byte[] {0, (byte) 0xa4, 4, 0, 2, 1, 2});
+    assertArrayEquals(new byte[] {0x6a, (byte) 0x82}, response);
+  }
+
+  /** Pads a SHA-256 hash for RSA signing, using PKCS#1 v1.5. */
+  private static byte[] pkcs1(byte[] hash, int length) {
+    byte[] digestInfo = {
+      0x30,
+      0x31,
+      0x30,
+      0x0d,
+      0x06,
+      0x09,
+      0x60,
+      (byte) 0x86,
+      0x48,
+      0x01,
+      0x65,
+      0x03,
+      0x04,
+      0x02,
+      0x01,
+      0x05,
+      0x00,
+      0x04,
+      0x20
+    };
+    byte[] padded = new byte[length];
+    Arrays.fill(padded, (byte) 0xff);
+    padded[0] = 0;
+    padded[1] = 1;
+    int offset = length - digestInfo.length - hash.length;
+    padded[offset - 1] = 0;
+    System.arraycopy(digestInfo, 0, padded, offset, digestInfo.length);
+    System.arraycopy(hash, 0, padded, offset + digestInfo.length, hash.length);
+    return padded;
+  }
+}
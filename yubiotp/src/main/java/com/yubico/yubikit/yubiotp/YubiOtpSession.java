@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2019-2025 Yubico.
+ * Copyright (C) 2019-2026 Yubico.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,7 @@ import com.yubico.yubikit.core.application.Feature;
 import com.yubico.yubikit.core.otp.ChecksumUtils;
 import com.yubico.yubikit.core.otp.OtpConnection;
 import com.yubico.yubikit.core.otp.OtpProtocol;
+import com.yubico.yubikit.core.otp.OtpWaitStrategy;
 import com.yubico.yubikit.core.smartcard.Apdu;
 import com.yubico.yubikit.core.smartcard.ApduException;
 import com.yubico.yubikit.core.smartcard.AppId;
@@ -254,6 +255,18 @@ public class YubiOtpSession extends ApplicationSession<YubiOtpSession> {
     this(new OtpProtocol(connection));
   }
 
+  /**
+   * Create new instance of {@link YubiOtpSession} using an {@link OtpConnection}, polling the
+   * YubiKey according to the given strategy.
+   *
+   * @param connection an OtpConnection with YubiKey
+   * @param waitStrategy how to wait for the YubiKey while it is busy or waiting for touch
+   * @throws IOException in case of connection error
+   */
+  public YubiOtpSession(OtpConnection connection, OtpWaitStrategy waitStrategy) throws IOException {
+    this(new OtpProtocol(connection, waitStrategy));
+  }
+
   public YubiOtpSession(OtpProtocol protocol) throws IOException {
     byte[] statusBytes = protocol.readStatus();
     Version version = protocol.getVersion();